@@ -0,0 +1,36 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.PocketSiemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts the real application for benchmarks that need wired beans: random port,
+ * a private in-memory database, quiet logging and no persistent state.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID());
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.hackathon.pocketSIEM", "WARN");
+        properties.put("app.indicator-filter.snapshot-path",
+            Path.of(System.getProperty("java.io.tmpdir"), "pocketsiem-bench-" + UUID.randomUUID() + ".bin").toString());
+        properties.put("app.store.log-directory",
+            Path.of(System.getProperty("java.io.tmpdir"), "pocketsiem-bench-log-" + UUID.randomUUID()).toString());
+        properties.putAll(overrides);
+        return new SpringApplicationBuilder(PocketSiemApplication.class)
+            .properties(properties)
+            .run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.correlation.CorrelationEngine;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost the default correlation rules add to each accepted report, cycling through
+ * {@code reportCount} reports from the last 10 minutes so both rules hold warm
+ * state for every key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CorrelationBenchmark {
+
+    @Param({"1000000"})
+    public int reportCount;
+
+    private CorrelationEngine engine;
+    private ThreatReport[] reports;
+    private final LongAdder alerts = new LongAdder();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new CorrelationEngine(new CorrelationProperties(), alert -> alerts.increment(), new SimpleMeterRegistry());
+        ReportDataGenerator generator = new ReportDataGenerator(42, 1_000, 200, 50_000,
+            LocalDateTime.now(), Duration.ofMinutes(10));
+        reports = new ThreatReport[reportCount];
+        for (int i = 0; i < reportCount; i++) {
+            reports[i] = generator.nextReport();
+            engine.onReportAccepted(reports[i]);
+        }
+    }
+
+    @Benchmark
+    public ThreatReport evaluateReport() {
+        ThreatReport report = reports[next];
+        next = next + 1 == reports.length ? 0 : next + 1;
+        engine.onReportAccepted(report);
+        return report;
+    }
+}
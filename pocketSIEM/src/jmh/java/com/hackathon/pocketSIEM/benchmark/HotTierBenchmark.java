@@ -0,0 +1,88 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.analytics.HotReportTier;
+import com.hackathon.pocketSIEM.dto.AttackSurfaceDataPoint;
+import com.hackathon.pocketSIEM.dto.ReportAnalyticsResponse;
+import com.hackathon.pocketSIEM.service.ThreatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analytics scans over the columnar hot tier after {@code reportCount} reports from
+ * the last 24 hours were appended, single-threaded and across chunks in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HotTierBenchmark {
+
+    private static final Duration DAY = Duration.ofHours(24);
+
+    @Param({"1000000", "10000000"})
+    public int reportCount;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private ConfigurableApplicationContext context;
+    private ThreatService threatService;
+    private String hotIp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of("app.hot-tier.parallel", String.valueOf(parallel)));
+        threatService = context.getBean(ThreatService.class);
+
+        HotReportTier tier = context.getBean(HotReportTier.class);
+        ReportDataGenerator generator = ReportDataGenerator.standard(42);
+        hotIp = generator.targetIps()[0];
+        for (int i = 0; i < reportCount; i++) {
+            tier.onReportAccepted(generator.nextReport());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReportAnalyticsResponse deviceDay() {
+        return threatService.getAnalytics(HotReportTier.Dimension.DEVICE, "device-7", DAY);
+    }
+
+    @Benchmark
+    public ReportAnalyticsResponse ipDay() {
+        return threatService.getAnalytics(HotReportTier.Dimension.IP, hotIp, DAY);
+    }
+
+    @Benchmark
+    public ReportAnalyticsResponse appDay() {
+        return threatService.getAnalytics(HotReportTier.Dimension.APP, "app-7", DAY);
+    }
+
+    @Benchmark
+    public List<AttackSurfaceDataPoint> deviceAttackSurfaceDay() {
+        return threatService.getAttackSurfaceData(DAY, Duration.ofHours(1), "device-7");
+    }
+}
@@ -0,0 +1,95 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.pocketSIEM.dto.BulkIngestResponse;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.service.ThreatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report ingestion through ThreatService with synchronous persistence, so each
+ * operation includes validation, the store write and the listener fan-out; run
+ * once per report store backend.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    private static final int BULK_LINES = 10_000;
+
+    @Param({"jpa", "log"})
+    public String backend;
+
+    private ConfigurableApplicationContext context;
+    private ThreatService threatService;
+    private Collection<ThreatReportListener> listeners;
+    private ReportDataGenerator generator;
+    private byte[] bulkBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start(Map.of("app.ingest.mode", "sync", "app.store.backend", backend));
+        threatService = context.getBean(ThreatService.class);
+        listeners = context.getBeansOfType(ThreatReportListener.class).values();
+        generator = ReportDataGenerator.standard(7);
+
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < BULK_LINES; i++) {
+            ndjson.append(objectMapper.writeValueAsString(generator.nextRequest())).append('\n');
+        }
+        bulkBody = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ThreatReport reportThreat() {
+        return threatService.reportThreat(generator.nextRequest());
+    }
+
+    /** One operation imports all {@value #BULK_LINES} lines */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BulkIngestResponse importReports() throws IOException {
+        return threatService.importReports(new ByteArrayInputStream(bulkBody));
+    }
+
+    @Benchmark
+    public void listenerFanOut(Blackhole blackhole) {
+        ThreatReport report = generator.nextReport();
+        for (ThreatReportListener listener : listeners) {
+            listener.onReportAccepted(report);
+        }
+        blackhole.consume(report);
+    }
+}
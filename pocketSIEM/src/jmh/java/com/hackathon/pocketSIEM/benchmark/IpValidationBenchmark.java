@@ -0,0 +1,73 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.net.IpAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IpAddress against the regexes ThreatController used before it, on a mix of
+ * IPv4, IPv6 and malformed input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IpValidationBenchmark {
+
+    private static final String LEGACY_IPV4 = "^((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}$";
+    private static final String LEGACY_IPV6 = "^("
+        + "([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|"
+        + "([0-9a-fA-F]{1,4}:){1,7}:|"
+        + "([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|"
+        + "::([0-9a-fA-F]{1,4}:){0,6}[0-9a-fA-F]{1,4}|"
+        + "([0-9a-fA-F]{1,4}:){1,6}:((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}"
+        + ")$";
+
+    private static final String[] INPUTS = {
+        "8.8.8.8", "185.220.101.45", "142.251.32.46", "10.0.0.1", "255.255.255.255",
+        "2001:4860:4860::8888", "2a00:1450:4001:82a::200e", "fe80::1", "::ffff:192.0.2.1",
+        "256.1.1.1", "not-an-ip", "1.2.3", "2001:db8:::1"
+    };
+
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        next = 0;
+    }
+
+    private String nextInput() {
+        String input = INPUTS[next];
+        next = next + 1 == INPUTS.length ? 0 : next + 1;
+        return input;
+    }
+
+    @Benchmark
+    public boolean legacyRegex() {
+        String ip = nextInput();
+        return ip.matches(LEGACY_IPV4) || ip.matches(LEGACY_IPV6);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return IpAddress.isValid(nextInput());
+    }
+
+    @Benchmark
+    public IpAddress tryParse() {
+        return IpAddress.tryParse(nextInput());
+    }
+}
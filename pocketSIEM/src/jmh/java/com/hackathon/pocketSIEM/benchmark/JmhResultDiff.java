@@ -0,0 +1,57 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files, e.g. from two commits, benchmark by benchmark:
+ * {@code java ... JmhResultDiff baseline.json candidate.json}.
+ * Scores are in each benchmark's own unit; for time-per-op modes lower is better.
+ */
+public final class JmhResultDiff {
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: JmhResultDiff <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> candidate = read(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s %s%n", "Benchmark", "Baseline", "Candidate", "Change", "Unit");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode after = entry.getValue().path("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey())
+                ? baseline.get(entry.getKey()).path("primaryMetric")
+                : null;
+            double score = after.path("score").asDouble();
+            String change = before == null
+                ? "new"
+                : String.format("%+.1f%%", (score / before.path("score").asDouble() - 1) * 100);
+            System.out.printf("%-70s %14s %14.3f %9s %s%n", entry.getKey(),
+                before == null ? "-" : String.format("%.3f", before.path("score").asDouble()),
+                score, change, after.path("scoreUnit").asText());
+        }
+    }
+
+    // Keyed by benchmark name plus its parameters, so @Param variants line up
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                .replace("com.hackathon.pocketSIEM.benchmark.", ""));
+            result.path("params").fields().forEachRemaining(param ->
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hackathon.pocketSIEM.dto.AttackSurfaceDataPoint;
+import com.hackathon.pocketSIEM.dto.DeviceStatsResponse;
+import com.hackathon.pocketSIEM.dto.ThreatReportRequest;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding of the API payloads, configured as Spring MVC configures it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter writer;
+    private ThreatReputationResponse reputation;
+    private DeviceStatsResponse deviceStats;
+    private List<AttackSurfaceDataPoint> attackSurface;
+    private List<ThreatReport> reportPage;
+    private byte[] reportRequestJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+
+        reputation = ThreatReputationResponse.builder()
+            .ipAddress("185.220.101.45")
+            .riskScore(85)
+            .category("Tor Exit")
+            .countryCode("DE")
+            .reportCount(42)
+            .lastSeen("2024-01-01T00:00:00")
+            .isVpn(false)
+            .isProxy(true)
+            .threatLevel("CRITICAL")
+            .build();
+        deviceStats = DeviceStatsResponse.builder()
+            .deviceTrustScore(87)
+            .appsMonitored(34)
+            .threatsBlocked(1_204)
+            .dataUsageBytes(512L * 1024 * 1024)
+            .criticalThreats(3)
+            .highThreats(17)
+            .suspiciousConnections(52)
+            .build();
+
+        attackSurface = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 24; i++) {
+            attackSurface.add(AttackSurfaceDataPoint.builder()
+                .timestamp(start + i * 3_600_000L)
+                .timeLabel(String.format("%02d:00", i))
+                .threatCount(i * 7)
+                .networkTraffic(i * 1_048_576L)
+                .build());
+        }
+
+        ReportDataGenerator generator = ReportDataGenerator.standard(3);
+        reportPage = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            ThreatReport report = generator.nextReport();
+            report.setId(id);
+            reportPage.add(report);
+        }
+        reportRequestJson = objectMapper.writeValueAsBytes(generator.nextRequest());
+    }
+
+    @Benchmark
+    public byte[] reputationResponse() throws IOException {
+        return writer.writeValueAsBytes(reputation);
+    }
+
+    @Benchmark
+    public byte[] deviceStatsResponse() throws IOException {
+        return writer.writeValueAsBytes(deviceStats);
+    }
+
+    @Benchmark
+    public byte[] attackSurfaceDay() throws IOException {
+        return writer.writeValueAsBytes(attackSurface);
+    }
+
+    /** One default-sized page of /reports/{ip} */
+    @Benchmark
+    public byte[] reportPage() throws IOException {
+        return writer.writeValueAsBytes(reportPage);
+    }
+
+    @Benchmark
+    public ThreatReportRequest readReportRequest() throws IOException {
+        return objectMapper.readValue(reportRequestJson, ThreatReportRequest.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.config.RateLimitProperties;
+import com.hackathon.pocketSIEM.security.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the rate limiter: route match, bucket lookup and one CAS,
+ * spread over a population of devices that all stay within budget.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateLimiterBenchmark {
+
+    private static final String[] PATHS = {
+        "/api/v1/reputation", "/api/v1/reputation/batch", "/api/v1/report", "/api/v1/device-stats"
+    };
+
+    @Param({"100", "100000"})
+    public int devices;
+
+    private RateLimiter limiter;
+    private String[] deviceIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRequestsPerSecond(1e9);
+        properties.setBurst(1_000_000);
+        properties.setRoutes(List.of(route("/api/v1/reputation/batch"), route("/api/v1/reputation"),
+            route("/api/v1/reports/bulk"), route("/api/v1/stream")));
+        limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+
+        deviceIds = new String[devices];
+        for (int i = 0; i < devices; i++) {
+            deviceIds[i] = "device-" + i;
+            deviceIds[i].hashCode();
+        }
+    }
+
+    private static RateLimitProperties.Route route(String path) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPath(path);
+        route.setRequestsPerSecond(1e9);
+        route.setBurst(1_000_000);
+        return route;
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        int i = next++;
+        if (next == deviceIds.length) {
+            next = 0;
+        }
+        return limiter.tryAcquire("GET", PATHS[i & 3], "api-key", deviceIds[i]);
+    }
+}
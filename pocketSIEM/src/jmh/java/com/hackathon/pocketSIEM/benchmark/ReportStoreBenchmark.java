@@ -0,0 +1,107 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+import com.hackathon.pocketSIEM.store.MinuteAggregate;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same reads and writes against each report store backend, after
+ * {@code reportCount} reports from the last 24 hours were stored in arrival order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReportStoreBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"jpa", "log"})
+    public String backend;
+
+    @Param({"200000"})
+    public int reportCount;
+
+    private ConfigurableApplicationContext context;
+    private ReportStore store;
+    private ReportDataGenerator generator;
+    private String hotIp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of(
+            "app.store.backend", backend,
+            "app.ingest.mode", "sync",
+            "app.retention.enabled", "false"));
+        store = context.getBean(ReportStore.class);
+        generator = ReportDataGenerator.standard(11);
+        hotIp = generator.targetIps()[0];
+
+        List<ThreatReport> reports = new ArrayList<>(reportCount);
+        for (int i = 0; i < reportCount; i++) {
+            reports.add(generator.nextReport());
+        }
+        reports.sort(Comparator.comparing(ThreatReport::getReportedAt));
+        for (int from = 0; from < reports.size(); from += 5_000) {
+            store.saveAll(reports.subList(from, Math.min(from + 5_000, reports.size())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** One operation stores {@value #BATCH_SIZE} reports */
+    @Benchmark
+    public int saveBatch() {
+        List<ThreatReport> batch = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ThreatReport report = generator.nextReport();
+            report.setReportedAt(now);
+            batch.add(report);
+        }
+        store.saveAll(batch);
+        return batch.size();
+    }
+
+    @Benchmark
+    public long countHotIpLastHour() {
+        return store.countForIpSince(hotIp, LocalDateTime.now().minusHours(1));
+    }
+
+    @Benchmark
+    public List<ThreatReport> firstPageForHotIp() {
+        return store.findPageForIp(hotIp, ReportCursor.START, 101);
+    }
+
+    @Benchmark
+    public List<MinuteAggregate> minuteAggregatesLastHour() {
+        return store.aggregateByMinuteSince(LocalDateTime.now().minusHours(1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.config.ReputationCacheProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.service.CachingThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.ExternalThreatIntelligenceApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reputation cache overhead around an upstream that answers instantly: hits cycle
+ * through a warm key set, misses through far more keys than the cache holds.
+ * Loads run on the calling thread so a miss measures the cache's own work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReputationCacheBenchmark {
+
+    private static final int WARM_KEYS = 1_024;
+    private static final int COLD_KEYS = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Cache {
+        CachingThreatIntelligenceApi api;
+        String[] warm;
+        String[] cold;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ExternalThreatIntelligenceApi upstream = ip -> ThreatReputationResponse.builder()
+                .ipAddress(ip)
+                .threatLevel("SAFE")
+                .riskScore(0)
+                .build();
+            ReputationCacheProperties properties = new ReputationCacheProperties();
+            properties.setMaximumSize(WARM_KEYS * 2);
+            api = new CachingThreatIntelligenceApi(upstream, properties, Runnable::run);
+
+            String[] ips = new ReportDataGenerator(1, 1, 1, WARM_KEYS + COLD_KEYS,
+                LocalDateTime.now(), Duration.ofHours(1)).targetIps();
+            warm = Arrays.copyOfRange(ips, 0, WARM_KEYS);
+            cold = Arrays.copyOfRange(ips, WARM_KEYS, ips.length);
+            for (String ip : warm) {
+                api.checkIpReputation(ip);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public ThreatReputationResponse hit(Cache cache, Cursor cursor) {
+        return cache.api.checkIpReputation(cache.warm[cursor.next++ & (WARM_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public ThreatReputationResponse miss(Cache cache, Cursor cursor) {
+        int index = cursor.next++;
+        if (cursor.next == COLD_KEYS) {
+            cursor.next = 0;
+        }
+        return cache.api.checkIpReputation(cache.cold[index]);
+    }
+}
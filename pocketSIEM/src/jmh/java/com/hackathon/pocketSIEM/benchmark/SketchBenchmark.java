@@ -0,0 +1,88 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.dto.HeavyHitterResponse;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.service.ThreatService;
+import com.hackathon.pocketSIEM.sketch.HeavyHitters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-K sketch updates and reads after {@code reportCount} reports from the last
+ * 24 hours were counted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SketchBenchmark {
+
+    @Param({"1000000"})
+    public int reportCount;
+
+    private ConfigurableApplicationContext context;
+    private ThreatService threatService;
+    private HeavyHitters heavyHitters;
+    private ReportDataGenerator generator;
+    private String hotIp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of());
+        threatService = context.getBean(ThreatService.class);
+        heavyHitters = context.getBean(HeavyHitters.class);
+        generator = ReportDataGenerator.standard(42);
+        hotIp = generator.targetIps()[0];
+        for (int i = 0; i < reportCount; i++) {
+            heavyHitters.onReportAccepted(generator.nextReport());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ThreatReport countReport() {
+        ThreatReport report = generator.nextReport();
+        report.setReportedAt(LocalDateTime.now());
+        heavyHitters.onReportAccepted(report);
+        return report;
+    }
+
+    @Benchmark
+    public List<HeavyHitterResponse> topIpsHour() {
+        return threatService.getTopReported(HeavyHitters.Field.IP, Duration.ofHours(1), 10);
+    }
+
+    @Benchmark
+    public List<HeavyHitterResponse> topIpsDay() {
+        return threatService.getTopReported(HeavyHitters.Field.IP, Duration.ofHours(24), 10);
+    }
+
+    @Benchmark
+    public HeavyHitterResponse hotIpDay() {
+        return threatService.getReportedKey(HeavyHitters.Field.IP, Duration.ofHours(24), hotIp);
+    }
+}
@@ -0,0 +1,102 @@
+package com.hackathon.pocketSIEM.benchmark;
+
+import com.hackathon.pocketSIEM.dto.AttackSurfaceDataPoint;
+import com.hackathon.pocketSIEM.dto.DeviceStatsResponse;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.service.ThreatService;
+import com.hackathon.pocketSIEM.stats.DeviceStatsEngine;
+import com.hackathon.pocketSIEM.stats.IpReportCounters;
+import com.hackathon.pocketSIEM.stats.ThreatTimeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard reads against the in-memory aggregates after {@code reportCount}
+ * reports from the last 24 hours have gone through the ingest listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StatsBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int reportCount;
+
+    private ConfigurableApplicationContext context;
+    private ThreatService threatService;
+    private IpAddress hotIp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(Map.of());
+        threatService = context.getBean(ThreatService.class);
+
+        // Only the aggregating listeners: the reads under test never touch the database
+        List<ThreatReportListener> listeners = List.of(context.getBean(DeviceStatsEngine.class),
+            context.getBean(ThreatTimeline.class), context.getBean(IpReportCounters.class));
+        ReportDataGenerator generator = ReportDataGenerator.standard(42);
+        hotIp = IpAddress.parse(generator.targetIps()[0]);
+        for (int i = 0; i < reportCount; i++) {
+            var report = generator.nextReport();
+            for (ThreatReportListener listener : listeners) {
+                listener.onReportAccepted(report);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DeviceStatsResponse fleetStats() {
+        return threatService.getDeviceStats(null);
+    }
+
+    @Benchmark
+    public DeviceStatsResponse deviceStats() {
+        return threatService.getDeviceStats("device-7");
+    }
+
+    @Benchmark
+    public List<AttackSurfaceDataPoint> attackSurfaceHour() {
+        return threatService.getAttackSurfaceData(Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    @Benchmark
+    public List<AttackSurfaceDataPoint> attackSurfaceDay() {
+        return threatService.getAttackSurfaceData(Duration.ofHours(24), Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public List<AttackSurfaceDataPoint> attackSurfaceWeek() {
+        return threatService.getAttackSurfaceData(Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public Integer recentReportCountHotIp() {
+        return threatService.getRecentReportCount(hotIp);
+    }
+}
@@ -2,10 +2,12 @@ package com.hackathon.pocketSIEM;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCaching
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class PocketSiemApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,429 @@
+package com.hackathon.pocketSIEM.analytics;
+
+import com.hackathon.pocketSIEM.config.HotTierProperties;
+import com.hackathon.pocketSIEM.ingest.ReplayedReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Recent reports held column by column in {@link ReportChunk}s, with the strings
+ * dictionary-encoded, for analytics that the incremental aggregates cannot answer:
+ * totals and top-N breakdowns per device, IP or app over any window up to the
+ * retention, and per-device attack-surface buckets. A query resolves its key to a
+ * code once, then compares ints in a loop over each chunk, optionally one chunk per
+ * fork-join task.
+ *
+ * <p>Replayed from the report store on startup and fed by the ingest listeners after
+ * that. Whole chunks are dropped once past retention; when a dictionary has grown
+ * past its bound the live rows are re-encoded into fresh dictionaries.
+ */
+@Component
+@Slf4j
+public class HotReportTier implements ReplayedReportListener {
+
+    public enum Dimension {
+        DEVICE, IP, APP;
+
+        /** The dimension a summary breaks its reports down by */
+        Dimension breakdown() {
+            return this == APP ? IP : APP;
+        }
+    }
+
+    private final HotTierProperties properties;
+    private final Object writeLock = new Object();
+
+    // Replaced whole, so a query sees one consistent set of dictionaries and chunks
+    private volatile Columns columns = Columns.empty();
+
+    public HotReportTier(HotTierProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        Gauge.builder("hot.tier.rows", this, HotReportTier::rows)
+            .description("Reports held in the columnar hot tier")
+            .register(meterRegistry);
+        Gauge.builder("hot.tier.size", this, HotReportTier::footprintBytes)
+            .description("Bytes allocated to hot tier columns")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Duration replayWindow() {
+        return properties.isEnabled() ? properties.getRetention() : Duration.ZERO;
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long epochSecond = report.getReportedAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+        synchronized (writeLock) {
+            columns = append(columns, epochSecond, report.getTargetIp(), report.getAppName(), report.getDeviceId(),
+                report.getProtocol(), report.getUserSeverity());
+        }
+    }
+
+    public boolean supports(Duration window) {
+        return properties.isEnabled() && !window.isNegative() && window.compareTo(properties.getRetention()) <= 0;
+    }
+
+    /**
+     * Totals of the reports for one device, IP or app within the window, with the
+     * busiest apps (or IPs, for an app) among them
+     */
+    public Summary summarize(Dimension dimension, String key, Duration window) {
+        Columns current = columns;
+        int code = current.dictionary(dimension).lookup(key);
+        if (code == StringDictionary.ABSENT) {
+            return Summary.EMPTY;
+        }
+        long since = nowSecond() - window.toSeconds();
+        Partial total = scan(current, chunk -> summarizeChunk(chunk, dimension, code, since),
+            Partial::merge, new Partial());
+        return total.toSummary(dimension.breakdown(), current.dictionary(dimension.breakdown()), properties.getTopN());
+    }
+
+    /**
+     * Reports of one device per bucket of bucketMinutes, the first starting at
+     * fromEpochMinute
+     */
+    public long[] countsPerBucket(String deviceId, long fromEpochMinute, int bucketMinutes, int buckets) {
+        Columns current = columns;
+        int code = current.deviceIds.lookup(deviceId);
+        if (code == StringDictionary.ABSENT) {
+            return new long[buckets];
+        }
+        return scan(current, chunk -> bucketChunk(chunk, code, fromEpochMinute, bucketMinutes, buckets),
+            HotReportTier::addCounts, new long[buckets]);
+    }
+
+    @Scheduled(fixedDelayString = "${app.hot-tier.eviction-interval:PT1M}")
+    public void evictExpiredChunks() {
+        long cutoff = nowSecond() - properties.getRetention().toSeconds();
+        synchronized (writeLock) {
+            Columns current = columns;
+            List<ReportChunk> kept = new ArrayList<>(Arrays.asList(current.chunks));
+            int before = kept.size();
+            kept.removeIf(chunk -> chunk.maxSecond() < cutoff);
+            long rows = kept.stream().mapToLong(ReportChunk::size).sum();
+            while (rows > properties.getMaxRows() && kept.size() > 1) {
+                rows -= kept.remove(0).size();
+            }
+            Columns trimmed = current.withChunks(kept.toArray(ReportChunk[]::new));
+            columns = current.largestDictionary() > properties.getMaxDictionarySize() ? reencode(trimmed) : trimmed;
+            if (kept.size() < before) {
+                log.debug("Dropped {} expired hot tier chunks, {} remain", before - kept.size(), kept.size());
+            }
+        }
+    }
+
+    public long rows() {
+        long rows = 0;
+        for (ReportChunk chunk : columns.chunks) {
+            rows += chunk.size();
+        }
+        return rows;
+    }
+
+    public long footprintBytes() {
+        long bytes = 0;
+        for (ReportChunk chunk : columns.chunks) {
+            bytes += chunk.footprintBytes();
+        }
+        return bytes;
+    }
+
+    // Returns the columns to publish, which differ from current only when a chunk was added
+    private Columns append(Columns current, long epochSecond, String targetIp, String appName, String deviceId,
+                        String protocol, int severity) {
+        int ip = current.targetIps.encode(targetIp);
+        int app = current.appNames.encode(appName);
+        int device = current.deviceIds.encode(deviceId);
+        int proto = current.protocols.encode(protocol);
+        ReportChunk[] chunks = current.chunks;
+        ReportChunk last = chunks.length == 0 ? null : chunks[chunks.length - 1];
+        if (last == null || !last.append(epochSecond, ip, app, device, proto, severity)) {
+            ReportChunk next = new ReportChunk(properties.getChunkSize(), epochSecond);
+            next.append(epochSecond, ip, app, device, proto, severity);
+            ReportChunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[chunks.length] = next;
+            return current.withChunks(grown);
+        }
+        return current;
+    }
+
+    // Copies the live rows into fresh dictionaries, dropping strings no row uses any more
+    private Columns reencode(Columns old) {
+        Columns fresh = Columns.empty();
+        for (ReportChunk chunk : old.chunks) {
+            for (int i = 0; i < chunk.size(); i++) {
+                fresh = append(fresh, chunk.baseSecond + chunk.seconds[i], old.targetIps.decode(chunk.targetIps[i]),
+                    old.appNames.decode(chunk.appNames[i]), old.deviceIds.decode(chunk.deviceIds[i]),
+                    old.protocols.decode(chunk.protocols[i]), chunk.severities[i]);
+            }
+        }
+        log.info("Re-encoded hot tier dictionaries: {} IPs, {} apps, {} devices",
+            fresh.targetIps.size(), fresh.appNames.size(), fresh.deviceIds.size());
+        return fresh;
+    }
+
+    private <T> T scan(Columns current, Function<ReportChunk, T> perChunk, BinaryOperator<T> merge, T identity) {
+        Stream<ReportChunk> chunks = Arrays.stream(current.chunks);
+        if (properties.isParallel() && current.chunks.length > 1) {
+            chunks = chunks.parallel();
+        }
+        // Each chunk's result is freshly allocated, so merge may add into its first argument
+        return chunks.map(perChunk).reduce(merge).orElse(identity);
+    }
+
+    private static Partial summarizeChunk(ReportChunk chunk, Dimension dimension, int code, long sinceSecond) {
+        Partial partial = new Partial();
+        if (chunk.maxSecond() < sinceSecond) {
+            return partial;
+        }
+        int size = chunk.size();
+        int since = chunk.relative(sinceSecond);
+        int[] keys = column(chunk, dimension);
+        int[] seconds = chunk.seconds;
+        int[] severities = chunk.severities;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != code || seconds[i] < since) {
+                continue;
+            }
+            partial.add(severities[i]);
+            partial.devices.increment(chunk.deviceIds[i]);
+            partial.apps.increment(chunk.appNames[i]);
+            partial.ips.increment(chunk.targetIps[i]);
+        }
+        return partial;
+    }
+
+    private static long[] bucketChunk(ReportChunk chunk, int code, long fromEpochMinute, int bucketMinutes, int buckets) {
+        long[] counts = new long[buckets];
+        long fromSecond = fromEpochMinute * 60;
+        if (chunk.maxSecond() < fromSecond) {
+            return counts;
+        }
+        int size = chunk.size();
+        int from = chunk.relative(fromSecond);
+        long bucketSeconds = bucketMinutes * 60L;
+        int[] devices = chunk.deviceIds;
+        int[] seconds = chunk.seconds;
+        for (int i = 0; i < size; i++) {
+            if (devices[i] != code || seconds[i] < from) {
+                continue;
+            }
+            long bucket = ((long) seconds[i] - from) / bucketSeconds;
+            if (bucket < buckets) {
+                counts[(int) bucket]++;
+            }
+        }
+        return counts;
+    }
+
+    private static long[] addCounts(long[] into, long[] counts) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += counts[i];
+        }
+        return into;
+    }
+
+    private static int[] column(ReportChunk chunk, Dimension dimension) {
+        return switch (dimension) {
+            case DEVICE -> chunk.deviceIds;
+            case IP -> chunk.targetIps;
+            case APP -> chunk.appNames;
+        };
+    }
+
+    private static long nowSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    public record Summary(long reports, long severitySum, long critical, long high, long suspicious,
+                          int devices, int apps, int ips, List<KeyCount> top) {
+
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0, 0, 0, List.of());
+    }
+
+    public record KeyCount(String key, long count) {
+    }
+
+    private record Columns(StringDictionary targetIps, StringDictionary appNames, StringDictionary deviceIds,
+                           StringDictionary protocols, ReportChunk[] chunks) {
+
+        static Columns empty() {
+            return new Columns(new StringDictionary(), new StringDictionary(), new StringDictionary(),
+                new StringDictionary(), new ReportChunk[0]);
+        }
+
+        Columns withChunks(ReportChunk[] replacement) {
+            return new Columns(targetIps, appNames, deviceIds, protocols, replacement);
+        }
+
+        StringDictionary dictionary(Dimension dimension) {
+            return switch (dimension) {
+                case DEVICE -> deviceIds;
+                case IP -> targetIps;
+                case APP -> appNames;
+            };
+        }
+
+        int largestDictionary() {
+            return Math.max(Math.max(targetIps.size(), appNames.size()), Math.max(deviceIds.size(), protocols.size()));
+        }
+    }
+
+    // Totals of one chunk's matching rows; merged pairwise across chunks
+    private static final class Partial {
+
+        long reports;
+        long severitySum;
+        long critical;
+        long high;
+        long suspicious;
+        // Rows per code, sized by the codes that matched rather than by the dictionaries
+        final CodeCounts devices = new CodeCounts();
+        final CodeCounts apps = new CodeCounts();
+        final CodeCounts ips = new CodeCounts();
+
+        void add(int severity) {
+            reports++;
+            severitySum += severity;
+            if (severity >= ThreatReport.CRITICAL_SEVERITY) {
+                critical++;
+            } else if (severity >= ThreatReport.HIGH_SEVERITY) {
+                high++;
+            } else if (severity >= ThreatReport.SUSPICIOUS_SEVERITY) {
+                suspicious++;
+            }
+        }
+
+        static Partial merge(Partial into, Partial part) {
+            if (part.reports == 0) {
+                return into;
+            }
+            if (into.reports == 0) {
+                return part;
+            }
+            into.reports += part.reports;
+            into.severitySum += part.severitySum;
+            into.critical += part.critical;
+            into.high += part.high;
+            into.suspicious += part.suspicious;
+            into.devices.addAll(part.devices);
+            into.apps.addAll(part.apps);
+            into.ips.addAll(part.ips);
+            return into;
+        }
+
+        Summary toSummary(Dimension breakdown, StringDictionary breakdownDictionary, int topN) {
+            CodeCounts counts = breakdown == Dimension.IP ? ips : apps;
+            PriorityQueue<KeyCount> top = new PriorityQueue<>(Comparator.comparingLong(KeyCount::count));
+            for (int slot = 0; slot < counts.capacity(); slot++) {
+                long count = counts.countAt(slot);
+                if (count == 0) {
+                    continue;
+                }
+                if (top.size() < topN) {
+                    top.add(new KeyCount(breakdownDictionary.decode(counts.codeAt(slot)), count));
+                } else if (count > top.peek().count()) {
+                    top.poll();
+                    top.add(new KeyCount(breakdownDictionary.decode(counts.codeAt(slot)), count));
+                }
+            }
+            List<KeyCount> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingLong(KeyCount::count).reversed());
+            return new Summary(reports, severitySum, critical, high, suspicious,
+                devices.size(), apps.size(), ips.size(), ranked);
+        }
+    }
+
+    // Open-addressing map from dictionary code to a positive count; a zero count marks an empty slot
+    private static final class CodeCounts {
+
+        private int[] codes = new int[16];
+        private long[] counts = new long[16];
+        private int size;
+
+        void increment(int code) {
+            add(code, 1);
+        }
+
+        void add(int code, long count) {
+            int mask = codes.length - 1;
+            int slot = mix(code) & mask;
+            while (counts[slot] != 0 && codes[slot] != code) {
+                slot = (slot + 1) & mask;
+            }
+            if (counts[slot] == 0) {
+                codes[slot] = code;
+                if (++size * 2 > codes.length) {
+                    counts[slot] = count;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot] += count;
+        }
+
+        void addAll(CodeCounts other) {
+            for (int slot = 0; slot < other.codes.length; slot++) {
+                if (other.counts[slot] != 0) {
+                    add(other.codes[slot], other.counts[slot]);
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return codes.length;
+        }
+
+        int codeAt(int slot) {
+            return codes[slot];
+        }
+
+        long countAt(int slot) {
+            return counts[slot];
+        }
+
+        private void grow() {
+            int[] oldCodes = codes;
+            long[] oldCounts = counts;
+            codes = new int[oldCodes.length * 2];
+            counts = new long[oldCodes.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldCodes.length; slot++) {
+                if (oldCounts[slot] != 0) {
+                    add(oldCodes[slot], oldCounts[slot]);
+                }
+            }
+        }
+
+        private static int mix(int code) {
+            int h = code * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hackathon.pocketSIEM.analytics;
+
+/**
+ * A fixed number of report rows stored column by column: report time as seconds
+ * from the chunk's base, dictionary codes for the strings and the severity as
+ * reported, 24 bytes a row. One writer appends; readers scan rows below {@link #size()},
+ * which is published only after the row is complete.
+ */
+final class ReportChunk {
+
+    final long baseSecond;
+    final int[] seconds;
+    final int[] targetIps;
+    final int[] appNames;
+    final int[] deviceIds;
+    final int[] protocols;
+    final int[] severities;
+
+    private volatile int size;
+    private volatile long maxSecond = Long.MIN_VALUE;
+
+    ReportChunk(int capacity, long baseSecond) {
+        this.baseSecond = baseSecond;
+        this.seconds = new int[capacity];
+        this.targetIps = new int[capacity];
+        this.appNames = new int[capacity];
+        this.deviceIds = new int[capacity];
+        this.protocols = new int[capacity];
+        this.severities = new int[capacity];
+    }
+
+    /**
+     * @return false if the chunk is full
+     */
+    boolean append(long epochSecond, int targetIp, int appName, int deviceId, int protocol, int severity) {
+        int row = size;
+        if (row == seconds.length) {
+            return false;
+        }
+        seconds[row] = Math.toIntExact(epochSecond - baseSecond);
+        targetIps[row] = targetIp;
+        appNames[row] = appName;
+        deviceIds[row] = deviceId;
+        protocols[row] = protocol;
+        severities[row] = severity;
+        if (epochSecond > maxSecond) {
+            maxSecond = epochSecond;
+        }
+        size = row + 1;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long maxSecond() {
+        return maxSecond;
+    }
+
+    /** An epoch second as an offset in the seconds column, clamped to the int range */
+    int relative(long epochSecond) {
+        long offset = epochSecond - baseSecond;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, offset));
+    }
+
+    /** Bytes held by the columns, full capacity included */
+    long footprintBytes() {
+        return (long) seconds.length * 6 * Integer.BYTES;
+    }
+}
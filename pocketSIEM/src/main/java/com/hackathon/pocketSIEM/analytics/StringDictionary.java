@@ -0,0 +1,52 @@
+package com.hackathon.pocketSIEM.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each distinct string a dense int code, so a column stores four bytes per
+ * row however long or repeated its values are. Codes are handed out by one writer
+ * at a time; lookups and decoding need no lock. A code read from a published chunk
+ * always decodes, because the string is stored before the row is published.
+ */
+final class StringDictionary {
+
+    static final int ABSENT = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[1024];
+    private int size;
+
+    /** Code for the value, adding it if new; null maps to {@link #ABSENT} */
+    synchronized int encode(String value) {
+        if (value == null) {
+            return ABSENT;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    /** Code of a value already added, or {@link #ABSENT} */
+    int lookup(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? ABSENT : code;
+    }
+
+    String decode(int code) {
+        return code == ABSENT ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,153 @@
+package com.hackathon.pocketSIEM.blocklist;
+
+import com.hackathon.pocketSIEM.net.IpAddress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of IP addresses. Bits are set with CAS, so concurrent
+ * {@link #put} and {@link #mightContain} calls need no lock; neither allocates.
+ * Indexes come from double hashing of one 64-bit mix of the address.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final long capacity;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Sized for {@code capacity} distinct addresses at the given false-positive probability
+     */
+    public BloomFilter(long capacity, double falsePositiveRate) {
+        this(capacity, optimalBitSize(capacity, falsePositiveRate), optimalHashCount(capacity, falsePositiveRate));
+    }
+
+    private BloomFilter(long capacity, long bitSize, int hashCount) {
+        this.capacity = capacity;
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.words = new AtomicLongArray(Math.toIntExact((bitSize + 63) >>> 6));
+    }
+
+    /**
+     * @return true if the address was not already (possibly) present
+     */
+    public boolean put(IpAddress address) {
+        long hash1 = hash(address);
+        long hash2 = mix(hash1 ^ 0x9E37_79B9_7F4A_7C15L) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit(Long.remainderUnsigned(hash1 + i * hash2, bitSize));
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * False means the address was definitely never added
+     */
+    public boolean mightContain(IpAddress address) {
+        long hash1 = hash(address);
+        long hash2 = mix(hash1 ^ 0x9E37_79B9_7F4A_7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(hash1 + i * hash2, bitSize);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Distinct addresses added so far (collisions make this a slight undercount) */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public boolean isFull() {
+        return insertions.get() >= capacity;
+    }
+
+    /**
+     * False-positive probability measured from the fraction of bits actually set:
+     * a non-member is reported present only if all of its hashed bits are set.
+     */
+    public double estimatedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < words.length(); i++) {
+            set += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) set / bitSize, hashCount);
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(capacity);
+        out.writeLong(bitSize);
+        out.writeInt(hashCount);
+        out.writeLong(insertions.get());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        long capacity = in.readLong();
+        long bitSize = in.readLong();
+        int hashCount = in.readInt();
+        if (capacity <= 0 || bitSize <= 0 || hashCount <= 0 || bitSize > (long) Integer.MAX_VALUE << 6) {
+            throw new IOException("Corrupt Bloom filter header");
+        }
+        BloomFilter filter = new BloomFilter(capacity, bitSize, hashCount);
+        filter.insertions.set(in.readLong());
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, in.readLong());
+        }
+        return filter;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long current = words.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static long hash(IpAddress address) {
+        long seed = address.isIpv4() ? 0x4L : 0x6L;
+        return mix(mix(address.high() ^ seed) + address.low());
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long optimalBitSize(long capacity, double falsePositiveRate) {
+        return Math.max(64, (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+    }
+
+    static int optimalHashCount(long capacity, double falsePositiveRate) {
+        long bits = optimalBitSize(capacity, falsePositiveRate);
+        return Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+    }
+}
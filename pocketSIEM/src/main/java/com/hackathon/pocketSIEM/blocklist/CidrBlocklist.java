@@ -0,0 +1,120 @@
+package com.hackathon.pocketSIEM.blocklist;
+
+import com.hackathon.pocketSIEM.config.BlocklistProperties;
+import com.hackathon.pocketSIEM.config.BlocklistProperties.Feed;
+import com.hackathon.pocketSIEM.net.CidrTrie;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Longest-prefix-match view over the configured CIDR feeds. Lookups read the
+ * current trie without locking; a reload builds a complete new trie and swaps it
+ * in with one reference write, so readers see either the old feeds or the new ones.
+ */
+@Component
+@Slf4j
+public class CidrBlocklist {
+
+    private final BlocklistProperties properties;
+    private final AtomicReference<CidrTrie<RangeVerdict>> current =
+        new AtomicReference<>(new CidrTrie<>(RangeVerdict::preferBlock));
+
+    public CidrBlocklist(BlocklistProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("blocklist.ranges", current, trie -> trie.get().size())
+            .description("CIDR blocks loaded from local feeds")
+            .register(meterRegistry);
+        reload();
+    }
+
+    /**
+     * @return the verdict of the most specific listed block containing the address, or null
+     */
+    public RangeVerdict lookup(IpAddress address) {
+        return current.get().longestMatch(address);
+    }
+
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Re-reads every feed. If any feed fails to load, or its file is missing, the
+     * current trie is kept, so a broken download never silently drops ranges.
+     */
+    @Scheduled(fixedDelayString = "${app.blocklist.reload-interval:PT5M}",
+               initialDelayString = "${app.blocklist.reload-interval:PT5M}")
+    public void reload() {
+        if (!properties.isEnabled()) {
+            current.set(new CidrTrie<>(RangeVerdict::preferBlock));
+            return;
+        }
+        CidrTrie<RangeVerdict> next = new CidrTrie<>(RangeVerdict::preferBlock);
+        try {
+            for (Feed feed : properties.getFeeds()) {
+                load(feed, next);
+            }
+        } catch (IOException e) {
+            log.warn("Blocklist reload failed, keeping {} ranges from the previous load: {}", size(), e.getMessage());
+            return;
+        }
+        current.set(next);
+        log.info("Blocklist loaded {} ranges from {} feeds", next.size(), properties.getFeeds().size());
+    }
+
+    private void load(Feed feed, CidrTrie<RangeVerdict> trie) throws IOException {
+        if (feed.getLocation() == null || !feed.getLocation().exists()) {
+            throw new FileNotFoundException("Blocklist feed " + feed.getName() + " not found at " + feed.getLocation());
+        }
+        int riskScore = feed.getAction() == BlocklistProperties.Action.BLOCK ? feed.getRiskScore() : 0;
+        RangeVerdict verdict = new RangeVerdict(feed.getName(), feed.getAction(), feed.getCategory(), riskScore);
+
+        int invalid = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(feed.getLocation().getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String cidr = firstToken(line);
+                if (cidr.isEmpty()) {
+                    continue;
+                }
+                try {
+                    trie.put(cidr, verdict);
+                } catch (IllegalArgumentException e) {
+                    invalid++;
+                }
+            }
+        }
+        if (invalid > 0) {
+            log.warn("Blocklist feed {} has {} unparseable lines", feed.getName(), invalid);
+        }
+    }
+
+    // Feeds put trailing notes after the block, e.g. "1.2.3.0/24 ; SBL123" or "1.2.3.4 # exit"
+    private static String firstToken(String line) {
+        int start = 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < line.length()) {
+            char c = line.charAt(end);
+            if (Character.isWhitespace(c) || c == '#' || c == ';') {
+                break;
+            }
+            end++;
+        }
+        return line.substring(start, end);
+    }
+}
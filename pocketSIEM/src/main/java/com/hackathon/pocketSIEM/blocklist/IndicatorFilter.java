@@ -0,0 +1,343 @@
+package com.hackathon.pocketSIEM.blocklist;
+
+import com.hackathon.pocketSIEM.config.IndicatorFilterProperties;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Scalable Bloom filter of every IP users have reported. It grows by appending a
+ * layer of twice the capacity (and half the false-positive budget) when the newest
+ * one fills up, so reports are added incrementally and nothing is ever rebuilt in
+ * place. Local CIDR feeds are not added: they are answered by {@link CidrBlocklist}
+ * before a lookup gets here.
+ *
+ * <p>On startup the filter is read from its snapshot file, or rebuilt from stored
+ * reports when there is none; it is saved again periodically and on shutdown. A
+ * snapshot records the newest report it covers, and reports stored after that are
+ * replayed on load so a crash between snapshots cannot leave reported IPs out.
+ */
+@Component
+@Slf4j
+public class IndicatorFilter implements ThreatReportListener, SmartInitializingSingleton {
+
+    private static final int SNAPSHOT_MAGIC = 0x50534246;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final long NOTHING_COVERED = Long.MIN_VALUE;
+
+    private final IndicatorFilterProperties properties;
+    private final ReportStore reportStore;
+    private final ThreatReportHourlyRepository hourlyRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder benignPositives = new LongAdder();
+    // Epoch millis (UTC) of the newest report added; every report before it is in the filter
+    private final AtomicLong coveredUntil = new AtomicLong(NOTHING_COVERED);
+    private volatile BloomFilter[] layers;
+
+    public IndicatorFilter(IndicatorFilterProperties properties,
+                           ReportStore reportStore,
+                           ThreatReportHourlyRepository hourlyRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.reportStore = reportStore;
+        this.hourlyRepository = hourlyRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.layers = new BloomFilter[] {newLayer(0)};
+
+        Gauge.builder("indicator.filter.insertions", this, IndicatorFilter::insertions)
+            .description("Distinct reported IPs in the indicator filter")
+            .register(meterRegistry);
+        Gauge.builder("indicator.filter.false.positive.rate", this, IndicatorFilter::estimatedFalsePositiveRate)
+            .tag("source", "estimated")
+            .description("False-positive probability computed from the filter's set bits")
+            .register(meterRegistry);
+        Gauge.builder("indicator.filter.false.positive.rate", this, IndicatorFilter::observedFalsePositiveRate)
+            .tag("source", "observed")
+            .description("Filter hits the provider rated SAFE, as a share of all benign lookups")
+            .register(meterRegistry);
+        FunctionCounter.builder("indicator.filter.checks", negatives, LongAdder::sum)
+            .tag("result", "negative")
+            .register(meterRegistry);
+        FunctionCounter.builder("indicator.filter.checks", positives, LongAdder::sum)
+            .tag("result", "positive")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (loadSnapshot() && coveredUntil.get() != NOTHING_COVERED) {
+            replaySinceSnapshot();
+        } else {
+            rebuildFromReports();
+        }
+    }
+
+    /**
+     * False means the IP has definitely never been reported
+     */
+    public boolean mightContain(IpAddress address) {
+        for (BloomFilter layer : layers) {
+            if (layer.mightContain(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(IpAddress address) {
+        BloomFilter[] current = layers;
+        for (BloomFilter layer : current) {
+            if (layer.mightContain(address)) {
+                return;
+            }
+        }
+        BloomFilter newest = current[current.length - 1];
+        newest.put(address);
+        changed.set(true);
+        if (newest.isFull()) {
+            grow(current);
+        }
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        IpAddress address = IpAddress.tryParse(report.getTargetIp());
+        if (address != null) {
+            add(address);
+        }
+        // Only after the add, so a snapshot never claims a report it does not hold
+        cover(report.getReportedAt());
+    }
+
+    /**
+     * Counts one lookup for the observed false-positive rate
+     */
+    public void recordCheck(boolean positive) {
+        (positive ? positives : negatives).increment();
+    }
+
+    /**
+     * Counts a filter hit whose provider verdict turned out SAFE
+     */
+    public void recordBenignPositive() {
+        benignPositives.increment();
+    }
+
+    public long insertions() {
+        long total = 0;
+        for (BloomFilter layer : layers) {
+            total += layer.insertions();
+        }
+        return total;
+    }
+
+    public int layerCount() {
+        return layers.length;
+    }
+
+    /**
+     * Probability that an unreported IP hits at least one layer, from the bits set right now
+     */
+    public double estimatedFalsePositiveRate() {
+        double allMiss = 1.0;
+        for (BloomFilter layer : layers) {
+            allMiss *= 1.0 - layer.estimatedFalsePositiveRate();
+        }
+        return 1.0 - allMiss;
+    }
+
+    /**
+     * Filter hits later rated SAFE by the provider, over all lookups believed benign
+     * (those hits plus every filter miss); NaN before the first lookup
+     */
+    public double observedFalsePositiveRate() {
+        double falsePositives = benignPositives.sum();
+        double benign = falsePositives + negatives.sum();
+        return benign == 0 ? Double.NaN : falsePositives / benign;
+    }
+
+    @Scheduled(fixedDelayString = "${app.indicator-filter.snapshot-interval:PT10M}",
+               initialDelayString = "${app.indicator-filter.snapshot-interval:PT10M}")
+    public void snapshotIfChanged() {
+        if (changed.getAndSet(false) && !saveSnapshot()) {
+            changed.set(true);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshotIfChanged();
+    }
+
+    private synchronized void grow(BloomFilter[] full) {
+        if (layers != full) {
+            return;
+        }
+        BloomFilter[] grown = Arrays.copyOf(full, full.length + 1);
+        grown[full.length] = newLayer(full.length);
+        layers = grown;
+        log.info("Indicator filter grew to {} layers ({} IPs)", grown.length, insertions());
+    }
+
+    // Layer i holds initialCapacity * 2^i at rate * 2^-(i+1), so the layers' rates sum to under the target
+    private BloomFilter newLayer(int index) {
+        long capacity = properties.getInitialCapacity() << index;
+        double rate = properties.getFalsePositiveRate() / (2L << index);
+        return new BloomFilter(capacity, rate);
+    }
+
+    // Raw reports plus the rollups of purged ones, so IPs reported before the raw retention stay members
+    private void rebuildFromReports() {
+        LocalDateTime started = LocalDateTime.now();
+        LongAdder added = new LongAdder();
+        reportStore.forEachTargetIp(ip -> addReported(ip, added));
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> ips = hourlyRepository.streamDistinctTargetIps()) {
+                ips.forEach(ip -> addReported(ip, added));
+            }
+        });
+        cover(started);
+        changed.set(true);
+        log.info("Rebuilt indicator filter from {} reported IPs", added.sum());
+    }
+
+    // Reports still in flight when the snapshot was taken can be older than its mark, hence the overlap
+    private void replaySinceSnapshot() {
+        LocalDateTime since = toLocal(coveredUntil.get()).minus(properties.getReplayOverlap());
+        long replayed = reportStore.scanSince(since, this::onReportAccepted);
+        if (replayed > 0) {
+            changed.set(true);
+        }
+        log.info("Replayed {} reports stored since {} into the indicator filter", replayed, since);
+    }
+
+    private void cover(LocalDateTime reportedAt) {
+        if (reportedAt != null) {
+            coveredUntil.accumulateAndGet(reportedAt.toInstant(ZoneOffset.UTC).toEpochMilli(), Math::max);
+        }
+    }
+
+    /**
+     * Newest report time the filter is known to hold every report up to; null before any
+     */
+    public LocalDateTime coveredUntil() {
+        long covered = coveredUntil.get();
+        return covered == NOTHING_COVERED ? null : toLocal(covered);
+    }
+
+    private static LocalDateTime toLocal(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    private void addReported(String ip, LongAdder added) {
+        IpAddress address = IpAddress.tryParse(ip);
+        if (address != null) {
+            add(address);
+            added.increment();
+        }
+    }
+
+    boolean saveSnapshot() {
+        Path path = properties.getSnapshotPath();
+        if (path == null) {
+            return true;
+        }
+        // Read the mark before the layers: everything it covers was added before it moved
+        long covered = coveredUntil.get();
+        BloomFilter[] current = layers;
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(properties.getInitialCapacity());
+                out.writeDouble(properties.getFalsePositiveRate());
+                out.writeLong(covered);
+                out.writeInt(current.length);
+                for (BloomFilter layer : current) {
+                    layer.writeTo(out);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved indicator filter snapshot to {}", path);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not save indicator filter snapshot to {}", path, e);
+            return false;
+        }
+    }
+
+    // A snapshot taken with different sizing or an older format is ignored; the filter is rebuilt instead
+    boolean loadSnapshot() {
+        Path path = properties.getSnapshotPath();
+        if (path == null || !Files.isRegularFile(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION
+                    || in.readLong() != properties.getInitialCapacity()
+                    || in.readDouble() != properties.getFalsePositiveRate()) {
+                log.info("Ignoring indicator filter snapshot {} written with other settings", path);
+                return false;
+            }
+            long covered = in.readLong();
+            BloomFilter[] loaded = new BloomFilter[in.readInt()];
+            for (int i = 0; i < loaded.length; i++) {
+                loaded[i] = BloomFilter.readFrom(in);
+            }
+            if (loaded.length == 0) {
+                return false;
+            }
+            layers = loaded;
+            coveredUntil.accumulateAndGet(covered, Math::max);
+            log.info("Loaded indicator filter snapshot with {} IPs from {}", insertions(), path);
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not read indicator filter snapshot {}, rebuilding", path, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hackathon.pocketSIEM.blocklist;
+
+import com.hackathon.pocketSIEM.config.BlocklistProperties.Action;
+
+/**
+ * What a local feed says about the addresses in one of its CIDR blocks
+ */
+public record RangeVerdict(String feed, Action action, String category, int riskScore) {
+
+    /**
+     * Deny overrides allow when two feeds list the same block; otherwise the first feed wins
+     */
+    static RangeVerdict preferBlock(RangeVerdict existing, RangeVerdict added) {
+        return existing.action() == Action.ALLOW && added.action() == Action.BLOCK ? added : existing;
+    }
+}
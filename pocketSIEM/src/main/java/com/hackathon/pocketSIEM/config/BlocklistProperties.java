@@ -0,0 +1,48 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local CIDR feeds answered without calling the reputation provider (app.blocklist.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.blocklist")
+public class BlocklistProperties {
+
+    public enum Action {
+        /** Known bad: answered with the feed's risk score */
+        BLOCK,
+        /** Known good: answered as SAFE */
+        ALLOW
+    }
+
+    private boolean enabled = true;
+
+    /** How often feeds are re-read; the new trie replaces the old one atomically */
+    private Duration reloadInterval = Duration.ofMinutes(5);
+
+    private List<Feed> feeds = new ArrayList<>();
+
+    @Data
+    public static class Feed {
+
+        private String name;
+
+        /** One CIDR block or address per line; '#' starts a comment */
+        private Resource location;
+
+        private Action action = Action.BLOCK;
+
+        /** Category reported for addresses in this feed */
+        private String category;
+
+        /** Risk score reported for BLOCK feeds; ALLOW feeds always report 0 */
+        private int riskScore = 90;
+    }
+}
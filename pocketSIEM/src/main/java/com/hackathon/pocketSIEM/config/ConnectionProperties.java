@@ -0,0 +1,32 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Live connection tracking behind /live-connections (app.connections.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.connections")
+public class ConnectionProperties {
+
+    /** Connections remembered per device, rounded up to a power of two; older ones are overwritten */
+    private int bufferSize = 128;
+
+    /** Only connections this recent are returned as live */
+    private Duration window = Duration.ofMinutes(5);
+
+    /** Devices kept in memory; the least recently active are evicted beyond this */
+    private int maxDevices = 10_000;
+
+    /** Newest connections returned by the fleet-wide view (no deviceId) */
+    private int maxFleetConnections = 200;
+
+    /**
+     * Serve the sample connection list from the fleet view until a device posts its
+     * own, since the mobile app does not send connections yet
+     */
+    private boolean sampleFallback = true;
+}
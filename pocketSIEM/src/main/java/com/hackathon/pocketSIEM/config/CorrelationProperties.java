@@ -0,0 +1,73 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Correlation rules evaluated against every accepted report, and the alerts they
+ * raise behind /api/v1/alerts (app.correlation.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.correlation")
+public class CorrelationProperties {
+
+    public enum Field {
+        IP, APP, DEVICE
+    }
+
+    private boolean enabled = true;
+
+    /** Independently locked partitions of each rule's state; 0 for four per available core */
+    private int partitions = 0;
+
+    /** Keys each rule keeps state for; the least recently reported are dropped beyond this */
+    private int maxKeysPerRule = 100_000;
+
+    /** How often keys with nothing left in their rule's window are dropped */
+    private Duration evictionInterval = Duration.ofMinutes(1);
+
+    /** Alerts waiting to be written; alerts raised while it is full are dropped and counted */
+    private int alertQueueCapacity = 10_000;
+
+    /** Alerts returned when a request gives no limit */
+    private int defaultLimit = 100;
+
+    /** Largest limit a request may ask for */
+    private int maxLimit = 1_000;
+
+    private List<Rule> rules = new ArrayList<>(List.of(
+        new Rule("ip-device-spread", Field.IP, Field.DEVICE, 0, 5, Duration.ofMinutes(10)),
+        new Rule("app-flagged-ips", Field.APP, Field.IP, 50, 10, Duration.ofHours(1))));
+
+    /**
+     * Raises an alert when one value of {@code groupBy} is seen with at least
+     * {@code threshold} distinct values of {@code distinct} within {@code window}
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+
+        private String name;
+
+        /** Field whose values the rule keeps state for */
+        private Field groupBy;
+
+        /** Field whose distinct values are counted per key */
+        private Field distinct;
+
+        /** Reports below this userSeverity are ignored by the rule */
+        private int minSeverity = 0;
+
+        /** Distinct values that raise an alert; also the most values kept per key */
+        private int threshold;
+
+        private Duration window;
+    }
+}
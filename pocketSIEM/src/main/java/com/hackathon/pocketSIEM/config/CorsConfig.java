@@ -42,6 +42,9 @@ public class CorsConfig {
                 "Accept",
                 "Origin"));
 
+        // Let browser clients read the pagination cursor
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor"));
+
         // Allow credentials
         configuration.setAllowCredentials(true);
 
@@ -0,0 +1,34 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Columnar in-memory copy of recent reports for analytics (app.hot-tier.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.hot-tier")
+public class HotTierProperties {
+
+    private boolean enabled = true;
+
+    /** Reports are kept this long; analytics windows cannot be longer */
+    private Duration retention = Duration.ofHours(24);
+
+    /** Rows per chunk; a chunk is dropped whole once its newest report is past retention */
+    private int chunkSize = 65_536;
+
+    /** Oldest chunks are dropped early once the tier holds more rows than this */
+    private long maxRows = 20_000_000;
+
+    /** Distinct strings per column before the dictionaries are rebuilt from live rows */
+    private int maxDictionarySize = 2_000_000;
+
+    /** Scan chunks on the common fork-join pool rather than the calling thread */
+    private boolean parallel = true;
+
+    /** Entries in the top-N breakdown of an analytics response */
+    private int topN = 10;
+}
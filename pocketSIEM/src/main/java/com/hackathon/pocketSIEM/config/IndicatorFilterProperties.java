@@ -0,0 +1,41 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Probabilistic set of reported IPs used to skip reputation lookups (app.indicator-filter.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.indicator-filter")
+public class IndicatorFilterProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Answer IPs the filter has definitely never seen as SAFE without a cache entry
+     * or provider call; when false the filter is only measured
+     */
+    private boolean fastPath = true;
+
+    /** Addresses the first filter layer holds; each further layer doubles */
+    private long initialCapacity = 1_000_000;
+
+    /** Target false-positive probability across all layers */
+    private double falsePositiveRate = 0.01;
+
+    /** Where the filter is saved between restarts; unset disables snapshots */
+    private Path snapshotPath;
+
+    /** How often a changed filter is written to the snapshot */
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+
+    /**
+     * How far before a snapshot's newest report the replay on load starts, to catch
+     * reports that were still queued when it was written
+     */
+    private Duration replayOverlap = Duration.ofMinutes(5);
+}
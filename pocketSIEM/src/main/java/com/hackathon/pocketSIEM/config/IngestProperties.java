@@ -0,0 +1,38 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Threat report ingestion (app.ingest.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.ingest")
+public class IngestProperties {
+
+    public enum Mode {
+        /** Persist inside the request and answer 201 with the stored report */
+        SYNC,
+        /**
+         * Queue the report, answer 202 and persist it in the next JDBC batch. A report
+         * whose batch fails to write is logged and counted, not retried.
+         */
+        ASYNC
+    }
+
+    private Mode mode = Mode.SYNC;
+
+    /** Reports buffered before POST /report starts answering 503 */
+    private int queueCapacity = 100_000;
+
+    /** Maximum reports written per transaction */
+    private int batchSize = 500;
+
+    /** Longest a queued report waits for its batch to fill */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** Reports written per transaction by POST /reports/bulk */
+    private int bulkBatchSize = 5_000;
+}
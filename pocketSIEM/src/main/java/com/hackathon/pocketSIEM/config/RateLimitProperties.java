@@ -0,0 +1,49 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-bucket budgets per API key and device (app.rate-limit.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Sustained rate for routes without their own budget */
+    private double requestsPerSecond = 20;
+
+    /** Requests a client may send at once after being idle */
+    private int burst = 40;
+
+    /**
+     * Clients one API key may run at full rate on a route: the key's shared budget is
+     * this many times the route's per-client rate and burst
+     */
+    private int clientsPerKey = 50;
+
+    /** Per-client buckets kept; beyond this, new clients are held to their key's shared budget only */
+    private int maxBuckets = 200_000;
+
+    /** Budgets for path prefixes; the longest matching prefix wins */
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+
+        /** Path prefix, e.g. /api/v1/reputation also covers /api/v1/reputation/batch */
+        private String path;
+
+        /** HTTP method, or any when empty */
+        private String method;
+
+        private double requestsPerSecond;
+
+        private int burst;
+    }
+}
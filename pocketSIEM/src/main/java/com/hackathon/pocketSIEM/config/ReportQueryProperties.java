@@ -0,0 +1,18 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Report listing endpoints (app.reports.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reports")
+public class ReportQueryProperties {
+
+    /** Page size when the request has no limit */
+    private int defaultPageSize = 100;
+
+    /** Largest page a request may ask for; bigger limits are capped */
+    private int maxPageSize = 1_000;
+}
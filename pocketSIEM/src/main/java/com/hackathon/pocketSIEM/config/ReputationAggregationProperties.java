@@ -0,0 +1,37 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Querying and merging several reputation providers (app.reputation-aggregation.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reputation-aggregation")
+public class ReputationAggregationProperties {
+
+    /** Providers to query, by ReputationProvider name */
+    private List<String> providers = new ArrayList<>(List.of("mock"));
+
+    /** Answers to wait for before merging; capped at the number of providers */
+    private int minSources = 2;
+
+    /** Longest a lookup waits for answers; whatever has arrived by then is merged */
+    private Duration deadline = Duration.ofMillis(1500);
+
+    /** Send a second request to a provider that has not answered by its hedge delay */
+    private boolean hedgingEnabled = true;
+
+    /** Latency percentile of a provider's recent calls used as its hedge delay */
+    private double hedgePercentile = 0.95;
+
+    /** Lower bound on the hedge delay, so fast providers are not hedged on jitter */
+    private Duration minHedgeDelay = Duration.ofMillis(10);
+
+    /** Calls a provider must have completed before it is hedged */
+    private int hedgeWarmupCalls = 20;
+}
@@ -0,0 +1,37 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tuning for the IP reputation cache (app.reputation-cache.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reputation-cache")
+public class ReputationCacheProperties {
+
+    /** Upper bound on cached verdicts; eviction is frequency-aware (W-TinyLFU) */
+    private long maximumSize = 100_000;
+
+    /** TTL applied when a verdict has no threatLevel or an unknown one */
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    /** Per-threatLevel TTL, keyed by level name (case-insensitive) */
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    /** Fraction of the TTL after which a read triggers a background refresh */
+    private double refreshAheadRatio = 0.8;
+
+    /**
+     * TTL of a stale fallback verdict. Every read of one triggers a background
+     * refresh, so it is replaced as soon as the provider answers again.
+     */
+    private Duration staleTtl = Duration.ofMinutes(1);
+
+    /** Threads that load misses and refreshes from the upstream provider */
+    private int upstreamThreads = 16;
+}
@@ -0,0 +1,50 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Protection around calls to the reputation provider (app.reputation-upstream.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reputation-upstream")
+public class ReputationUpstreamProperties {
+
+    /** Longest a lookup waits for the provider before falling back */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** Provider calls in flight at once (bulkhead threads) */
+    private int maxConcurrentCalls = 16;
+
+    /** Calls waiting for a bulkhead thread before new ones are rejected */
+    private int queueCapacity = 64;
+
+    /** Failure percentage over the sliding window that opens the circuit */
+    private float failureRateThreshold = 50;
+
+    /** Calls slower than this count as slow */
+    private Duration slowCallDuration = Duration.ofSeconds(1);
+
+    /** Slow-call percentage over the sliding window that opens the circuit */
+    private float slowCallRateThreshold = 80;
+
+    /** Most recent calls the failure and slow-call rates are computed over */
+    private int slidingWindowSize = 50;
+
+    /** Calls needed in the window before the rates are evaluated */
+    private int minimumNumberOfCalls = 20;
+
+    /** How long an open circuit rejects calls before letting trial calls through */
+    private Duration waitInOpenState = Duration.ofSeconds(30);
+
+    /** Trial calls allowed while half-open */
+    private int permittedCallsInHalfOpenState = 5;
+
+    /** How long a verdict stays usable as a stale fallback */
+    private Duration staleRetention = Duration.ofHours(24);
+
+    /** Upper bound on verdicts kept for stale fallback */
+    private long staleMaximumSize = 100_000;
+}
@@ -0,0 +1,28 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Hourly rollups and retention of stored reports (app.retention.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.retention")
+public class RetentionProperties {
+
+    private boolean enabled = true;
+
+    /** Raw reports are deleted once older than this, and only after their hour was rolled up */
+    private Duration rawRetention = Duration.ofDays(30);
+
+    /** Hourly rollups are deleted once older than this */
+    private Duration rollupRetention = Duration.ofDays(365);
+
+    /** An hour is rolled up this long after it ends, so reports still queued for ingest make it in */
+    private Duration rollupDelay = Duration.ofMinutes(5);
+
+    /** Hours rolled up, and hours of raw reports purged, per run; bounds a run's work when catching up on history */
+    private int maxHoursPerRun = 168;
+}
@@ -1,6 +1,8 @@
 package com.hackathon.pocketSIEM.config;
 
 import com.hackathon.pocketSIEM.security.ApiKeyFilter;
+import com.hackathon.pocketSIEM.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +20,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
 
     private final ApiKeyFilter apiKeyFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
     @Bean
@@ -27,15 +30,25 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses finish on an async dispatch of an already authenticated request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/reputation").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/reputation/batch").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/v1/report").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/reports/bulk").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/reports/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/device-stats").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/attack-surface").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/analytics/**").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/top/**").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/alerts").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/v1/live-connections").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/connections").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/stream").authenticated()
                         .anyRequest().authenticated())
-                .addFilterBefore(apiKeyFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(apiKeyFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, ApiKeyFilter.class);
 
         return http.build();
     }
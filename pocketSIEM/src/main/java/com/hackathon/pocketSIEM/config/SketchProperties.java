@@ -0,0 +1,26 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Streaming top-K and distinct-device sketches behind /api/v1/top (app.sketch.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sketch")
+public class SketchProperties {
+
+    private boolean enabled = true;
+
+    /** Keys counted per time bucket and field; the least counted is replaced beyond this */
+    private int capacity = 512;
+
+    /** HyperLogLog precision: 2^precision registers, about 1.04 / sqrt(2^precision) relative error */
+    private int precision = 10;
+
+    /** Entries returned when a request gives no limit */
+    private int defaultLimit = 10;
+
+    /** Largest limit a request may ask for */
+    private int maxLimit = 100;
+}
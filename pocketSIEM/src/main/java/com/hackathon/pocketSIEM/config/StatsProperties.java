@@ -0,0 +1,41 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * In-memory report aggregates (app.stats.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.stats")
+public class StatsProperties {
+
+    /** History kept by the per-minute attack-surface timeline */
+    private Duration timelineRetention = Duration.ofDays(7);
+
+    /** Sliding window behind /device-stats */
+    private Duration deviceWindow = Duration.ofHours(24);
+
+    /** Bucket width of per-device windows; coarser than the fleet's 1m to bound memory */
+    private Duration deviceBucket = Duration.ofMinutes(15);
+
+    /** Devices kept in memory; the least recently active are evicted beyond this */
+    private int maxDevices = 50_000;
+
+    /** Distinct apps remembered per device */
+    private int maxAppsPerDevice = 256;
+
+    /** Distinct apps remembered for the fleet-wide rollup */
+    private int maxFleetApps = 10_000;
+
+    /** Sliding window of the per-IP report counters behind /reports/ip/{ip}/count */
+    private Duration ipCountWindow = Duration.ofHours(24);
+
+    /** Target IPs counted in memory; the least recently reported are evicted beyond this */
+    private int maxCountedIps = 1_000_000;
+
+    /** Most data points a single attack-surface request may ask for */
+    private int maxTimelineBuckets = 1_000;
+}
@@ -0,0 +1,36 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Where raw threat reports are kept (app.store.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.store")
+public class StoreProperties {
+
+    public enum Backend {
+        /** threat_reports through JPA, in the configured datasource */
+        JPA,
+        /** Append-only segment files on disk, memory-mapped */
+        LOG
+    }
+
+    private Backend backend = Backend.JPA;
+
+    /** Directory holding the log segments */
+    private Path logDirectory = Path.of("data/report-log");
+
+    /** Size each segment file is preallocated and mapped at; a full segment is sealed and a new one started */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /** Records between entries of a segment's sparse time index */
+    private int indexInterval = 256;
+
+    /** Force written records to disk before an append returns, rather than leaving it to the OS */
+    private boolean syncOnWrite = false;
+}
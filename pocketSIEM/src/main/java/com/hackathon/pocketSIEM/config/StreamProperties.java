@@ -0,0 +1,41 @@
+package com.hackathon.pocketSIEM.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Server-sent dashboard updates on /api/v1/stream (app.stream.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "app.stream")
+public class StreamProperties {
+
+    /** How often changes are gathered and pushed; no client gets updates faster */
+    private Duration interval = Duration.ofSeconds(1);
+
+    /** Aggregates are recomputed at least this often so sliding windows move without new reports */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /** Idle connections get a comment line this often to keep proxies from closing them */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /** Connection lifetime; clients are expected to reconnect */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /** Concurrent subscribers before new ones are turned away with 503 */
+    private int maxSubscribers = 10_000;
+
+    /** Threads writing events to subscribers */
+    private int senderThreads = 4;
+
+    /** Reports kept per tick for the fleet and for each device, and for a subscriber between sends */
+    private int maxReportsPerEvent = 100;
+
+    /** Attack-surface window pushed to subscribers */
+    private Duration attackSurfaceWindow = Duration.ofHours(1);
+
+    /** Attack-surface resolution pushed to subscribers */
+    private Duration attackSurfaceResolution = Duration.ofMinutes(5);
+}
@@ -0,0 +1,94 @@
+package com.hackathon.pocketSIEM.config;
+
+import com.hackathon.pocketSIEM.blocklist.CidrBlocklist;
+import com.hackathon.pocketSIEM.blocklist.IndicatorFilter;
+import com.hackathon.pocketSIEM.service.BlocklistThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.CachingThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.CompositeThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.IndicatorFilterThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.MeteredThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.service.ReputationProvider;
+import com.hackathon.pocketSIEM.service.ResilientThreatIntelligenceApi;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wires the decorator chain in front of the upstream threat intelligence provider.
+ * ThreatService only sees the @Primary bean.
+ */
+@Configuration
+public class ThreatIntelligenceConfig {
+
+    @Bean
+    public ExecutorService reputationUpstreamExecutor(ReputationCacheProperties properties) {
+        int threads = properties.getUpstreamThreads();
+        // Loads are submitted while Caffeine holds the key's map bin, so the pool must
+        // never run them on the caller; single-flight keeps the queue to one task per IP
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new CustomizableThreadFactory("reputation-upstream-"));
+    }
+
+    /**
+     * Each enabled provider is metered and guarded on its own, then queried together
+     * with hedging; the merged verdict is what the cache stores
+     */
+    @Bean
+    public CompositeThreatIntelligenceApi compositeThreatIntelligenceApi(List<ReputationProvider> providers,
+                                                                         ReputationAggregationProperties aggregationProperties,
+                                                                         ReputationUpstreamProperties upstreamProperties,
+                                                                         MeterRegistry meterRegistry) {
+        Map<String, ReputationProvider> byName = new HashMap<>();
+        providers.forEach(provider -> byName.put(provider.name(), provider));
+
+        List<ResilientThreatIntelligenceApi> enabled = new ArrayList<>();
+        for (String name : aggregationProperties.getProviders()) {
+            ReputationProvider provider = byName.get(name);
+            if (provider == null) {
+                throw new IllegalStateException("Unknown reputation provider '" + name + "', available: " + byName.keySet());
+            }
+            enabled.add(new ResilientThreatIntelligenceApi(
+                new MeteredThreatIntelligenceApi(provider, name, meterRegistry), name, upstreamProperties));
+        }
+        return new CompositeThreatIntelligenceApi(enabled, aggregationProperties);
+    }
+
+    @Bean
+    public CachingThreatIntelligenceApi cachingThreatIntelligenceApi(CompositeThreatIntelligenceApi upstream,
+                                                                     ReputationCacheProperties properties,
+                                                                     ExecutorService reputationUpstreamExecutor) {
+        return new CachingThreatIntelligenceApi(upstream, properties, reputationUpstreamExecutor);
+    }
+
+    /**
+     * Sits between the blocklist and the cache: IPs nobody has reported skip both
+     */
+    @Bean
+    public IndicatorFilterThreatIntelligenceApi indicatorFilterThreatIntelligenceApi(CachingThreatIntelligenceApi cachingThreatIntelligenceApi,
+                                                                                     IndicatorFilter indicatorFilter,
+                                                                                     IndicatorFilterProperties properties) {
+        return new IndicatorFilterThreatIntelligenceApi(cachingThreatIntelligenceApi, indicatorFilter, properties);
+    }
+
+    /**
+     * Outermost layer: locally listed ranges never reach the filter, cache or provider
+     */
+    @Bean
+    @Primary
+    public BlocklistThreatIntelligenceApi blocklistThreatIntelligenceApi(IndicatorFilterThreatIntelligenceApi indicatorFilterThreatIntelligenceApi,
+                                                                         CidrBlocklist cidrBlocklist) {
+        return new BlocklistThreatIntelligenceApi(indicatorFilterThreatIntelligenceApi, cidrBlocklist);
+    }
+}
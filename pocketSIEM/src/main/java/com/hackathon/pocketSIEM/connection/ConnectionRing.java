@@ -0,0 +1,94 @@
+package com.hackathon.pocketSIEM.connection;
+
+import com.hackathon.pocketSIEM.dto.NetworkConnectionResponse;
+
+import java.util.List;
+
+/**
+ * The most recent connections of one device in a fixed ring of parallel arrays.
+ * Every slot is allocated up front, so memory per device is fixed and an append
+ * only overwrites primitives and references. Guarded by its own monitor; devices
+ * never share a ring.
+ */
+public final class ConnectionRing {
+
+    private final int mask;
+    private final long[] timestamps;
+    private final long[] bytes;
+    private final int[] ports;
+    private final String[] appNames;
+    private final String[] appPackages;
+    private final String[] destinationIps;
+    private final String[] protocols;
+    private final String[] statuses;
+    private long written;
+    private long newestTimestamp = Long.MIN_VALUE;
+
+    /**
+     * @param capacity connections kept, rounded up to a power of two
+     */
+    public ConnectionRing(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.timestamps = new long[size];
+        this.bytes = new long[size];
+        this.ports = new int[size];
+        this.appNames = new String[size];
+        this.appPackages = new String[size];
+        this.destinationIps = new String[size];
+        this.protocols = new String[size];
+        this.statuses = new String[size];
+    }
+
+    public synchronized void append(String appName, String appPackage, String destinationIp, int port,
+                                    String protocol, String status, long transferred, long timestamp) {
+        int slot = (int) (written++ & mask);
+        appNames[slot] = appName;
+        appPackages[slot] = appPackage;
+        destinationIps[slot] = destinationIp;
+        ports[slot] = port;
+        protocols[slot] = protocol;
+        statuses[slot] = status;
+        bytes[slot] = transferred;
+        timestamps[slot] = timestamp;
+        newestTimestamp = Math.max(newestTimestamp, timestamp);
+    }
+
+    /**
+     * Adds connections with a timestamp at or after sinceMillis to out, most recently
+     * appended first, up to limit
+     *
+     * @return the number added
+     */
+    public synchronized int copyRecent(long sinceMillis, int limit, List<NetworkConnectionResponse> out) {
+        int available = (int) Math.min(written, capacity());
+        int added = 0;
+        for (int i = 1; i <= available && added < limit; i++) {
+            int slot = (int) ((written - i) & mask);
+            if (timestamps[slot] < sinceMillis) {
+                continue;
+            }
+            out.add(NetworkConnectionResponse.builder()
+                .appName(appNames[slot])
+                .appPackage(appPackages[slot])
+                .destinationIp(destinationIps[slot])
+                .port(ports[slot])
+                .protocol(protocols[slot])
+                .status(statuses[slot])
+                .dataTransferred(bytes[slot])
+                .timestamp(timestamps[slot])
+                .build());
+            added++;
+        }
+        return added;
+    }
+
+    /** Latest connection timestamp seen, or Long.MIN_VALUE if empty */
+    public synchronized long newestTimestamp() {
+        return newestTimestamp;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
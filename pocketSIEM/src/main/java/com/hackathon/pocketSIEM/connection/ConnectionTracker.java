@@ -0,0 +1,118 @@
+package com.hackathon.pocketSIEM.connection;
+
+import com.hackathon.pocketSIEM.config.ConnectionProperties;
+import com.hackathon.pocketSIEM.dto.NetworkConnectionResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent network connections per device, each device in its own {@link ConnectionRing}.
+ * Nothing is persisted: the live view is whatever arrived within the window. Devices
+ * without a connection inside the window are evicted by a periodic sweep, which also
+ * trims the map back to its configured bound.
+ */
+@Component
+@Slf4j
+public class ConnectionTracker {
+
+    private final ConnectionProperties properties;
+    private final ConcurrentHashMap<String, ConnectionRing> devices = new ConcurrentHashMap<>();
+    private volatile boolean received;
+
+    public ConnectionTracker(ConnectionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("connections.devices.tracked", devices, Map::size)
+            .description("Devices with live connections in memory")
+            .register(meterRegistry);
+    }
+
+    public void record(String deviceId, String appName, String appPackage, String destinationIp, int port,
+                       String protocol, String status, long transferred, long timestamp) {
+        // Inside compute, so the sweep cannot evict the ring between lookup and append
+        devices.compute(deviceId, (id, ring) -> {
+            ConnectionRing target = ring == null ? new ConnectionRing(properties.getBufferSize()) : ring;
+            target.append(appName, appPackage, destinationIp, port, protocol, status, transferred, timestamp);
+            return target;
+        });
+        received = true;
+    }
+
+    /** Whether any device has recorded a connection since startup */
+    public boolean hasReceivedConnections() {
+        return received;
+    }
+
+    /**
+     * Connections of one device inside the window, newest first; unknown devices read as empty
+     */
+    public List<NetworkConnectionResponse> recentConnections(String deviceId) {
+        ConnectionRing ring = devices.get(deviceId);
+        if (ring == null) {
+            return List.of();
+        }
+        List<NetworkConnectionResponse> connections = new ArrayList<>();
+        ring.copyRecent(windowStart(), ring.capacity(), connections);
+        return connections;
+    }
+
+    /**
+     * The newest connections inside the window across all devices, newest first; the
+     * {@link SampleConnections} until a device has posted any, if the fallback is on
+     */
+    public List<NetworkConnectionResponse> recentFleetConnections() {
+        if (!received && properties.isSampleFallback()) {
+            return SampleConnections.at(System.currentTimeMillis());
+        }
+        int limit = properties.getMaxFleetConnections();
+        long since = windowStart();
+        List<NetworkConnectionResponse> connections = new ArrayList<>();
+        for (ConnectionRing ring : devices.values()) {
+            if (ring.newestTimestamp() >= since) {
+                ring.copyRecent(since, limit, connections);
+            }
+        }
+        connections.sort(Comparator.comparingLong(NetworkConnectionResponse::getTimestamp).reversed());
+        return connections.size() > limit ? new ArrayList<>(connections.subList(0, limit)) : connections;
+    }
+
+    public int trackedDevices() {
+        return devices.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.connections.eviction-interval:PT1M}")
+    public void evictIdleDevices() {
+        long since = windowStart();
+        int before = devices.size();
+        for (String deviceId : devices.keySet()) {
+            devices.computeIfPresent(deviceId, (id, ring) -> ring.newestTimestamp() < since ? null : ring);
+        }
+
+        int overflow = devices.size() - properties.getMaxDevices();
+        if (overflow > 0) {
+            devices.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().newestTimestamp()))
+                .limit(overflow)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(devices::remove);
+        }
+
+        int evicted = before - devices.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle devices from live connections, {} remain", evicted, devices.size());
+        }
+    }
+
+    private long windowStart() {
+        return System.currentTimeMillis() - properties.getWindow().toMillis();
+    }
+}
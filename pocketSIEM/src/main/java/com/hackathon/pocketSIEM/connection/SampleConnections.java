@@ -0,0 +1,70 @@
+package com.hackathon.pocketSIEM.connection;
+
+import com.hackathon.pocketSIEM.dto.NetworkConnectionResponse;
+
+import java.util.List;
+
+/**
+ * The fixed connection list /live-connections served before devices pushed their own.
+ * The mobile app does not POST /connections yet, so this keeps its Live Monitor
+ * populated until one does (app.connections.sample-fallback).
+ */
+public final class SampleConnections {
+
+    private SampleConnections() {
+    }
+
+    /** Sample connections with timestamps relative to now, in epoch millis */
+    public static List<NetworkConnectionResponse> at(long now) {
+        return List.of(
+            // Safe connections
+            connection("Chrome", "com.android.chrome", "142.251.32.46", 443, "TCP", "SAFE", 1024L * 512, now - 1000),
+            connection("Gmail", "com.google.android.gm", "172.217.14.213", 993, "TCP", "SAFE", 1024L * 256, now - 9000),
+            connection("WhatsApp", "com.whatsapp", "157.240.241.61", 443, "TCP", "SAFE", 1024L * 128, now - 15000),
+            connection("Instagram", "com.instagram.android", "157.240.22.174", 443, "TCP", "SAFE",
+                1024L * 1024 * 2, now - 22000),
+            connection("Spotify", "com.spotify.music", "35.186.224.25", 443, "TCP", "SAFE",
+                1024L * 1024 * 8, now - 30000),
+            connection("YouTube", "com.google.android.youtube", "142.250.185.78", 443, "TCP", "SAFE",
+                1024L * 1024 * 15, now - 45000),
+            connection("Netflix", "com.netflix.mediaclient", "54.192.36.89", 443, "TCP", "SAFE",
+                1024L * 1024 * 25, now - 60000),
+            connection("Google Maps", "com.google.android.apps.maps", "142.251.33.110", 443, "TCP", "SAFE",
+                1024L * 768, now - 75000),
+            connection("Telegram", "org.telegram.messenger", "149.154.167.51", 443, "TCP", "SAFE",
+                1024L * 384, now - 90000),
+            connection("Twitter", "com.twitter.android", "104.244.42.193", 443, "TCP", "SAFE",
+                1024L * 512, now - 105000),
+
+            // Suspicious connections
+            connection("Unknown App", "com.suspicious.app", "45.142.182.99", 8080, "TCP", "SUSPICIOUS",
+                1024L * 100, now - 18000),
+            connection("Background Service", "com.unknown.service", "185.220.101.45", 9050, "TCP", "SUSPICIOUS",
+                1024L * 64, now - 120000),
+            connection("Ad Network", "com.adnetwork.sdk", "23.236.62.147", 80, "TCP", "SUSPICIOUS",
+                1024L * 32, now - 135000),
+
+            // Malicious connections
+            connection("Banking Trojan", "com.malicious.banking", "103.145.45.67", 443, "TCP", "MALICIOUS",
+                1024L * 50, now - 28000),
+            connection("Data Exfiltrator", "com.suspicious.tracker", "89.248.174.42", 4444, "TCP", "MALICIOUS",
+                1024L * 1024 * 3, now - 150000),
+            connection("C2 Client", "com.malware.c2", "198.51.100.42", 53, "UDP", "MALICIOUS",
+                1024L * 16, now - 180000));
+    }
+
+    private static NetworkConnectionResponse connection(String appName, String appPackage, String destinationIp,
+                                                        int port, String protocol, String status,
+                                                        long dataTransferred, long timestamp) {
+        return NetworkConnectionResponse.builder()
+            .appName(appName)
+            .appPackage(appPackage)
+            .destinationIp(destinationIp)
+            .port(port)
+            .protocol(protocol)
+            .status(status)
+            .dataTransferred(dataTransferred)
+            .timestamp(timestamp)
+            .build();
+    }
+}
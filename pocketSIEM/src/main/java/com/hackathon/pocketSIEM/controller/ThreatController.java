@@ -1,16 +1,36 @@
 package com.hackathon.pocketSIEM.controller;
 
+import com.hackathon.pocketSIEM.analytics.HotReportTier;
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.config.ReportQueryProperties;
+import com.hackathon.pocketSIEM.config.SketchProperties;
 import com.hackathon.pocketSIEM.dto.*;
 import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
 import com.hackathon.pocketSIEM.service.ThreatService;
+import com.hackathon.pocketSIEM.sketch.HeavyHitters;
+import com.hackathon.pocketSIEM.stream.DashboardBroadcaster;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -18,7 +38,14 @@ import java.util.List;
 @Slf4j
 public class ThreatController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ThreatService threatService;
+    private final ReportQueryProperties reportQueryProperties;
+    private final SketchProperties sketchProperties;
+    private final CorrelationProperties correlationProperties;
+    private final DashboardBroadcaster dashboardBroadcaster;
 
     /**
      * GET /api/v1/reputation?ip={ip_address}
@@ -29,7 +56,7 @@ public class ThreatController {
             @RequestParam(name = "ip") String ipAddress) {
 
         log.info("Reputation check request for IP: {}", ipAddress);
-        if (!isValidIpAddress(ipAddress)) {
+        if (!IpAddress.isValid(ipAddress)) {
             return ResponseEntity.badRequest().build();
         }
 
@@ -37,9 +64,39 @@ public class ThreatController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/v1/reputation/batch
+     * Check reputation of up to 500 IP addresses in one round trip
+     */
+    @PostMapping("/reputation/batch")
+    public ResponseEntity<ReputationBatchResponse> getIpReputations(
+            @Valid @RequestBody ReputationBatchRequest request) {
+
+        log.info("Batch reputation check request for {} IPs", request.getIps().size());
+        // Different spellings of one address are looked up once, under its canonical form
+        Set<String> validIps = new LinkedHashSet<>();
+        List<String> invalidIps = new ArrayList<>();
+        for (String ip : request.getIps()) {
+            IpAddress address = IpAddress.tryParse(ip);
+            if (address != null) {
+                validIps.add(address.toString());
+            } else {
+                invalidIps.add(ip);
+            }
+        }
+
+        List<ThreatReputationResponse> results = validIps.isEmpty()
+                ? List.of()
+                : threatService.checkIpReputations(validIps);
+        return ResponseEntity.ok(ReputationBatchResponse.builder()
+                .results(results)
+                .invalidIps(invalidIps)
+                .build());
+    }
+
     /**
      * POST /api/v1/report
-     * Submit a new threat report
+     * Submit a new threat report (201 when stored, 202 when queued for batch ingest)
      */
     @PostMapping("/report")
     public ResponseEntity<ThreatReport> reportThreat(
@@ -49,89 +106,351 @@ public class ThreatController {
                 request.getAppName(), request.getTargetIp());
 
         ThreatReport savedReport = threatService.reportThreat(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedReport);
+        HttpStatus status = threatService.isAsyncIngest() ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(savedReport);
+    }
+
+    /**
+     * POST /api/v1/reports/bulk
+     * Upload a backlog of threat reports as newline-delimited JSON, one
+     * ThreatReportRequest per line. The body is parsed as it streams in.
+     */
+    @PostMapping(value = "/reports/bulk", consumes = {"application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<BulkIngestResponse> bulkReportThreats(InputStream body) throws IOException {
+        log.info("Processing bulk threat report upload");
+        BulkIngestResponse result = threatService.importReports(body);
+        return ResponseEntity.ok(result);
     }
 
+    /**
+     * GET /api/v1/reports/{ip}?cursor={cursor}&limit={limit}
+     * One page of reports for an IP, newest first. When more reports follow, the
+     * X-Next-Cursor header holds the cursor for the next page.
+     */
     @GetMapping("/reports/{ip}")
-    public ResponseEntity<List<ThreatReport>> getReportsForIp(@PathVariable String ip) {
-        if (!isValidIpAddress(ip)) {
+    public ResponseEntity<List<ThreatReport>> getReportsForIp(
+            @PathVariable String ip,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+
+        IpAddress address = IpAddress.tryParse(ip);
+        ReportCursor position = parseCursor(cursor);
+        Integer pageSize = pageSize(limit);
+        if (address == null || position == null || pageSize == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return pageResponse(threatService.getReportsForIp(address, position, pageSize));
+    }
+
+    /**
+     * GET /api/v1/reports/{ip} with Accept: application/x-ndjson
+     * Streams every report for an IP after the optional cursor, one JSON object per line
+     */
+    @GetMapping(value = "/reports/{ip}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamReportsForIp(
+            @PathVariable String ip,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        IpAddress address = IpAddress.tryParse(ip);
+        ReportCursor position = parseCursor(cursor);
+        if (address == null || position == null) {
             return ResponseEntity.badRequest().build();
         }
-        List<ThreatReport> reports = threatService.getReportsForIp(ip);
-        return ResponseEntity.ok(reports);
+        log.info("Streaming reports for IP: {}", address);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(out -> threatService.streamReportsForIp(address, position, out));
     }
 
+    /**
+     * GET /api/v1/reports/app/{appName}?cursor={cursor}&limit={limit}
+     * One page of reports for an app, paginated like /reports/{ip}
+     */
     @GetMapping("/reports/app/{appName}")
-    public ResponseEntity<List<ThreatReport>> getReportsForApp(@PathVariable String appName) {
-        List<ThreatReport> reports = threatService.getReportsForApp(appName);
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<List<ThreatReport>> getReportsForApp(
+            @PathVariable String appName,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+
+        ReportCursor position = parseCursor(cursor);
+        Integer pageSize = pageSize(limit);
+        if (position == null || pageSize == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return pageResponse(threatService.getReportsForApp(appName, position, pageSize));
+    }
+
+    @GetMapping(value = "/reports/app/{appName}", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamReportsForApp(
+            @PathVariable String appName,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+
+        ReportCursor position = parseCursor(cursor);
+        if (position == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Streaming reports for app: {}", appName);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(out -> threatService.streamReportsForApp(appName, position, out));
     }
 
     @GetMapping("/reports/ip/{ip}/count")
     public ResponseEntity<Integer> getRecentReportCount(@PathVariable String ip) {
-        if (!isValidIpAddress(ip)) {
+        IpAddress address = IpAddress.tryParse(ip);
+        if (address == null) {
             return ResponseEntity.badRequest().build();
         }
-        Integer count = threatService.getRecentReportCount(ip);
+        Integer count = threatService.getRecentReportCount(address);
         return ResponseEntity.ok(count);
     }
 
     /**
-     * GET /api/v1/device-stats
-     * Get device security statistics for dashboard
+     * GET /api/v1/device-stats?deviceId={deviceId}
+     * Get security statistics for one device, or fleet-wide without deviceId
      */
     @GetMapping("/device-stats")
-    public ResponseEntity<DeviceStatsResponse> getDeviceStats() {
+    public ResponseEntity<DeviceStatsResponse> getDeviceStats(
+            @RequestParam(name = "deviceId", required = false) String deviceId) {
         log.info("Fetching device statistics");
-        DeviceStatsResponse stats = threatService.getDeviceStats();
+        DeviceStatsResponse stats = threatService.getDeviceStats(deviceId);
         return ResponseEntity.ok(stats);
     }
 
     /**
-     * GET /api/v1/attack-surface
-     * Get attack surface data for last hour chart
+     * GET /api/v1/attack-surface?window=1h&resolution=5m&deviceId={deviceId}
+     * Get attack surface chart data, e.g. 1h at 5m, 24h at 1h or 7d at 6h; with a
+     * deviceId, only that device's reports and at most the hot tier retention
      */
     @GetMapping("/attack-surface")
-    public ResponseEntity<List<AttackSurfaceDataPoint>> getAttackSurfaceData() {
+    public ResponseEntity<List<AttackSurfaceDataPoint>> getAttackSurfaceData(
+            @RequestParam(name = "window", defaultValue = "1h") String window,
+            @RequestParam(name = "resolution", defaultValue = "5m") String resolution,
+            @RequestParam(name = "deviceId", required = false) String deviceId) {
+
         log.info("Fetching attack surface data");
-        List<AttackSurfaceDataPoint> data = threatService.getAttackSurfaceData();
+        Duration windowDuration = parseDuration(window);
+        Duration resolutionDuration = parseDuration(resolution);
+        if (windowDuration == null || resolutionDuration == null
+                || !threatService.supportsAttackSurfaceWindow(windowDuration, resolutionDuration, deviceId)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<AttackSurfaceDataPoint> data = threatService.getAttackSurfaceData(windowDuration, resolutionDuration, deviceId);
         return ResponseEntity.ok(data);
     }
 
     /**
-     * GET /api/v1/live-connections
-     * Get active network connections for live monitor
+     * GET /api/v1/analytics/{dimension}/{key}?window=24h
+     * Totals and busiest apps for a device or IP, or busiest IPs for an app, over a
+     * window up to the hot tier retention
+     */
+    @GetMapping("/analytics/{dimension}/{key}")
+    public ResponseEntity<ReportAnalyticsResponse> getAnalytics(
+            @PathVariable String dimension,
+            @PathVariable String key,
+            @RequestParam(name = "window", defaultValue = "24h") String window) {
+
+        log.info("Fetching {} analytics", dimension);
+        HotReportTier.Dimension parsedDimension = parseDimension(dimension);
+        Duration windowDuration = parseDuration(window);
+        if (parsedDimension == null || windowDuration == null || !threatService.supportsAnalyticsWindow(windowDuration)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (parsedDimension == HotReportTier.Dimension.IP) {
+            IpAddress ipAddress = IpAddress.tryParse(key);
+            if (ipAddress == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            key = ipAddress.toString();
+        }
+
+        return ResponseEntity.ok(threatService.getAnalytics(parsedDimension, key, windowDuration));
+    }
+
+    /**
+     * GET /api/v1/top/{ips|apps}?window=1h&limit=10
+     * Most reported IPs or apps over the last hour or day, with distinct-device estimates
+     */
+    @GetMapping("/top/{field}")
+    public ResponseEntity<List<HeavyHitterResponse>> getTopReported(
+            @PathVariable String field,
+            @RequestParam(name = "window", defaultValue = "1h") String window,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+
+        log.info("Fetching top reported {}", field);
+        HeavyHitters.Field parsedField = parseField(field);
+        Duration windowDuration = parseDuration(window);
+        Integer topSize = topSize(limit);
+        if (parsedField == null || windowDuration == null || topSize == null
+                || !threatService.supportsTopReportedWindow(windowDuration)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(threatService.getTopReported(parsedField, windowDuration, topSize));
+    }
+
+    /**
+     * GET /api/v1/top/{ips|apps}/{key}?window=24h
+     * Report and distinct-device estimates for one IP or app; 404 when it is not among
+     * the keys the sketches track
+     */
+    @GetMapping("/top/{field}/{key}")
+    public ResponseEntity<HeavyHitterResponse> getReportedKey(
+            @PathVariable String field,
+            @PathVariable String key,
+            @RequestParam(name = "window", defaultValue = "1h") String window) {
+
+        HeavyHitters.Field parsedField = parseField(field);
+        Duration windowDuration = parseDuration(window);
+        if (parsedField == null || windowDuration == null || !threatService.supportsTopReportedWindow(windowDuration)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (parsedField == HeavyHitters.Field.IP) {
+            IpAddress ipAddress = IpAddress.tryParse(key);
+            if (ipAddress == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            key = ipAddress.toString();
+        }
+
+        HeavyHitterResponse response = threatService.getReportedKey(parsedField, windowDuration, key);
+        return response == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/v1/alerts?window=24h&rule={rule}&key={key}&limit=100
+     * Alerts raised by the correlation rules within the window, newest first
+     */
+    @GetMapping("/alerts")
+    public ResponseEntity<List<AlertResponse>> getAlerts(
+            @RequestParam(name = "window", defaultValue = "24h") String window,
+            @RequestParam(name = "rule", required = false) String rule,
+            @RequestParam(name = "key", required = false) String key,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+
+        Duration windowDuration = parseDuration(window);
+        Integer alertLimit = alertLimit(limit);
+        if (windowDuration == null || windowDuration.isNegative() || alertLimit == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(threatService.getAlerts(windowDuration, rule, key, alertLimit));
+    }
+
+    /**
+     * GET /api/v1/live-connections?deviceId={deviceId}
+     * Connections seen in the live window for one device, or the newest across the fleet
      */
     @GetMapping("/live-connections")
-    public ResponseEntity<List<NetworkConnectionResponse>> getLiveConnections() {
+    public ResponseEntity<List<NetworkConnectionResponse>> getLiveConnections(
+            @RequestParam(name = "deviceId", required = false) String deviceId) {
         log.info("Fetching live network connections");
-        List<NetworkConnectionResponse> connections = threatService.getLiveConnections();
+        List<NetworkConnectionResponse> connections = threatService.getLiveConnections(deviceId);
         return ResponseEntity.ok(connections);
     }
 
     /**
-     * Validates IPv4 and IPv6 addresses
-     * IPv4: Each octet must be 0-255
-     * IPv6: Standard hexadecimal format with colons
+     * POST /api/v1/connections
+     * Record up to 500 connections of one device; returns them with their status
+     */
+    @PostMapping("/connections")
+    public ResponseEntity<List<NetworkConnectionResponse>> recordConnections(
+            @Valid @RequestBody ConnectionBatchRequest request) {
+        List<NetworkConnectionResponse> recorded = threatService.recordConnections(request);
+        return ResponseEntity.ok(recorded);
+    }
+
+    /**
+     * GET /api/v1/stream?deviceId={deviceId}
+     * Server-sent events with dashboard updates for one device, or the fleet without
+     * deviceId: device-stats, attack-surface (changed points only) and reports
      */
-    private boolean isValidIpAddress(String ip) {
-        if (ip == null || ip.isEmpty()) {
-            return false;
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(name = "deviceId", required = false) String deviceId) {
+
+        SseEmitter emitter = dashboardBroadcaster.subscribe(deviceId);
+        if (emitter == null) {
+            log.warn("Stream subscriber limit reached");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
         }
+        log.info("Stream opened for device: {}", deviceId == null ? "all" : deviceId);
+        return ResponseEntity.ok(emitter);
+    }
+
+    private ResponseEntity<List<ThreatReport>> pageResponse(ReportPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getReports());
+    }
+
+    // Missing cursor means the first page; null means the token is malformed
+    private ReportCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ReportCursor.START;
+        }
+        try {
+            return ReportCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Missing limit means the default page size; oversized limits are capped, non-positive ones rejected
+    private Integer pageSize(Integer limit) {
+        if (limit == null) {
+            return reportQueryProperties.getDefaultPageSize();
+        }
+        if (limit < 1) {
+            return null;
+        }
+        return Math.min(limit, reportQueryProperties.getMaxPageSize());
+    }
 
-        // IPv4 validation with proper octet range checking (0-255)
-        String ipv4Pattern = "^((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}$";
+    private HeavyHitters.Field parseField(String value) {
+        return switch (value) {
+            case "ips" -> HeavyHitters.Field.IP;
+            case "apps" -> HeavyHitters.Field.APP;
+            default -> null;
+        };
+    }
+
+    private Integer topSize(Integer limit) {
+        if (limit == null) {
+            return sketchProperties.getDefaultLimit();
+        }
+        if (limit < 1) {
+            return null;
+        }
+        return Math.min(limit, sketchProperties.getMaxLimit());
+    }
+
+    private Integer alertLimit(Integer limit) {
+        if (limit == null) {
+            return correlationProperties.getDefaultLimit();
+        }
+        if (limit < 1) {
+            return null;
+        }
+        return Math.min(limit, correlationProperties.getMaxLimit());
+    }
 
-        // IPv6 validation (standard and compressed formats)
-        // Supports full addresses, compressed (::), and mixed IPv4-mapped
-        String ipv6Pattern = "^("
-                + "([0-9a-fA-F]{1,4}:){7}[0-9a-fA-F]{1,4}|" // Full form
-                + "([0-9a-fA-F]{1,4}:){1,7}:|" // Compressed
-                + "([0-9a-fA-F]{1,4}:){1,6}:[0-9a-fA-F]{1,4}|" // Compressed single
-                + "::([0-9a-fA-F]{1,4}:){0,6}[0-9a-fA-F]{1,4}|" // Leading ::
-                + "([0-9a-fA-F]{1,4}:){1,6}:((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}" // IPv4-mapped
-                + ")$";
+    private HotReportTier.Dimension parseDimension(String value) {
+        try {
+            return HotReportTier.Dimension.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
-        return ip.matches(ipv4Pattern) || ip.matches(ipv6Pattern);
+    private Duration parseDuration(String value) {
+        try {
+            return DurationStyle.detectAndParse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+
+/**
+ * Receives the alerts raised by CorrelationEngine, on the ingest thread that
+ * raised them; implementations must not block.
+ */
+public interface AlertSink {
+    void publish(CorrelationAlert alert);
+}
@@ -0,0 +1,145 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import com.hackathon.pocketSIEM.repository.CorrelationAlertRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * correlation_alerts, written off the ingest path: published alerts are queued
+ * without blocking and a single writer thread saves them in batches, so an alert
+ * becomes queryable shortly after the report that raised it.
+ */
+@Component
+@Slf4j
+public class AlertStore implements AlertSink, SmartLifecycle {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long POLL_MILLIS = 200;
+    // Stop after the web server (DEFAULT_PHASE - 2048) and the ingest pipeline have
+    // finished their in-flight work, so the alerts they raise are still written
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final CorrelationAlertRepository alertRepository;
+    private final BlockingQueue<CorrelationAlert> queue;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AlertStore(CorrelationAlertRepository alertRepository,
+                      CorrelationProperties properties,
+                      MeterRegistry meterRegistry) {
+        this.alertRepository = alertRepository;
+        this.queue = new ArrayBlockingQueue<>(properties.getAlertQueueCapacity());
+
+        Gauge.builder("correlation.alerts.queue.depth", queue, BlockingQueue::size)
+            .description("Alerts waiting to be written")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("correlation.alerts.dropped")
+            .description("Alerts lost because the queue was full or the store had stopped")
+            .register(meterRegistry);
+        this.failed = Counter.builder("correlation.alerts.failed")
+            .description("Alerts lost because their batch failed to write")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(CorrelationAlert alert) {
+        if (!running || !queue.offer(alert)) {
+            dropped.increment();
+        } else if (!running && queue.remove(alert)) {
+            // Stopped while offering: the writer may already have exited
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Alerts triggered since the given time, newest first, optionally for one rule or key
+     */
+    public List<CorrelationAlert> findRecent(LocalDateTime since, String rule, String key, int limit) {
+        return alertRepository.findRecent(since, rule, key, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "correlation-alert-writer");
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<CorrelationAlert> stranded = new ArrayList<>();
+        queue.drainTo(stranded);
+        if (!stranded.isEmpty()) {
+            dropped.increment(stranded.size());
+            log.warn("Alert store stopped with {} alerts still queued", stranded.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        List<CorrelationAlert> batch = new ArrayList<>(BATCH_SIZE);
+        boolean interrupted = false;
+
+        // Keep draining after stop() so queued alerts are written before shutdown
+        while (running || !queue.isEmpty()) {
+            try {
+                CorrelationAlert first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    alertRepository.saveAll(batch);
+                } catch (RuntimeException e) {
+                    failed.increment(batch.size());
+                    log.error("Failed to write batch of {} correlation alerts", batch.size(), e);
+                }
+                batch.clear();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
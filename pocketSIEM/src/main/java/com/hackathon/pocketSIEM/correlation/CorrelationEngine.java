@@ -0,0 +1,101 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Evaluates the configured correlation rules against every accepted report, on
+ * the ingest thread, and publishes the alerts they raise to the {@link AlertSink}.
+ * <p>
+ * Rule state is incremental: each report touches one key per rule, holding at most
+ * {@code threshold} values. Keys are partitioned by hash with a monitor per
+ * partition, so concurrent ingest threads evaluate in parallel unless their
+ * reports share a partition. Rule state is not replayed on startup; rule windows
+ * are short and replaying them would raise the stored alerts a second time.
+ */
+@Component
+@Slf4j
+public class CorrelationEngine implements ThreatReportListener {
+
+    private final boolean enabled;
+    private final List<CorrelationRule> rules;
+    private final AlertSink alertSink;
+    private final Counter alertsRaised;
+
+    public CorrelationEngine(CorrelationProperties properties, AlertSink alertSink, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.alertSink = alertSink;
+        int partitions = partitionCount(properties.getPartitions());
+        this.rules = properties.getRules().stream()
+            .map(rule -> new CorrelationRule(rule, partitions, properties.getMaxKeysPerRule()))
+            .toList();
+
+        Gauge.builder("correlation.keys.tracked", this, CorrelationEngine::trackedKeys)
+            .description("Keys with correlation rule state in memory")
+            .register(meterRegistry);
+        this.alertsRaised = Counter.builder("correlation.alerts.raised")
+            .description("Alerts raised by the correlation rules")
+            .register(meterRegistry);
+        if (enabled) {
+            log.info("Correlation engine evaluating {} rules over {} partitions each", rules.size(), partitions);
+        }
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        if (!enabled) {
+            return;
+        }
+        long second = report.getReportedAt().toEpochSecond(ZoneOffset.UTC);
+        for (CorrelationRule rule : rules) {
+            CorrelationAlert alert = rule.evaluate(report, second);
+            if (alert != null) {
+                alertsRaised.increment();
+                log.info("Correlation rule {} raised an alert for {}", alert.getRuleName(), alert.getGroupKey());
+                alertSink.publish(alert);
+            }
+        }
+    }
+
+    /**
+     * Drops keys with nothing left in their rule's window. Keys beyond
+     * maxKeysPerRule are already dropped as reports arrive.
+     */
+    @Scheduled(fixedDelayString = "${app.correlation.eviction-interval:PT1M}")
+    public void evictExpiredKeys() {
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        int evicted = 0;
+        for (CorrelationRule rule : rules) {
+            evicted += rule.evictExpired(now);
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} expired correlation keys", evicted);
+        }
+    }
+
+    public long trackedKeys() {
+        long keys = 0;
+        for (CorrelationRule rule : rules) {
+            keys += rule.trackedKeys();
+        }
+        return keys;
+    }
+
+    // A power of two so a key's partition is a mask of its hash
+    private static int partitionCount(int configured) {
+        int partitions = configured > 0 ? configured : Runtime.getRuntime().availableProcessors() * 4;
+        return partitions == 1 ? 1 : Integer.highestOneBit(partitions - 1) << 1;
+    }
+}
@@ -0,0 +1,141 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The state of one configured rule: a {@link DistinctWindow} per key, spread over
+ * partitions by key hash. Each partition is its own monitor, so reports for keys in
+ * different partitions are evaluated concurrently, and each holds at most its share
+ * of maxKeysPerRule keys in access order, dropping the least recently reported.
+ */
+final class CorrelationRule {
+
+    private final CorrelationProperties.Rule rule;
+    private final long windowSeconds;
+    private final Partition[] partitions;
+    private final int mask;
+
+    CorrelationRule(CorrelationProperties.Rule rule, int partitionCount, int maxKeys) {
+        if (rule.getName() == null || rule.getGroupBy() == null || rule.getDistinct() == null
+                || rule.getGroupBy() == rule.getDistinct()) {
+            throw new IllegalArgumentException("Correlation rule needs a name and two different fields: " + rule);
+        }
+        if (rule.getThreshold() < 1 || rule.getWindow() == null || rule.getWindow().getSeconds() < 1) {
+            throw new IllegalArgumentException("Correlation rule needs a positive threshold and window: " + rule);
+        }
+        this.rule = rule;
+        this.windowSeconds = rule.getWindow().getSeconds();
+        this.partitions = new Partition[partitionCount];
+        this.mask = partitionCount - 1;
+        int keysPerPartition = Math.max(1, (maxKeys + partitionCount - 1) / partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(keysPerPartition);
+        }
+    }
+
+    String name() {
+        return rule.getName();
+    }
+
+    /**
+     * Counts the report against its key and returns the alert it raises, or null.
+     * A key raises at most one alert per window.
+     */
+    CorrelationAlert evaluate(ThreatReport report, long second) {
+        if (report.getUserSeverity() == null || report.getUserSeverity() < rule.getMinSeverity()) {
+            return null;
+        }
+        String key = field(report, rule.getGroupBy());
+        String value = field(report, rule.getDistinct());
+        if (key == null || value == null) {
+            return null;
+        }
+
+        long windowStart = second - windowSeconds;
+        Partition partition = partitions[spread(key.hashCode()) & mask];
+        int distinct;
+        String evidence;
+        synchronized (partition) {
+            DistinctWindow window = partition.computeIfAbsent(key, k -> new DistinctWindow(rule.getThreshold()));
+            distinct = window.observe(value, second, windowStart);
+            if (distinct < rule.getThreshold() || window.alertedWithin(second, windowSeconds)) {
+                return null;
+            }
+            window.lastAlert = second;
+            evidence = window.describe(windowStart, CorrelationAlert.MAX_EVIDENCE_LENGTH);
+        }
+
+        return CorrelationAlert.builder()
+            .ruleName(rule.getName())
+            .groupKey(key)
+            .distinctCount(distinct)
+            .evidence(evidence)
+            .windowStart(LocalDateTime.ofEpochSecond(windowStart, 0, ZoneOffset.UTC))
+            .triggeredAt(report.getReportedAt())
+            .build();
+    }
+
+    /** Drops keys with nothing seen since {@code now} minus the window */
+    int evictExpired(long now) {
+        long windowStart = now - windowSeconds;
+        int evicted = 0;
+        for (Partition partition : partitions) {
+            synchronized (partition) {
+                Iterator<DistinctWindow> windows = partition.values().iterator();
+                while (windows.hasNext()) {
+                    if (windows.next().expired(windowStart)) {
+                        windows.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    long trackedKeys() {
+        long keys = 0;
+        for (Partition partition : partitions) {
+            synchronized (partition) {
+                keys += partition.size();
+            }
+        }
+        return keys;
+    }
+
+    private static String field(ThreatReport report, CorrelationProperties.Field field) {
+        return switch (field) {
+            case IP -> report.getTargetIp();
+            case APP -> report.getAppName();
+            case DEVICE -> report.getDeviceId();
+        };
+    }
+
+    // String hashes are weak in the low bits the mask keeps
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Partition extends LinkedHashMap<String, DistinctWindow> {
+
+        private final int maxKeys;
+
+        Partition(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DistinctWindow> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hackathon.pocketSIEM.correlation;
+
+/**
+ * The most recently seen distinct values of one rule key, with the second each was
+ * last seen. A rule only needs to know whether {@code threshold} distinct values
+ * fall inside its window, so at most that many are kept: when full, a new value
+ * replaces the one seen longest ago. Not thread-safe; guarded by its partition.
+ */
+final class DistinctWindow {
+
+    private final String[] values;
+    private final long[] lastSeen;
+    private int size;
+
+    /** Epoch second of the last alert raised for this key */
+    long lastAlert = Long.MIN_VALUE;
+
+    DistinctWindow(int capacity) {
+        this.values = new String[capacity];
+        this.lastSeen = new long[capacity];
+    }
+
+    /**
+     * Records a value seen at {@code second} and returns how many kept values were
+     * seen at or after {@code windowStart}
+     */
+    int observe(String value, long second, long windowStart) {
+        int slot = -1;
+        int oldest = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i].equals(value)) {
+                slot = i;
+                break;
+            }
+            if (lastSeen[i] < lastSeen[oldest]) {
+                oldest = i;
+            }
+        }
+
+        if (slot >= 0) {
+            lastSeen[slot] = Math.max(lastSeen[slot], second);
+        } else if (size < values.length) {
+            values[size] = value;
+            lastSeen[size++] = second;
+        } else if (lastSeen[oldest] < second) {
+            values[oldest] = value;
+            lastSeen[oldest] = second;
+        }
+        // A late value older than every kept one changes nothing
+
+        int inWindow = 0;
+        for (int i = 0; i < size; i++) {
+            if (lastSeen[i] >= windowStart) {
+                inWindow++;
+            }
+        }
+        return inWindow;
+    }
+
+    boolean alertedWithin(long second, long seconds) {
+        return lastAlert != Long.MIN_VALUE && second - lastAlert < seconds;
+    }
+
+    /** The kept values seen at or after {@code windowStart}, comma separated */
+    String describe(long windowStart, int maxLength) {
+        StringBuilder evidence = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (lastSeen[i] < windowStart) {
+                continue;
+            }
+            if (!evidence.isEmpty()) {
+                evidence.append(',');
+            }
+            evidence.append(values[i]);
+        }
+        return evidence.length() > maxLength ? evidence.substring(0, maxLength) : evidence.toString();
+    }
+
+    /** True once no kept value was seen at or after {@code windowStart} */
+    boolean expired(long windowStart) {
+        for (int i = 0; i < size; i++) {
+            if (lastSeen[i] >= windowStart) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
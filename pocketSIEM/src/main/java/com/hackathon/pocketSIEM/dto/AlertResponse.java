@@ -0,0 +1,22 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertResponse {
+    private Long id;
+    private String rule;
+    private String key; // The IP, app or device the rule groups by
+    private Integer distinctCount;
+    private String evidence; // Distinct values counted, comma separated, possibly cut short
+    private LocalDateTime windowStart;
+    private LocalDateTime triggeredAt;
+}
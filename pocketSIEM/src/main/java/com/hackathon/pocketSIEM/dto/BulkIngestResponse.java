@@ -0,0 +1,28 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkIngestResponse {
+    private Long linesRead;
+    private Long accepted;
+    private Long rejected;
+    private List<LineError> errors; // first rejections only, see errorsTruncated
+    private Boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private Long line; // 1-based
+        private String message;
+    }
+}
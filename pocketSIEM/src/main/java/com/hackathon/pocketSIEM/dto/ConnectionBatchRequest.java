@@ -0,0 +1,28 @@
+package com.hackathon.pocketSIEM.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConnectionBatchRequest {
+
+    public static final int MAX_CONNECTIONS = 500;
+
+    @NotBlank(message = "Device ID is required")
+    private String deviceId;
+
+    @NotEmpty(message = "At least one connection is required")
+    @Size(max = MAX_CONNECTIONS, message = "At most " + MAX_CONNECTIONS + " connections per batch")
+    private List<@Valid ConnectionEventRequest> connections;
+}
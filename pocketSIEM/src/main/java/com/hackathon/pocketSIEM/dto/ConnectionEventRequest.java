@@ -0,0 +1,43 @@
+package com.hackathon.pocketSIEM.dto;
+
+import com.hackathon.pocketSIEM.validation.ValidIpAddress;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConnectionEventRequest {
+
+    private String appName;
+
+    @NotBlank(message = "App package is required")
+    private String appPackage;
+
+    @NotBlank(message = "Destination IP is required")
+    @ValidIpAddress
+    private String destinationIp;
+
+    @NotNull(message = "Port is required")
+    @Min(value = 0, message = "Port must be between 0 and 65535")
+    @Max(value = 65535, message = "Port must be between 0 and 65535")
+    private Integer port;
+
+    @Pattern(regexp = "TCP|UDP", message = "Protocol must be TCP or UDP")
+    private String protocol;
+
+    @PositiveOrZero(message = "Bytes must not be negative")
+    private Long bytes;
+
+    /** Epoch millis; the time of receipt when absent */
+    private Long timestamp;
+}
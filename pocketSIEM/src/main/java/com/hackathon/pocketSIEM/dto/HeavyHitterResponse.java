@@ -0,0 +1,17 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HeavyHitterResponse {
+    private String key; // IP address or app name
+    private Long reports; // Upper bound, may overcount
+    private Long guaranteedReports; // Lower bound on reports
+    private Long distinctDevices; // Estimate, about 3% error by default
+}
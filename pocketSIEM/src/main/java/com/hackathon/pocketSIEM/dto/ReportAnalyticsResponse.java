@@ -0,0 +1,36 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportAnalyticsResponse {
+    private String dimension; // "device", "ip" or "app"
+    private String key;
+    private String window; // e.g. "24h"
+    private Long reports;
+    private Double averageSeverity;
+    private Long criticalThreats;
+    private Long highThreats;
+    private Long suspiciousConnections;
+    private Integer distinctDevices;
+    private Integer distinctApps;
+    private Integer distinctIps;
+    private String topBy; // "app", or "ip" for an app
+    private List<KeyCount> top;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KeyCount {
+        private String key;
+        private Long count;
+    }
+}
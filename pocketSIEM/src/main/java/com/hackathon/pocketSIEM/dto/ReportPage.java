@@ -0,0 +1,18 @@
+package com.hackathon.pocketSIEM.dto;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportPage {
+    private List<ThreatReport> reports; // newest first
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,23 @@
+package com.hackathon.pocketSIEM.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReputationBatchRequest {
+
+    public static final int MAX_IPS = 500;
+
+    @NotEmpty(message = "At least one IP is required")
+    @Size(max = MAX_IPS, message = "At most " + MAX_IPS + " IPs per batch")
+    private List<String> ips;
+}
@@ -0,0 +1,17 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReputationBatchResponse {
+    private List<ThreatReputationResponse> results; // one per distinct valid address (canonical form), in request order
+    private List<String> invalidIps;
+}
@@ -0,0 +1,23 @@
+package com.hackathon.pocketSIEM.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One provider's contribution to a merged reputation verdict
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReputationSource {
+    private String provider;
+    private Integer riskScore;
+    private String category;
+    private String threatLevel;
+    private boolean stale;
+    private boolean hedged; // answered by the hedge request rather than the first one
+    private long latencyMs;
+}
@@ -1,7 +1,7 @@
 package com.hackathon.pocketSIEM.dto;
 
+import com.hackathon.pocketSIEM.validation.ValidIpAddress;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,10 +17,7 @@ public class ThreatReportRequest {
     private String appName;
     
     @NotBlank(message = "Target IP is required")
-    @Pattern(
-        regexp = "^(?:[0-9]{1,3}\\.){3}[0-9]{1,3}$|^([0-9a-fA-F]{0,4}:){2,7}[0-9a-fA-F]{0,4}$",
-        message = "Invalid IP address format"
-    )
+    @ValidIpAddress
     private String targetIp;
     
     private String protocol;
@@ -5,10 +5,12 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ThreatReputationResponse {
     private String ipAddress;
     private Integer riskScore;
@@ -19,4 +21,29 @@ public class ThreatReputationResponse {
     private Boolean isVpn;
     private Boolean isProxy;
     private String threatLevel;
+    private boolean stale; // last known verdict served while the provider is unavailable
+    private boolean unavailable; // no verdict could be given; threatLevel is UNKNOWN
+    private List<ReputationSource> sources; // per-provider answers behind a merged verdict
+
+    /**
+     * Placeholder for an IP whose lookup failed with no earlier verdict to fall back on
+     */
+    public static ThreatReputationResponse unavailable(String ipAddress) {
+        return ThreatReputationResponse.builder()
+            .ipAddress(ipAddress)
+            .threatLevel("UNKNOWN")
+            .unavailable(true)
+            .build();
+    }
+
+    /**
+     * Maps a 0-100 risk score to the threatLevel reported alongside it
+     */
+    public static String threatLevelFor(int riskScore) {
+        if (riskScore >= 75) return "CRITICAL";
+        if (riskScore >= 50) return "HIGH";
+        if (riskScore >= 25) return "MEDIUM";
+        if (riskScore >= 10) return "LOW";
+        return "SAFE";
+    }
 }
@@ -1,6 +1,7 @@
 package com.hackathon.pocketSIEM.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -40,6 +41,44 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestQueueFull(
+            IngestQueueFullException ex,
+            WebRequest request) {
+        
+        log.warn(ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .message("Report ingestion is saturated, retry shortly")
+            .timestamp(LocalDateTime.now())
+            .path(request.getDescription(false).replace("uri=", ""))
+            .build();
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+    
+    @ExceptionHandler(ReputationUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleReputationUnavailable(
+            ReputationUnavailableException ex,
+            WebRequest request) {
+        
+        log.warn(ex.getMessage());
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .message("Reputation provider is unavailable, retry shortly")
+            .timestamp(LocalDateTime.now())
+            .path(request.getDescription(false).replace("uri=", ""))
+            .build();
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(errorResponse);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(
             Exception ex,
@@ -0,0 +1,8 @@
+package com.hackathon.pocketSIEM.exception;
+
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(int capacity) {
+        super("Report ingest queue is full (capacity " + capacity + ")");
+    }
+}
@@ -0,0 +1,8 @@
+package com.hackathon.pocketSIEM.exception;
+
+public class ReputationUnavailableException extends RuntimeException {
+
+    public ReputationUnavailableException(String ipAddress, Throwable cause) {
+        super("No reputation available for " + ipAddress + ": " + cause, cause);
+    }
+}
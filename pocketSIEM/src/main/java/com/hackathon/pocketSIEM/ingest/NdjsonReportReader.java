@@ -0,0 +1,137 @@
+package com.hackathon.pocketSIEM.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hackathon.pocketSIEM.dto.BulkIngestResponse;
+import com.hackathon.pocketSIEM.dto.ThreatReportRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Reads newline-delimited JSON threat reports one line at a time. Each line is
+ * bound and validated like a POST /report body; valid requests go to the sink,
+ * invalid ones are counted. Only one line is held in memory at a time.
+ */
+@Component
+public class NdjsonReportReader {
+
+    static final int MAX_LINE_LENGTH = 16 * 1024;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectReader requestReader;
+    private final Validator validator;
+
+    public NdjsonReportReader(ObjectMapper objectMapper, Validator validator) {
+        this.requestReader = objectMapper.readerFor(ThreatReportRequest.class);
+        this.validator = validator;
+    }
+
+    public BulkIngestResponse read(InputStream body, Consumer<ThreatReportRequest> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder(256);
+        List<BulkIngestResponse.LineError> errors = new ArrayList<>();
+        long lineNumber = 0;
+        long accepted = 0;
+        long rejected = 0;
+
+        LineStatus status;
+        while ((status = nextLine(reader, line)) != LineStatus.END_OF_STREAM) {
+            lineNumber++;
+            String error;
+            if (status == LineStatus.TOO_LONG) {
+                error = "Line exceeds " + MAX_LINE_LENGTH + " characters";
+            } else if (isBlank(line)) {
+                continue;
+            } else {
+                error = parseAndValidate(line, sink);
+            }
+
+            if (error == null) {
+                accepted++;
+            } else {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new BulkIngestResponse.LineError(lineNumber, error));
+                }
+            }
+        }
+
+        return BulkIngestResponse.builder()
+            .linesRead(lineNumber)
+            .accepted(accepted)
+            .rejected(rejected)
+            .errors(errors)
+            .errorsTruncated(rejected > errors.size())
+            .build();
+    }
+
+    private String parseAndValidate(CharSequence line, Consumer<ThreatReportRequest> sink) {
+        ThreatReportRequest request;
+        try {
+            request = requestReader.readValue(line.toString());
+        } catch (JsonProcessingException e) {
+            return "Malformed JSON: " + e.getOriginalMessage();
+        }
+        if (request == null) {
+            return "Expected a JSON object";
+        }
+
+        Set<ConstraintViolation<ThreatReportRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<ThreatReportRequest> first = violations.iterator().next();
+            return first.getPropertyPath() + ": " + first.getMessage();
+        }
+
+        sink.accept(request);
+        return null;
+    }
+
+    /**
+     * Reads up to the next '\n' into the buffer, discarding the remainder of lines
+     * longer than MAX_LINE_LENGTH so a single oversized line cannot grow the heap.
+     */
+    private static LineStatus nextLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                return tooLong ? LineStatus.TOO_LONG : LineStatus.OK;
+            }
+            if (line.length() < MAX_LINE_LENGTH) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        if (tooLong) {
+            return LineStatus.TOO_LONG;
+        }
+        return line.length() > 0 ? LineStatus.OK : LineStatus.END_OF_STREAM;
+    }
+
+    private static boolean isBlank(CharSequence line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private enum LineStatus {
+        OK, TOO_LONG, END_OF_STREAM
+    }
+}
@@ -0,0 +1,14 @@
+package com.hackathon.pocketSIEM.ingest;
+
+import java.time.Duration;
+
+/**
+ * A listener whose state is rebuilt on startup by replaying the stored reports of
+ * its window through {@link #onReportAccepted}. All such listeners share one scan
+ * of the report store, run by AggregateBootstrap.
+ */
+public interface ReplayedReportListener extends ThreatReportListener {
+
+    /** How far back to replay; zero to skip */
+    Duration replayWindow();
+}
@@ -0,0 +1,170 @@
+package com.hackathon.pocketSIEM.ingest;
+
+import com.hackathon.pocketSIEM.config.IngestProperties;
+import com.hackathon.pocketSIEM.exception.IngestQueueFullException;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory queue between POST /report and the report store. A single writer
+ * thread drains it and hands batches to {@link ReportStore#saveAll} once a batch is
+ * full or the oldest queued report has waited for the flush interval.
+ */
+@Component
+@Slf4j
+public class ReportIngestPipeline implements SmartLifecycle {
+
+    private final ReportStore reportStore;
+    private final IngestProperties properties;
+    private final BlockingQueue<ThreatReport> queue;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ReportIngestPipeline(ReportStore reportStore,
+                                IngestProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.reportStore = reportStore;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder("reports.ingest.queue.depth", queue, BlockingQueue::size)
+            .description("Reports waiting to be written")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("reports.ingest.flush")
+            .description("Time to write one batch of reports")
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("reports.ingest.batch.size")
+            .description("Reports written per batch")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("reports.ingest.rejected")
+            .description("Reports refused because the queue was full")
+            .register(meterRegistry);
+        this.failed = Counter.builder("reports.ingest.failed")
+            .description("Reports lost because their batch failed to write")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a report for the next batch without blocking.
+     *
+     * @throws IngestQueueFullException when the queue is at capacity
+     */
+    public void submit(ThreatReport report) {
+        if (!queue.offer(report)) {
+            rejected.increment();
+            throw new IngestQueueFullException(properties.getQueueCapacity());
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "report-ingest-writer");
+        writerThread.start();
+        log.info("Report ingest pipeline started (capacity {}, batch size {}, flush interval {})",
+            properties.getQueueCapacity(), properties.getBatchSize(), properties.getFlushInterval());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Report ingest pipeline stopped with {} reports still queued", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.getMode() == IngestProperties.Mode.ASYNC;
+    }
+
+    private void drainLoop() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<ThreatReport> batch = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+
+        // Keep draining after stop() so queued reports are written before shutdown
+        while (running || !queue.isEmpty()) {
+            try {
+                ThreatReport first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    ThreatReport next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Finish draining first; polling with the flag set would spin
+                interrupted = true;
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<ThreatReport> batch) {
+        long start = System.nanoTime();
+        try {
+            reportStore.saveAll(batch);
+            batchSizes.record(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to write batch of {} threat reports", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hackathon.pocketSIEM.ingest;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+
+/**
+ * Notified for every report accepted by ThreatService, on the request thread and
+ * only once the report is stored, or queued in async mode (it has no id then). A
+ * report refused by the queue or the store is never seen. Implementations keep
+ * in-memory aggregates current and must return quickly.
+ */
+public interface ThreatReportListener {
+    void onReportAccepted(ThreatReport report);
+}
@@ -0,0 +1,47 @@
+package com.hackathon.pocketSIEM.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One firing of a correlation rule for one key, written by AlertStore
+ */
+@Entity
+@Table(name = "correlation_alerts", indexes = {
+    @Index(name = "idx_correlation_alerts_triggered_at", columnList = "triggered_at"),
+    @Index(name = "idx_correlation_alerts_rule_name_triggered_at", columnList = "rule_name, triggered_at"),
+    @Index(name = "idx_correlation_alerts_group_key_triggered_at", columnList = "group_key, triggered_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorrelationAlert {
+
+    public static final int MAX_EVIDENCE_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String ruleName;
+
+    // The IP, app or device the rule groups by
+    @Column(nullable = false)
+    private String groupKey;
+
+    @Column(nullable = false)
+    private Integer distinctCount;
+
+    // The distinct values counted, comma separated and cut at MAX_EVIDENCE_LENGTH
+    @Column(length = MAX_EVIDENCE_LENGTH)
+    private String evidence;
+
+    @Column(nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(nullable = false)
+    private LocalDateTime triggeredAt;
+}
@@ -0,0 +1,28 @@
+package com.hackathon.pocketSIEM.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the compaction job, kept in a single row
+ */
+@Entity
+@Table(name = "report_compaction_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportCompactionState {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Hours before this are in threat_report_hourly; null until the first run
+    private LocalDateTime rolledUpUntil;
+
+    // Raw reports before this have been deleted; null while nothing has been
+    private LocalDateTime purgedBefore;
+}
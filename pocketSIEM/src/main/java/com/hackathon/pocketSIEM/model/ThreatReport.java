@@ -5,15 +5,27 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "threat_reports")
+@Table(name = "threat_reports", indexes = {
+    @Index(name = "idx_threat_reports_target_ip_reported_at", columnList = "target_ip, reported_at"),
+    @Index(name = "idx_threat_reports_app_name_reported_at", columnList = "app_name, reported_at"),
+    @Index(name = "idx_threat_reports_device_id_reported_at", columnList = "device_id, reported_at"),
+    @Index(name = "idx_threat_reports_reported_at", columnList = "reported_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ThreatReport {
+
+    // userSeverity bands used by the dashboard statistics
+    public static final int CRITICAL_SEVERITY = 75;
+    public static final int HIGH_SEVERITY = 50;
+    public static final int SUSPICIOUS_SEVERITY = 25;
     
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "threat_report_seq")
+    @SequenceGenerator(name = "threat_report_seq", sequenceName = "threat_report_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
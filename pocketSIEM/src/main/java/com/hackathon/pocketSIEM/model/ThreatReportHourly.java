@@ -0,0 +1,51 @@
+package com.hackathon.pocketSIEM.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reports of one IP, app and device within one hour, written by the compaction job
+ */
+@Entity
+@Table(name = "threat_report_hourly", indexes = {
+    @Index(name = "idx_threat_report_hourly_target_ip_hour_start", columnList = "target_ip, hour_start"),
+    @Index(name = "idx_threat_report_hourly_hour_start", columnList = "hour_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ThreatReportHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private String targetIp;
+
+    @Column(nullable = false)
+    private String appName;
+
+    @Column(nullable = false)
+    private String deviceId;
+
+    @Column(nullable = false)
+    private Long reportCount;
+
+    @Column(nullable = false)
+    private Long severitySum;
+
+    @Column(nullable = false)
+    private Long criticalCount;
+
+    @Column(nullable = false)
+    private Long highCount;
+
+    @Column(nullable = false)
+    private Long suspiciousCount;
+}
@@ -0,0 +1,209 @@
+package com.hackathon.pocketSIEM.net;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Path-compressed binary (Patricia) trie of IPv4 and IPv6 CIDR blocks answering
+ * longest-prefix-match queries. Each family has its own root; keys are held
+ * left-aligned in two longs, so a lookup is a handful of mask-and-compare steps
+ * with no allocation.
+ *
+ * <p>Not thread-safe for writes: fill it with {@link #put}, then publish it (for
+ * example through a volatile or AtomicReference) and only read from then on.
+ */
+public final class CidrTrie<V> {
+
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+
+    private final BinaryOperator<V> merge;
+    private Node<V> ipv4Root;
+    private Node<V> ipv6Root;
+    private int size;
+
+    /**
+     * @param merge picks the value to keep when the same block is added twice,
+     *              called as merge(existing, added)
+     */
+    public CidrTrie(BinaryOperator<V> merge) {
+        this.merge = merge;
+    }
+
+    /**
+     * Adds a block. Host bits beyond the prefix length are ignored.
+     *
+     * @throws IllegalArgumentException if the prefix length does not fit the address family
+     */
+    public void put(IpAddress network, int prefixLength, V value) {
+        int width = network.isIpv4() ? IPV4_BITS : IPV6_BITS;
+        if (prefixLength < 0 || prefixLength > width) {
+            throw new IllegalArgumentException("Prefix length " + prefixLength + " out of range for " + network);
+        }
+        long high = alignedHigh(network);
+        long low = network.isIpv4() ? 0 : network.low();
+        high = maskHigh(high, prefixLength);
+        low = maskLow(low, prefixLength);
+        if (network.isIpv4()) {
+            ipv4Root = insert(ipv4Root, high, low, prefixLength, value);
+        } else {
+            ipv6Root = insert(ipv6Root, high, low, prefixLength, value);
+        }
+    }
+
+    /**
+     * Parses "address/length" or a bare address (a single-host block) and adds it.
+     *
+     * @throws IllegalArgumentException if the text is not a CIDR block
+     */
+    public void put(CharSequence cidr, V value) {
+        int slash = -1;
+        for (int i = 0; i < cidr.length(); i++) {
+            if (cidr.charAt(i) == '/') {
+                slash = i;
+                break;
+            }
+        }
+        IpAddress network = IpAddress.tryParse(slash < 0 ? cidr : cidr.subSequence(0, slash));
+        if (network == null) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+        int prefixLength = network.isIpv4() ? IPV4_BITS : IPV6_BITS;
+        if (slash >= 0) {
+            prefixLength = parsePrefixLength(cidr, slash + 1);
+            if (prefixLength < 0) {
+                throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+            }
+        }
+        put(network, prefixLength, value);
+    }
+
+    /**
+     * @return the value of the most specific block containing the address, or null
+     */
+    public V longestMatch(IpAddress address) {
+        long high = alignedHigh(address);
+        long low = address.isIpv4() ? 0 : address.low();
+        Node<V> node = address.isIpv4() ? ipv4Root : ipv6Root;
+        V best = null;
+        while (node != null && maskHigh(high, node.length) == node.high && maskLow(low, node.length) == node.low) {
+            if (node.value != null) {
+                best = node.value;
+            }
+            node = bit(high, low, node.length) == 0 ? node.left : node.right;
+        }
+        return best;
+    }
+
+    /** Number of distinct blocks */
+    public int size() {
+        return size;
+    }
+
+    private Node<V> insert(Node<V> node, long high, long low, int length, V value) {
+        if (node == null) {
+            size++;
+            return new Node<>(high, low, length, value);
+        }
+        int common = Math.min(Math.min(commonPrefix(node.high, node.low, high, low), node.length), length);
+        if (common == node.length) {
+            if (length == node.length) {
+                if (node.value == null) {
+                    size++;
+                    node.value = value;
+                } else {
+                    node.value = merge.apply(node.value, value);
+                }
+            } else if (bit(high, low, node.length) == 0) {
+                node.left = insert(node.left, high, low, length, value);
+            } else {
+                node.right = insert(node.right, high, low, length, value);
+            }
+            return node;
+        }
+
+        // The new block diverges inside this node's prefix: split at the common prefix
+        Node<V> split = new Node<>(maskHigh(high, common), maskLow(low, common), common, null);
+        attach(split, node);
+        if (common == length) {
+            split.value = value;
+        } else {
+            attach(split, new Node<>(high, low, length, value));
+        }
+        size++;
+        return split;
+    }
+
+    private static <V> void attach(Node<V> parent, Node<V> child) {
+        if (bit(child.high, child.low, parent.length) == 0) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+    }
+
+    private static int parsePrefixLength(CharSequence text, int from) {
+        int to = text.length();
+        if (from == to || to - from > 3 || (to - from > 1 && text.charAt(from) == '0')) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long alignedHigh(IpAddress address) {
+        return address.isIpv4() ? address.low() << 32 : address.high();
+    }
+
+    private static long maskHigh(long high, int length) {
+        if (length >= 64) {
+            return high;
+        }
+        return length == 0 ? 0 : high & (-1L << (64 - length));
+    }
+
+    private static long maskLow(long low, int length) {
+        if (length <= 64) {
+            return 0;
+        }
+        return length == 128 ? low : low & (-1L << (128 - length));
+    }
+
+    private static int bit(long high, long low, int index) {
+        if (index >= IPV6_BITS) {
+            return 0;
+        }
+        return (int) (index < 64 ? high >>> (63 - index) : low >>> (127 - index)) & 1;
+    }
+
+    private static int commonPrefix(long high1, long low1, long high2, long low2) {
+        long diff = high1 ^ high2;
+        if (diff != 0) {
+            return Long.numberOfLeadingZeros(diff);
+        }
+        diff = low1 ^ low2;
+        return diff != 0 ? 64 + Long.numberOfLeadingZeros(diff) : IPV6_BITS;
+    }
+
+    private static final class Node<V> {
+        final long high;
+        final long low;
+        final int length;
+        V value;
+        Node<V> left;
+        Node<V> right;
+
+        Node(long high, long low, int length, V value) {
+            this.high = high;
+            this.low = low;
+            this.length = length;
+            this.value = value;
+        }
+    }
+}
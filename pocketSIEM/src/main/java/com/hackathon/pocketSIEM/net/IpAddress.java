@@ -0,0 +1,338 @@
+package com.hackathon.pocketSIEM.net;
+
+/**
+ * Compact, immutable IPv4/IPv6 address: an IPv4 address lives in the low 32 bits of
+ * {@link #low()}, an IPv6 address in {@link #high()} and {@link #low()}.
+ *
+ * <p>The parser is hand-written and does not allocate: {@link #isValid(CharSequence)}
+ * and {@link #parseIpv4(CharSequence, int, int)} never create objects, and
+ * {@link #tryParse(CharSequence)} allocates only the returned instance. Dotted quads
+ * must have exactly four decimal octets without leading zeros; IPv6 accepts the RFC 4291
+ * text forms including "::" compression and a trailing dotted quad, but not zone ids.
+ *
+ * <p>{@link #toString()} is canonical (RFC 5952 for IPv6), so equal addresses always
+ * render the same way and the text form can serve as a cache or index key too.
+ */
+public final class IpAddress implements Comparable<IpAddress> {
+
+    private static final int MAX_IPV4_LENGTH = 15;
+    private static final int MAX_IPV6_LENGTH = 45;
+    private static final int IPV6_GROUPS = 8;
+    private static final long IPV4_MASK = 0xFFFF_FFFFL;
+
+    private final long high;
+    private final long low;
+    private final boolean ipv4;
+
+    private IpAddress(long high, long low, boolean ipv4) {
+        this.high = high;
+        this.low = low;
+        this.ipv4 = ipv4;
+    }
+
+    public static IpAddress ofIpv4(long bits) {
+        return new IpAddress(0, bits & IPV4_MASK, true);
+    }
+
+    public static IpAddress ofIpv6(long high, long low) {
+        return new IpAddress(high, low, false);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not an IPv4 or IPv6 address
+     */
+    public static IpAddress parse(CharSequence text) {
+        IpAddress address = tryParse(text);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid IP address: " + text);
+        }
+        return address;
+    }
+
+    /**
+     * @return the address, or null if the text is not an IPv4 or IPv6 address
+     */
+    public static IpAddress tryParse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        if (!containsColon(text, 0, length)) {
+            long bits = parseIpv4(text, 0, length);
+            return bits < 0 ? null : ofIpv4(bits);
+        }
+        int groupsAfterGap = scanIpv6(text, 0, length);
+        if (groupsAfterGap < 0) {
+            return null;
+        }
+        return ofIpv6(ipv6Half(text, 0, length, groupsAfterGap, true),
+            ipv6Half(text, 0, length, groupsAfterGap, false));
+    }
+
+    public static boolean isValid(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        int length = text.length();
+        return containsColon(text, 0, length)
+            ? scanIpv6(text, 0, length) >= 0
+            : parseIpv4(text, 0, length) >= 0;
+    }
+
+    /**
+     * Parses a dotted quad in text[from, to).
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if the range is not a dotted quad
+     */
+    public static long parseIpv4(CharSequence text, int from, int to) {
+        if (to - from < 7 || to - from > MAX_IPV4_LENGTH) {
+            return -1;
+        }
+        long bits = 0;
+        int octets = 0;
+        int i = from;
+        while (true) {
+            int start = i;
+            int value = 0;
+            while (i < to && i - start < 3) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+                i++;
+            }
+            int digits = i - start;
+            if (digits == 0 || value > 255 || (digits > 1 && text.charAt(start) == '0')) {
+                return -1;
+            }
+            bits = bits << 8 | value;
+            octets++;
+            if (i == to) {
+                return octets == 4 ? bits : -1;
+            }
+            if (octets == 4 || text.charAt(i) != '.') {
+                return -1;
+            }
+            i++;
+        }
+    }
+
+    public boolean isIpv4() {
+        return ipv4;
+    }
+
+    /** Upper 64 bits of an IPv6 address; 0 for IPv4 */
+    public long high() {
+        return high;
+    }
+
+    /** Lower 64 bits of an IPv6 address, or the 32-bit IPv4 address */
+    public long low() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IpAddress other)) {
+            return false;
+        }
+        return high == other.high && low == other.low && ipv4 == other.ipv4;
+    }
+
+    @Override
+    public int hashCode() {
+        long mixed = (high * 0x9E37_79B9_7F4A_7C15L) ^ low;
+        return Long.hashCode(ipv4 ? mixed : ~mixed);
+    }
+
+    /**
+     * IPv4 addresses sort before IPv6 ones; within a family by numeric value
+     */
+    @Override
+    public int compareTo(IpAddress other) {
+        if (ipv4 != other.ipv4) {
+            return ipv4 ? -1 : 1;
+        }
+        int byHigh = Long.compareUnsigned(high, other.high);
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public String toString() {
+        return ipv4 ? ipv4ToString(low) : ipv6ToString(high, low);
+    }
+
+    private static String ipv4ToString(long bits) {
+        return ((bits >>> 24) & 0xFF) + "." + ((bits >>> 16) & 0xFF) + "." + ((bits >>> 8) & 0xFF) + "." + (bits & 0xFF);
+    }
+
+    // RFC 5952: lowercase hex, no leading zeros, longest run of two or more zero groups as "::"
+    private static String ipv6ToString(long high, long low) {
+        int gapStart = -1;
+        int gapLength = 0;
+        for (int g = 0; g < IPV6_GROUPS; ) {
+            if (group(high, low, g) != 0) {
+                g++;
+                continue;
+            }
+            int runStart = g;
+            while (g < IPV6_GROUPS && group(high, low, g) == 0) {
+                g++;
+            }
+            if (g - runStart > gapLength && g - runStart > 1) {
+                gapStart = runStart;
+                gapLength = g - runStart;
+            }
+        }
+
+        StringBuilder text = new StringBuilder(39);
+        for (int g = 0; g < IPV6_GROUPS; g++) {
+            if (g == gapStart) {
+                text.append("::");
+                g += gapLength - 1;
+                continue;
+            }
+            if (text.length() > 0 && text.charAt(text.length() - 1) != ':') {
+                text.append(':');
+            }
+            text.append(Integer.toHexString(group(high, low, g)));
+        }
+        return text.toString();
+    }
+
+    private static int group(long high, long low, int g) {
+        long half = g < 4 ? high : low;
+        return (int) (half >>> (16 * (3 - (g & 3)))) & 0xFFFF;
+    }
+
+    private static boolean containsColon(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == ':') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Validates IPv6 text without building the value.
+     *
+     * @return groups written after "::" (0 if there is no "::"), or -1 if invalid
+     */
+    private static int scanIpv6(CharSequence text, int from, int to) {
+        if (to - from < 2 || to - from > MAX_IPV6_LENGTH) {
+            return -1;
+        }
+        int i = from;
+        int groups = 0;
+        int groupsAfterGap = -1;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return -1;
+            }
+            i += 2;
+            groupsAfterGap = 0;
+        }
+        while (i < to) {
+            int start = i;
+            while (i < to && i - start < 5 && hexValue(text.charAt(i)) >= 0) {
+                i++;
+            }
+            if (i < to && text.charAt(i) == '.') {
+                // Trailing dotted quad fills the last two groups
+                if (parseIpv4(text, start, to) < 0) {
+                    return -1;
+                }
+                groups += 2;
+                if (groupsAfterGap >= 0) {
+                    groupsAfterGap += 2;
+                }
+                break;
+            }
+            int digits = i - start;
+            if (digits == 0 || digits > 4) {
+                return -1;
+            }
+            groups++;
+            if (groupsAfterGap >= 0) {
+                groupsAfterGap++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (text.charAt(i) != ':' || ++i == to) {
+                return -1;
+            }
+            if (text.charAt(i) == ':') {
+                if (groupsAfterGap >= 0) {
+                    return -1;
+                }
+                groupsAfterGap = 0;
+                i++;
+            }
+        }
+        if (groupsAfterGap < 0) {
+            return groups == IPV6_GROUPS ? 0 : -1;
+        }
+        return groups < IPV6_GROUPS ? groupsAfterGap : -1;
+    }
+
+    /**
+     * Assembles one half of text already accepted by {@link #scanIpv6}; run once per
+     * half so neither pass needs somewhere to put two results.
+     */
+    private static long ipv6Half(CharSequence text, int from, int to, int groupsAfterGap, boolean upper) {
+        long half = 0;
+        int g = 0;
+        int i = from;
+        if (text.charAt(i) == ':') {
+            i += 2;
+            g = IPV6_GROUPS - groupsAfterGap;
+        }
+        while (i < to) {
+            int start = i;
+            int value = 0;
+            int digit;
+            while (i < to && (digit = hexValue(text.charAt(i))) >= 0) {
+                value = value << 4 | digit;
+                i++;
+            }
+            if (i < to && text.charAt(i) == '.') {
+                // Dotted quad is always groups 6 and 7
+                return upper ? half : half | parseIpv4(text, start, to);
+            }
+            if (upper && g < 4) {
+                half |= (long) value << (16 * (3 - g));
+            } else if (!upper && g >= 4) {
+                half |= (long) value << (16 * (7 - g));
+            }
+            g++;
+            if (i == to) {
+                break;
+            }
+            i++;
+            if (text.charAt(i) == ':') {
+                i++;
+                g = IPV6_GROUPS - groupsAfterGap;
+            }
+        }
+        return half;
+    }
+}
@@ -0,0 +1,22 @@
+package com.hackathon.pocketSIEM.repository;
+
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CorrelationAlertRepository extends JpaRepository<CorrelationAlert, Long> {
+
+    // Newest first; a null rule or key matches every alert; size the page with PageRequest.of(0, limit)
+    @Query("SELECT a FROM CorrelationAlert a WHERE a.triggeredAt >= :since "
+            + "AND (:rule IS NULL OR a.ruleName = :rule) AND (:key IS NULL OR a.groupKey = :key) "
+            + "ORDER BY a.triggeredAt DESC, a.id DESC")
+    List<CorrelationAlert> findRecent(@Param("since") LocalDateTime since, @Param("rule") String rule,
+                                      @Param("key") String key, Pageable page);
+}
@@ -0,0 +1,9 @@
+package com.hackathon.pocketSIEM.repository;
+
+import com.hackathon.pocketSIEM.model.ReportCompactionState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReportCompactionStateRepository extends JpaRepository<ReportCompactionState, Integer> {
+}
@@ -0,0 +1,46 @@
+package com.hackathon.pocketSIEM.repository;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a newest-first report listing: the (reportedAt, id) of the
+ * last report already returned. Clients see it as an opaque URL-safe token.
+ */
+public record ReportCursor(LocalDateTime reportedAt, long id) {
+
+    /** Sorts after every stored report, so the first page starts here */
+    public static final ReportCursor START = new ReportCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    public static ReportCursor after(ThreatReport report) {
+        return new ReportCursor(report.getReportedAt(), report.getId());
+    }
+
+    public String encode() {
+        String raw = reportedAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static ReportCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed report cursor");
+            }
+            return new ReportCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed report cursor", e);
+        }
+    }
+}
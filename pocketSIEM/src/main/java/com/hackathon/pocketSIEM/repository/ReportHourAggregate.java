@@ -0,0 +1,24 @@
+package com.hackathon.pocketSIEM.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rolled-up reports of one device and app for one hour, summed over IPs
+ */
+public interface ReportHourAggregate {
+    String getDeviceId();
+
+    String getAppName();
+
+    LocalDateTime getHourStart();
+
+    Long getReportCount();
+
+    Long getSeveritySum();
+
+    Long getCriticalCount();
+
+    Long getHighCount();
+
+    Long getSuspiciousCount();
+}
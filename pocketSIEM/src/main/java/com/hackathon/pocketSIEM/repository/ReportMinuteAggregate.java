@@ -0,0 +1,37 @@
+package com.hackathon.pocketSIEM.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reports of one device and app grouped by the minute they were reported in,
+ * with severity totals
+ */
+public interface ReportMinuteAggregate {
+    String getDeviceId();
+
+    String getAppName();
+
+    Integer getYr();
+
+    Integer getMon();
+
+    Integer getDy();
+
+    Integer getHr();
+
+    Integer getMi();
+
+    Long getReportCount();
+
+    Long getSeveritySum();
+
+    Long getCriticalCount();
+
+    Long getHighCount();
+
+    Long getSuspiciousCount();
+
+    default LocalDateTime getMinute() {
+        return LocalDateTime.of(getYr(), getMon(), getDy(), getHr(), getMi());
+    }
+}
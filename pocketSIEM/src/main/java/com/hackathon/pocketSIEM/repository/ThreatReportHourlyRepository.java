@@ -0,0 +1,56 @@
+package com.hackathon.pocketSIEM.repository;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.model.ThreatReportHourly;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface ThreatReportHourlyRepository extends JpaRepository<ThreatReportHourly, Long> {
+
+    // Rolls one hour of raw reports up by IP, app and device; plain SQL so it runs on H2 and MySQL alike
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO threat_report_hourly (hour_start, target_ip, app_name, device_id, "
+            + "report_count, severity_sum, critical_count, high_count, suspicious_count) "
+            + "SELECT :hourStart, target_ip, app_name, device_id, COUNT(*), SUM(user_severity), "
+            + "SUM(CASE WHEN user_severity >= " + ThreatReport.CRITICAL_SEVERITY + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN user_severity >= " + ThreatReport.HIGH_SEVERITY
+            + " AND user_severity < " + ThreatReport.CRITICAL_SEVERITY + " THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN user_severity >= " + ThreatReport.SUSPICIOUS_SEVERITY
+            + " AND user_severity < " + ThreatReport.HIGH_SEVERITY + " THEN 1 ELSE 0 END) "
+            + "FROM threat_reports WHERE reported_at >= :hourStart AND reported_at < :hourEnd "
+            + "GROUP BY target_ip, app_name, device_id")
+    int rollUpHour(@Param("hourStart") LocalDateTime hourStart, @Param("hourEnd") LocalDateTime hourEnd);
+
+    @Query("SELECT COALESCE(SUM(h.reportCount), 0) FROM ThreatReportHourly h "
+            + "WHERE h.targetIp = :ip AND h.hourStart >= :from AND h.hourStart < :to")
+    Long countReportsForIpBetween(@Param("ip") String ip, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT h.deviceId AS deviceId, h.appName AS appName, h.hourStart AS hourStart, "
+            + "SUM(h.reportCount) AS reportCount, SUM(h.severitySum) AS severitySum, SUM(h.criticalCount) AS criticalCount, "
+            + "SUM(h.highCount) AS highCount, SUM(h.suspiciousCount) AS suspiciousCount "
+            + "FROM ThreatReportHourly h WHERE h.hourStart >= :from AND h.hourStart < :to "
+            + "GROUP BY h.deviceId, h.appName, h.hourStart")
+    List<ReportHourAggregate> aggregateByHourBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Callers must hold a transaction and close the stream
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = ThreatReportRepository.STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT h.targetIp FROM ThreatReportHourly h")
+    Stream<String> streamDistinctTargetIps();
+
+    @Modifying
+    @Query("DELETE FROM ThreatReportHourly h WHERE h.hourStart < :before")
+    int deleteHoursBefore(@Param("before") LocalDateTime before);
+}
@@ -1,24 +1,57 @@
 package com.hackathon.pocketSIEM.repository;
 
 import com.hackathon.pocketSIEM.model.ThreatReport;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ThreatReportRepository extends JpaRepository<ThreatReport, Long> {
-    List<ThreatReport> findByTargetIp(String targetIp);
 
-    List<ThreatReport> findByAppName(String appName);
+    // Keyset predicate for newest-first listings: strictly before (:at, :id).
+    // The leading reportedAt <= :at keeps the (key, reported_at) index usable as a range scan.
+    String BEFORE_CURSOR = "t.reportedAt <= :at AND (t.reportedAt < :at OR t.id < :id) ";
+    String NEWEST_FIRST = "ORDER BY t.reportedAt DESC, t.id DESC";
+    String STREAM_FETCH_SIZE = "500";
+
+    List<ThreatReport> findByTargetIp(String targetIp);
 
     @Query("SELECT COUNT(t) FROM ThreatReport t WHERE t.targetIp = :ip AND t.reportedAt >= :since")
     Integer countReportsForIpSince(@Param("ip") String ip, @Param("since") LocalDateTime since);
 
-    List<ThreatReport> findByTargetIpOrderByReportedAtDesc(String targetIp);
+    // One page of reports for an IP after the cursor; size the page with PageRequest.of(0, limit)
+    @Query("SELECT t FROM ThreatReport t WHERE t.targetIp = :ip AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ThreatReport> findPageForIp(@Param("ip") String ip, @Param("at") LocalDateTime at,
+                                     @Param("id") long id, Pageable page);
+
+    @Query("SELECT t FROM ThreatReport t WHERE t.appName = :appName AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ThreatReport> findPageForApp(@Param("appName") String appName, @Param("at") LocalDateTime at,
+                                      @Param("id") long id, Pageable page);
+
+    // Cursor-backed streams; callers must hold a transaction and close the stream
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM ThreatReport t WHERE t.targetIp = :ip AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    Stream<ThreatReport> streamForIp(@Param("ip") String ip, @Param("at") LocalDateTime at, @Param("id") long id);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM ThreatReport t WHERE t.appName = :appName AND " + BEFORE_CURSOR + NEWEST_FIRST)
+    Stream<ThreatReport> streamForApp(@Param("appName") String appName, @Param("at") LocalDateTime at, @Param("id") long id);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT t FROM ThreatReport t WHERE t.reportedAt >= :since")
+    Stream<ThreatReport> streamReportedSince(@Param("since") LocalDateTime since);
 
     // Find all threats reported after a specific time
     List<ThreatReport> findByReportedAtAfter(LocalDateTime since);
@@ -30,4 +63,30 @@ public interface ThreatReportRepository extends JpaRepository<ThreatReport, Long
     // Find threats by time range for chart generation
     @Query("SELECT t FROM ThreatReport t WHERE t.reportedAt BETWEEN :start AND :end ORDER BY t.reportedAt ASC")
     List<ThreatReport> findByReportedAtBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query("SELECT MIN(t.reportedAt) FROM ThreatReport t")
+    LocalDateTime findOldestReportedAt();
+
+    // Range deletes keep each retention purge to one hour of rows
+    @Modifying
+    @Query("DELETE FROM ThreatReport t WHERE t.reportedAt >= :from AND t.reportedAt < :to")
+    int deleteReportedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Every IP still held as a raw report; callers must hold a transaction and close the stream
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT t.targetIp FROM ThreatReport t")
+    Stream<String> streamDistinctTargetIps();
+
+    // Per device, app and minute report counts and severity totals, used to rebuild in-memory aggregates on startup
+    @Query("SELECT t.deviceId AS deviceId, t.appName AS appName, year(t.reportedAt) AS yr, month(t.reportedAt) AS mon, day(t.reportedAt) AS dy, "
+            + "hour(t.reportedAt) AS hr, minute(t.reportedAt) AS mi, COUNT(t) AS reportCount, "
+            + "SUM(t.userSeverity) AS severitySum, "
+            + "SUM(CASE WHEN t.userSeverity >= " + ThreatReport.CRITICAL_SEVERITY + " THEN 1 ELSE 0 END) AS criticalCount, "
+            + "SUM(CASE WHEN t.userSeverity >= " + ThreatReport.HIGH_SEVERITY
+            + " AND t.userSeverity < " + ThreatReport.CRITICAL_SEVERITY + " THEN 1 ELSE 0 END) AS highCount, "
+            + "SUM(CASE WHEN t.userSeverity >= " + ThreatReport.SUSPICIOUS_SEVERITY
+            + " AND t.userSeverity < " + ThreatReport.HIGH_SEVERITY + " THEN 1 ELSE 0 END) AS suspiciousCount "
+            + "FROM ThreatReport t WHERE t.reportedAt >= :since "
+            + "GROUP BY t.deviceId, t.appName, year(t.reportedAt), month(t.reportedAt), day(t.reportedAt), hour(t.reportedAt), minute(t.reportedAt)")
+    List<ReportMinuteAggregate> aggregateByMinuteSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,167 @@
+package com.hackathon.pocketSIEM.retention;
+
+import com.hackathon.pocketSIEM.config.RetentionProperties;
+import com.hackathon.pocketSIEM.model.ReportCompactionState;
+import com.hackathon.pocketSIEM.repository.ReportCompactionStateRepository;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Background compaction of the report store. Each completed hour is rolled up into
+ * threat_report_hourly (by IP, app and device, with severity band counts) in its own
+ * transaction together with the progress marker, so a crash never rolls an hour up
+ * twice. Raw reports older than the raw retention are then deleted an hour at a
+ * time, never past the rolled-up mark, and rollups past their own retention go too.
+ * Both rolling up and purging stop after max-hours-per-run hours, so catching up on a
+ * backlog is spread over several runs.
+ */
+@Component
+@Slf4j
+public class ReportCompactor {
+
+    private final RetentionProperties properties;
+    private final ReportStore reportStore;
+    private final ThreatReportHourlyRepository hourlyRepository;
+    private final ReportCompactionStateRepository stateRepository;
+    private final ReportHistory reportHistory;
+    private final TransactionTemplate transaction;
+    private final Clock clock;
+    private final Counter hoursRolledUp;
+    private final Counter reportsPurged;
+
+    @Autowired
+    public ReportCompactor(RetentionProperties properties,
+                           ReportStore reportStore,
+                           ThreatReportHourlyRepository hourlyRepository,
+                           ReportCompactionStateRepository stateRepository,
+                           ReportHistory reportHistory,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this(properties, reportStore, hourlyRepository, stateRepository, reportHistory,
+            transactionManager, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    ReportCompactor(RetentionProperties properties,
+                    ReportStore reportStore,
+                    ThreatReportHourlyRepository hourlyRepository,
+                    ReportCompactionStateRepository stateRepository,
+                    ReportHistory reportHistory,
+                    PlatformTransactionManager transactionManager,
+                    MeterRegistry meterRegistry,
+                    Clock clock) {
+        this.properties = properties;
+        this.reportStore = reportStore;
+        this.hourlyRepository = hourlyRepository;
+        this.stateRepository = stateRepository;
+        this.reportHistory = reportHistory;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.hoursRolledUp = Counter.builder("reports.compaction.hours")
+            .description("Hours of raw reports rolled up")
+            .register(meterRegistry);
+        this.reportsPurged = Counter.builder("reports.compaction.purged")
+            .description("Raw reports deleted after retention")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.retention.compaction-interval:PT10M}",
+            initialDelayString = "${app.retention.compaction-interval:PT10M}")
+    public void scheduledCompaction() {
+        if (properties.isEnabled()) {
+            compact();
+        }
+    }
+
+    /**
+     * Rolls up completed hours, then applies retention
+     */
+    public synchronized void compact() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int hours = rollUp(now.minus(properties.getRollupDelay()).truncatedTo(ChronoUnit.HOURS));
+        long purged = purgeRaw(now.minus(properties.getRawRetention()).truncatedTo(ChronoUnit.HOURS));
+        int rollupsPurged = transaction.execute(status ->
+            hourlyRepository.deleteHoursBefore(now.minus(properties.getRollupRetention()).truncatedTo(ChronoUnit.HOURS)));
+        if (hours > 0 || purged > 0 || rollupsPurged > 0) {
+            log.info("Report compaction rolled up {} hours, deleted {} raw reports and {} rollup rows",
+                hours, purged, rollupsPurged);
+        }
+    }
+
+    private int rollUp(LocalDateTime until) {
+        ReportCompactionState state = state();
+        LocalDateTime next = state.getRolledUpUntil();
+        if (next == null) {
+            LocalDateTime oldest = reportStore.oldestReportedAt();
+            next = oldest != null ? oldest.truncatedTo(ChronoUnit.HOURS) : until;
+            state.setRolledUpUntil(next);
+            stateRepository.save(state);
+        }
+        int hours = 0;
+        while (next.isBefore(until) && hours < properties.getMaxHoursPerRun()) {
+            LocalDateTime hourStart = next;
+            LocalDateTime hourEnd = next.plusHours(1);
+            transaction.executeWithoutResult(status -> {
+                reportStore.rollUpHour(hourStart, hourEnd);
+                ReportCompactionState current = state();
+                current.setRolledUpUntil(hourEnd);
+                stateRepository.save(current);
+            });
+            hoursRolledUp.increment();
+            next = hourEnd;
+            hours++;
+        }
+        return hours;
+    }
+
+    private long purgeRaw(LocalDateTime retentionCutoff) {
+        ReportCompactionState state = state();
+        LocalDateTime rolledUpUntil = state.getRolledUpUntil();
+        if (rolledUpUntil == null) {
+            return 0;
+        }
+        LocalDateTime cutoff = retentionCutoff.isBefore(rolledUpUntil) ? retentionCutoff : rolledUpUntil;
+        LocalDateTime next = state.getPurgedBefore();
+        if (next == null) {
+            LocalDateTime oldest = reportStore.oldestReportedAt();
+            if (oldest == null || !oldest.isBefore(cutoff)) {
+                return 0;
+            }
+            next = oldest.truncatedTo(ChronoUnit.HOURS);
+        }
+        long purged = 0;
+        int hours = 0;
+        while (next.isBefore(cutoff) && hours < properties.getMaxHoursPerRun()) {
+            LocalDateTime hourStart = next;
+            LocalDateTime hourEnd = next.plusHours(1);
+            purged += transaction.execute(status -> {
+                long deleted = reportStore.deleteReportedBetween(hourStart, hourEnd);
+                ReportCompactionState current = state();
+                current.setPurgedBefore(hourEnd);
+                stateRepository.save(current);
+                return deleted;
+            });
+            reportHistory.rawHorizon(hourEnd);
+            next = hourEnd;
+            hours++;
+        }
+        reportsPurged.increment(purged);
+        return purged;
+    }
+
+    private ReportCompactionState state() {
+        return stateRepository.findById(ReportCompactionState.ID)
+            .orElseGet(() -> ReportCompactionState.builder().id(ReportCompactionState.ID).build());
+    }
+}
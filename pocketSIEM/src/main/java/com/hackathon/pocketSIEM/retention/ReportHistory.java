@@ -0,0 +1,79 @@
+package com.hackathon.pocketSIEM.retention;
+
+import com.hackathon.pocketSIEM.model.ReportCompactionState;
+import com.hackathon.pocketSIEM.repository.ReportCompactionStateRepository;
+import com.hackathon.pocketSIEM.repository.ReportHourAggregate;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import com.hackathon.pocketSIEM.store.MinuteAggregate;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time-range reads over stored reports, routed by the raw retention horizon: ranges
+ * after it are answered from the report store, older parts from the hourly rollups.
+ * Rollups are hour-grained, so a range starting inside a rolled-up hour counts that
+ * whole hour.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportHistory {
+
+    private final ReportStore reportStore;
+    private final ThreatReportHourlyRepository hourlyRepository;
+    private final ReportCompactionStateRepository stateRepository;
+
+    // Null while no raw report has been purged; loaded on first use
+    private volatile LocalDateTime rawHorizon;
+    private volatile boolean horizonLoaded;
+
+    public long countReportsForIpSince(String ip, LocalDateTime since) {
+        LocalDateTime horizon = rawHorizon();
+        if (horizon == null || !since.isBefore(horizon)) {
+            return reportStore.countForIpSince(ip, since);
+        }
+        return hourlyRepository.countReportsForIpBetween(ip, since.truncatedTo(ChronoUnit.HOURS), horizon)
+            + reportStore.countForIpSince(ip, horizon);
+    }
+
+    /**
+     * Per device, app and minute totals since the given time. Rolled-up hours appear as
+     * one entry at the hour's first minute.
+     */
+    public List<MinuteAggregate> aggregatesSince(LocalDateTime since) {
+        LocalDateTime horizon = rawHorizon();
+        List<MinuteAggregate> aggregates = new ArrayList<>();
+        LocalDateTime rawSince = since;
+        if (horizon != null && since.isBefore(horizon)) {
+            for (ReportHourAggregate hour : hourlyRepository.aggregateByHourBetween(since.truncatedTo(ChronoUnit.HOURS), horizon)) {
+                aggregates.add(new MinuteAggregate(hour.getDeviceId(), hour.getAppName(), hour.getHourStart(),
+                    hour.getReportCount(), hour.getSeveritySum(), hour.getCriticalCount(), hour.getHighCount(),
+                    hour.getSuspiciousCount()));
+            }
+            rawSince = horizon;
+        }
+        aggregates.addAll(reportStore.aggregateByMinuteSince(rawSince));
+        return aggregates;
+    }
+
+    /** Raw reports before this instant have been purged; null if none have */
+    public LocalDateTime rawHorizon() {
+        if (!horizonLoaded) {
+            rawHorizon = stateRepository.findById(ReportCompactionState.ID)
+                .map(ReportCompactionState::getPurgedBefore)
+                .orElse(null);
+            horizonLoaded = true;
+        }
+        return rawHorizon;
+    }
+
+    void rawHorizon(LocalDateTime purgedBefore) {
+        rawHorizon = purgedBefore;
+        horizonLoaded = true;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hackathon.pocketSIEM.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.pocketSIEM.exception.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Applies {@link RateLimiter} to authenticated requests, after {@link ApiKeyFilter}.
+ * Clients are told apart by the X-Device-ID header or the deviceId query parameter,
+ * and by remote address when they send neither; request bodies are never read.
+ * Those ids are client-supplied, so {@link RateLimiter} also holds each API key to a
+ * shared budget.
+ * Unauthenticated requests pass through untouched and are rejected by Spring Security.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_KEY_HEADER = "X-API-KEY";
+    private static final String DEVICE_ID_HEADER = "X-Device-ID";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long waitNanos = rateLimiter.tryAcquire(request.getMethod(), path, request.getHeader(API_KEY_HEADER), client(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        log.debug("Rate limited {} {} for client {}", request.getMethod(), path, client(request));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+            .status(HttpStatus.TOO_MANY_REQUESTS.value())
+            .message("Rate limit exceeded, retry after " + retryAfterSeconds + "s")
+            .timestamp(LocalDateTime.now())
+            .path(path)
+            .build());
+    }
+
+    private static String client(HttpServletRequest request) {
+        String deviceId = request.getHeader(DEVICE_ID_HEADER);
+        if (deviceId == null || deviceId.isEmpty()) {
+            deviceId = request.getParameter("deviceId");
+        }
+        return deviceId == null || deviceId.isEmpty() ? request.getRemoteAddr() : deviceId;
+    }
+}
@@ -0,0 +1,195 @@
+package com.hackathon.pocketSIEM.security;
+
+import com.hackathon.pocketSIEM.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link TokenBucket} per route budget, API key and client, plus one per route
+ * budget and API key that all of the key's clients share, so a key cannot escape its
+ * limit by inventing client ids. Routes are matched by path prefix against a list
+ * sorted longest first, so the per-request cost is a few string comparisons, two map
+ * lookups and two CASes. Buckets that have refilled are indistinguishable from new
+ * ones and are swept away periodically; past max-buckets, new clients get no bucket
+ * of their own and are held to their key's shared budget alone.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final List<Budget> routes = new ArrayList<>();
+    private final Budget defaultBudget;
+    private final ConcurrentHashMap<BucketKey, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BucketKey, TokenBucket> keyBuckets = new ConcurrentHashMap<>();
+    private final int clientsPerKey;
+    private final int maxBuckets;
+    private final Counter untracked;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = properties.isEnabled();
+        this.nanoClock = nanoClock;
+        if (properties.getClientsPerKey() < 1 || properties.getMaxBuckets() < 1) {
+            throw new IllegalStateException("app.rate-limit.clients-per-key and max-buckets must be at least 1");
+        }
+        this.clientsPerKey = properties.getClientsPerKey();
+        this.maxBuckets = properties.getMaxBuckets();
+        this.defaultBudget = new Budget("", null, properties.getRequestsPerSecond(), properties.getBurst(),
+            rejections(meterRegistry, "default"));
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            String method = route.getMethod() == null || route.getMethod().isBlank() ? null : route.getMethod();
+            String name = method == null ? route.getPath() : method + " " + route.getPath();
+            routes.add(new Budget(route.getPath(), method, route.getRequestsPerSecond(), route.getBurst(),
+                rejections(meterRegistry, name)));
+        }
+        // Longest prefix first; a method-specific budget beats an any-method one on the same path
+        routes.sort(Comparator.comparingInt((Budget budget) -> budget.pathPrefix().length()).reversed()
+            .thenComparing(budget -> budget.method() == null));
+
+        Gauge.builder("rate.limit.buckets", buckets, Map::size)
+            .description("Per-client token buckets held in memory")
+            .register(meterRegistry);
+        this.untracked = Counter.builder("rate.limit.untracked")
+            .description("Requests from new clients admitted against the API key's shared budget only, because max-buckets was reached")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the client's bucket for the route, then from the bucket the
+     * client shares with the rest of its API key
+     *
+     * @param client device id, or another stable client identifier
+     * @return 0 if admitted, otherwise the nanoseconds until the client may retry
+     */
+    public long tryAcquire(String method, String path, String apiKey, String client) {
+        if (!enabled) {
+            return 0;
+        }
+        Budget budget = budgetFor(method, path);
+        long now = nanoClock.getAsLong();
+
+        // A client refused by its own bucket does not spend the key's shared tokens
+        TokenBucket bucket = clientBucket(new BucketKey(budget, apiKey, client), budget, now);
+        long wait = bucket == null ? 0 : bucket.tryAcquire(now);
+        if (wait == 0) {
+            BucketKey key = new BucketKey(budget, apiKey, null);
+            TokenBucket shared = keyBuckets.get(key);
+            if (shared == null) {
+                shared = keyBuckets.computeIfAbsent(key, k -> new TokenBucket(
+                    budget.requestsPerSecond() * clientsPerKey, budget.burst() * clientsPerKey, now));
+            }
+            wait = shared.tryAcquire(now);
+        }
+        if (wait > 0) {
+            budget.rejections().increment();
+        }
+        return wait;
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+        keyBuckets.values().removeIf(bucket -> bucket.isIdle(now));
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets, {} remain", evicted, buckets.size());
+        }
+    }
+
+    private TokenBucket clientBucket(BucketKey key, Budget budget, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        // The bound may be overshot by a few concurrent inserts, never by an unbounded number
+        if (buckets.size() >= maxBuckets) {
+            untracked.increment();
+            return null;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(budget.requestsPerSecond(), budget.burst(), now));
+    }
+
+    private Budget budgetFor(String method, String path) {
+        for (Budget route : routes) {
+            if (path.startsWith(route.pathPrefix()) && (route.method() == null || route.method().equalsIgnoreCase(method))) {
+                return route;
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("rate.limit.rejections")
+            .description("Requests refused with 429")
+            .tag("route", route)
+            .register(meterRegistry);
+    }
+
+    // Identity equality keeps BucketKey hashing to the two strings, whose hashes are cached
+    private static final class Budget {
+        private final String pathPrefix;
+        private final String method;
+        private final double requestsPerSecond;
+        private final int burst;
+        private final Counter rejections;
+
+        Budget(String pathPrefix, String method, double requestsPerSecond, int burst, Counter rejections) {
+            if (pathPrefix == null || requestsPerSecond <= 0 || burst < 1) {
+                throw new IllegalStateException("Rate limit for '" + pathPrefix + "' needs a path, a positive rate and a burst of at least 1");
+            }
+            this.pathPrefix = pathPrefix;
+            this.method = method;
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.rejections = rejections;
+        }
+
+        String pathPrefix() {
+            return pathPrefix;
+        }
+
+        String method() {
+            return method;
+        }
+
+        double requestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        int burst() {
+            return burst;
+        }
+
+        Counter rejections() {
+            return rejections;
+        }
+    }
+
+    // client is null for the bucket shared by every client of the API key
+    private record BucketKey(Budget budget, String apiKey, String client) {
+    }
+}
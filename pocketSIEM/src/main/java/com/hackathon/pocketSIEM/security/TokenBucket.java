@@ -0,0 +1,56 @@
+package com.hackathon.pocketSIEM.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (the generic cell rate
+ * algorithm): the instant at which the bucket would be full again. Admitting a request
+ * pushes that instant one emission interval further; a request is refused while it
+ * lies more than burst - 1 intervals ahead. The whole state is one long updated with
+ * CAS, so neither acquiring nor checking for idleness takes a lock or allocates.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong fullAtNanos;
+
+    /**
+     * @param nowNanos current time on the caller's clock; the bucket starts full
+     */
+    public TokenBucket(double requestsPerSecond, int burst, long nowNanos) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / requestsPerSecond));
+        this.toleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token if available
+     *
+     * @return 0 if admitted, otherwise the nanoseconds until a token will be available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long base = fullAt - nowNanos > 0 ? fullAt : nowNanos;
+            long wait = base - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has refilled completely; it then behaves exactly like a new
+     * one and can be dropped
+     */
+    public boolean isIdle(long nowNanos) {
+        return fullAtNanos.get() - nowNanos <= 0;
+    }
+}
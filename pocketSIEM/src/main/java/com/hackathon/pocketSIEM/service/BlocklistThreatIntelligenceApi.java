@@ -0,0 +1,87 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.blocklist.CidrBlocklist;
+import com.hackathon.pocketSIEM.blocklist.RangeVerdict;
+import com.hackathon.pocketSIEM.config.BlocklistProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers IPs inside a locally listed CIDR block (Tor exits, bogons, allowlists)
+ * straight from {@link CidrBlocklist}; everything else goes to the delegate.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BlocklistThreatIntelligenceApi implements ExternalThreatIntelligenceApi {
+
+    private final ExternalThreatIntelligenceApi delegate;
+    private final CidrBlocklist blocklist;
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        IpAddress address = IpAddress.tryParse(ipAddress);
+        RangeVerdict verdict = address != null ? blocklist.lookup(address) : null;
+        if (verdict == null) {
+            return delegate.checkIpReputation(ipAddress);
+        }
+        log.debug("IP {} matched blocklist feed {}", ipAddress, verdict.feed());
+        return toResponse(address, verdict);
+    }
+
+    @Override
+    public ThreatReputationResponse checkIpReputationIfCached(String ipAddress) {
+        IpAddress address = IpAddress.tryParse(ipAddress);
+        RangeVerdict verdict = address != null ? blocklist.lookup(address) : null;
+        return verdict != null ? toResponse(address, verdict) : delegate.checkIpReputationIfCached(ipAddress);
+    }
+
+    @Override
+    public Map<String, ThreatReputationResponse> checkIpReputations(Collection<String> ipAddresses) {
+        Map<String, ThreatReputationResponse> local = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String ipAddress : ipAddresses) {
+            IpAddress address = IpAddress.tryParse(ipAddress);
+            RangeVerdict verdict = address != null ? blocklist.lookup(address) : null;
+            if (verdict != null) {
+                local.put(ipAddress, toResponse(address, verdict));
+            } else {
+                misses.add(ipAddress);
+            }
+        }
+        Map<String, ThreatReputationResponse> upstream = misses.isEmpty()
+            ? Map.of()
+            : delegate.checkIpReputations(misses);
+
+        // Preserve request order across both sources
+        Map<String, ThreatReputationResponse> results = new LinkedHashMap<>();
+        for (String ipAddress : ipAddresses) {
+            ThreatReputationResponse response = local.getOrDefault(ipAddress, upstream.get(ipAddress));
+            if (response != null) {
+                results.putIfAbsent(ipAddress, response);
+            }
+        }
+        return results;
+    }
+
+    private static ThreatReputationResponse toResponse(IpAddress address, RangeVerdict verdict) {
+        boolean blocked = verdict.action() == BlocklistProperties.Action.BLOCK;
+        return ThreatReputationResponse.builder()
+            .ipAddress(address.toString())
+            .riskScore(verdict.riskScore())
+            .category(verdict.category())
+            .reportCount(0)
+            .isVpn(false)
+            .isProxy(false)
+            .threatLevel(blocked ? ThreatReputationResponse.threatLevelFor(verdict.riskScore()) : "SAFE")
+            .build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hackathon.pocketSIEM.config.ReputationCacheProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Size-bounded reputation cache in front of another {@link ExternalThreatIntelligenceApi}.
+ * Entries expire according to their threatLevel, and reads past the refresh-ahead
+ * point reload the verdict in the background while the current one is still served.
+ * Misses are loaded on the upstream executor; concurrent lookups of the same IP share
+ * one in-flight future, so the provider sees a single call per key. Entries are keyed
+ * by the parsed {@link IpAddress}, so differently written forms of one IPv6 address
+ * share an entry and the provider is always asked with the canonical text.
+ * Stale verdicts are kept only briefly and refreshed in the background on reads until
+ * a fresh one replaces them. A failed load leaves no entry: single lookups rethrow the failure,
+ * batch lookups leave the IP out of the result.
+ */
+@Slf4j
+public class CachingThreatIntelligenceApi implements ExternalThreatIntelligenceApi, MeterBinder {
+
+    public static final String CACHE_NAME = "ipReputation";
+
+    // Reads of a stale verdict trigger at most one refresh per second per IP
+    private static final long STALE_REVALIDATE_NANOS = 1_000_000_000L;
+
+    private final ExternalThreatIntelligenceApi delegate;
+    private final AsyncLoadingCache<IpAddress, CachedReputation> cache;
+    private final Ticker ticker;
+    private final Map<String, Long> ttlNanosByLevel = new HashMap<>();
+    private final long defaultTtlNanos;
+    private final long staleTtlNanos;
+    private final double refreshAheadRatio;
+
+    public CachingThreatIntelligenceApi(ExternalThreatIntelligenceApi delegate,
+                                        ReputationCacheProperties properties,
+                                        Executor upstreamExecutor) {
+        this(delegate, properties, upstreamExecutor, Ticker.systemTicker());
+    }
+
+    CachingThreatIntelligenceApi(ExternalThreatIntelligenceApi delegate,
+                                 ReputationCacheProperties properties,
+                                 Executor upstreamExecutor,
+                                 Ticker ticker) {
+        this.delegate = delegate;
+        this.ticker = ticker;
+        this.defaultTtlNanos = properties.getDefaultTtl().toNanos();
+        this.staleTtlNanos = properties.getStaleTtl().toNanos();
+        this.refreshAheadRatio = properties.getRefreshAheadRatio();
+        properties.getTtl().forEach((level, ttl) ->
+            ttlNanosByLevel.put(level.toUpperCase(Locale.ROOT), ttl.toNanos()));
+
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfter(new ThreatLevelExpiry())
+            .executor(upstreamExecutor)
+            .ticker(ticker)
+            .recordStats()
+            .buildAsync(this::load);
+    }
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        IpAddress key = IpAddress.parse(ipAddress);
+        try {
+            return unwrap(key, cache.get(key).join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Answers from a loaded entry only. A miss starts a background load, so the next
+     * call for the same IP usually finds it.
+     */
+    @Override
+    public ThreatReputationResponse checkIpReputationIfCached(String ipAddress) {
+        IpAddress key = IpAddress.tryParse(ipAddress);
+        if (key == null) {
+            return null;
+        }
+        CompletableFuture<CachedReputation> future = cache.get(key);
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return unwrap(key, future.join());
+    }
+
+    /**
+     * Resolves every IP in one pass: hits are answered immediately, misses are
+     * loaded in parallel, and IPs already being loaded join the existing call.
+     */
+    @Override
+    public Map<String, ThreatReputationResponse> checkIpReputations(Collection<String> ipAddresses) {
+        Map<String, IpAddress> keys = new LinkedHashMap<>();
+        Map<IpAddress, CompletableFuture<CachedReputation>> pending = new HashMap<>();
+        for (String ipAddress : ipAddresses) {
+            IpAddress key = keys.computeIfAbsent(ipAddress, IpAddress::parse);
+            pending.computeIfAbsent(key, cache::get);
+        }
+
+        Map<String, ThreatReputationResponse> results = new LinkedHashMap<>();
+        keys.forEach((ipAddress, key) -> {
+            CompletableFuture<CachedReputation> future = pending.get(key);
+            if (!await(future)) {
+                log.debug("Reputation unavailable for IP: {}", key);
+                return;
+            }
+            ThreatReputationResponse response = unwrap(key, future.join());
+            if (response != null) {
+                results.put(ipAddress, response);
+            }
+        });
+        return results;
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Publishes hit/miss/eviction counters and size under cache="ipReputation"
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private ThreatReputationResponse unwrap(IpAddress key, CachedReputation cached) {
+        if (cached == null) {
+            return null;
+        }
+        if (ticker.read() >= cached.refreshAtNanos()) {
+            // Already-running refreshes for the same key are reused by Caffeine
+            cache.synchronous().refresh(key);
+        }
+        return cached.response();
+    }
+
+    private static boolean await(CompletableFuture<CachedReputation> future) {
+        try {
+            future.join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    private CachedReputation load(IpAddress key) {
+        log.debug("Reputation cache miss for IP: {}", key);
+        ThreatReputationResponse response = delegate.checkIpReputation(key.toString());
+        if (response == null) {
+            return null;
+        }
+        long now = ticker.read();
+        if (response.isStale()) {
+            return new CachedReputation(response, staleTtlNanos, now + STALE_REVALIDATE_NANOS);
+        }
+        long ttlNanos = ttlFor(response.getThreatLevel());
+        return new CachedReputation(response, ttlNanos, now + (long) (ttlNanos * refreshAheadRatio));
+    }
+
+    private long ttlFor(String threatLevel) {
+        if (threatLevel == null) {
+            return defaultTtlNanos;
+        }
+        return ttlNanosByLevel.getOrDefault(threatLevel.toUpperCase(Locale.ROOT), defaultTtlNanos);
+    }
+
+    record CachedReputation(ThreatReputationResponse response, long ttlNanos, long refreshAtNanos) {
+    }
+
+    private static final class ThreatLevelExpiry implements Expiry<IpAddress, CachedReputation> {
+
+        @Override
+        public long expireAfterCreate(IpAddress key, CachedReputation value, long currentTime) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(IpAddress key, CachedReputation value, long currentTime, long currentDuration) {
+            return value.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(IpAddress key, CachedReputation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.config.ReputationAggregationProperties;
+import com.hackathon.pocketSIEM.dto.ReputationSource;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.exception.ReputationUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Asks every configured provider at once and merges their answers into one verdict.
+ *
+ * <p>A provider that has not answered by its hedge delay (the configured percentile of
+ * its own recent latencies) gets a second, identical request, and whichever returns first
+ * counts, so one slow call no longer sets the response time. The lookup returns as soon
+ * as min-sources providers have answered, or at the deadline with whatever has arrived.
+ *
+ * <p>Merging is conservative: the highest riskScore wins and its provider's category is
+ * kept, every answer is listed under {@code sources}, and the verdict is stale only if
+ * every answer was. With no answer at all the lookup fails with
+ * {@link ReputationUnavailableException}.
+ */
+@Slf4j
+public class CompositeThreatIntelligenceApi implements ExternalThreatIntelligenceApi, MeterBinder, AutoCloseable {
+
+    private static final int LATENCY_SAMPLES = 1_024;
+
+    private final List<Provider> providers;
+    private final int minSources;
+    private final long deadlineNanos;
+    private final boolean hedgingEnabled;
+    private final long minHedgeDelayNanos;
+    private final int hedgeWarmupCalls;
+    private final ScheduledThreadPoolExecutor hedgeTimer;
+
+    public CompositeThreatIntelligenceApi(List<ResilientThreatIntelligenceApi> providers,
+                                          ReputationAggregationProperties properties) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one reputation provider is required");
+        }
+        this.providers = providers.stream()
+            .map(api -> new Provider(api, new LatencyWindow(LATENCY_SAMPLES, properties.getHedgePercentile())))
+            .toList();
+        this.minSources = Math.max(1, Math.min(properties.getMinSources(), providers.size()));
+        this.deadlineNanos = properties.getDeadline().toNanos();
+        this.hedgingEnabled = properties.isHedgingEnabled();
+        this.minHedgeDelayNanos = properties.getMinHedgeDelay().toNanos();
+        this.hedgeWarmupCalls = properties.getHedgeWarmupCalls();
+        this.hedgeTimer = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("reputation-hedge-"));
+        // Most hedges are cancelled because the first request answered in time
+        this.hedgeTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        int count = providers.size();
+        AtomicReferenceArray<Answer> answers = new AtomicReferenceArray<>(count);
+        AtomicInteger answered = new AtomicInteger();
+        AtomicInteger settled = new AtomicInteger();
+        CompletableFuture<Void> enough = new CompletableFuture<>();
+
+        for (int i = 0; i < count; i++) {
+            int slot = i;
+            lookup(providers.get(i), ipAddress).whenComplete((answer, error) -> {
+                if (answer != null) {
+                    answers.set(slot, answer);
+                    if (answered.incrementAndGet() >= minSources) {
+                        enough.complete(null);
+                    }
+                }
+                if (settled.incrementAndGet() == count) {
+                    enough.complete(null);
+                }
+            });
+        }
+
+        try {
+            enough.get(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Reputation deadline passed for {} with {} of {} answers", ipAddress, answered.get(), count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+
+        List<Answer> received = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Answer answer = answers.get(i);
+            if (answer != null) {
+                received.add(answer);
+            }
+        }
+        if (received.isEmpty()) {
+            throw new ReputationUnavailableException(ipAddress, new TimeoutException("No provider answered"));
+        }
+        return merge(ipAddress, received);
+    }
+
+    /**
+     * Publishes every provider's resilience meters, reputation.hedges counted per provider
+     * and reputation.hedge.delay, the current hedge delay per provider in seconds
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Provider provider : providers) {
+            provider.api.bindTo(registry);
+            provider.hedges = Counter.builder("reputation.hedges")
+                .description("Second requests sent to a provider that was slower than its hedge delay")
+                .tag("provider", provider.api.name())
+                .register(registry);
+            Gauge.builder("reputation.hedge.delay", provider, p -> hedgeDelayNanos(p) / 1e9)
+                .tag("provider", provider.api.name())
+                .baseUnit("seconds")
+                .register(registry);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        hedgeTimer.shutdownNow();
+        for (Provider provider : providers) {
+            provider.api.close();
+        }
+    }
+
+    /**
+     * Completes with the first usable answer from the request or its hedge, or with null
+     * once every request sent has failed or come back empty
+     */
+    private CompletableFuture<Answer> lookup(Provider provider, String ipAddress) {
+        long start = System.nanoTime();
+        CompletableFuture<Answer> result = new CompletableFuture<>();
+        AtomicInteger inFlight = new AtomicInteger(1);
+
+        CompletableFuture<ThreatReputationResponse> first = provider.api.checkIpReputationAsync(ipAddress);
+        first.whenComplete((response, error) -> {
+            if (error == null && response != null && !response.isStale()) {
+                provider.latency.record(System.nanoTime() - start);
+            }
+            settle(provider, result, inFlight, response, start, false);
+        });
+
+        long hedgeDelay = hedgingEnabled ? hedgeDelayNanos(provider) : -1;
+        if (hedgeDelay >= 0 && !first.isDone()) {
+            ScheduledFuture<?> hedge = hedgeTimer.schedule(() -> {
+                if (first.isDone()) {
+                    return;
+                }
+                inFlight.incrementAndGet();
+                if (provider.hedges != null) {
+                    provider.hedges.increment();
+                }
+                provider.api.checkIpReputationAsync(ipAddress).whenComplete((response, error) ->
+                    settle(provider, result, inFlight, response, start, true));
+            }, hedgeDelay, TimeUnit.NANOSECONDS);
+            first.whenComplete((response, error) -> hedge.cancel(false));
+        }
+        return result;
+    }
+
+    private static void settle(Provider provider, CompletableFuture<Answer> result, AtomicInteger inFlight,
+                               ThreatReputationResponse response, long start, boolean hedged) {
+        if (response != null) {
+            result.complete(new Answer(provider.api.name(), response, System.nanoTime() - start, hedged));
+        } else if (inFlight.decrementAndGet() == 0) {
+            result.complete(null);
+        }
+    }
+
+    private long hedgeDelayNanos(Provider provider) {
+        if (provider.latency.count() < hedgeWarmupCalls) {
+            return -1;
+        }
+        return Math.max(minHedgeDelayNanos, provider.latency.percentileNanos());
+    }
+
+    private static ThreatReputationResponse merge(String ipAddress, List<Answer> answers) {
+        List<Answer> byRisk = new ArrayList<>(answers);
+        byRisk.sort(Comparator.comparingInt((Answer a) -> riskOf(a.response())).reversed());
+        ThreatReputationResponse lead = byRisk.get(0).response();
+        int riskScore = riskOf(lead);
+
+        List<ReputationSource> sources = new ArrayList<>(answers.size());
+        for (Answer answer : answers) {
+            ThreatReputationResponse response = answer.response();
+            sources.add(ReputationSource.builder()
+                .provider(answer.provider())
+                .riskScore(response.getRiskScore())
+                .category(response.getCategory())
+                .threatLevel(response.getThreatLevel())
+                .stale(response.isStale())
+                .hedged(answer.hedged())
+                .latencyMs(TimeUnit.NANOSECONDS.toMillis(answer.latencyNanos()))
+                .build());
+        }
+
+        return ThreatReputationResponse.builder()
+            .ipAddress(ipAddress)
+            .riskScore(riskScore)
+            .category(lead.getCategory())
+            .countryCode(first(byRisk, ThreatReputationResponse::getCountryCode))
+            .reportCount(byRisk.stream().map(a -> a.response().getReportCount())
+                .filter(Objects::nonNull).max(Integer::compare).orElse(null))
+            .lastSeen(first(byRisk, ThreatReputationResponse::getLastSeen))
+            .isVpn(anyTrue(answers, ThreatReputationResponse::getIsVpn))
+            .isProxy(anyTrue(answers, ThreatReputationResponse::getIsProxy))
+            .threatLevel(ThreatReputationResponse.threatLevelFor(riskScore))
+            .stale(answers.stream().allMatch(a -> a.response().isStale()))
+            .sources(sources)
+            .build();
+    }
+
+    private static int riskOf(ThreatReputationResponse response) {
+        return response.getRiskScore() != null ? response.getRiskScore() : 0;
+    }
+
+    private static <T> T first(List<Answer> answers, Function<ThreatReputationResponse, T> attribute) {
+        for (Answer answer : answers) {
+            T value = attribute.apply(answer.response());
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    // True if any provider says so, false if at least one says not, null if none know
+    private static Boolean anyTrue(List<Answer> answers, Function<ThreatReputationResponse, Boolean> flag) {
+        Boolean result = null;
+        for (Answer answer : answers) {
+            Boolean value = flag.apply(answer.response());
+            if (Boolean.TRUE.equals(value)) {
+                return true;
+            }
+            if (value != null) {
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    private record Answer(String provider, ThreatReputationResponse response, long latencyNanos, boolean hedged) {
+    }
+
+    private static final class Provider {
+        final ResilientThreatIntelligenceApi api;
+        final LatencyWindow latency;
+        volatile Counter hedges;
+
+        Provider(ResilientThreatIntelligenceApi api, LatencyWindow latency) {
+            this.api = api;
+            this.latency = latency;
+        }
+    }
+}
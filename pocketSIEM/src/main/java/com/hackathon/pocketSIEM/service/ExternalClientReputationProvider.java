@@ -0,0 +1,37 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.dto.ReputationResponse;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adapts {@link ExternalThreatIntelligenceClient} and its {@link ReputationResponse}
+ * to the reputation provider interface.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExternalClientReputationProvider implements ReputationProvider {
+
+    private final ExternalThreatIntelligenceClient client;
+
+    @Override
+    public String name() {
+        return "external-client";
+    }
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        ReputationResponse response = client.checkReputation(ipAddress);
+        if (response == null) {
+            return null;
+        }
+        int riskScore = response.getRiskScore() != null ? response.getRiskScore() : 0;
+        return ThreatReputationResponse.builder()
+            .ipAddress(ipAddress)
+            .riskScore(riskScore)
+            .category(response.getCategory())
+            .threatLevel(ThreatReputationResponse.threatLevelFor(riskScore))
+            .build();
+    }
+}
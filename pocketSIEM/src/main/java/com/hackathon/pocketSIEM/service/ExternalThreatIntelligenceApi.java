@@ -2,6 +2,35 @@ package com.hackathon.pocketSIEM.service;
 
 import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public interface ExternalThreatIntelligenceApi {
     ThreatReputationResponse checkIpReputation(String ipAddress);
+
+    /**
+     * Verdict that can be given without waiting on a provider, or null if there is none.
+     * The default has no local state and always returns null.
+     */
+    default ThreatReputationResponse checkIpReputationIfCached(String ipAddress) {
+        return null;
+    }
+
+    /**
+     * Looks up several IPs at once, keyed by IP in request order.
+     * The default resolves them one by one; implementations may fan out in parallel.
+     */
+    default Map<String, ThreatReputationResponse> checkIpReputations(Collection<String> ipAddresses) {
+        Map<String, ThreatReputationResponse> results = new LinkedHashMap<>();
+        for (String ipAddress : ipAddresses) {
+            if (!results.containsKey(ipAddress)) {
+                ThreatReputationResponse response = checkIpReputation(ipAddress);
+                if (response != null) {
+                    results.put(ipAddress, response);
+                }
+            }
+        }
+        return results;
+    }
 }
@@ -23,15 +23,7 @@ public class ExternalThreatIntelligenceClient {
         // Mock implementation: generate random risk score
         int riskScore = random.nextInt(101);
         String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
-        
-        // Simulate specific threat patterns for testing
-        if (ip.contains("185.220.101")) {
-            riskScore = 85;
-            category = "Malware";
-        } else if (ip.contains("198.51.100")) {
-            riskScore = 60;
-            category = "Botnet";
-        }
+        // Known ranges (e.g. Tor exits) are answered by CidrBlocklist before any provider is called
         
         return ReputationResponse.builder()
             .ip(ip)
@@ -0,0 +1,124 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.blocklist.IndicatorFilter;
+import com.hackathon.pocketSIEM.config.IndicatorFilterProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fast path for IPs nobody has reported: when {@link IndicatorFilter} says an IP was
+ * definitely never reported it is answered as SAFE without touching the cache or the
+ * provider. Possible members go to the delegate, and those it rates SAFE are counted
+ * as false positives.
+ */
+@RequiredArgsConstructor
+public class IndicatorFilterThreatIntelligenceApi implements ExternalThreatIntelligenceApi {
+
+    static final String NOT_LISTED = "Not Listed";
+
+    private final ExternalThreatIntelligenceApi delegate;
+    private final IndicatorFilter indicatorFilter;
+    private final IndicatorFilterProperties properties;
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        IpAddress address = IpAddress.tryParse(ipAddress);
+        if (address == null || !properties.isEnabled()) {
+            return delegate.checkIpReputation(ipAddress);
+        }
+        boolean positive = check(address);
+        if (!positive && properties.isFastPath()) {
+            return notListed(address);
+        }
+        ThreatReputationResponse response = delegate.checkIpReputation(ipAddress);
+        if (positive) {
+            recordVerdict(response);
+        }
+        return response;
+    }
+
+    /**
+     * Not counted towards the observed false-positive rate: the verdict for a positive
+     * may not be known yet
+     */
+    @Override
+    public ThreatReputationResponse checkIpReputationIfCached(String ipAddress) {
+        IpAddress address = IpAddress.tryParse(ipAddress);
+        if (address != null && properties.isEnabled() && properties.isFastPath()
+                && !indicatorFilter.mightContain(address)) {
+            return notListed(address);
+        }
+        return delegate.checkIpReputationIfCached(ipAddress);
+    }
+
+    @Override
+    public Map<String, ThreatReputationResponse> checkIpReputations(Collection<String> ipAddresses) {
+        if (!properties.isEnabled()) {
+            return delegate.checkIpReputations(ipAddresses);
+        }
+        Map<String, ThreatReputationResponse> local = new HashMap<>();
+        Set<String> positives = new HashSet<>();
+        List<String> misses = new ArrayList<>();
+        for (String ipAddress : new LinkedHashSet<>(ipAddresses)) {
+            IpAddress address = IpAddress.tryParse(ipAddress);
+            boolean positive = address == null || check(address);
+            if (!positive && properties.isFastPath()) {
+                local.put(ipAddress, notListed(address));
+                continue;
+            }
+            misses.add(ipAddress);
+            if (positive && address != null) {
+                positives.add(ipAddress);
+            }
+        }
+        Map<String, ThreatReputationResponse> upstream = misses.isEmpty()
+            ? Map.of()
+            : delegate.checkIpReputations(misses);
+        positives.forEach(ipAddress -> recordVerdict(upstream.get(ipAddress)));
+
+        // Preserve request order across both sources
+        Map<String, ThreatReputationResponse> results = new LinkedHashMap<>();
+        for (String ipAddress : ipAddresses) {
+            ThreatReputationResponse response = local.getOrDefault(ipAddress, upstream.get(ipAddress));
+            if (response != null) {
+                results.putIfAbsent(ipAddress, response);
+            }
+        }
+        return results;
+    }
+
+    private boolean check(IpAddress address) {
+        boolean positive = indicatorFilter.mightContain(address);
+        indicatorFilter.recordCheck(positive);
+        return positive;
+    }
+
+    private void recordVerdict(ThreatReputationResponse response) {
+        if (response != null && "SAFE".equals(response.getThreatLevel())) {
+            indicatorFilter.recordBenignPositive();
+        }
+    }
+
+    private static ThreatReputationResponse notListed(IpAddress address) {
+        return ThreatReputationResponse.builder()
+            .ipAddress(address.toString())
+            .riskScore(0)
+            .category(NOT_LISTED)
+            .reportCount(0)
+            .isVpn(false)
+            .isProxy(false)
+            .threatLevel("SAFE")
+            .build();
+    }
+}
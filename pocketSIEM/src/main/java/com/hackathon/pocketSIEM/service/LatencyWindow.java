@@ -0,0 +1,59 @@
+package com.hackathon.pocketSIEM.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the most recent calls in a ring buffer, with a percentile that is
+ * recomputed every few samples instead of on every read. Recording is lock-free;
+ * a percentile computed while samples are being written may mix old and new ones.
+ */
+final class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final int recomputeEvery;
+    private final double percentile;
+    private volatile long cachedNanos = -1;
+    private volatile long cachedAt;
+
+    LatencyWindow(int size, double percentile) {
+        this.samples = new AtomicLongArray(size);
+        this.recomputeEvery = Math.max(1, size / 16);
+        // Due on the first read; Long.MIN_VALUE would overflow count - cachedAt
+        this.cachedAt = -recomputeEvery;
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+
+    long count() {
+        return recorded.get();
+    }
+
+    /**
+     * @return the configured percentile of the recorded latencies in nanoseconds, or -1 if none
+     */
+    long percentileNanos() {
+        long count = recorded.get();
+        if (count == 0) {
+            return -1;
+        }
+        if (count - cachedAt >= recomputeEvery) {
+            int size = (int) Math.min(count, samples.length());
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile * size) - 1;
+            cachedNanos = sorted[Math.max(0, Math.min(size - 1, rank))];
+            cachedAt = count;
+        }
+        return cachedNanos;
+    }
+}
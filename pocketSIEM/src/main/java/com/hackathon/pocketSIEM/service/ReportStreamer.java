@@ -0,0 +1,53 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Writes a report scan to an output stream as NDJSON while the store is still
+ * reading it, so memory stays flat however many reports match.
+ */
+@Component
+@Slf4j
+public class ReportStreamer {
+
+    private static final int NEWLINE = '\n';
+
+    private final ObjectWriter reportWriter;
+
+    public ReportStreamer(ObjectMapper objectMapper) {
+        this.reportWriter = objectMapper.writerFor(ThreatReport.class);
+    }
+
+    /**
+     * @param scan passes each report to the given action, as the ReportStore scans do
+     * @return number of reports written
+     */
+    public long write(ToLongFunction<Consumer<ThreatReport>> scan, OutputStream out) throws IOException {
+        try {
+            long written = scan.applyAsLong(report -> {
+                try {
+                    out.write(reportWriter.writeValueAsBytes(report));
+                    out.write(NEWLINE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            return written;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-stream
+            log.debug("Report stream aborted: {}", e.getMessage());
+            throw e.getCause();
+        }
+    }
+}
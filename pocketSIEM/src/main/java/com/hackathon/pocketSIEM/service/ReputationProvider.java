@@ -0,0 +1,10 @@
+package com.hackathon.pocketSIEM.service;
+
+/**
+ * A reputation source that can be enabled by name in app.reputation-aggregation.providers.
+ */
+public interface ReputationProvider extends ExternalThreatIntelligenceApi {
+
+    /** Short, stable identifier used in configuration, metric tags and source attribution */
+    String name();
+}
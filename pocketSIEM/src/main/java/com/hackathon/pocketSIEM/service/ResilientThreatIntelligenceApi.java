@@ -0,0 +1,171 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hackathon.pocketSIEM.config.ReputationUpstreamProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.exception.ReputationUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Guards provider calls with a deadline, a thread-pool bulkhead and a circuit breaker.
+ * The provider runs on bulkhead threads, so a caller waits at most app.reputation-upstream.timeout
+ * however slow the provider gets; a call that overruns keeps going and its verdict is still
+ * kept for later. When a call fails, times out, is rejected by the bulkhead or is refused
+ * by the open circuit, the last verdict seen for the IP is returned with {@code stale} set;
+ * with no verdict on record the lookup fails with {@link ReputationUnavailableException}.
+ * Each instance guards one provider; its meters are tagged with that provider's name.
+ */
+@Slf4j
+public class ResilientThreatIntelligenceApi implements ExternalThreatIntelligenceApi, MeterBinder, AutoCloseable {
+
+    private final ExternalThreatIntelligenceApi delegate;
+    private final String name;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final ThreadPoolBulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolBulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+    private final ScheduledExecutorService deadlines;
+    private final Cache<String, ThreatReputationResponse> lastKnown;
+    private Counter staleFallbacks;
+    private Counter unavailable;
+
+    public ResilientThreatIntelligenceApi(ExternalThreatIntelligenceApi delegate, String name,
+                                          ReputationUpstreamProperties properties) {
+        this.delegate = delegate;
+        this.name = name;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(properties.getFailureRateThreshold())
+            .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+            .slowCallDurationThreshold(properties.getSlowCallDuration())
+            .slidingWindowSize(properties.getSlidingWindowSize())
+            .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+            .waitDurationInOpenState(properties.getWaitInOpenState())
+            .permittedNumberOfCallsInHalfOpenState(properties.getPermittedCallsInHalfOpenState())
+            // A full bulkhead says we are busy, not that the provider is unhealthy
+            .ignoreExceptions(BulkheadFullException.class)
+            .build());
+        this.bulkheads = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.custom()
+            .coreThreadPoolSize(properties.getMaxConcurrentCalls())
+            .maxThreadPoolSize(properties.getMaxConcurrentCalls())
+            .queueCapacity(properties.getQueueCapacity())
+            .build());
+        this.timeLimiters = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+            .timeoutDuration(properties.getTimeout())
+            .cancelRunningFuture(false)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(name);
+        this.bulkhead = bulkheads.bulkhead(name);
+        this.timeLimiter = timeLimiters.timeLimiter(name);
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(name + "-deadline-"));
+        this.lastKnown = Caffeine.newBuilder()
+            .maximumSize(properties.getStaleMaximumSize())
+            .expireAfterWrite(properties.getStaleRetention())
+            .build();
+    }
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        try {
+            return checkIpReputationAsync(ipAddress).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Same as {@link #checkIpReputation} without blocking the caller: the future completes
+     * by the deadline with a fresh or stale verdict, or fails with ReputationUnavailableException.
+     */
+    public CompletableFuture<ThreatReputationResponse> checkIpReputationAsync(String ipAddress) {
+        Supplier<CompletionStage<ThreatReputationResponse>> call =
+            () -> bulkhead.executeSupplier(() -> remember(ipAddress, delegate.checkIpReputation(ipAddress)));
+        return circuitBreaker.decorateCompletionStage(timeLimiter.decorateCompletionStage(deadlines, call))
+            .get()
+            .toCompletableFuture()
+            .handle((response, error) -> error == null ? response : fallback(ipAddress, unwrap(error)));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Publishes resilience4j.* circuit breaker, bulkhead and time limiter metrics plus
+     * reputation.upstream.fallbacks tagged with the provider and result=stale or result=unavailable
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedThreadPoolBulkheadMetrics.ofThreadPoolBulkheadRegistry(bulkheads).bindTo(registry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(registry);
+        staleFallbacks = Counter.builder("reputation.upstream.fallbacks")
+            .tag("provider", name).tag("result", "stale").register(registry);
+        unavailable = Counter.builder("reputation.upstream.fallbacks")
+            .tag("provider", name).tag("result", "unavailable").register(registry);
+    }
+
+    @Override
+    public void close() throws Exception {
+        deadlines.shutdownNow();
+        bulkhead.close();
+    }
+
+    private ThreatReputationResponse remember(String ipAddress, ThreatReputationResponse response) {
+        if (response != null) {
+            lastKnown.put(ipAddress, response);
+        }
+        return response;
+    }
+
+    private ThreatReputationResponse fallback(String ipAddress, Throwable cause) {
+        ThreatReputationResponse known = lastKnown.getIfPresent(ipAddress);
+        if (known == null) {
+            increment(unavailable);
+            throw new ReputationUnavailableException(ipAddress, cause);
+        }
+        log.debug("Serving stale reputation for {} after {}", ipAddress, cause.toString());
+        increment(staleFallbacks);
+        return known.toBuilder().stale(true).build();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
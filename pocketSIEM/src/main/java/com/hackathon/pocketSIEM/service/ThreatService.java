@@ -1,307 +1,426 @@
 package com.hackathon.pocketSIEM.service;
 
+import com.hackathon.pocketSIEM.analytics.HotReportTier;
+import com.hackathon.pocketSIEM.config.IngestProperties;
+import com.hackathon.pocketSIEM.connection.ConnectionTracker;
+import com.hackathon.pocketSIEM.correlation.AlertStore;
 import com.hackathon.pocketSIEM.dto.*;
+import com.hackathon.pocketSIEM.ingest.NdjsonReportReader;
+import com.hackathon.pocketSIEM.ingest.ReportIngestPipeline;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
 import com.hackathon.pocketSIEM.model.ThreatReport;
-import com.hackathon.pocketSIEM.repository.ThreatReportRepository;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+import com.hackathon.pocketSIEM.retention.ReportHistory;
+import com.hackathon.pocketSIEM.sketch.HeavyHitters;
+import com.hackathon.pocketSIEM.stats.DeviceStatsEngine;
+import com.hackathon.pocketSIEM.stats.IpReportCounters;
+import com.hackathon.pocketSIEM.stats.RollingStats;
+import com.hackathon.pocketSIEM.stats.ThreatTimeline;
+import com.hackathon.pocketSIEM.store.ReportStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ThreatService {
 
+        private static final DateTimeFormatter TIME_LABEL = DateTimeFormatter.ofPattern("HH:mm");
+        private static final DateTimeFormatter DAY_TIME_LABEL = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+
         private final ExternalThreatIntelligenceApi threatIntelligenceApi;
-        private final ThreatReportRepository threatReportRepository;
+        private final ReportStore reportStore;
+        private final ReportIngestPipeline reportIngestPipeline;
+        private final NdjsonReportReader ndjsonReportReader;
+        private final IngestProperties ingestProperties;
+        private final ThreatTimeline threatTimeline;
+        private final DeviceStatsEngine deviceStatsEngine;
+        private final List<ThreatReportListener> reportListeners;
+        private final ReportStreamer reportStreamer;
+        private final ConnectionTracker connectionTracker;
+        private final ReportHistory reportHistory;
+        private final HotReportTier hotReportTier;
+        private final HeavyHitters heavyHitters;
+        private final IpReportCounters ipReportCounters;
+        private final AlertStore alertStore;
 
         /**
-         * Check IP reputation with caching
+         * Check IP reputation (cached by CachingThreatIntelligenceApi)
          */
-        @Cacheable(value = "ipReputation", key = "#ipAddress")
         public ThreatReputationResponse checkIpReputation(String ipAddress) {
                 log.info("Checking reputation for IP: {}", ipAddress);
                 return threatIntelligenceApi.checkIpReputation(ipAddress);
         }
 
         /**
-         * Report a new threat
+         * Check reputation of several IPs in one call; misses are fetched in parallel.
+         * Returns one entry per IP in order, marked unavailable where the lookup failed.
+         */
+        public List<ThreatReputationResponse> checkIpReputations(Collection<String> ipAddresses) {
+                log.info("Checking reputation for {} IPs", ipAddresses.size());
+                Map<String, ThreatReputationResponse> found = threatIntelligenceApi.checkIpReputations(ipAddresses);
+                List<ThreatReputationResponse> results = new ArrayList<>(ipAddresses.size());
+                for (String ipAddress : ipAddresses) {
+                        ThreatReputationResponse response = found.get(ipAddress);
+                        results.add(response != null ? response : ThreatReputationResponse.unavailable(ipAddress));
+                }
+                return results;
+        }
+
+        /**
+         * Report a new threat. In async ingest mode the report is queued and returned
+         * without an id; it is persisted with the next batch. Listeners only see the
+         * report once it has been queued or stored.
          */
         public ThreatReport reportThreat(ThreatReportRequest request) {
                 log.info("Received threat report for app: {}, IP: {}", request.getAppName(), request.getTargetIp());
 
-                ThreatReport report = ThreatReport.builder()
+                ThreatReport report = toThreatReport(request);
+                if (isAsyncIngest()) {
+                        reportIngestPipeline.submit(report);
+                        notifyListeners(report);
+                        return report;
+                }
+                ThreatReport saved = reportStore.save(report);
+                notifyListeners(saved);
+                return saved;
+        }
+
+        public boolean isAsyncIngest() {
+                return ingestProperties.getMode() == IngestProperties.Mode.ASYNC;
+        }
+
+        /**
+         * Import a newline-delimited JSON stream of reports. Valid lines are written
+         * in batches of app.ingest.bulk-batch-size as they are read, so batches
+         * already written stay committed if the stream fails part-way.
+         */
+        public BulkIngestResponse importReports(InputStream ndjson) throws IOException {
+                int batchSize = ingestProperties.getBulkBatchSize();
+                List<ThreatReport> batch = new ArrayList<>(batchSize);
+
+                BulkIngestResponse result = ndjsonReportReader.read(ndjson, request -> {
+                        batch.add(toThreatReport(request));
+                        if (batch.size() >= batchSize) {
+                                saveBatch(batch);
+                                batch.clear();
+                        }
+                });
+                if (!batch.isEmpty()) {
+                        saveBatch(batch);
+                }
+
+                log.info("Bulk import finished: {} accepted, {} rejected", result.getAccepted(), result.getRejected());
+                return result;
+        }
+
+        private ThreatReport toThreatReport(ThreatReportRequest request) {
+                return ThreatReport.builder()
                                 .appName(request.getAppName())
-                                .targetIp(request.getTargetIp())
+                                // Canonical text so every spelling of an address hits the same index entries
+                                .targetIp(IpAddress.parse(request.getTargetIp()).toString())
                                 .reportedAt(LocalDateTime.now())
                                 .protocol(request.getProtocol())
                                 .description(request.getDescription())
                                 .deviceId(request.getDeviceId())
                                 .userSeverity(request.getUserSeverity() != null ? request.getUserSeverity() : 0)
                                 .build();
+        }
 
-                return threatReportRepository.save(report);
+        // Listeners see a batch only once it is committed
+        private void saveBatch(List<ThreatReport> batch) {
+                reportStore.saveAll(batch);
+                for (ThreatReport report : batch) {
+                        notifyListeners(report);
+                }
         }
 
-        public List<ThreatReport> getReportsForIp(String ipAddress) {
-                return threatReportRepository.findByTargetIpOrderByReportedAtDesc(ipAddress);
+        private void notifyListeners(ThreatReport report) {
+                for (ThreatReportListener listener : reportListeners) {
+                        listener.onReportAccepted(report);
+                }
         }
 
-        public Integer getRecentReportCount(String ipAddress) {
-                LocalDateTime since = LocalDateTime.now().minusHours(24);
-                return threatReportRepository.countReportsForIpSince(ipAddress, since);
+        /**
+         * One page of reports for an IP, newest first, starting after the cursor
+         */
+        public ReportPage getReportsForIp(IpAddress ipAddress, ReportCursor cursor, int limit) {
+                return toPage(reportStore.findPageForIp(ipAddress.toString(), cursor, limit + 1), limit);
         }
 
-        public List<ThreatReport> getReportsForApp(String appName) {
-                return threatReportRepository.findByAppName(appName);
+        /**
+         * Writes every report for an IP after the cursor as NDJSON, newest first
+         */
+        public long streamReportsForIp(IpAddress ipAddress, ReportCursor cursor, OutputStream out) throws IOException {
+                return reportStreamer.write(action -> reportStore.scanForIp(ipAddress.toString(), cursor, action), out);
         }
 
         /**
-         * Calculate device trust score (0-100) based on recent threats
+         * Reports for an IP in the last 24 hours, from the in-memory per-IP counters;
+         * the database is only consulted when the counters' window is shorter or the
+         * IP's counts were trimmed
          */
-        public DeviceStatsResponse getDeviceStats() {
-                log.info("Calculating device statistics");
+        public Integer getRecentReportCount(IpAddress ipAddress) {
+                LocalDateTime since = LocalDateTime.now().minusHours(24);
+                if (ipReportCounters.covers(ipAddress, since)) {
+                        return (int) ipReportCounters.countSince(ipAddress, since);
+                }
+                return (int) reportHistory.countReportsForIpSince(ipAddress.toString(), since);
+        }
+
+        public ReportPage getReportsForApp(String appName, ReportCursor cursor, int limit) {
+                return toPage(reportStore.findPageForApp(appName, cursor, limit + 1), limit);
+        }
 
-                LocalDateTime last24Hours = LocalDateTime.now().minusHours(24);
+        public long streamReportsForApp(String appName, ReportCursor cursor, OutputStream out) throws IOException {
+                return reportStreamer.write(action -> reportStore.scanForApp(appName, cursor, action), out);
+        }
 
-                // Use database query instead of in-memory filtering
-                List<ThreatReport> recentThreats = threatReportRepository.findByReportedAtAfter(last24Hours);
+        // The query fetches one extra row so a full page knows whether another follows
+        private ReportPage toPage(List<ThreatReport> rows, int limit) {
+                if (rows.size() <= limit) {
+                        return ReportPage.builder().reports(rows).build();
+                }
+                List<ThreatReport> page = rows.subList(0, limit);
+                return ReportPage.builder()
+                                .reports(page)
+                                .nextCursor(ReportCursor.after(page.get(limit - 1)).encode())
+                                .build();
+        }
 
-                // Calculate trust score (100 - threat severity)
-                int threatSeverity = recentThreats.stream()
-                                .mapToInt(ThreatReport::getUserSeverity)
-                                .sum();
-                int trustScore = Math.max(0, 100 - (threatSeverity / Math.max(1, recentThreats.size())));
+        /**
+         * Calculate trust score (0-100) and threat counts over the stats window for one
+         * device, or for the whole fleet when deviceId is null, from in-memory aggregates
+         */
+        public DeviceStatsResponse getDeviceStats(String deviceId) {
+                log.info("Calculating device statistics for {}", StringUtils.hasText(deviceId) ? deviceId : "fleet");
 
-                long criticalCount = recentThreats.stream()
-                                .filter(t -> t.getUserSeverity() >= 75).count();
-                long highCount = recentThreats.stream()
-                                .filter(t -> t.getUserSeverity() >= 50 && t.getUserSeverity() < 75).count();
-                long suspiciousCount = recentThreats.stream()
-                                .filter(t -> t.getUserSeverity() >= 25 && t.getUserSeverity() < 50).count();
+                DeviceStatsEngine.DeviceSnapshot snapshot = StringUtils.hasText(deviceId)
+                                ? deviceStatsEngine.deviceSnapshot(deviceId)
+                                : deviceStatsEngine.fleetSnapshot();
+                RollingStats.Snapshot stats = snapshot.stats();
 
                 return DeviceStatsResponse.builder()
-                                .deviceTrustScore(trustScore)
-                                .appsMonitored(25) // Mock data - integrate with VPN service
-                                .threatsBlocked((int) recentThreats.stream().count())
-                                .dataUsageBytes(1024L * 1024L * 512L) // Mock: 512MB
-                                .criticalThreats((int) criticalCount)
-                                .highThreats((int) highCount)
-                                .suspiciousConnections((int) suspiciousCount)
+                                .deviceTrustScore(stats.trustScore())
+                                .appsMonitored(snapshot.appsSeen())
+                                .threatsBlocked((int) stats.reports())
+                                .dataUsageBytes(1024L * 1024L * 512L) // Mock: 512MB - no traffic telemetry yet
+                                .criticalThreats((int) stats.critical())
+                                .highThreats((int) stats.high())
+                                .suspiciousConnections((int) stats.suspicious())
                                 .build();
         }
 
         /**
-         * Get attack surface data points for the last hour
+         * Totals and top breakdown of the reports for one device, IP or app within the
+         * window, scanned from the columnar hot tier
          */
-        public List<AttackSurfaceDataPoint> getAttackSurfaceData() {
-                log.info("Generating attack surface data");
+        public ReportAnalyticsResponse getAnalytics(HotReportTier.Dimension dimension, String key, Duration window) {
+                log.info("Summarizing {} {} over {}", dimension, key, window);
 
-                List<AttackSurfaceDataPoint> dataPoints = new ArrayList<>();
-                LocalDateTime now = LocalDateTime.now();
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
+                HotReportTier.Summary summary = hotReportTier.summarize(dimension, key, window);
+                return ReportAnalyticsResponse.builder()
+                                .dimension(dimension.name().toLowerCase(Locale.ROOT))
+                                .key(key)
+                                .window(formatDuration(window))
+                                .reports(summary.reports())
+                                .averageSeverity(summary.reports() == 0 ? 0.0 : (double) summary.severitySum() / summary.reports())
+                                .criticalThreats(summary.critical())
+                                .highThreats(summary.high())
+                                .suspiciousConnections(summary.suspicious())
+                                .distinctDevices(summary.devices())
+                                .distinctApps(summary.apps())
+                                .distinctIps(summary.ips())
+                                .topBy(dimension == HotReportTier.Dimension.APP ? "ip" : "app")
+                                .top(summary.top().stream()
+                                                .map(top -> new ReportAnalyticsResponse.KeyCount(top.key(), top.count()))
+                                                .toList())
+                                .build();
+        }
 
-                // Generate 12 data points for the last hour (5-minute intervals)
-                for (int i = 11; i >= 0; i--) {
-                        LocalDateTime timePoint = now.minusMinutes((long) i * 5);
-                        LocalDateTime timeRangeStart = timePoint.minusMinutes(5);
+        public boolean supportsAnalyticsWindow(Duration window) {
+                return hotReportTier.supports(window);
+        }
 
-                        // Use database query instead of loading all data into memory
-                        List<ThreatReport> threats = threatReportRepository
-                                        .findByReportedAtBetween(timeRangeStart, timePoint);
-                        long threatCount = threats.size();
+        public List<AttackSurfaceDataPoint> getAttackSurfaceData(Duration window, Duration resolution) {
+                return getAttackSurfaceData(window, resolution, null);
+        }
 
+        /**
+         * Most reported IPs or apps over the window, from the streaming top-K sketches
+         */
+        public List<HeavyHitterResponse> getTopReported(HeavyHitters.Field field, Duration window, int limit) {
+                log.info("Fetching top {} {} over {}", limit, field, window);
+                return heavyHitters.top(field, window, limit).stream()
+                                .map(ThreatService::toHeavyHitterResponse)
+                                .toList();
+        }
+
+        /**
+         * Report and distinct-device counts for one IP or app, or null when the
+         * sketches do not track it in the window
+         */
+        public HeavyHitterResponse getReportedKey(HeavyHitters.Field field, Duration window, String key) {
+                HeavyHitters.HeavyHitter hitter = heavyHitters.lookup(field, window, key);
+                return hitter == null ? null : toHeavyHitterResponse(hitter);
+        }
+
+        public boolean supportsTopReportedWindow(Duration window) {
+                return heavyHitters.supports(window);
+        }
+
+        /**
+         * Correlation alerts triggered within the window, newest first, optionally
+         * for one rule or key
+         */
+        public List<AlertResponse> getAlerts(Duration window, String rule, String key, int limit) {
+                log.info("Fetching alerts over {} for rule {} and key {}", window, rule, key);
+                return alertStore.findRecent(LocalDateTime.now().minus(window), rule, key, limit).stream()
+                                .map(ThreatService::toAlertResponse)
+                                .toList();
+        }
+
+        /**
+         * Get attack surface data points for the window, one per resolution step, read
+         * from the in-memory per-minute timeline, or for one device from the hot tier
+         */
+        public List<AttackSurfaceDataPoint> getAttackSurfaceData(Duration window, Duration resolution, String deviceId) {
+                log.info("Generating attack surface data for {} at {}", window, resolution);
+
+                int bucketMinutes = (int) resolution.toMinutes();
+                int buckets = (int) (window.toMinutes() / bucketMinutes);
+                ZoneId zone = ZoneId.systemDefault();
+                Instant now = Instant.now();
+
+                // Align buckets to local wall-clock boundaries, e.g. 10:00, 10:05 or 06:00, 12:00
+                long offsetMinutes = zone.getRules().getOffset(now).getTotalSeconds() / 60;
+                long nowLocalMinute = now.getEpochSecond() / 60 + offsetMinutes;
+                long currentBucketStart = Math.floorDiv(nowLocalMinute, bucketMinutes) * bucketMinutes - offsetMinutes;
+                long firstBucketStart = currentBucketStart - (long) (buckets - 1) * bucketMinutes;
+
+                long[] counts = StringUtils.hasText(deviceId)
+                                ? hotReportTier.countsPerBucket(deviceId, firstBucketStart, bucketMinutes, buckets)
+                                : threatTimeline.countsPerBucket(firstBucketStart, bucketMinutes, buckets);
+                DateTimeFormatter formatter = window.toDays() >= 1 ? DAY_TIME_LABEL : TIME_LABEL;
+
+                List<AttackSurfaceDataPoint> dataPoints = new ArrayList<>(buckets);
+                for (int i = 0; i < buckets; i++) {
+                        Instant bucketStart = Instant.ofEpochSecond((firstBucketStart + (long) i * bucketMinutes) * 60);
                         dataPoints.add(AttackSurfaceDataPoint.builder()
-                                        .timestamp(timePoint.atZone(java.time.ZoneId.systemDefault()).toInstant()
-                                                        .toEpochMilli())
-                                        .timeLabel(timePoint.format(formatter))
-                                        .threatCount((int) threatCount)
-                                        .networkTraffic((long) new Random().nextInt(10 * 1024 * 1024)) // Mock
+                                        .timestamp(bucketStart.toEpochMilli())
+                                        .timeLabel(formatter.format(bucketStart.atZone(zone)))
+                                        .threatCount((int) counts[i])
+                                        .networkTraffic((long) ThreadLocalRandom.current().nextInt(10 * 1024 * 1024)) // Mock
                                         .build());
                 }
 
                 return dataPoints;
         }
 
+        public boolean supportsAttackSurfaceWindow(Duration window, Duration resolution, String deviceId) {
+                if (StringUtils.hasText(deviceId)) {
+                        return threatTimeline.supports(window, resolution) && hotReportTier.supports(window);
+                }
+                return threatTimeline.supports(window, resolution);
+        }
+
+        private static HeavyHitterResponse toHeavyHitterResponse(HeavyHitters.HeavyHitter hitter) {
+                return HeavyHitterResponse.builder()
+                                .key(hitter.key())
+                                .reports(hitter.reports())
+                                .guaranteedReports(hitter.guaranteedReports())
+                                .distinctDevices(hitter.distinctDevices())
+                                .build();
+        }
+
+        private static AlertResponse toAlertResponse(CorrelationAlert alert) {
+                return AlertResponse.builder()
+                                .id(alert.getId())
+                                .rule(alert.getRuleName())
+                                .key(alert.getGroupKey())
+                                .distinctCount(alert.getDistinctCount())
+                                .evidence(alert.getEvidence())
+                                .windowStart(alert.getWindowStart())
+                                .triggeredAt(alert.getTriggeredAt())
+                                .build();
+        }
+
+        private static String formatDuration(Duration duration) {
+                if (duration.toMinutes() % 60 != 0) {
+                        return duration.toMinutes() + "m";
+                }
+                return duration.toHours() % 24 == 0 ? duration.toDays() + "d" : duration.toHours() + "h";
+        }
+
         /**
-         * Get active live network connections (mock data - integrate with VPN service)
+         * Classify each connection from locally known verdicts (blocklist, reported-IP
+         * filter, reputation cache) and add it to the device's live window. No provider
+         * is called: an IP without a local verdict is recorded as SUSPICIOUS while its
+         * reputation loads in the background. Timestamps ahead of the server clock are
+         * clamped to now, so a device cannot keep itself in the window.
          */
-        public List<NetworkConnectionResponse> getLiveConnections() {
-                log.info("Fetching live network connections");
+        public List<NetworkConnectionResponse> recordConnections(ConnectionBatchRequest request) {
+                log.info("Recording {} connections for device: {}", request.getConnections().size(), request.getDeviceId());
 
-                // Mock data - expanded to show more realistic network activity
                 long now = System.currentTimeMillis();
+                List<NetworkConnectionResponse> recorded = new ArrayList<>(request.getConnections().size());
+                for (ConnectionEventRequest event : request.getConnections()) {
+                        String status = connectionStatus(threatIntelligenceApi.checkIpReputationIfCached(event.getDestinationIp()));
+                        String appName = StringUtils.hasText(event.getAppName()) ? event.getAppName() : event.getAppPackage();
+                        String protocol = event.getProtocol() != null ? event.getProtocol() : "TCP";
+                        long transferred = event.getBytes() != null ? event.getBytes() : 0L;
+                        long timestamp = event.getTimestamp() != null ? Math.min(event.getTimestamp(), now) : now;
+                        connectionTracker.record(request.getDeviceId(), appName, event.getAppPackage(), event.getDestinationIp(),
+                                        event.getPort(), protocol, status, transferred, timestamp);
+                        recorded.add(NetworkConnectionResponse.builder()
+                                        .appName(appName)
+                                        .appPackage(event.getAppPackage())
+                                        .destinationIp(event.getDestinationIp())
+                                        .port(event.getPort())
+                                        .protocol(protocol)
+                                        .status(status)
+                                        .dataTransferred(transferred)
+                                        .timestamp(timestamp)
+                                        .build());
+                }
+                return recorded;
+        }
 
-                return Arrays.asList(
-                                // Safe connections
-                                NetworkConnectionResponse.builder()
-                                                .appName("Chrome")
-                                                .appPackage("com.android.chrome")
-                                                .destinationIp("142.251.32.46")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 512)
-                                                .timestamp(now - 1000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Gmail")
-                                                .appPackage("com.google.android.gm")
-                                                .destinationIp("172.217.14.213")
-                                                .port(993)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 256)
-                                                .timestamp(now - 9000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("WhatsApp")
-                                                .appPackage("com.whatsapp")
-                                                .destinationIp("157.240.241.61")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 128)
-                                                .timestamp(now - 15000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Instagram")
-                                                .appPackage("com.instagram.android")
-                                                .destinationIp("157.240.22.174")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 1024 * 2)
-                                                .timestamp(now - 22000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Spotify")
-                                                .appPackage("com.spotify.music")
-                                                .destinationIp("35.186.224.25")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 1024 * 8)
-                                                .timestamp(now - 30000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("YouTube")
-                                                .appPackage("com.google.android.youtube")
-                                                .destinationIp("142.250.185.78")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 1024 * 15)
-                                                .timestamp(now - 45000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Netflix")
-                                                .appPackage("com.netflix.mediaclient")
-                                                .destinationIp("54.192.36.89")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 1024 * 25)
-                                                .timestamp(now - 60000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Google Maps")
-                                                .appPackage("com.google.android.apps.maps")
-                                                .destinationIp("142.251.33.110")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 768)
-                                                .timestamp(now - 75000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Telegram")
-                                                .appPackage("org.telegram.messenger")
-                                                .destinationIp("149.154.167.51")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 384)
-                                                .timestamp(now - 90000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Twitter")
-                                                .appPackage("com.twitter.android")
-                                                .destinationIp("104.244.42.193")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("SAFE")
-                                                .dataTransferred(1024L * 512)
-                                                .timestamp(now - 105000)
-                                                .build(),
-
-                                // Suspicious connections
-                                NetworkConnectionResponse.builder()
-                                                .appName("Unknown App")
-                                                .appPackage("com.suspicious.app")
-                                                .destinationIp("45.142.182.99")
-                                                .port(8080)
-                                                .protocol("TCP")
-                                                .status("SUSPICIOUS")
-                                                .dataTransferred(1024L * 100)
-                                                .timestamp(now - 18000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Background Service")
-                                                .appPackage("com.unknown.service")
-                                                .destinationIp("185.220.101.45")
-                                                .port(9050)
-                                                .protocol("TCP")
-                                                .status("SUSPICIOUS")
-                                                .dataTransferred(1024L * 64)
-                                                .timestamp(now - 120000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Ad Network")
-                                                .appPackage("com.adnetwork.sdk")
-                                                .destinationIp("23.236.62.147")
-                                                .port(80)
-                                                .protocol("TCP")
-                                                .status("SUSPICIOUS")
-                                                .dataTransferred(1024L * 32)
-                                                .timestamp(now - 135000)
-                                                .build(),
-
-                                // Malicious connections
-                                NetworkConnectionResponse.builder()
-                                                .appName("Banking Trojan")
-                                                .appPackage("com.malicious.banking")
-                                                .destinationIp("103.145.45.67")
-                                                .port(443)
-                                                .protocol("TCP")
-                                                .status("MALICIOUS")
-                                                .dataTransferred(1024L * 50)
-                                                .timestamp(now - 28000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("Data Exfiltrator")
-                                                .appPackage("com.suspicious.tracker")
-                                                .destinationIp("89.248.174.42")
-                                                .port(4444)
-                                                .protocol("TCP")
-                                                .status("MALICIOUS")
-                                                .dataTransferred(1024L * 1024 * 3)
-                                                .timestamp(now - 150000)
-                                                .build(),
-                                NetworkConnectionResponse.builder()
-                                                .appName("C2 Client")
-                                                .appPackage("com.malware.c2")
-                                                .destinationIp("198.51.100.42")
-                                                .port(53)
-                                                .protocol("UDP")
-                                                .status("MALICIOUS")
-                                                .dataTransferred(1024L * 16)
-                                                .timestamp(now - 180000)
-                                                .build());
+        /**
+         * Get connections inside the live window for one device, or the newest across
+         * the fleet when deviceId is null, from in-memory ring buffers
+         */
+        public List<NetworkConnectionResponse> getLiveConnections(String deviceId) {
+                log.info("Fetching live network connections for {}", StringUtils.hasText(deviceId) ? deviceId : "fleet");
+                return StringUtils.hasText(deviceId)
+                                ? connectionTracker.recentConnections(deviceId)
+                                : connectionTracker.recentFleetConnections();
+        }
+
+        // The app knows only SAFE, SUSPICIOUS and MALICIOUS, so an IP not yet rated is shown as suspicious
+        static String connectionStatus(ThreatReputationResponse reputation) {
+                if (reputation == null || reputation.getThreatLevel() == null) {
+                        return "SUSPICIOUS";
+                }
+                return switch (reputation.getThreatLevel()) {
+                        case "CRITICAL", "HIGH" -> "MALICIOUS";
+                        case "MEDIUM" -> "SUSPICIOUS";
+                        default -> "SAFE";
+                };
         }
 }
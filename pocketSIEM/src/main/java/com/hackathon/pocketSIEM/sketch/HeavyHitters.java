@@ -0,0 +1,230 @@
+package com.hackathon.pocketSIEM.sketch;
+
+import com.hackathon.pocketSIEM.config.SketchProperties;
+import com.hackathon.pocketSIEM.ingest.ReplayedReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.stats.ThreatTimeline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Most reported IPs and apps over the last hour and day, each with an estimate of
+ * the distinct devices that reported it. Reports are counted into rings of time
+ * buckets, 12 of 5 minutes and 24 of 1 hour, each holding a {@link SpaceSaving}
+ * summary per field. A query merges the buckets of its window, so memory stays at
+ * {@code capacity} counters per bucket and field however many keys arrive.
+ * <p>
+ * Counts are upper bounds. A bucket that does not track a key adds the most that
+ * key could have been seen there without a counter, which is the bucket's smallest
+ * count once it is full. Each entry also carries the count it is guaranteed to have
+ * reached. Distinct devices come only from the buckets tracking the key.
+ */
+@Component
+public class HeavyHitters implements ReplayedReportListener {
+
+    public enum Field {
+        IP, APP
+    }
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofHours(24);
+
+    private final SketchProperties properties;
+    private final Ring hour;
+    private final Ring day;
+
+    public HeavyHitters(SketchProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hour = new Ring(5, 12, properties);
+        this.day = new Ring(60, 24, properties);
+
+        Gauge.builder("sketch.counters", this, sketches -> sketches.hour.counters() + sketches.day.counters())
+            .description("Space-Saving counters in use across the top-K sketches")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Duration replayWindow() {
+        return properties.isEnabled() ? DAY : Duration.ZERO;
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long epochMinute = ThreatTimeline.toEpochMinute(report.getReportedAt());
+        long deviceHash = HyperLogLog.hash(report.getDeviceId() == null ? "" : report.getDeviceId());
+        hour.add(epochMinute, report.getTargetIp(), report.getAppName(), deviceHash);
+        day.add(epochMinute, report.getTargetIp(), report.getAppName(), deviceHash);
+    }
+
+    /** Only the last hour and the last day are kept */
+    public boolean supports(Duration window) {
+        return properties.isEnabled() && (HOUR.equals(window) || DAY.equals(window));
+    }
+
+    /**
+     * The most reported keys in the window, most reported first
+     */
+    public List<HeavyHitter> top(Field field, Duration window, int limit) {
+        Ring ring = ring(window);
+        // Per key: count and guaranteed count where tracked, and the missing bound of those buckets
+        Map<String, long[]> totals = new HashMap<>();
+        long[] missing = new long[1];
+        ring.forEachBucket(field, summary -> {
+            long bound = summary.missingUpperBound();
+            missing[0] += bound;
+            for (SpaceSaving.Counter counter : summary.counters()) {
+                long[] total = totals.computeIfAbsent(counter.key, key -> new long[3]);
+                total[0] += counter.count;
+                total[1] += counter.count - counter.error;
+                total[2] += bound;
+            }
+        });
+        // Add what each key may have had in the buckets that do not track it
+        for (long[] total : totals.values()) {
+            total[0] += missing[0] - total[2];
+        }
+
+        List<Map.Entry<String, long[]>> ranked = new ArrayList<>(totals.entrySet());
+        ranked.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed());
+        List<HeavyHitter> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        // Device sketches are merged only for the keys returned
+        for (Map.Entry<String, long[]> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            long[] total = entry.getValue();
+            top.add(new HeavyHitter(entry.getKey(), total[0], total[1], distinctDevices(ring, field, entry.getKey())));
+        }
+        return top;
+    }
+
+    /**
+     * Counts for one key in the window, or null when no bucket of the window tracks it
+     */
+    public HeavyHitter lookup(Field field, Duration window, String key) {
+        HyperLogLog devices = new HyperLogLog(properties.getPrecision());
+        long[] total = new long[3];
+        ring(window).forEachBucket(field, summary -> {
+            SpaceSaving.Counter counter = summary.get(key);
+            if (counter != null) {
+                total[0] += counter.count;
+                total[1] += counter.count - counter.error;
+                total[2]++;
+                devices.merge(counter.devices);
+            } else {
+                total[0] += summary.missingUpperBound();
+            }
+        });
+        return total[2] == 0 ? null : new HeavyHitter(key, total[0], total[1], devices.estimate());
+    }
+
+    private long distinctDevices(Ring ring, Field field, String key) {
+        HyperLogLog devices = new HyperLogLog(properties.getPrecision());
+        ring.forEachBucket(field, summary -> {
+            SpaceSaving.Counter counter = summary.get(key);
+            if (counter != null) {
+                devices.merge(counter.devices);
+            }
+        });
+        return devices.estimate();
+    }
+
+    private Ring ring(Duration window) {
+        if (HOUR.equals(window)) {
+            return hour;
+        }
+        if (DAY.equals(window)) {
+            return day;
+        }
+        throw new IllegalArgumentException("Unsupported sketch window: " + window);
+    }
+
+    /**
+     * @param reports           estimated reports, never fewer than the true count in the window
+     * @param guaranteedReports reports the key is certain to have had
+     * @param distinctDevices   HyperLogLog estimate of the devices that reported it
+     */
+    public record HeavyHitter(String key, long reports, long guaranteedReports, long distinctDevices) {
+    }
+
+    /** A ring of buckets indexed by epoch bucket, reused once the bucket it held has left the window */
+    private static final class Ring {
+
+        private final int bucketMinutes;
+        private final Bucket[] buckets;
+
+        Ring(int bucketMinutes, int bucketCount, SketchProperties properties) {
+            this.bucketMinutes = bucketMinutes;
+            this.buckets = new Bucket[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new Bucket(properties.getCapacity(), properties.getPrecision());
+            }
+        }
+
+        void add(long epochMinute, String targetIp, String appName, long deviceHash) {
+            long epoch = Math.floorDiv(epochMinute, bucketMinutes);
+            Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+            synchronized (bucket) {
+                if (bucket.epoch > epoch) {
+                    // The bucket already holds a newer period, so this report is past the window
+                    return;
+                }
+                if (bucket.epoch < epoch) {
+                    bucket.reset(epoch);
+                }
+                if (targetIp != null) {
+                    bucket.ips.offer(targetIp, deviceHash);
+                }
+                if (appName != null) {
+                    bucket.apps.offer(appName, deviceHash);
+                }
+            }
+        }
+
+        void forEachBucket(Field field, Consumer<SpaceSaving> action) {
+            long current = Math.floorDiv(System.currentTimeMillis() / 60_000, bucketMinutes);
+            for (Bucket bucket : buckets) {
+                synchronized (bucket) {
+                    if (bucket.epoch > current - buckets.length && bucket.epoch <= current) {
+                        action.accept(field == Field.IP ? bucket.ips : bucket.apps);
+                    }
+                }
+            }
+        }
+
+        long counters() {
+            long counters = 0;
+            for (Bucket bucket : buckets) {
+                counters += bucket.ips.size() + bucket.apps.size();
+            }
+            return counters;
+        }
+    }
+
+    private static final class Bucket {
+
+        long epoch = Long.MIN_VALUE;
+        final SpaceSaving ips;
+        final SpaceSaving apps;
+
+        Bucket(int capacity, int precision) {
+            this.ips = new SpaceSaving(capacity, precision);
+            this.apps = new SpaceSaving(capacity, precision);
+        }
+
+        void reset(long epoch) {
+            this.epoch = epoch;
+            ips.clear();
+            apps.clear();
+        }
+    }
+}
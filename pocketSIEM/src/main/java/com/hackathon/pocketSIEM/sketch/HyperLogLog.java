@@ -0,0 +1,140 @@
+package com.hackathon.pocketSIEM.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Distinct-count estimate over 64-bit hashes in at most 2^precision bytes. A sketch
+ * starts sparse, as a short list of (register, rank) pairs, and switches to one
+ * byte per register once the list would outgrow a sixteenth of the dense size, so
+ * keys seen by few devices stay small. Two sketches of the same precision merge by
+ * taking the larger rank of each register. Not thread-safe.
+ */
+final class HyperLogLog {
+
+    private final int precision;
+    private final int registerCount;
+    private final int sparseLimit;
+
+    // (register << 8) | rank, one entry per register, until dense is allocated
+    private int[] sparse = new int[4];
+    private int sparseSize;
+    private byte[] dense;
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.sparseLimit = Math.max(4, registerCount / 64);
+    }
+
+    void add(long hash) {
+        int register = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(register, rank);
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision");
+        }
+        if (other.dense != null) {
+            for (int register = 0; register < registerCount; register++) {
+                if (other.dense[register] != 0) {
+                    set(register, other.dense[register]);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                set(other.sparse[i] >>> 8, other.sparse[i] & 0xFF);
+            }
+        }
+    }
+
+    long estimate() {
+        if (dense == null) {
+            // Linear counting over the registers in use is exact enough at this size
+            return Math.round(registerCount * Math.log((double) registerCount / (registerCount - sparseSize)));
+        }
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : dense) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha() * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    void clear() {
+        sparse = new int[4];
+        sparseSize = 0;
+        dense = null;
+    }
+
+    /** Bytes held by the registers or the sparse list */
+    int footprintBytes() {
+        return dense != null ? dense.length : sparse.length * Integer.BYTES;
+    }
+
+    private void set(int register, int rank) {
+        if (dense != null) {
+            if (rank > dense[register]) {
+                dense[register] = (byte) rank;
+            }
+            return;
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] >>> 8 == register) {
+                if (rank > (sparse[i] & 0xFF)) {
+                    sparse[i] = (register << 8) | rank;
+                }
+                return;
+            }
+        }
+        if (sparseSize == sparseLimit) {
+            densify();
+            dense[register] = (byte) Math.max(dense[register], rank);
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(sparseLimit, sparseSize * 2));
+        }
+        sparse[sparseSize++] = (register << 8) | rank;
+    }
+
+    private void densify() {
+        dense = new byte[registerCount];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private double alpha() {
+        return switch (registerCount) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / registerCount);
+        };
+    }
+
+    /** 64-bit hash of a string, spread with the SplitMix64 finalizer */
+    static long hash(String value) {
+        long h = 0x9E37_79B9_7F4A_7C15L ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return h ^ (h >>> 31);
+    }
+}
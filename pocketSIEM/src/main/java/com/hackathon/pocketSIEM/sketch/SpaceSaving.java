@@ -0,0 +1,130 @@
+package com.hackathon.pocketSIEM.sketch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the most frequent keys in at most {@code capacity}
+ * counters. A key without a counter takes over the least counted one and inherits
+ * its count as error, so a counter's count never underestimates its key and
+ * overestimates it by at most its error. Counters sit in a min-heap indexed from the
+ * map, so both a hit and a takeover cost O(log capacity). Each counter also keeps a
+ * {@link HyperLogLog} of the devices seen since it took its key. Not thread-safe.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final int precision;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    SpaceSaving(int capacity, int precision) {
+        this.capacity = capacity;
+        this.precision = precision;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    void offer(String key, long deviceHash) {
+        Counter counter = counters.get(key);
+        if (counter == null && size < capacity) {
+            // A new counter starts at the bottom of the heap with the smallest possible count
+            counter = new Counter(new HyperLogLog(precision));
+            counter.key = key;
+            counter.count = 1;
+            counter.devices.add(deviceHash);
+            counters.put(key, counter);
+            heap[size] = counter;
+            siftUp(size++);
+            return;
+        }
+        if (counter == null) {
+            // Take over the least counted key's counter
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.error = counter.count;
+            counter.devices.clear();
+            counter.key = key;
+            counters.put(key, counter);
+        }
+        counter.count++;
+        counter.devices.add(deviceHash);
+        siftDown(counter.index);
+    }
+
+    Counter get(String key) {
+        return counters.get(key);
+    }
+
+    Iterable<Counter> counters() {
+        return counters.values();
+    }
+
+    /** Most a key without a counter can have been seen, 0 while there is room */
+    long missingUpperBound() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int index) {
+        Counter moving = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= moving.count) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = moving;
+        moving.index = index;
+    }
+
+    // Counts only grow, so a changed counter can only need to move down the heap
+    private void siftDown(int index) {
+        Counter moving = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (heap[child].count >= moving.count) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = moving;
+        moving.index = index;
+    }
+
+    static final class Counter {
+
+        String key;
+        long count;
+        long error;
+        final HyperLogLog devices;
+        int index;
+
+        private Counter(HyperLogLog devices) {
+            this.devices = devices;
+        }
+    }
+}
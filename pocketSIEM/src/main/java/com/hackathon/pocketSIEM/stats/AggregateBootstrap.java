@@ -0,0 +1,82 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.ingest.ReplayedReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.retention.ReportHistory;
+import com.hackathon.pocketSIEM.store.MinuteAggregate;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rebuilds the in-memory aggregates from stored reports once all beans exist,
+ * which is before the web server starts taking traffic. The minute aggregates are
+ * read pre-aggregated; listeners that need individual reports are replayed from
+ * one scan covering the longest of their windows.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AggregateBootstrap implements SmartInitializingSingleton {
+
+    private final ReportHistory reportHistory;
+    private final ThreatTimeline threatTimeline;
+    private final DeviceStatsEngine deviceStatsEngine;
+    private final ReportStore reportStore;
+    private final List<ReplayedReportListener> replayedListeners;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuildMinuteAggregates();
+        replayRecentReports();
+    }
+
+    private void rebuildMinuteAggregates() {
+        Duration history = max(threatTimeline.retention(), deviceStatsEngine.window());
+        LocalDateTime since = LocalDateTime.now().minus(history);
+        // Raw minutes, plus hourly rollups for any part of the history past raw retention
+        List<MinuteAggregate> minutes = reportHistory.aggregatesSince(since);
+        for (MinuteAggregate minute : minutes) {
+            long epochMinute = ThreatTimeline.toEpochMinute(minute.minute());
+            threatTimeline.add(epochMinute, minute.reports());
+            // Minutes older than the stats window are dropped by the engine itself
+            deviceStatsEngine.addAggregate(minute.deviceId(), minute.appName(), epochMinute,
+                minute.reports(), minute.severitySum(),
+                minute.critical(), minute.high(), minute.suspicious());
+        }
+        log.info("Rebuilt report aggregates from {} stored device/app minutes", minutes.size());
+    }
+
+    private void replayRecentReports() {
+        LocalDateTime now = LocalDateTime.now();
+        Duration longest = Duration.ZERO;
+        for (ReplayedReportListener listener : replayedListeners) {
+            longest = max(longest, listener.replayWindow());
+        }
+        if (longest.isZero()) {
+            return;
+        }
+        LocalDateTime[] since = new LocalDateTime[replayedListeners.size()];
+        for (int i = 0; i < since.length; i++) {
+            since[i] = now.minus(replayedListeners.get(i).replayWindow());
+        }
+        long replayed = reportStore.scanSince(now.minus(longest), report -> {
+            for (int i = 0; i < since.length; i++) {
+                if (!report.getReportedAt().isBefore(since[i])) {
+                    replayedListeners.get(i).onReportAccepted(report);
+                }
+            }
+        });
+        log.info("Replayed {} stored reports of the last {} into {} listeners", replayed, longest, since.length);
+    }
+
+    private static Duration max(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,210 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.config.StatsProperties;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Rolling statistics (trust score, severity histogram, distinct apps) over the
+ * stats window, per device and for the whole fleet, maintained incrementally from
+ * accepted reports.
+ * <p>
+ * Device state lives in a ConcurrentHashMap and each device is guarded by its own
+ * monitor. The fleet rollup is striped by device and summed on read, and fleet apps
+ * are tracked in a concurrent map, so reports from different devices never contend
+ * on a shared lock. Devices with nothing left in the window are evicted by a
+ * periodic sweep, which also trims the maps back to their configured bounds.
+ */
+@Component
+@Slf4j
+public class DeviceStatsEngine implements ThreatReportListener {
+
+    private final Duration window;
+    private final int windowMinutes;
+    private final int deviceBucketMinutes;
+    private final int maxAppsPerDevice;
+    private final int maxDevices;
+    private final int maxFleetApps;
+
+    private final RollingStats[] fleetStripes;
+    private final ConcurrentHashMap<String, Long> fleetApps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DeviceState> devices = new ConcurrentHashMap<>();
+
+    public DeviceStatsEngine(StatsProperties properties, MeterRegistry meterRegistry) {
+        this.window = properties.getDeviceWindow();
+        this.windowMinutes = (int) window.toMinutes();
+        this.deviceBucketMinutes = (int) properties.getDeviceBucket().toMinutes();
+        this.maxAppsPerDevice = properties.getMaxAppsPerDevice();
+        this.maxDevices = properties.getMaxDevices();
+        this.maxFleetApps = properties.getMaxFleetApps();
+        this.fleetStripes = new RollingStats[Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4];
+        for (int i = 0; i < fleetStripes.length; i++) {
+            fleetStripes[i] = new RollingStats(windowMinutes);
+        }
+
+        Gauge.builder("stats.devices.tracked", devices, Map::size)
+            .description("Devices with per-device statistics in memory")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        long epochMinute = ThreatTimeline.toEpochMinute(report.getReportedAt());
+        fleetStripe(report.getDeviceId()).add(epochMinute, report.getUserSeverity());
+        fleetApps.merge(report.getAppName(), epochMinute, Math::max);
+        updateDevice(report.getDeviceId(), state -> state.record(epochMinute, report.getAppName(), report.getUserSeverity()));
+    }
+
+    /**
+     * Adds stored, pre-aggregated reports of one device and app for one minute
+     */
+    public void addAggregate(String deviceId, String appName, long epochMinute, long reports, long severitySum,
+                             long critical, long high, long suspicious) {
+        fleetStripe(deviceId).add(epochMinute, reports, severitySum, critical, high, suspicious);
+        fleetApps.merge(appName, epochMinute, Math::max);
+        updateDevice(deviceId, state -> state.add(epochMinute, appName, reports, severitySum, critical, high, suspicious));
+    }
+
+    public DeviceSnapshot fleetSnapshot() {
+        long now = currentEpochMinute();
+        RollingStats.Snapshot total = RollingStats.Snapshot.EMPTY;
+        for (RollingStats stripe : fleetStripes) {
+            total = total.plus(stripe.snapshot(now));
+        }
+        long since = now - windowMinutes;
+        int apps = 0;
+        for (long seen : fleetApps.values()) {
+            if (seen > since) {
+                apps++;
+            }
+        }
+        return new DeviceSnapshot(total, apps);
+    }
+
+    /**
+     * Snapshot for one device; unknown or idle devices read as empty
+     */
+    public DeviceSnapshot deviceSnapshot(String deviceId) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null) {
+            return new DeviceSnapshot(RollingStats.Snapshot.EMPTY, 0);
+        }
+        return state.snapshot(currentEpochMinute(), windowMinutes);
+    }
+
+    public int trackedDevices() {
+        return devices.size();
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.eviction-interval:PT1M}")
+    public void evictIdleDevices() {
+        long now = currentEpochMinute();
+        int before = devices.size();
+        for (String deviceId : devices.keySet()) {
+            // Checked and removed under the map's lock, so a report being recorded keeps its device
+            devices.computeIfPresent(deviceId, (id, state) -> state.isIdle(now) ? null : state);
+        }
+        trimToSize(devices, maxDevices, state -> state.lastActivityMinute());
+
+        long since = now - windowMinutes;
+        fleetApps.values().removeIf(seen -> seen <= since);
+        trimToSize(fleetApps, maxFleetApps, seen -> seen);
+
+        int evicted = before - devices.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle devices from statistics, {} remain", evicted, devices.size());
+        }
+    }
+
+    private static <V> void trimToSize(Map<String, V> map, int maxSize, ToLongFunction<V> lastSeen) {
+        int overflow = map.size() - maxSize;
+        if (overflow > 0) {
+            map.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> lastSeen.applyAsLong(entry.getValue())))
+                .limit(overflow)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(map::remove);
+        }
+    }
+
+    private RollingStats fleetStripe(String deviceId) {
+        int hash = deviceId.hashCode();
+        return fleetStripes[(hash ^ (hash >>> 16)) & (fleetStripes.length - 1)];
+    }
+
+    // Inside compute, so the idle sweep cannot remove the state between lookup and update
+    private void updateDevice(String deviceId, Consumer<DeviceState> update) {
+        devices.compute(deviceId, (id, state) -> {
+            DeviceState target = state != null ? state
+                : new DeviceState(new RollingStats(windowMinutes, deviceBucketMinutes), maxAppsPerDevice);
+            update.accept(target);
+            return target;
+        });
+    }
+
+    static long currentEpochMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    public record DeviceSnapshot(RollingStats.Snapshot stats, int appsSeen) {
+    }
+
+    private static final class DeviceState {
+
+        private final RollingStats stats;
+        private final RecentKeys apps;
+        private volatile long lastActivityMinute = Long.MIN_VALUE;
+
+        DeviceState(RollingStats stats, int maxApps) {
+            this.stats = stats;
+            this.apps = new RecentKeys(maxApps);
+        }
+
+        synchronized void record(long epochMinute, String appName, int userSeverity) {
+            stats.add(epochMinute, userSeverity);
+            touch(epochMinute, appName);
+        }
+
+        synchronized void add(long epochMinute, String appName, long reports, long severitySum,
+                              long critical, long high, long suspicious) {
+            stats.add(epochMinute, reports, severitySum, critical, high, suspicious);
+            touch(epochMinute, appName);
+        }
+
+        synchronized DeviceSnapshot snapshot(long nowEpochMinute, int windowMinutes) {
+            return new DeviceSnapshot(stats.snapshot(nowEpochMinute), apps.countSince(nowEpochMinute - windowMinutes));
+        }
+
+        synchronized boolean isIdle(long nowEpochMinute) {
+            return stats.isEmpty(nowEpochMinute);
+        }
+
+        long lastActivityMinute() {
+            return lastActivityMinute;
+        }
+
+        private void touch(long epochMinute, String appName) {
+            apps.touch(appName, epochMinute);
+            if (epochMinute > lastActivityMinute) {
+                lastActivityMinute = epochMinute;
+            }
+        }
+    }
+}
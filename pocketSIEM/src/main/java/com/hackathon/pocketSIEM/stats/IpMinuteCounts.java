@@ -0,0 +1,121 @@
+package com.hackathon.pocketSIEM.stats;
+
+import java.util.Arrays;
+
+/**
+ * Report counts of one IP per minute over a sliding window, as a ring of
+ * (minute, count) pairs packed into longs like {@link ThreatTimeline}'s slots. Only
+ * minutes with reports take a slot, so an IP reported a few times costs a few longs
+ * rather than one slot per minute of the window. The total inside the window is
+ * kept alongside, so the count since the window start is read without a scan.
+ * Callers synchronize on the instance.
+ */
+final class IpMinuteCounts {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    // Oldest minute first, from head, wrapping around the array
+    private long[] slots = new long[2];
+    private int head;
+    private int size;
+    private long total;
+
+    void add(long epochMinute, int windowMinutes) {
+        expire(epochMinute - windowMinutes);
+        if (size > 0) {
+            long newest = minuteAt(size - 1);
+            if (epochMinute == newest) {
+                increment(size - 1);
+                return;
+            }
+            if (epochMinute < newest) {
+                addOutOfOrder(epochMinute, windowMinutes);
+                return;
+            }
+        }
+        append(epochMinute);
+    }
+
+    /** Reports at or after sinceMinute; minutes before the window must already be expired */
+    long countSince(long sinceMinute) {
+        long count = total;
+        for (int i = 0; i < size && minuteAt(i) < sinceMinute; i++) {
+            count -= countAt(i);
+        }
+        return count;
+    }
+
+    /**
+     * Drops minutes at or before the cutoff
+     *
+     * @return whether anything is left
+     */
+    boolean expire(long cutoffMinute) {
+        while (size > 0 && minuteAt(0) <= cutoffMinute) {
+            total -= countAt(0);
+            slots[head] = 0;
+            head = (head + 1) % slots.length;
+            size--;
+        }
+        return size > 0;
+    }
+
+    long newestMinute() {
+        return size == 0 ? Long.MIN_VALUE : minuteAt(size - 1);
+    }
+
+    private void addOutOfOrder(long epochMinute, int windowMinutes) {
+        if (epochMinute <= newestMinute() - windowMinutes) {
+            return;
+        }
+        int at = 0;
+        while (at < size && minuteAt(at) < epochMinute) {
+            at++;
+        }
+        if (at < size && minuteAt(at) == epochMinute) {
+            increment(at);
+            return;
+        }
+        // A late report for a quiet minute: shift the newer minutes along by one
+        append(0);
+        for (int i = size - 1; i > at; i--) {
+            slots[index(i)] = slots[index(i - 1)];
+        }
+        slots[index(at)] = (epochMinute << COUNT_BITS) | 1;
+    }
+
+    private void append(long epochMinute) {
+        if (size == slots.length) {
+            long[] grown = new long[slots.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = slots[index(i)];
+            }
+            Arrays.fill(slots, 0);
+            slots = grown;
+            head = 0;
+        }
+        slots[index(size++)] = (epochMinute << COUNT_BITS) | 1;
+        total++;
+    }
+
+    private void increment(int i) {
+        // A saturated minute stops counting rather than spilling into the minute bits
+        if (countAt(i) < COUNT_MASK) {
+            slots[index(i)]++;
+            total++;
+        }
+    }
+
+    private long minuteAt(int i) {
+        return slots[index(i)] >>> COUNT_BITS;
+    }
+
+    private long countAt(int i) {
+        return slots[index(i)] & COUNT_MASK;
+    }
+
+    private int index(int i) {
+        return (head + i) % slots.length;
+    }
+}
@@ -0,0 +1,169 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.blocklist.BloomFilter;
+import com.hackathon.pocketSIEM.config.StatsProperties;
+import com.hackathon.pocketSIEM.ingest.ReplayedReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports per target IP over the last {@code app.stats.ip-count-window}, so recent
+ * report counts are read from memory instead of counted in the database. Each IP
+ * has its own {@link IpMinuteCounts}, keyed by the parsed address and guarded by its
+ * own monitor. Counts are minute-grained: the minute a range starts in is counted
+ * whole. IPs with nothing left in the window are evicted by a periodic sweep, which
+ * also trims the map back to its configured bound. IPs trimmed while they still had
+ * reports in the window are remembered in a Bloom filter for one window, and are
+ * not {@link #covers covered} until then, so their counts come from the database.
+ */
+@Component
+@Slf4j
+public class IpReportCounters implements ReplayedReportListener {
+
+    // A false positive only sends one more count to the database
+    private static final double TRIMMED_FALSE_POSITIVE_RATE = 0.01;
+
+    private final Duration window;
+    // One minute more than the window, so a range starting inside the oldest minute is still covered
+    private final int retainedMinutes;
+    private final int maxIps;
+    private final ConcurrentHashMap<IpAddress, IpMinuteCounts> ips = new ConcurrentHashMap<>();
+    // Two generations, each replaced after a window, so a trimmed IP is remembered for at least one window
+    private volatile BloomFilter trimmed;
+    private volatile BloomFilter previouslyTrimmed;
+    private long trimmedGenerationStart;
+
+    public IpReportCounters(StatsProperties properties, MeterRegistry meterRegistry) {
+        this.window = properties.getIpCountWindow();
+        this.retainedMinutes = (int) window.toMinutes() + 1;
+        this.maxIps = properties.getMaxCountedIps();
+
+        Gauge.builder("stats.ips.tracked", ips, Map::size)
+            .description("Target IPs with recent report counts in memory")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        IpAddress address = IpAddress.tryParse(report.getTargetIp());
+        if (address == null) {
+            return;
+        }
+        long epochMinute = ThreatTimeline.toEpochMinute(report.getReportedAt());
+        // Inside compute, so the sweep cannot remove the counts between lookup and add
+        ips.compute(address, (key, counts) -> {
+            IpMinuteCounts target = counts == null ? new IpMinuteCounts() : counts;
+            synchronized (target) {
+                target.add(epochMinute, retainedMinutes);
+            }
+            return target;
+        });
+    }
+
+    @Override
+    public Duration replayWindow() {
+        return window;
+    }
+
+    /**
+     * Whether a count for the IP since this time can be answered from memory: the
+     * time is inside the window and the IP's counts were not trimmed within it
+     */
+    public boolean covers(IpAddress address, LocalDateTime since) {
+        return ThreatTimeline.toEpochMinute(since) > DeviceStatsEngine.currentEpochMinute() - retainedMinutes
+                && !wasTrimmed(address);
+    }
+
+    /**
+     * Reports for the IP since the given time, which must be {@link #covers covered}
+     */
+    public long countSince(IpAddress address, LocalDateTime since) {
+        IpMinuteCounts counts = ips.get(address);
+        if (counts == null) {
+            return 0;
+        }
+        synchronized (counts) {
+            counts.expire(DeviceStatsEngine.currentEpochMinute() - retainedMinutes);
+            return counts.countSince(ThreatTimeline.toEpochMinute(since));
+        }
+    }
+
+    public int trackedIps() {
+        return ips.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.eviction-interval:PT1M}")
+    public void evictColdIps() {
+        long now = DeviceStatsEngine.currentEpochMinute();
+        long cutoff = now - retainedMinutes;
+        rotateTrimmed(now);
+        int before = ips.size();
+        for (IpAddress address : ips.keySet()) {
+            // Checked and removed under the map's lock, so a report being added keeps its counts
+            ips.computeIfPresent(address, (key, counts) -> {
+                synchronized (counts) {
+                    return counts.expire(cutoff) ? counts : null;
+                }
+            });
+        }
+
+        int overflow = ips.size() - maxIps;
+        if (overflow > 0) {
+            ips.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> newestMinute(entry.getValue())))
+                .limit(overflow)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::trim);
+        }
+
+        int evicted = before - ips.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} cold IPs from report counters, {} remain", evicted, ips.size());
+        }
+    }
+
+    // Marked before removal, so a reader never sees the IP both uncounted and covered
+    private void trim(IpAddress address) {
+        BloomFilter current = trimmed;
+        if (current == null) {
+            current = new BloomFilter(maxIps, TRIMMED_FALSE_POSITIVE_RATE);
+            trimmed = current;
+        }
+        current.put(address);
+        ips.remove(address);
+    }
+
+    private void rotateTrimmed(long now) {
+        if (now - trimmedGenerationStart < retainedMinutes) {
+            return;
+        }
+        previouslyTrimmed = trimmed;
+        trimmed = null;
+        trimmedGenerationStart = now;
+    }
+
+    private boolean wasTrimmed(IpAddress address) {
+        BloomFilter current = trimmed;
+        BloomFilter previous = previouslyTrimmed;
+        return (current != null && current.mightContain(address))
+                || (previous != null && previous.mightContain(address));
+    }
+
+    private static long newestMinute(IpMinuteCounts counts) {
+        synchronized (counts) {
+            return counts.newestMinute();
+        }
+    }
+}
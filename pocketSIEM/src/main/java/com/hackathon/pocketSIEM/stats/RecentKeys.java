@@ -0,0 +1,39 @@
+package com.hackathon.pocketSIEM.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last-seen minute per key, capped at maxKeys by dropping the least recently seen.
+ * Used to count distinct apps within the stats window. Not thread-safe.
+ */
+class RecentKeys {
+
+    private final LinkedHashMap<String, Long> lastSeen;
+
+    RecentKeys(int maxKeys) {
+        this.lastSeen = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    void touch(String key, long epochMinute) {
+        Long previous = lastSeen.get(key);
+        if (previous == null || previous < epochMinute) {
+            lastSeen.put(key, epochMinute);
+        }
+    }
+
+    int countSince(long epochMinute) {
+        int count = 0;
+        for (long seen : lastSeen.values()) {
+            if (seen > epochMinute) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
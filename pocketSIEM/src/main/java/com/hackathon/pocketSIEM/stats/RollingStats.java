@@ -0,0 +1,148 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+
+import java.util.Arrays;
+
+/**
+ * Report count, severity sum and severity-band histogram over a sliding window of
+ * time buckets. Running totals are adjusted as reports arrive and as buckets fall
+ * out of the window, so a snapshot is O(1) and expiry is amortised O(1) per bucket.
+ * All times are epoch minutes; a bucket spans bucketMinutes of them.
+ */
+public class RollingStats {
+
+    private final int windowBuckets;
+    private final int bucketMinutes;
+    private final long[] bucketIndex;
+    private final long[] reports;
+    private final long[] severitySum;
+    private final long[] critical;
+    private final long[] high;
+    private final long[] suspicious;
+
+    private long totalReports;
+    private long totalSeverity;
+    private long totalCritical;
+    private long totalHigh;
+    private long totalSuspicious;
+
+    /** Every bucket up to and including this one has been evicted */
+    private long expiredThrough = Long.MIN_VALUE;
+
+    public RollingStats(int windowMinutes) {
+        this(windowMinutes, 1);
+    }
+
+    public RollingStats(int windowMinutes, int bucketMinutes) {
+        this.bucketMinutes = bucketMinutes;
+        this.windowBuckets = Math.max(1, windowMinutes / bucketMinutes);
+        this.bucketIndex = new long[windowBuckets];
+        this.reports = new long[windowBuckets];
+        this.severitySum = new long[windowBuckets];
+        this.critical = new long[windowBuckets];
+        this.high = new long[windowBuckets];
+        this.suspicious = new long[windowBuckets];
+        Arrays.fill(bucketIndex, Long.MIN_VALUE);
+    }
+
+    public synchronized void add(long epochMinute, int userSeverity) {
+        add(epochMinute, 1, userSeverity,
+            userSeverity >= ThreatReport.CRITICAL_SEVERITY ? 1 : 0,
+            userSeverity >= ThreatReport.HIGH_SEVERITY && userSeverity < ThreatReport.CRITICAL_SEVERITY ? 1 : 0,
+            userSeverity >= ThreatReport.SUSPICIOUS_SEVERITY && userSeverity < ThreatReport.HIGH_SEVERITY ? 1 : 0);
+    }
+
+    /**
+     * Adds pre-aggregated counts for one minute; minutes already outside the window are ignored
+     */
+    public synchronized void add(long epochMinute, long reportCount, long severity,
+                                 long criticalCount, long highCount, long suspiciousCount) {
+        long bucket = Math.floorDiv(epochMinute, bucketMinutes);
+        // A bucket newer than anything seen moves the window forward
+        expireThrough(bucket - windowBuckets);
+        if (bucket <= expiredThrough) {
+            return;
+        }
+
+        int slot = slotOf(bucket);
+        if (bucketIndex[slot] != bucket) {
+            evict(slot);
+            bucketIndex[slot] = bucket;
+        }
+        reports[slot] += reportCount;
+        severitySum[slot] += severity;
+        critical[slot] += criticalCount;
+        high[slot] += highCount;
+        suspicious[slot] += suspiciousCount;
+
+        totalReports += reportCount;
+        totalSeverity += severity;
+        totalCritical += criticalCount;
+        totalHigh += highCount;
+        totalSuspicious += suspiciousCount;
+    }
+
+    /**
+     * Totals for the window ending at nowEpochMinute (inclusive)
+     */
+    public synchronized Snapshot snapshot(long nowEpochMinute) {
+        expireThrough(Math.floorDiv(nowEpochMinute, bucketMinutes) - windowBuckets);
+        return new Snapshot(totalReports, totalSeverity, totalCritical, totalHigh, totalSuspicious);
+    }
+
+    public synchronized boolean isEmpty(long nowEpochMinute) {
+        expireThrough(Math.floorDiv(nowEpochMinute, bucketMinutes) - windowBuckets);
+        return totalReports == 0;
+    }
+
+    private void expireThrough(long bucket) {
+        if (bucket <= expiredThrough) {
+            return;
+        }
+        // After a long idle gap every bucket is stale; don't walk the gap bucket by bucket
+        long from = Math.max(expiredThrough + 1, bucket - windowBuckets + 1);
+        for (long b = from; b <= bucket; b++) {
+            int slot = slotOf(b);
+            if (bucketIndex[slot] == b) {
+                evict(slot);
+            }
+        }
+        expiredThrough = bucket;
+    }
+
+    private void evict(int slot) {
+        totalReports -= reports[slot];
+        totalSeverity -= severitySum[slot];
+        totalCritical -= critical[slot];
+        totalHigh -= high[slot];
+        totalSuspicious -= suspicious[slot];
+        reports[slot] = 0;
+        severitySum[slot] = 0;
+        critical[slot] = 0;
+        high[slot] = 0;
+        suspicious[slot] = 0;
+        bucketIndex[slot] = Long.MIN_VALUE;
+    }
+
+    private int slotOf(long bucket) {
+        return (int) Math.floorMod(bucket, (long) windowBuckets);
+    }
+
+    public record Snapshot(long reports, long severitySum, long critical, long high, long suspicious) {
+
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0);
+
+        public Snapshot plus(Snapshot other) {
+            return new Snapshot(reports + other.reports, severitySum + other.severitySum,
+                critical + other.critical, high + other.high, suspicious + other.suspicious);
+        }
+
+        /**
+         * 100 minus the mean userSeverity of reports in the window
+         */
+        public int trustScore() {
+            return (int) Math.max(0, 100 - (severitySum / Math.max(1, reports)));
+        }
+    }
+}
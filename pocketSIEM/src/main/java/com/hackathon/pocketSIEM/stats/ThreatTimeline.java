@@ -0,0 +1,155 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.config.StatsProperties;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Report counts per minute over a fixed retention, kept in a ring of slots indexed
+ * by epoch minute. Each slot packs the minute it currently holds (high bits) with
+ * its count (low bits), so a slot is claimed for a new minute and incremented with
+ * a single CAS and no locking. Reads never touch the database.
+ * <p>
+ * Counts are also rolled up into 5-minute, hourly and daily rings as they arrive.
+ * A bucket is summed from the largest aligned units that fit in it, so reading a
+ * week at hourly resolution touches 168 slots rather than 10,080 minutes.
+ */
+@Component
+public class ThreatTimeline implements ThreatReportListener {
+
+    private static final int COUNT_BITS = 36;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    // Unit of each level in minutes, finest first; each divides the next
+    private static final int[] LEVEL_MINUTES = {1, 5, 60, 1440};
+
+    private final int capacityMinutes;
+    private final int maxBuckets;
+    private final Level[] levels;
+
+    public ThreatTimeline(StatsProperties properties) {
+        this.capacityMinutes = (int) properties.getTimelineRetention().toMinutes();
+        this.maxBuckets = properties.getMaxTimelineBuckets();
+        this.levels = new Level[LEVEL_MINUTES.length];
+        for (int i = 0; i < levels.length; i++) {
+            int unit = LEVEL_MINUTES[i];
+            // One spare slot so a unit straddling the start of retention is still held
+            levels[i] = new Level(unit, i == 0 ? capacityMinutes : (capacityMinutes + unit - 1) / unit + 1);
+        }
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        add(toEpochMinute(report.getReportedAt()), 1);
+    }
+
+    public void add(long epochMinute, long count) {
+        for (Level level : levels) {
+            level.add(Math.floorDiv(epochMinute, level.unit), count);
+        }
+    }
+
+    public long count(long epochMinute) {
+        return levels[0].count(epochMinute);
+    }
+
+    /**
+     * Sums consecutive buckets of bucketMinutes, the first starting at fromEpochMinute
+     */
+    public long[] countsPerBucket(long fromEpochMinute, int bucketMinutes, int buckets) {
+        long[] counts = new long[buckets];
+        long minute = fromEpochMinute;
+        for (int bucket = 0; bucket < buckets; bucket++, minute += bucketMinutes) {
+            counts[bucket] = sum(minute, minute + bucketMinutes);
+        }
+        return counts;
+    }
+
+    // Greedy cover of [from, to): at each step the coarsest unit aligned at the position that still fits
+    private long sum(long from, long to) {
+        long sum = 0;
+        long minute = from;
+        while (minute < to) {
+            Level level = levels[0];
+            for (int i = levels.length - 1; i > 0; i--) {
+                int unit = levels[i].unit;
+                if (Math.floorMod(minute, (long) unit) == 0 && minute + unit <= to) {
+                    level = levels[i];
+                    break;
+                }
+            }
+            sum += level.count(Math.floorDiv(minute, level.unit));
+            minute += level.unit;
+        }
+        return sum;
+    }
+
+    /**
+     * Whether a window/resolution pair can be answered from retained minutes
+     */
+    public boolean supports(Duration window, Duration resolution) {
+        long resolutionMinutes = resolution.toMinutes();
+        if (resolutionMinutes < 1 || resolution.toSeconds() % 60 != 0 || window.compareTo(resolution) < 0) {
+            return false;
+        }
+        return window.toMinutes() <= capacityMinutes
+                && window.toMinutes() % resolutionMinutes == 0
+                && window.toMinutes() / resolutionMinutes <= maxBuckets;
+    }
+
+    public Duration retention() {
+        return Duration.ofMinutes(capacityMinutes);
+    }
+
+    public static long toEpochMinute(LocalDateTime time) {
+        return TimeUnit.SECONDS.toMinutes(time.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
+    /** A ring of counts for one unit, indexed by epoch unit */
+    private static final class Level {
+
+        final int unit;
+        private final AtomicLongArray slots;
+
+        Level(int unit, int slotCount) {
+            this.unit = unit;
+            this.slots = new AtomicLongArray(slotCount);
+        }
+
+        void add(long epochUnit, long count) {
+            int slot = slotOf(epochUnit);
+            while (true) {
+                long current = slots.get(slot);
+                long heldUnit = current >>> COUNT_BITS;
+                long next;
+                if (heldUnit == epochUnit) {
+                    next = current + count;
+                } else if (heldUnit < epochUnit) {
+                    next = (epochUnit << COUNT_BITS) | count;
+                } else {
+                    // The slot already holds a newer unit, so this one is past retention
+                    return;
+                }
+                if (slots.compareAndSet(slot, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        long count(long epochUnit) {
+            long current = slots.get(slotOf(epochUnit));
+            return (current >>> COUNT_BITS) == epochUnit ? current & COUNT_MASK : 0;
+        }
+
+        private int slotOf(long epochUnit) {
+            return (int) Math.floorMod(epochUnit, (long) slots.length());
+        }
+    }
+}
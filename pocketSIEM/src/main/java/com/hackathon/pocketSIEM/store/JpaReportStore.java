@@ -0,0 +1,143 @@
+package com.hackathon.pocketSIEM.store;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+import com.hackathon.pocketSIEM.repository.ReportMinuteAggregate;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import com.hackathon.pocketSIEM.repository.ThreatReportRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Reports in the threat_reports table. Batches are saved in one transaction; with
+ * pooled sequence ids and hibernate.jdbc.batch_size set, the inserts go out as JDBC
+ * batches. Scans read a database cursor and detach each row once passed on, so
+ * memory stays flat however many reports match.
+ */
+@Component
+@ConditionalOnProperty(name = "app.store.backend", havingValue = "jpa", matchIfMissing = true)
+public class JpaReportStore implements ReportStore {
+
+    private final ThreatReportRepository threatReportRepository;
+    private final ThreatReportHourlyRepository hourlyRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JpaReportStore(ThreatReportRepository threatReportRepository,
+                          ThreatReportHourlyRepository hourlyRepository,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager) {
+        this.threatReportRepository = threatReportRepository;
+        this.hourlyRepository = hourlyRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public ThreatReport save(ThreatReport report) {
+        return threatReportRepository.save(report);
+    }
+
+    @Override
+    @Transactional
+    public void saveAll(List<ThreatReport> reports) {
+        threatReportRepository.saveAll(reports);
+        entityManager.flush();
+        // Nothing reads these entities back; keep the persistence context from growing
+        entityManager.clear();
+    }
+
+    @Override
+    public List<ThreatReport> findPageForIp(String ip, ReportCursor after, int limit) {
+        return threatReportRepository.findPageForIp(ip, after.reportedAt(), after.id(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<ThreatReport> findPageForApp(String appName, ReportCursor after, int limit) {
+        return threatReportRepository.findPageForApp(appName, after.reportedAt(), after.id(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long scanForIp(String ip, ReportCursor after, Consumer<ThreatReport> action) {
+        return scan(() -> threatReportRepository.streamForIp(ip, after.reportedAt(), after.id()), action);
+    }
+
+    @Override
+    public long scanForApp(String appName, ReportCursor after, Consumer<ThreatReport> action) {
+        return scan(() -> threatReportRepository.streamForApp(appName, after.reportedAt(), after.id()), action);
+    }
+
+    @Override
+    public long countForIpSince(String ip, LocalDateTime since) {
+        return threatReportRepository.countReportsForIpSince(ip, since);
+    }
+
+    @Override
+    public long scanSince(LocalDateTime since, Consumer<ThreatReport> action) {
+        return scan(() -> threatReportRepository.streamReportedSince(since), action);
+    }
+
+    @Override
+    public List<MinuteAggregate> aggregateByMinuteSince(LocalDateTime since) {
+        return threatReportRepository.aggregateByMinuteSince(since).stream()
+            .map(JpaReportStore::toMinuteAggregate)
+            .toList();
+    }
+
+    @Override
+    public void forEachTargetIp(Consumer<String> action) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> ips = threatReportRepository.streamDistinctTargetIps()) {
+                ips.forEach(action);
+            }
+        });
+    }
+
+    @Override
+    public LocalDateTime oldestReportedAt() {
+        return threatReportRepository.findOldestReportedAt();
+    }
+
+    @Override
+    public int rollUpHour(LocalDateTime hourStart, LocalDateTime hourEnd) {
+        return hourlyRepository.rollUpHour(hourStart, hourEnd);
+    }
+
+    @Override
+    public long deleteReportedBetween(LocalDateTime from, LocalDateTime to) {
+        return threatReportRepository.deleteReportedBetween(from, to);
+    }
+
+    private long scan(Supplier<Stream<ThreatReport>> query, Consumer<ThreatReport> action) {
+        Long passed = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<ThreatReport> reports = query.get()) {
+                for (ThreatReport report : (Iterable<ThreatReport>) reports::iterator) {
+                    action.accept(report);
+                    entityManager.detach(report);
+                    count++;
+                }
+            }
+            return count;
+        });
+        return passed == null ? 0 : passed;
+    }
+
+    private static MinuteAggregate toMinuteAggregate(ReportMinuteAggregate minute) {
+        return new MinuteAggregate(minute.getDeviceId(), minute.getAppName(), minute.getMinute(),
+            minute.getReportCount(), minute.getSeveritySum(), minute.getCriticalCount(), minute.getHighCount(),
+            minute.getSuspiciousCount());
+    }
+}
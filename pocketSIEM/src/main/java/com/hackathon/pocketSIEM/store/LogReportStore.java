@@ -0,0 +1,450 @@
+package com.hackathon.pocketSIEM.store;
+
+import com.hackathon.pocketSIEM.config.StoreProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.model.ThreatReportHourly;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.hackathon.pocketSIEM.store.LogSegment.APP_NAME;
+import static com.hackathon.pocketSIEM.store.LogSegment.DEVICE_ID;
+import static com.hackathon.pocketSIEM.store.LogSegment.TARGET_IP;
+
+/**
+ * Reports in an append-only log of memory-mapped segment files (see {@link LogSegment}
+ * for the record format). Appends take one lock and copy each report straight into
+ * the active segment; a full segment is flushed and sealed and the next one started.
+ * Nothing outlives a restart except the files: on startup every segment is replayed,
+ * which checks each record's CRC, rebuilds the sparse time indexes and drops a torn
+ * tail left by a crash.
+ *
+ * <p>Time-window reads (counts, minute aggregates, rollups) start at the segment's
+ * sparse index entry and walk the mapping sequentially, matching fields in place.
+ * Listings by IP or app have no secondary index and read every segment the cursor
+ * could reach; they suit audits rather than hot paths. Retention drops whole
+ * segments once their newest report is past the cutoff.
+ */
+@Component
+@ConditionalOnProperty(name = "app.store.backend", havingValue = "log")
+@Slf4j
+public class LogReportStore implements ReportStore {
+
+    private static final Comparator<Entry> NEWEST_FIRST =
+        Comparator.comparingLong(Entry::reportedAt).thenComparingLong(Entry::id).reversed();
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+
+    private final StoreProperties properties;
+    private final ThreatReportHourlyRepository hourlyRepository;
+    private final Object writeLock = new Object();
+
+    // Oldest first; the last one takes appends. Replaced whole under writeLock.
+    private volatile List<LogSegment> segments;
+    private long lastId;
+
+    public LogReportStore(StoreProperties properties,
+                          ThreatReportHourlyRepository hourlyRepository,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hourlyRepository = hourlyRepository;
+        try {
+            this.segments = openSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open report log in " + properties.getLogDirectory(), e);
+        }
+        for (LogSegment segment : segments) {
+            lastId = Math.max(lastId, segment.maxId());
+        }
+
+        Gauge.builder("reports.log.segments", this, store -> store.segments.size())
+            .description("Segment files in the report log")
+            .register(meterRegistry);
+        Gauge.builder("reports.log.size", this, LogReportStore::sizeBytes)
+            .description("Bytes of records in the report log")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ThreatReport save(ThreatReport report) {
+        synchronized (writeLock) {
+            append(report);
+            if (properties.isSyncOnWrite()) {
+                active().force();
+            }
+        }
+        return report;
+    }
+
+    @Override
+    public void saveAll(List<ThreatReport> reports) {
+        synchronized (writeLock) {
+            for (ThreatReport report : reports) {
+                append(report);
+            }
+            if (properties.isSyncOnWrite()) {
+                active().force();
+            }
+        }
+    }
+
+    @Override
+    public List<ThreatReport> findPageForIp(String ip, ReportCursor after, int limit) {
+        return page(TARGET_IP, LogSegment.utf8(ip), after, limit);
+    }
+
+    @Override
+    public List<ThreatReport> findPageForApp(String appName, ReportCursor after, int limit) {
+        return page(APP_NAME, LogSegment.utf8(appName), after, limit);
+    }
+
+    /**
+     * Newest segment first, each segment's matches sorted newest first. Reports that
+     * arrived out of order across a segment boundary can appear slightly out of order.
+     */
+    @Override
+    public long scanForIp(String ip, ReportCursor after, Consumer<ThreatReport> action) {
+        return scan(TARGET_IP, LogSegment.utf8(ip), after, action);
+    }
+
+    @Override
+    public long scanForApp(String appName, ReportCursor after, Consumer<ThreatReport> action) {
+        return scan(APP_NAME, LogSegment.utf8(appName), after, action);
+    }
+
+    @Override
+    public long countForIpSince(String ip, LocalDateTime since) {
+        byte[] key = LogSegment.utf8(ip);
+        long from = LogSegment.toMicros(since);
+        long count = 0;
+        for (LogSegment segment : segments) {
+            if (segment.maxTime() < from) {
+                continue;
+            }
+            int end = segment.end();
+            for (int offset = segment.startOffset(from); offset < end; offset = segment.next(offset)) {
+                if (segment.reportedAt(offset) >= from && segment.fieldEquals(offset, TARGET_IP, key)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long scanSince(LocalDateTime since, Consumer<ThreatReport> action) {
+        long[] passed = new long[1];
+        forEachSince(LogSegment.toMicros(since), Long.MAX_VALUE, (segment, offset) -> {
+            action.accept(segment.decode(offset));
+            passed[0]++;
+        });
+        return passed[0];
+    }
+
+    @Override
+    public List<MinuteAggregate> aggregateByMinuteSince(LocalDateTime since) {
+        long from = LogSegment.toMicros(since);
+        Map<MinuteKey, long[]> totals = new HashMap<>();
+        forEachSince(from, Long.MAX_VALUE, (segment, offset) -> {
+            long minute = Math.floorDiv(segment.reportedAt(offset), MICROS_PER_MINUTE);
+            MinuteKey key = new MinuteKey(segment.field(offset, DEVICE_ID), segment.field(offset, APP_NAME), minute);
+            addSeverity(totals.computeIfAbsent(key, k -> new long[5]), segment.severity(offset));
+        });
+        List<MinuteAggregate> aggregates = new ArrayList<>(totals.size());
+        totals.forEach((key, t) -> aggregates.add(new MinuteAggregate(key.deviceId(), key.appName(),
+            LogSegment.fromMicros(key.minute() * MICROS_PER_MINUTE), t[0], t[1], t[2], t[3], t[4])));
+        return aggregates;
+    }
+
+    // Distinct within each segment, so an IP spread over several segments is passed once per segment
+    @Override
+    public void forEachTargetIp(Consumer<String> action) {
+        for (LogSegment segment : segments) {
+            Set<String> seen = new HashSet<>();
+            int end = segment.end();
+            for (int offset = segment.start(); offset < end; offset = segment.next(offset)) {
+                String ip = segment.field(offset, TARGET_IP);
+                if (seen.add(ip)) {
+                    action.accept(ip);
+                }
+            }
+        }
+    }
+
+    @Override
+    public LocalDateTime oldestReportedAt() {
+        long oldest = Long.MAX_VALUE;
+        for (LogSegment segment : segments) {
+            oldest = Math.min(oldest, segment.minTime());
+        }
+        return oldest == Long.MAX_VALUE ? null : LogSegment.fromMicros(oldest);
+    }
+
+    @Override
+    public int rollUpHour(LocalDateTime hourStart, LocalDateTime hourEnd) {
+        Map<HourKey, long[]> totals = new HashMap<>();
+        forEachSince(LogSegment.toMicros(hourStart), LogSegment.toMicros(hourEnd), (segment, offset) -> {
+            HourKey key = new HourKey(segment.field(offset, TARGET_IP), segment.field(offset, APP_NAME),
+                segment.field(offset, DEVICE_ID));
+            addSeverity(totals.computeIfAbsent(key, k -> new long[5]), segment.severity(offset));
+        });
+        List<ThreatReportHourly> rows = new ArrayList<>(totals.size());
+        LocalDateTime hour = hourStart.truncatedTo(ChronoUnit.HOURS);
+        totals.forEach((key, t) -> rows.add(ThreatReportHourly.builder()
+            .hourStart(hour)
+            .targetIp(key.targetIp())
+            .appName(key.appName())
+            .deviceId(key.deviceId())
+            .reportCount(t[0])
+            .severitySum(t[1])
+            .criticalCount(t[2])
+            .highCount(t[3])
+            .suspiciousCount(t[4])
+            .build()));
+        hourlyRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    /**
+     * Drops sealed segments whose newest report is before {@code to}; reports in a
+     * segment that straddles the cutoff stay until the whole segment has aged out.
+     */
+    @Override
+    public long deleteReportedBetween(LocalDateTime from, LocalDateTime to) {
+        long cutoff = LogSegment.toMicros(to);
+        synchronized (writeLock) {
+            List<LogSegment> kept = new ArrayList<>(segments.size());
+            long deleted = 0;
+            LogSegment active = active();
+            for (LogSegment segment : segments) {
+                if (segment != active && segment.maxTime() < cutoff) {
+                    try {
+                        segment.delete();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot delete report log segment " + segment.number(), e);
+                    }
+                    deleted += segment.records();
+                } else {
+                    kept.add(segment);
+                }
+            }
+            segments = List.copyOf(kept);
+            return deleted;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (writeLock) {
+            active().force();
+        }
+    }
+
+    long sizeBytes() {
+        long size = 0;
+        for (LogSegment segment : segments) {
+            size += segment.end() - segment.start();
+        }
+        return size;
+    }
+
+    private void append(ThreatReport report) {
+        long id = ++lastId;
+        report.setId(id);
+        // The log keeps microseconds; store what a read will return
+        report.setReportedAt(report.getReportedAt().truncatedTo(ChronoUnit.MICROS));
+        report.setCreatedAt(report.getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+        long reportedAt = LogSegment.toMicros(report.getReportedAt());
+        long createdAt = LogSegment.toMicros(report.getCreatedAt());
+        byte[][] fields = LogSegment.encodeFields(report);
+        if (active().append(id, reportedAt, createdAt, report.getUserSeverity(), fields)) {
+            return;
+        }
+        LogSegment next = roll();
+        if (!next.append(id, reportedAt, createdAt, report.getUserSeverity(), fields)) {
+            throw new IllegalArgumentException("Report " + id + " does not fit in an empty log segment");
+        }
+    }
+
+    private LogSegment roll() {
+        LogSegment sealed = active();
+        sealed.force();
+        try {
+            LogSegment next = LogSegment.create(properties.getLogDirectory(), sealed.number() + 1,
+                segmentSize(), properties.getIndexInterval());
+            List<LogSegment> grown = new ArrayList<>(segments);
+            grown.add(next);
+            segments = List.copyOf(grown);
+            log.debug("Sealed report log segment {} with {} reports", sealed.number(), sealed.records());
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start report log segment " + (sealed.number() + 1), e);
+        }
+    }
+
+    private LogSegment active() {
+        List<LogSegment> current = segments;
+        return current.get(current.size() - 1);
+    }
+
+    private List<LogSegment> openSegments() throws IOException {
+        Path directory = properties.getLogDirectory();
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("\\d{20}\\.log"))
+                .sorted()
+                .toList();
+        }
+        List<LogSegment> opened = new ArrayList<>(files.size() + 1);
+        for (Path file : files) {
+            long number = Long.parseLong(file.getFileName().toString().substring(0, 20));
+            opened.add(LogSegment.open(file, number, properties.getIndexInterval()));
+        }
+        if (opened.isEmpty()) {
+            opened.add(LogSegment.create(directory, 1, segmentSize(), properties.getIndexInterval()));
+        }
+        long records = opened.stream().mapToLong(LogSegment::records).sum();
+        log.info("Opened report log in {}: {} segments, {} reports", directory, opened.size(), records);
+        return List.copyOf(opened);
+    }
+
+    private int segmentSize() {
+        return Math.toIntExact(properties.getSegmentSize().toBytes());
+    }
+
+    private List<ThreatReport> page(int field, byte[] key, ReportCursor after, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long cursorTime = LogSegment.toMicros(after.reportedAt());
+        // The newest matches so far, oldest at the head so it is the one displaced
+        PriorityQueue<Entry> kept = new PriorityQueue<>(NEWEST_FIRST.reversed());
+        List<LogSegment> current = segments;
+        for (int s = current.size() - 1; s >= 0; s--) {
+            LogSegment segment = current.get(s);
+            if (segment.minTime() > cursorTime
+                    || (kept.size() == limit && segment.maxTime() < kept.peek().reportedAt())) {
+                continue;
+            }
+            int end = segment.end();
+            for (int offset = segment.start(); offset < end; offset = segment.next(offset)) {
+                long reportedAt = segment.reportedAt(offset);
+                long id = segment.id(offset);
+                if (!before(reportedAt, id, cursorTime, after.id()) || !segment.fieldEquals(offset, field, key)) {
+                    continue;
+                }
+                Entry entry = new Entry(segment, offset, reportedAt, id);
+                if (kept.size() < limit) {
+                    kept.add(entry);
+                } else if (NEWEST_FIRST.compare(entry, kept.peek()) < 0) {
+                    kept.poll();
+                    kept.add(entry);
+                }
+            }
+        }
+        List<Entry> entries = new ArrayList<>(kept);
+        entries.sort(NEWEST_FIRST);
+        List<ThreatReport> reports = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            reports.add(entry.segment().decode(entry.offset()));
+        }
+        return reports;
+    }
+
+    private long scan(int field, byte[] key, ReportCursor after, Consumer<ThreatReport> action) {
+        long cursorTime = LogSegment.toMicros(after.reportedAt());
+        long passed = 0;
+        List<LogSegment> current = segments;
+        for (int s = current.size() - 1; s >= 0; s--) {
+            LogSegment segment = current.get(s);
+            if (segment.minTime() > cursorTime) {
+                continue;
+            }
+            List<Entry> matches = new ArrayList<>();
+            int end = segment.end();
+            for (int offset = segment.start(); offset < end; offset = segment.next(offset)) {
+                long reportedAt = segment.reportedAt(offset);
+                long id = segment.id(offset);
+                if (before(reportedAt, id, cursorTime, after.id()) && segment.fieldEquals(offset, field, key)) {
+                    matches.add(new Entry(segment, offset, reportedAt, id));
+                }
+            }
+            matches.sort(NEWEST_FIRST);
+            for (Entry match : matches) {
+                action.accept(segment.decode(match.offset()));
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    // Records with from <= reportedAt < to
+    private void forEachSince(long from, long to, RecordVisitor visitor) {
+        for (LogSegment segment : segments) {
+            if (segment.maxTime() < from || segment.minTime() >= to) {
+                continue;
+            }
+            int end = segment.end();
+            for (int offset = segment.startOffset(from); offset < end; offset = segment.next(offset)) {
+                long reportedAt = segment.reportedAt(offset);
+                if (reportedAt >= from && reportedAt < to) {
+                    visitor.visit(segment, offset);
+                }
+            }
+        }
+    }
+
+    private static boolean before(long reportedAt, long id, long cursorTime, long cursorId) {
+        return reportedAt < cursorTime || (reportedAt == cursorTime && id < cursorId);
+    }
+
+    // totals: count, severity sum, critical, high, suspicious
+    private static void addSeverity(long[] totals, int severity) {
+        totals[0]++;
+        totals[1] += severity;
+        if (severity >= ThreatReport.CRITICAL_SEVERITY) {
+            totals[2]++;
+        } else if (severity >= ThreatReport.HIGH_SEVERITY) {
+            totals[3]++;
+        } else if (severity >= ThreatReport.SUSPICIOUS_SEVERITY) {
+            totals[4]++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(LogSegment segment, int offset);
+    }
+
+    private record Entry(LogSegment segment, int offset, long reportedAt, long id) {
+    }
+
+    private record MinuteKey(String deviceId, String appName, long minute) {
+    }
+
+    private record HourKey(String targetIp, String appName, String deviceId) {
+    }
+}
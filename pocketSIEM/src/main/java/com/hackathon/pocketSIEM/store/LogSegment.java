@@ -0,0 +1,372 @@
+package com.hackathon.pocketSIEM.store;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * One file of the report log, mapped into memory whole. After an 8 byte header
+ * (magic, version) come records of
+ * <pre>
+ *   int length | int crc32c of payload | payload
+ *   payload: long id | long reportedAt | long createdAt | int userSeverity |
+ *            targetIp, appName, deviceId, protocol, description as (u16 byte length, UTF-8)
+ * </pre>
+ * with times in microseconds since the epoch (read as UTC) and 0xFFFF marking a
+ * null string. A zero length ends the data; the rest of the file is still zeroes.
+ *
+ * <p>One thread appends at a time. Readers see records up to {@link #end()}, which is
+ * published only after a record is fully written, and read fields straight from the
+ * mapping: comparing a field allocates nothing, only {@link #decode} builds objects.
+ *
+ * <p>A sparse time index keeps, every indexInterval records, the record's offset and
+ * the latest reportedAt of all records before it. Reports arrive almost but not
+ * exactly in time order, so a scan for "since t" starts at the last entry whose
+ * preceding records are all older than t.
+ */
+@Slf4j
+final class LogSegment {
+
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    static final int TARGET_IP = 0;
+    static final int APP_NAME = 1;
+    static final int DEVICE_ID = 2;
+    static final int PROTOCOL = 3;
+    static final int DESCRIPTION = 4;
+    private static final int FIELD_COUNT = 5;
+
+    private static final int MAGIC = 0x50534C47;
+    private static final int VERSION = 1;
+    private static final int ID = 0;
+    private static final int REPORTED_AT = 8;
+    private static final int CREATED_AT = 16;
+    private static final int SEVERITY = 24;
+    private static final int STRINGS = 28;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final long MICROS_PER_SECOND = 1_000_000;
+
+    private final long number;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int indexInterval;
+    private final CRC32C crc = new CRC32C();
+
+    private volatile int end = HEADER_SIZE;
+    private volatile long minTime = Long.MAX_VALUE;
+    private volatile long maxTime = Long.MIN_VALUE;
+    private int records;
+    private long maxId;
+
+    // Sparse time index, guarded by this
+    private int[] indexOffsets = new int[16];
+    private long[] indexLatestBefore = new long[16];
+    private int indexSize;
+    private long latest = Long.MIN_VALUE;
+
+    private LogSegment(long number, Path path, MappedByteBuffer buffer, int indexInterval) {
+        this.number = number;
+        this.path = path;
+        this.buffer = buffer;
+        this.indexInterval = indexInterval;
+    }
+
+    static LogSegment create(Path directory, long number, int size, int indexInterval) throws IOException {
+        Path path = directory.resolve(fileName(number));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            return new LogSegment(number, path, buffer, indexInterval);
+        }
+    }
+
+    /**
+     * Maps an existing segment and replays it. Data from the first record that is cut
+     * short or fails its checksum onwards is zeroed, so the next append overwrites it.
+     */
+    static LogSegment open(Path path, long number, int indexInterval) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a report log segment: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a report log segment: " + path);
+            }
+            LogSegment segment = new LogSegment(number, path, buffer, indexInterval);
+            segment.recover();
+            return segment;
+        }
+    }
+
+    static String fileName(long number) {
+        return String.format("%020d.log", number);
+    }
+
+    static byte[][] encodeFields(ThreatReport report) {
+        byte[][] fields = new byte[FIELD_COUNT][];
+        fields[TARGET_IP] = utf8(report.getTargetIp());
+        fields[APP_NAME] = utf8(report.getAppName());
+        fields[DEVICE_ID] = utf8(report.getDeviceId());
+        fields[PROTOCOL] = utf8(report.getProtocol());
+        fields[DESCRIPTION] = utf8(report.getDescription());
+        return fields;
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+            (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * @return false if the record does not fit in what is left of the segment
+     * @throws IllegalArgumentException if a field is longer than a record can hold
+     */
+    synchronized boolean append(long id, long reportedAt, long createdAt, int severity, byte[][] fields) {
+        int length = STRINGS;
+        for (byte[] field : fields) {
+            if (field != null && field.length >= NULL_STRING) {
+                throw new IllegalArgumentException("Report field of " + field.length + " bytes is too long for the log");
+            }
+            length += 2 + (field == null ? 0 : field.length);
+        }
+        int offset = end;
+        if ((long) offset + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+            return false;
+        }
+
+        int payload = offset + RECORD_HEADER_SIZE;
+        buffer.putLong(payload + ID, id);
+        buffer.putLong(payload + REPORTED_AT, reportedAt);
+        buffer.putLong(payload + CREATED_AT, createdAt);
+        buffer.putInt(payload + SEVERITY, severity);
+        int position = payload + STRINGS;
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putShort(position, (short) NULL_STRING);
+                position += 2;
+            } else {
+                buffer.putShort(position, (short) field.length);
+                buffer.put(position + 2, field);
+                position += 2 + field.length;
+            }
+        }
+        crc.reset();
+        crc.update(buffer.slice(payload, length));
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putInt(offset, length);
+
+        indexRecord(offset, reportedAt, id);
+        end = offset + RECORD_HEADER_SIZE + length;
+        return true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    boolean delete() throws IOException {
+        return Files.deleteIfExists(path);
+    }
+
+    long number() {
+        return number;
+    }
+
+    /** Offset just past the last complete record */
+    int end() {
+        return end;
+    }
+
+    /** Offset of the first record */
+    int start() {
+        return HEADER_SIZE;
+    }
+
+    int next(int offset) {
+        return offset + RECORD_HEADER_SIZE + buffer.getInt(offset);
+    }
+
+    synchronized int records() {
+        return records;
+    }
+
+    synchronized long maxId() {
+        return maxId;
+    }
+
+    /** Earliest reportedAt in the segment; Long.MAX_VALUE while empty */
+    long minTime() {
+        return minTime;
+    }
+
+    /** Latest reportedAt in the segment; Long.MIN_VALUE while empty */
+    long maxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Offset to start a scan for records reported at or after {@code since}: every
+     * record before it is older
+     */
+    synchronized int startOffset(long since) {
+        int low = 0;
+        int high = indexSize - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (indexLatestBefore[mid] < since) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return indexSize == 0 ? HEADER_SIZE : indexOffsets[low];
+    }
+
+    long id(int offset) {
+        return buffer.getLong(offset + RECORD_HEADER_SIZE + ID);
+    }
+
+    long reportedAt(int offset) {
+        return buffer.getLong(offset + RECORD_HEADER_SIZE + REPORTED_AT);
+    }
+
+    int severity(int offset) {
+        return buffer.getInt(offset + RECORD_HEADER_SIZE + SEVERITY);
+    }
+
+    /** Compares a string field with UTF-8 bytes in place */
+    boolean fieldEquals(int offset, int field, byte[] value) {
+        int position = fieldPosition(offset, field);
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length != value.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(position + 2 + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String field(int offset, int field) {
+        return readString(fieldPosition(offset, field));
+    }
+
+    ThreatReport decode(int offset) {
+        int payload = offset + RECORD_HEADER_SIZE;
+        String[] fields = new String[FIELD_COUNT];
+        int position = payload + STRINGS;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            fields[i] = readString(position);
+            position = skipString(position);
+        }
+        return ThreatReport.builder()
+            .id(buffer.getLong(payload + ID))
+            .reportedAt(fromMicros(buffer.getLong(payload + REPORTED_AT)))
+            .createdAt(fromMicros(buffer.getLong(payload + CREATED_AT)))
+            .userSeverity(buffer.getInt(payload + SEVERITY))
+            .targetIp(fields[TARGET_IP])
+            .appName(fields[APP_NAME])
+            .deviceId(fields[DEVICE_ID])
+            .protocol(fields[PROTOCOL])
+            .description(fields[DESCRIPTION])
+            .build();
+    }
+
+    private int fieldPosition(int offset, int field) {
+        int position = offset + RECORD_HEADER_SIZE + STRINGS;
+        for (int i = 0; i < field; i++) {
+            position = skipString(position);
+        }
+        return position;
+    }
+
+    private int skipString(int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        return position + 2 + (length == NULL_STRING ? 0 : length);
+    }
+
+    private String readString(int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void recover() {
+        int offset = HEADER_SIZE;
+        int capacity = buffer.capacity();
+        while (offset + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < STRINGS || (long) offset + RECORD_HEADER_SIZE + length > capacity || !checksumMatches(offset, length)) {
+                log.warn("Report log segment {} is damaged at offset {}; dropping {} bytes after it",
+                    path, offset, capacity - offset);
+                for (int i = offset; i < capacity; i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+                break;
+            }
+            indexRecord(offset, reportedAt(offset), id(offset));
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        end = offset;
+    }
+
+    private boolean checksumMatches(int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+        return buffer.getInt(offset + 4) == (int) crc.getValue();
+    }
+
+    private synchronized void indexRecord(int offset, long reportedAt, long id) {
+        if (records % indexInterval == 0) {
+            if (indexSize == indexOffsets.length) {
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                indexLatestBefore = Arrays.copyOf(indexLatestBefore, indexSize * 2);
+            }
+            indexOffsets[indexSize] = offset;
+            indexLatestBefore[indexSize] = latest;
+            indexSize++;
+        }
+        latest = Math.max(latest, reportedAt);
+        records++;
+        maxId = Math.max(maxId, id);
+        if (reportedAt < minTime) {
+            minTime = reportedAt;
+        }
+        if (reportedAt > maxTime) {
+            maxTime = reportedAt;
+        }
+    }
+}
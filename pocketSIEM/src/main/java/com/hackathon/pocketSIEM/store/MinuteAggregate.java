@@ -0,0 +1,10 @@
+package com.hackathon.pocketSIEM.store;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reports of one device and app within one minute, with severity band totals
+ */
+public record MinuteAggregate(String deviceId, String appName, LocalDateTime minute, long reports,
+                              long severitySum, long critical, long high, long suspicious) {
+}
@@ -0,0 +1,69 @@
+package com.hackathon.pocketSIEM.store;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage of raw threat reports. Listings are newest first by (reportedAt, id) and
+ * start strictly after the cursor. The backend is picked with app.store.backend.
+ */
+public interface ReportStore {
+
+    /** Stores one report, assigning its id */
+    ThreatReport save(ThreatReport report);
+
+    /** Stores a batch of reports in one write */
+    void saveAll(List<ThreatReport> reports);
+
+    /** At most {@code limit} reports for an IP */
+    List<ThreatReport> findPageForIp(String ip, ReportCursor after, int limit);
+
+    List<ThreatReport> findPageForApp(String appName, ReportCursor after, int limit);
+
+    /**
+     * Passes every report for an IP to the action without holding them all in memory
+     *
+     * @return number of reports passed
+     */
+    long scanForIp(String ip, ReportCursor after, Consumer<ThreatReport> action);
+
+    long scanForApp(String appName, ReportCursor after, Consumer<ThreatReport> action);
+
+    long countForIpSince(String ip, LocalDateTime since);
+
+    /**
+     * Passes every report since the given time to the action, in no particular order
+     *
+     * @return number of reports passed
+     */
+    long scanSince(LocalDateTime since, Consumer<ThreatReport> action);
+
+    /** Per device, app and minute totals of reports since the given time */
+    List<MinuteAggregate> aggregateByMinuteSince(LocalDateTime since);
+
+    /** Passes each IP with a stored report to the action, at least once */
+    void forEachTargetIp(Consumer<String> action);
+
+    /** Null when no report is stored */
+    LocalDateTime oldestReportedAt();
+
+    /**
+     * Writes the reports in [hourStart, hourEnd) to threat_report_hourly, one row per
+     * IP, app and device. Joins the caller's transaction.
+     *
+     * @return rollup rows written
+     */
+    int rollUpHour(LocalDateTime hourStart, LocalDateTime hourEnd);
+
+    /**
+     * Deletes reports in [from, to). A backend may keep some of them until it can
+     * drop a whole unit of storage, so reads must not rely on them being gone.
+     *
+     * @return reports deleted
+     */
+    long deleteReportedBetween(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,248 @@
+package com.hackathon.pocketSIEM.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hackathon.pocketSIEM.config.StreamProperties;
+import com.hackathon.pocketSIEM.dto.AttackSurfaceDataPoint;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.service.ThreatService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes dashboard changes to SSE subscribers. Once per tick it takes the reports
+ * accepted since the last tick, recomputes the aggregates they affect (plus everything
+ * every refresh-interval) and serializes each result once; subscribers then receive
+ * only what changed for their scope. Writes happen on a small sender pool and are
+ * coalesced per subscriber, so neither a connection nor a slow client holds a thread.
+ * The tick has a thread of its own rather than Spring's single scheduling thread, where
+ * compaction, hot-tier eviction or a filter snapshot could hold up pushes for minutes.
+ *
+ * <p>Events: {@code device-stats} (the full stats object, when it changed),
+ * {@code attack-surface} (the data points whose values changed, by timestamp),
+ * {@code attack-surface-reset} (the whole series, replacing the client's, when the
+ * window has moved on to new buckets) and {@code reports} (newly accepted reports).
+ * A new subscriber first gets the current stats and an attack-surface reset.
+ */
+@Component
+@Slf4j
+public class DashboardBroadcaster {
+
+    private final ThreatService threatService;
+    private final ReportChangeTracker changeTracker;
+    private final ObjectMapper objectMapper;
+    private final StreamProperties properties;
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ScheduledExecutorService ticker;
+
+    // Only the tick thread touches lastPoints; it is cleared while nobody subscribes
+    private final Map<Long, String> lastPoints = new LinkedHashMap<>();
+    private long lastRefreshNanos = System.nanoTime();
+    private long lastHeartbeatNanos = System.nanoTime();
+
+    public DashboardBroadcaster(ThreatService threatService, ReportChangeTracker changeTracker, ObjectMapper objectMapper,
+                                StreamProperties properties, MeterRegistry meterRegistry) {
+        this.threatService = threatService;
+        this.changeTracker = changeTracker;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(),
+            new CustomizableThreadFactory("stream-sender-"));
+        this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stream-tick-"));
+        Gauge.builder("stream.subscribers", subscribers, Set::size)
+            .description("Open /api/v1/stream connections")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for one device, or for the fleet when deviceId is null, and queues
+     * the current state as its first events
+     *
+     * @return null if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(String deviceId) {
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        StreamSubscriber subscriber = new StreamSubscriber(emitter, deviceId, properties.getMaxReportsPerEvent());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Computed afresh: the tick's last series may be stale if nobody was subscribed
+        offer(subscriber, json(threatService.getDeviceStats(deviceId)), serializePoints(attackSurface()), true,
+            null, false);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getInterval().toNanos();
+        ticker.scheduleAtFixedRate(() -> {
+            // An exception would cancel the schedule
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Dashboard stream tick failed", e);
+            }
+        }, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void tick() {
+        ReportChangeTracker.Changes changes = changeTracker.drain();
+        if (subscribers.isEmpty()) {
+            lastPoints.clear();
+            return;
+        }
+        long now = System.nanoTime();
+        boolean refresh = now - lastRefreshNanos >= properties.getRefreshInterval().toNanos();
+        boolean heartbeat = now - lastHeartbeatNanos >= properties.getHeartbeatInterval().toNanos();
+        if (refresh) {
+            lastRefreshNanos = now;
+        }
+        if (heartbeat) {
+            lastHeartbeatNanos = now;
+        }
+        if (!changes.any() && !refresh && !heartbeat) {
+            return;
+        }
+
+        boolean recompute = changes.any() || refresh;
+        String fleetStats = recompute ? json(threatService.getDeviceStats(null)) : null;
+        PointUpdate pointUpdate = recompute ? changedPoints() : PointUpdate.NONE;
+        Map<String, String> deviceStats = new HashMap<>();
+        // A report is usually in both the fleet list and its device's; serialize it once
+        Map<ThreatReport, String> reportJson = new IdentityHashMap<>();
+        List<String> allReports = reportsJson(changes.reports(), reportJson);
+        Map<String, List<String>> reportsByDevice = new HashMap<>();
+        changes.deviceReports().forEach((deviceId, reports) ->
+            reportsByDevice.put(deviceId, reportsJson(reports, reportJson)));
+
+        for (StreamSubscriber subscriber : subscribers) {
+            String deviceId = subscriber.deviceId();
+            if (deviceId == null) {
+                offer(subscriber, fleetStats, pointUpdate, allReports, heartbeat);
+                continue;
+            }
+            String stats = null;
+            if (refresh || changes.devices().contains(deviceId)) {
+                // Computed once per device per tick however many subscribers share it
+                stats = deviceStats.computeIfAbsent(deviceId, id -> json(threatService.getDeviceStats(id)));
+            }
+            offer(subscriber, stats, pointUpdate, reportsByDevice.get(deviceId), heartbeat);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (StreamSubscriber subscriber : subscribers) {
+            subscriber.emitter().complete();
+        }
+        subscribers.clear();
+        ticker.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void offer(StreamSubscriber subscriber, String stats, PointUpdate points,
+                       List<String> reports, boolean heartbeat) {
+        offer(subscriber, stats, points.points(), points.replace(), reports, heartbeat);
+    }
+
+    private void offer(StreamSubscriber subscriber, String stats, Map<Long, String> points, boolean replacePoints,
+                       List<String> reports, boolean heartbeat) {
+        if (subscriber.offer(stats, points, replacePoints, reports, heartbeat)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(StreamSubscriber subscriber) {
+        try {
+            subscriber.drain();
+        } catch (IOException e) {
+            log.debug("Dropping stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    // The whole series when its first bucket moved, so points that left the window are retracted
+    private PointUpdate changedPoints() {
+        Map<Long, String> points = serializePoints(attackSurface());
+        boolean shifted = !firstKey(points).equals(firstKey(lastPoints));
+        Map<Long, String> changed = new LinkedHashMap<>();
+        points.forEach((timestamp, json) -> {
+            if (shifted || !json.equals(lastPoints.get(timestamp))) {
+                changed.put(timestamp, json);
+            }
+        });
+        lastPoints.clear();
+        lastPoints.putAll(points);
+        return new PointUpdate(changed, shifted);
+    }
+
+    private static Long firstKey(Map<Long, String> points) {
+        return points.isEmpty() ? Long.MIN_VALUE : points.keySet().iterator().next();
+    }
+
+    private List<AttackSurfaceDataPoint> attackSurface() {
+        return threatService.getAttackSurfaceData(properties.getAttackSurfaceWindow(),
+            properties.getAttackSurfaceResolution());
+    }
+
+    private List<String> reportsJson(List<ThreatReport> reports, Map<ThreatReport, String> reportJson) {
+        List<String> serialized = new ArrayList<>(reports.size());
+        for (ThreatReport report : reports) {
+            serialized.add(reportJson.computeIfAbsent(report, this::json));
+        }
+        return serialized;
+    }
+
+    private Map<Long, String> serializePoints(List<AttackSurfaceDataPoint> series) {
+        Map<Long, String> points = new LinkedHashMap<>();
+        for (AttackSurfaceDataPoint point : series) {
+            points.put(point.getTimestamp(), json(point));
+        }
+        return points;
+    }
+
+    private record PointUpdate(Map<Long, String> points, boolean replace) {
+
+        static final PointUpdate NONE = new PointUpdate(Map.of(), false);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.hackathon.pocketSIEM.stream;
+
+import com.hackathon.pocketSIEM.config.StreamProperties;
+import com.hackathon.pocketSIEM.ingest.ThreatReportListener;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects what changed between two broadcast ticks: the reports accepted and the
+ * devices they came from. Reports are capped at one event's worth per subscriber
+ * scope: the fleet list and each device's list keep their first max-reports-per-event,
+ * so a busy fleet never crowds a quiet device out of its own stream. Kept apart from
+ * {@link DashboardBroadcaster} because the broadcaster reads through ThreatService,
+ * which calls the report listeners.
+ */
+@Component
+public class ReportChangeTracker implements ThreatReportListener {
+
+    private final int maxReports;
+    private final ConcurrentLinkedQueue<ThreatReport> reports = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentHashMap<String, List<ThreatReport>> deviceReports = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    public ReportChangeTracker(StreamProperties properties) {
+        this.maxReports = properties.getMaxReportsPerEvent();
+    }
+
+    @Override
+    public void onReportAccepted(ThreatReport report) {
+        // Beyond one event's worth per tick the fleet's reports would only be dropped later
+        if (queued.incrementAndGet() <= maxReports) {
+            reports.add(report);
+        } else {
+            queued.decrementAndGet();
+        }
+        if (report.getDeviceId() != null) {
+            deviceReports.compute(report.getDeviceId(), (id, pending) -> {
+                List<ThreatReport> list = pending != null ? pending : new ArrayList<>();
+                if (list.size() < maxReports) {
+                    list.add(report);
+                }
+                return list;
+            });
+        }
+        changed = true;
+    }
+
+    /**
+     * Takes everything collected since the last call
+     */
+    Changes drain() {
+        if (!changed) {
+            return Changes.NONE;
+        }
+        changed = false;
+        List<ThreatReport> drained = new ArrayList<>();
+        ThreatReport report;
+        while ((report = reports.poll()) != null) {
+            queued.decrementAndGet();
+            drained.add(report);
+        }
+        // remove hands over each list whole; a report arriving after it starts the next tick's
+        Map<String, List<ThreatReport>> byDevice = new HashMap<>();
+        for (String deviceId : deviceReports.keySet()) {
+            List<ThreatReport> pending = deviceReports.remove(deviceId);
+            if (pending != null) {
+                byDevice.put(deviceId, pending);
+            }
+        }
+        return new Changes(true, drained, byDevice);
+    }
+
+    /**
+     * @param reports      the fleet's reports, capped at one event's worth
+     * @param deviceReports each changed device's reports, capped separately
+     */
+    record Changes(boolean any, List<ThreatReport> reports, Map<String, List<ThreatReport>> deviceReports) {
+        static final Changes NONE = new Changes(false, List.of(), Map.of());
+
+        Set<String> devices() {
+            return deviceReports.keySet();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.hackathon.pocketSIEM.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One SSE connection and the updates not yet written to it. Updates offered while
+ * a send is in progress are merged into the pending state instead of queued: newer
+ * stats replace older ones, attack-surface points are merged by timestamp (a full
+ * series replaces them) and only the newest reports are kept. A slow client therefore costs a bounded amount of
+ * memory and simply receives fewer, fresher events.
+ */
+final class StreamSubscriber {
+
+    static final String DEVICE_STATS = "device-stats";
+    static final String ATTACK_SURFACE = "attack-surface";
+    static final String ATTACK_SURFACE_RESET = "attack-surface-reset";
+    static final String REPORTS = "reports";
+
+    private final SseEmitter emitter;
+    private final String deviceId;
+    private final int maxReports;
+
+    private String pendingStats;
+    private final TreeMap<Long, String> pendingPoints = new TreeMap<>();
+    // Whether pendingPoints is a whole series that replaces the client's
+    private boolean pendingReset;
+    private final ArrayDeque<String> pendingReports = new ArrayDeque<>();
+    private boolean pendingHeartbeat;
+    private boolean sending;
+    private String lastStats;
+
+    StreamSubscriber(SseEmitter emitter, String deviceId, int maxReports) {
+        this.emitter = emitter;
+        this.deviceId = deviceId;
+        this.maxReports = maxReports;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /** Device the subscriber asked for, or null for the whole fleet */
+    String deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Merges an update into the pending state. Any argument may be null or empty.
+     * With replacePoints the points are the whole attack-surface series, and any
+     * pending points are dropped in favour of them.
+     *
+     * @return true if the caller must schedule {@link #drain()}; false if there is nothing
+     *         to send or a drain is already running and will pick the update up
+     */
+    synchronized boolean offer(String stats, Map<Long, String> points, boolean replacePoints, Iterable<String> reports,
+                               boolean heartbeat) {
+        if (stats != null && !stats.equals(lastStats)) {
+            pendingStats = stats;
+            lastStats = stats;
+        }
+        if (replacePoints) {
+            pendingPoints.clear();
+            pendingReset = true;
+        }
+        if (points != null) {
+            pendingPoints.putAll(points);
+        }
+        if (reports != null) {
+            for (String report : reports) {
+                if (pendingReports.size() == maxReports) {
+                    pendingReports.removeFirst();
+                }
+                pendingReports.addLast(report);
+            }
+        }
+        pendingHeartbeat |= heartbeat;
+        if (sending || !hasPending()) {
+            return false;
+        }
+        sending = true;
+        return true;
+    }
+
+    /**
+     * Writes pending events until none are left. Runs on a sender thread, at most one
+     * per subscriber at a time.
+     *
+     * @throws IOException if the client is gone
+     */
+    void drain() throws IOException {
+        while (true) {
+            String stats;
+            String points;
+            boolean reset;
+            String reports;
+            boolean heartbeat;
+            synchronized (this) {
+                if (!hasPending()) {
+                    sending = false;
+                    return;
+                }
+                stats = pendingStats;
+                reset = pendingReset;
+                points = pendingPoints.isEmpty() && !reset ? null : jsonArray(pendingPoints.values());
+                reports = pendingReports.isEmpty() ? null : jsonArray(pendingReports);
+                heartbeat = pendingHeartbeat && stats == null && points == null && reports == null;
+                pendingStats = null;
+                pendingPoints.clear();
+                pendingReset = false;
+                pendingReports.clear();
+                pendingHeartbeat = false;
+            }
+            try {
+                send(DEVICE_STATS, stats);
+                send(reset ? ATTACK_SURFACE_RESET : ATTACK_SURFACE, points);
+                send(REPORTS, reports);
+                if (heartbeat) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    sending = false;
+                }
+                throw e instanceof IOException io ? io : new IOException(e);
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return pendingStats != null || !pendingPoints.isEmpty() || pendingReset || !pendingReports.isEmpty()
+                || pendingHeartbeat;
+    }
+
+    private void send(String name, String json) throws IOException {
+        if (json != null) {
+            emitter.send(SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private static String jsonArray(Iterable<String> elements) {
+        return "[" + String.join(",", elements) + "]";
+    }
+}
@@ -0,0 +1,13 @@
+package com.hackathon.pocketSIEM.validation;
+
+import com.hackathon.pocketSIEM.net.IpAddress;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class IpAddressValidator implements ConstraintValidator<ValidIpAddress, CharSequence> {
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || IpAddress.isValid(value);
+    }
+}
@@ -0,0 +1,28 @@
+package com.hackathon.pocketSIEM.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string must be an IPv4 or IPv6 address as accepted by
+ * {@link com.hackathon.pocketSIEM.net.IpAddress}. Null is valid; combine with
+ * {@code @NotBlank} when the value is required.
+ */
+@Documented
+@Constraint(validatedBy = IpAddressValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidIpAddress {
+
+    String message() default "Invalid IP address format";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
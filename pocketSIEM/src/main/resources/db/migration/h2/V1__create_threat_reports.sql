@@ -0,0 +1,19 @@
+create sequence threat_report_seq start with 1 increment by 50;
+
+create table threat_reports (
+    id bigint not null,
+    app_name varchar(255) not null,
+    target_ip varchar(255) not null,
+    reported_at timestamp(6) not null,
+    protocol varchar(50),
+    description varchar(500),
+    device_id varchar(255) not null,
+    user_severity integer not null,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_threat_reports_target_ip_reported_at on threat_reports (target_ip, reported_at);
+create index idx_threat_reports_app_name_reported_at on threat_reports (app_name, reported_at);
+create index idx_threat_reports_device_id_reported_at on threat_reports (device_id, reported_at);
+create index idx_threat_reports_reported_at on threat_reports (reported_at);
@@ -0,0 +1,29 @@
+-- Hourly rollups of threat_reports by IP, app and device; raw rows past retention are
+-- deleted once their hour has been rolled up
+create table threat_report_hourly (
+    id bigint generated by default as identity,
+    hour_start timestamp(6) not null,
+    target_ip varchar(255) not null,
+    app_name varchar(255) not null,
+    device_id varchar(255) not null,
+    report_count bigint not null,
+    severity_sum bigint not null,
+    critical_count bigint not null,
+    high_count bigint not null,
+    suspicious_count bigint not null,
+    primary key (id)
+);
+
+create index idx_threat_report_hourly_target_ip_hour_start on threat_report_hourly (target_ip, hour_start);
+create index idx_threat_report_hourly_hour_start on threat_report_hourly (hour_start);
+
+-- Single row: hours before rolled_up_until are in threat_report_hourly,
+-- raw rows before purged_before are gone
+create table report_compaction_state (
+    id integer not null,
+    rolled_up_until timestamp(6),
+    purged_before timestamp(6),
+    primary key (id)
+);
+
+insert into report_compaction_state (id) values (1);
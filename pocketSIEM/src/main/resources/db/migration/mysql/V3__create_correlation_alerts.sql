@@ -0,0 +1,15 @@
+-- Alerts raised by the correlation rules evaluated at ingest
+create table correlation_alerts (
+    id bigint not null auto_increment,
+    rule_name varchar(255) not null,
+    group_key varchar(255) not null,
+    distinct_count integer not null,
+    evidence varchar(1000),
+    window_start datetime(6) not null,
+    triggered_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_correlation_alerts_triggered_at on correlation_alerts (triggered_at);
+create index idx_correlation_alerts_rule_name_triggered_at on correlation_alerts (rule_name, triggered_at);
+create index idx_correlation_alerts_group_key_triggered_at on correlation_alerts (group_key, triggered_at);
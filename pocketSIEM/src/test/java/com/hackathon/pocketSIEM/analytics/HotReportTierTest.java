@@ -0,0 +1,136 @@
+package com.hackathon.pocketSIEM.analytics;
+
+import com.hackathon.pocketSIEM.config.HotTierProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotReportTierTest {
+
+    private final HotTierProperties properties = new HotTierProperties();
+    private HotReportTier tier;
+
+    @Test
+    void summarizesOneKeyAcrossChunks() {
+        properties.setChunkSize(4);
+        tier = newTier();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 9; i++) {
+            tier.onReportAccepted(report("10.0.0.1", "app-" + (i % 2), "device-" + (i % 3), now, 20 + 10 * i));
+        }
+        tier.onReportAccepted(report("10.0.0.2", "app-0", "device-0", now, 90));
+
+        HotReportTier.Summary summary = tier.summarize(HotReportTier.Dimension.IP, "10.0.0.1", Duration.ofHours(1));
+        assertThat(summary.reports()).isEqualTo(9);
+        assertThat(summary.severitySum()).isEqualTo(9 * 20 + 10 * 36);
+        assertThat(summary.critical()).isEqualTo(3);
+        assertThat(summary.high()).isEqualTo(3);
+        assertThat(summary.suspicious()).isEqualTo(2);
+        assertThat(summary.devices()).isEqualTo(3);
+        assertThat(summary.ips()).isEqualTo(1);
+        assertThat(summary.top()).containsExactly(new HotReportTier.KeyCount("app-0", 5),
+            new HotReportTier.KeyCount("app-1", 4));
+
+        HotReportTier.Summary byApp = tier.summarize(HotReportTier.Dimension.APP, "app-0", Duration.ofHours(1));
+        assertThat(byApp.top()).containsExactly(new HotReportTier.KeyCount("10.0.0.1", 5),
+            new HotReportTier.KeyCount("10.0.0.2", 1));
+        assertThat(tier.summarize(HotReportTier.Dimension.DEVICE, "unknown", Duration.ofHours(1)).reports()).isZero();
+    }
+
+    @Test
+    void keepsSeveritiesOutsideTheByteRange() {
+        tier = newTier();
+        LocalDateTime now = LocalDateTime.now();
+        tier.onReportAccepted(report("10.0.0.1", "app", "device-1", now, 500));
+        tier.onReportAccepted(report("10.0.0.1", "app", "device-1", now, -5));
+
+        HotReportTier.Summary summary = tier.summarize(HotReportTier.Dimension.IP, "10.0.0.1", Duration.ofHours(1));
+        assertThat(summary.severitySum()).isEqualTo(495);
+        assertThat(summary.critical()).isEqualTo(1);
+    }
+
+    @Test
+    void breaksDownAcrossManyDistinctCodes() {
+        properties.setChunkSize(64);
+        properties.setTopN(3);
+        tier = newTier();
+        LocalDateTime now = LocalDateTime.now();
+        // 500 IPs, IP i reported i % 7 + 1 times, spread over many chunks
+        for (int round = 0; round < 7; round++) {
+            for (int i = 0; i < 500; i++) {
+                if (i % 7 >= round) {
+                    tier.onReportAccepted(report("10.0." + (i / 256) + "." + (i % 256), "app", "device-1", now, 10));
+                }
+            }
+        }
+        tier.onReportAccepted(report("10.9.9.9", "other-app", "device-2", now, 10));
+
+        HotReportTier.Summary byApp = tier.summarize(HotReportTier.Dimension.APP, "app", Duration.ofHours(1));
+        long expected = 0;
+        for (int i = 0; i < 500; i++) {
+            expected += i % 7 + 1;
+        }
+        assertThat(byApp.reports()).isEqualTo(expected);
+        assertThat(byApp.ips()).isEqualTo(500);
+        assertThat(byApp.devices()).isEqualTo(1);
+        assertThat(byApp.top()).hasSize(3).allSatisfy(top -> assertThat(top.count()).isEqualTo(7));
+    }
+
+    @Test
+    void excludesReportsOutsideTheWindow() {
+        tier = newTier();
+        LocalDateTime now = LocalDateTime.now();
+        tier.onReportAccepted(report("10.0.0.1", "app", "device-1", now.minusMinutes(150), 50));
+        tier.onReportAccepted(report("10.0.0.1", "app", "device-1", now.minusMinutes(10), 50));
+
+        assertThat(tier.summarize(HotReportTier.Dimension.DEVICE, "device-1", Duration.ofHours(1)).reports()).isEqualTo(1);
+        assertThat(tier.summarize(HotReportTier.Dimension.DEVICE, "device-1", Duration.ofHours(4)).reports()).isEqualTo(2);
+
+        long nowMinute = now.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+        long[] counts = tier.countsPerBucket("device-1", nowMinute - 239, 60, 4);
+        assertThat(counts).containsExactly(0, 1, 0, 1);
+    }
+
+    @Test
+    void dropsExpiredChunksAndReencodesOversizedDictionaries() {
+        properties.setChunkSize(2);
+        properties.setRetention(Duration.ofHours(1));
+        properties.setMaxDictionarySize(3);
+        tier = newTier();
+        LocalDateTime now = LocalDateTime.now();
+        tier.onReportAccepted(report("10.0.0.1", "old-a", "device-1", now.minusHours(2), 50));
+        tier.onReportAccepted(report("10.0.0.2", "old-b", "device-1", now.minusHours(2), 50));
+        tier.onReportAccepted(report("10.0.0.3", "old-c", "device-1", now.minusHours(2), 50));
+        tier.onReportAccepted(report("10.0.0.4", "old-d", "device-1", now.minusHours(2), 50));
+        tier.onReportAccepted(report("10.0.0.5", "new", "device-1", now, 50));
+
+        tier.evictExpiredChunks();
+
+        assertThat(tier.rows()).isEqualTo(1);
+        assertThat(tier.summarize(HotReportTier.Dimension.APP, "old-a", Duration.ofHours(1)).reports()).isZero();
+        HotReportTier.Summary summary = tier.summarize(HotReportTier.Dimension.DEVICE, "device-1", Duration.ofHours(1));
+        assertThat(summary.reports()).isEqualTo(1);
+        assertThat(summary.top()).containsExactly(new HotReportTier.KeyCount("new", 1));
+    }
+
+    private HotReportTier newTier() {
+        return new HotReportTier(properties, new SimpleMeterRegistry());
+    }
+
+    private static ThreatReport report(String ip, String app, String device, LocalDateTime reportedAt, int severity) {
+        return ThreatReport.builder()
+            .appName(app)
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .protocol("TCP")
+            .deviceId(device)
+            .userSeverity(severity)
+            .build();
+    }
+}
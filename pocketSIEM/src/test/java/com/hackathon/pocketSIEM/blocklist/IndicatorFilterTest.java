@@ -0,0 +1,139 @@
+package com.hackathon.pocketSIEM.blocklist;
+
+import com.hackathon.pocketSIEM.config.IndicatorFilterProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndicatorFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final IndicatorFilterProperties properties = new IndicatorFilterProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setInitialCapacity(10_000);
+        properties.setFalsePositiveRate(0.01);
+        properties.setSnapshotPath(tempDir.resolve("indicator-filter.bin"));
+    }
+
+    @Test
+    void neverMissesAnAddedIpAndStaysNearTheTargetRate() {
+        IndicatorFilter filter = newFilter();
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(ipv4(i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(ipv4(i))).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(ipv4(1_000_000 + i))) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.01);
+        assertThat(filter.estimatedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void growsByAddingLayersInsteadOfRebuilding() {
+        IndicatorFilter filter = newFilter();
+        for (int i = 0; i < 35_000; i++) {
+            filter.add(ipv4(i));
+        }
+
+        assertThat(filter.layerCount()).isEqualTo(3);
+        assertThat(filter.mightContain(ipv4(0))).isTrue();
+        assertThat(filter.mightContain(ipv4(34_999))).isTrue();
+        assertThat(filter.estimatedFalsePositiveRate()).isLessThan(0.01);
+    }
+
+    @Test
+    void restoresFromItsSnapshot() {
+        IndicatorFilter original = newFilter();
+        original.add(IpAddress.parse("185.220.101.45"));
+        original.add(IpAddress.parse("2001:db8::bad"));
+        assertThat(original.saveSnapshot()).isTrue();
+
+        IndicatorFilter restored = newFilter();
+        assertThat(restored.loadSnapshot()).isTrue();
+        assertThat(restored.mightContain(IpAddress.parse("185.220.101.45"))).isTrue();
+        assertThat(restored.mightContain(IpAddress.parse("2001:db8::bad"))).isTrue();
+        assertThat(restored.insertions()).isEqualTo(2);
+
+        properties.setInitialCapacity(20_000);
+        assertThat(newFilter().loadSnapshot()).isFalse();
+    }
+
+    @Test
+    void replaysReportsStoredAfterTheSnapshot() {
+        LocalDateTime snapshotAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+        IndicatorFilter original = newFilter();
+        original.onReportAccepted(report("185.220.101.45", snapshotAt));
+        assertThat(original.saveSnapshot()).isTrue();
+
+        ReportStore store = mock(ReportStore.class);
+        when(store.scanSince(any(), any())).thenAnswer(invocation -> {
+            Consumer<ThreatReport> action = invocation.getArgument(1);
+            action.accept(report("45.33.32.156", snapshotAt.plusMinutes(7)));
+            return 1L;
+        });
+        IndicatorFilter restored = new IndicatorFilter(properties, store, null,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        restored.afterSingletonsInstantiated();
+
+        verify(store).scanSince(eq(snapshotAt.minus(properties.getReplayOverlap())), any());
+        assertThat(restored.mightContain(IpAddress.parse("185.220.101.45"))).isTrue();
+        assertThat(restored.mightContain(IpAddress.parse("45.33.32.156"))).isTrue();
+        assertThat(restored.coveredUntil()).isEqualTo(snapshotAt.plusMinutes(7));
+    }
+
+    @Test
+    void reportsObservedFalsePositivesAmongBenignLookups() {
+        IndicatorFilter filter = newFilter();
+        filter.recordCheck(false);
+        filter.recordCheck(false);
+        filter.recordCheck(false);
+        filter.recordCheck(true);
+        filter.recordBenignPositive();
+
+        assertThat(filter.observedFalsePositiveRate()).isEqualTo(0.25);
+    }
+
+    private IndicatorFilter newFilter() {
+        return new IndicatorFilter(properties, null, null, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    private static ThreatReport report(String ip, LocalDateTime reportedAt) {
+        return ThreatReport.builder()
+            .deviceId("device-1")
+            .appName("app")
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .build();
+    }
+
+    private static IpAddress ipv4(int i) {
+        return IpAddress.ofIpv4(0x0A00_0000L + i);
+    }
+}
@@ -0,0 +1,50 @@
+package com.hackathon.pocketSIEM.connection;
+
+import com.hackathon.pocketSIEM.dto.NetworkConnectionResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionRingTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new ConnectionRing(100).capacity()).isEqualTo(128);
+        assertThat(new ConnectionRing(128).capacity()).isEqualTo(128);
+        assertThat(new ConnectionRing(0).capacity()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsOnlyTheNewestConnectionsOnceFull() {
+        ConnectionRing ring = new ConnectionRing(4);
+        for (int i = 1; i <= 6; i++) {
+            ring.append("App", "com.app", "10.0.0." + i, 443, "TCP", "SAFE", i * 100L, 1_000L + i);
+        }
+
+        List<NetworkConnectionResponse> out = new ArrayList<>();
+        assertThat(ring.copyRecent(0, 10, out)).isEqualTo(4);
+        assertThat(out).extracting(NetworkConnectionResponse::getDestinationIp)
+            .containsExactly("10.0.0.6", "10.0.0.5", "10.0.0.4", "10.0.0.3");
+        assertThat(out.get(0).getDataTransferred()).isEqualTo(600L);
+        assertThat(ring.newestTimestamp()).isEqualTo(1_006L);
+    }
+
+    @Test
+    void skipsConnectionsOutsideTheWindowAndHonoursTheLimit() {
+        ConnectionRing ring = new ConnectionRing(8);
+        ring.append("App", "com.app", "10.0.0.1", 443, "TCP", "SAFE", 1, 500L);
+        ring.append("App", "com.app", "10.0.0.2", 443, "TCP", "SAFE", 1, 2_000L);
+        ring.append("App", "com.app", "10.0.0.3", 443, "TCP", "SAFE", 1, 3_000L);
+
+        List<NetworkConnectionResponse> out = new ArrayList<>();
+        ring.copyRecent(1_000L, 10, out);
+        assertThat(out).extracting(NetworkConnectionResponse::getDestinationIp).containsExactly("10.0.0.3", "10.0.0.2");
+
+        out.clear();
+        ring.copyRecent(0, 1, out);
+        assertThat(out).extracting(NetworkConnectionResponse::getDestinationIp).containsExactly("10.0.0.3");
+    }
+}
@@ -0,0 +1,44 @@
+package com.hackathon.pocketSIEM.connection;
+
+import com.hackathon.pocketSIEM.config.ConnectionProperties;
+import com.hackathon.pocketSIEM.dto.NetworkConnectionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionTrackerTest {
+
+    private final ConnectionProperties properties = new ConnectionProperties();
+
+    @Test
+    void servesSamplesOnlyUntilADevicePostsConnections() {
+        ConnectionTracker tracker = new ConnectionTracker(properties, new SimpleMeterRegistry());
+        assertThat(tracker.recentFleetConnections()).isNotEmpty();
+        assertThat(tracker.recentConnections("device-1")).isEmpty();
+
+        tracker.record("device-1", "Chrome", "com.android.chrome", "8.8.8.8", 443, "TCP", "SAFE", 10,
+            System.currentTimeMillis());
+
+        assertThat(tracker.recentFleetConnections())
+            .extracting(NetworkConnectionResponse::getDestinationIp)
+            .containsExactly("8.8.8.8");
+
+        properties.setSampleFallback(false);
+        assertThat(new ConnectionTracker(properties, new SimpleMeterRegistry()).recentFleetConnections()).isEmpty();
+    }
+
+    @Test
+    void evictsDevicesIdleForTheWholeWindow() {
+        ConnectionTracker tracker = new ConnectionTracker(properties, new SimpleMeterRegistry());
+        long now = System.currentTimeMillis();
+        tracker.record("device-idle", "App", "com.app", "10.0.0.1", 443, "TCP", "SAFE", 1,
+            now - properties.getWindow().toMillis() - 1000);
+        tracker.record("device-live", "App", "com.app", "10.0.0.2", 443, "TCP", "SAFE", 1, now);
+
+        tracker.evictIdleDevices();
+
+        assertThat(tracker.trackedDevices()).isEqualTo(1);
+        assertThat(tracker.recentConnections("device-live")).hasSize(1);
+    }
+}
@@ -0,0 +1,411 @@
+package com.hackathon.pocketSIEM.controller;
+
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.service.BlocklistThreatIntelligenceApi;
+import com.hackathon.pocketSIEM.stream.DashboardBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ThreatControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DashboardBroadcaster dashboardBroadcaster;
+
+    @SpyBean
+    private BlocklistThreatIntelligenceApi reputationApi;
+
+    @Value("${app.security.api-key}")
+    private String apiKey;
+
+    @Test
+    void bulkUploadCountsAcceptedAndRejectedLines() throws Exception {
+        String body = """
+            {"appName":"Tracker","targetIp":"185.220.101.45","deviceId":"device-1","userSeverity":80}
+            {"appName":"Tracker","targetIp":"not-an-ip","deviceId":"device-1"}
+
+            {"appName":"Chrome","targetIp":"142.251.32.46","deviceId":"device-2"}
+            {"appName":
+            """;
+
+        mockMvc.perform(post("/api/v1/reports/bulk")
+                .header("X-API-KEY", apiKey)
+                .contentType("application/x-ndjson")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(2))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[1].line").value(5));
+    }
+
+    @Test
+    void attackSurfaceCountsReportsInTheCurrentBucket() throws Exception {
+        mockMvc.perform(post("/api/v1/report")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"appName\":\"Tracker\",\"targetIp\":\"203.0.113.7\",\"deviceId\":\"device-9\"}"))
+            // Sync ingest by default: the stored report, id included
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id").isNumber());
+
+        mockMvc.perform(get("/api/v1/attack-surface")
+                .header("X-API-KEY", apiKey)
+                .param("window", "24h")
+                .param("resolution", "1h"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(24))
+            .andExpect(jsonPath("$[23].threatCount").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    void prometheusEndpointExposesRouteLatencyHistograms() throws Exception {
+        mockMvc.perform(get("/api/v1/reputation")
+                .header("X-API-KEY", apiKey)
+                .param("ip", "8.8.4.4"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("X-API-KEY", apiKey))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("http_server_requests_seconds_bucket{application=\"pocketsiem-backend\"")))
+            .andExpect(content().string(containsString("uri=\"/api/v1/reputation\"")))
+            .andExpect(content().string(containsString("reputation_upstream_requests_seconds_count{")))
+            .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+            .andExpect(content().string(containsString("cache_gets_total{")))
+            .andExpect(content().string(containsString("reports_ingest_queue_depth{")));
+    }
+
+    @Test
+    void attackSurfaceRejectsUnsupportedResolution() throws Exception {
+        mockMvc.perform(get("/api/v1/attack-surface")
+                .header("X-API-KEY", apiKey)
+                .param("window", "30d")
+                .param("resolution", "1h"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deviceStatsAreScopedToTheRequestedDevice() throws Exception {
+        report("Tracker", "203.0.113.20", "device-stats-a", 80);
+        report("Chrome", "142.251.32.46", "device-stats-a", 0);
+        report("Tracker", "203.0.113.20", "device-stats-b", 40);
+
+        mockMvc.perform(get("/api/v1/device-stats")
+                .header("X-API-KEY", apiKey)
+                .param("deviceId", "device-stats-a"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.threatsBlocked").value(2))
+            .andExpect(jsonPath("$.appsMonitored").value(2))
+            .andExpect(jsonPath("$.criticalThreats").value(1))
+            .andExpect(jsonPath("$.deviceTrustScore").value(60));
+
+        mockMvc.perform(get("/api/v1/device-stats")
+                .header("X-API-KEY", apiKey))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.threatsBlocked").value(greaterThanOrEqualTo(3)));
+    }
+
+    @Test
+    void analyticsSummarizeOneDeviceFromTheHotTier() throws Exception {
+        report("Tracker", "203.0.113.30", "device-analytics", 80);
+        report("Tracker", "203.0.113.31", "device-analytics", 40);
+        report("Chrome", "142.251.32.46", "device-analytics", 0);
+
+        mockMvc.perform(get("/api/v1/analytics/device/device-analytics")
+                .header("X-API-KEY", apiKey)
+                .param("window", "1h"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.reports").value(3))
+            .andExpect(jsonPath("$.distinctIps").value(3))
+            .andExpect(jsonPath("$.criticalThreats").value(1))
+            .andExpect(jsonPath("$.top[0].key").value("Tracker"))
+            .andExpect(jsonPath("$.top[0].count").value(2));
+
+        mockMvc.perform(get("/api/v1/attack-surface")
+                .header("X-API-KEY", apiKey)
+                .param("deviceId", "device-analytics"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[11].threatCount").value(3));
+
+        mockMvc.perform(get("/api/v1/analytics/country/US")
+                .header("X-API-KEY", apiKey))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/analytics/device/device-analytics")
+                .header("X-API-KEY", apiKey)
+                .param("window", "7d"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void topReportedIpsComeFromTheSketches() throws Exception {
+        bulkReports("203.0.113.250", 40);
+        report("Tracker", "203.0.113.250", "device-top", 60);
+
+        mockMvc.perform(get("/api/v1/top/ips")
+                .header("X-API-KEY", apiKey)
+                .param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].key").value("203.0.113.250"))
+            .andExpect(jsonPath("$[0].reports").value(41))
+            .andExpect(jsonPath("$[0].distinctDevices").value(2));
+
+        mockMvc.perform(get("/api/v1/top/ips/203.0.113.250")
+                .header("X-API-KEY", apiKey)
+                .param("window", "24h"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.guaranteedReports").value(41));
+        mockMvc.perform(get("/api/v1/top/ips/198.51.100.254")
+                .header("X-API-KEY", apiKey))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/top/ips")
+                .header("X-API-KEY", apiKey)
+                .param("window", "6h"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void correlatedReportsRaiseAQueryableAlert() throws Exception {
+        for (int device = 1; device <= 5; device++) {
+            report("Tracker", "198.51.100.230", "device-spread-" + device, 0);
+        }
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+            mockMvc.perform(get("/api/v1/alerts")
+                    .header("X-API-KEY", apiKey)
+                    .param("rule", "ip-device-spread")
+                    .param("key", "198.51.100.230"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].distinctCount").value(5))
+                .andExpect(jsonPath("$[0].evidence").value(containsString("device-spread-5"))));
+        mockMvc.perform(get("/api/v1/alerts")
+                .header("X-API-KEY", apiKey)
+                .param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void recentReportCountIsReadFromTheIpCounters() throws Exception {
+        bulkReports("198.51.100.240", 3);
+        report("Tracker", "198.51.100.240", "device-count", 70);
+
+        mockMvc.perform(get("/api/v1/reports/ip/198.51.100.240/count")
+                .header("X-API-KEY", apiKey))
+            .andExpect(status().isOk())
+            .andExpect(content().string("4"));
+    }
+
+    private void report(String appName, String targetIp, String deviceId, int severity) throws Exception {
+        mockMvc.perform(post("/api/v1/report")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(String.format(
+                    "{\"appName\":\"%s\",\"targetIp\":\"%s\",\"deviceId\":\"%s\",\"userSeverity\":%d}",
+                    appName, targetIp, deviceId, severity)))
+            .andExpect(status().is2xxSuccessful());
+    }
+
+    @Test
+    void reportsForIpArePagedWithACursor() throws Exception {
+        bulkReports("198.51.100.77", 5);
+
+        MvcResult first = mockMvc.perform(get("/api/v1/reports/198.51.100.77")
+                .header("X-API-KEY", apiKey)
+                .param("limit", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn();
+
+        mockMvc.perform(get("/api/v1/reports/198.51.100.77")
+                .header("X-API-KEY", apiKey)
+                .param("limit", "3")
+                .param("cursor", first.getResponse().getHeader("X-Next-Cursor")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/v1/reports/198.51.100.77")
+                .header("X-API-KEY", apiKey)
+                .param("cursor", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reportsForIpStreamAsNdjson() throws Exception {
+        bulkReports("198.51.100.78", 4);
+
+        MvcResult started = mockMvc.perform(get("/api/v1/reports/198.51.100.78")
+                .header("X-API-KEY", apiKey)
+                .accept("application/x-ndjson"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(4).allMatch(line -> line.contains("\"targetIp\":\"198.51.100.78\""));
+    }
+
+    @Test
+    void streamPushesAStatsSnapshotThenNewReportsForTheDevice() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/v1/stream")
+                .header("X-API-KEY", apiKey)
+                .param("deviceId", "device-stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+            assertThat(started.getResponse().getContentAsString())
+                .contains("event:device-stats")
+                .contains("event:attack-surface"));
+
+        report("Tracker", "203.0.113.99", "device-stream", 70);
+        report("Tracker", "203.0.113.98", "device-other", 70);
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            dashboardBroadcaster.tick();
+            assertThat(started.getResponse().getContentAsString())
+                .contains("event:reports")
+                .contains("203.0.113.99");
+        });
+        assertThat(started.getResponse().getContentAsString()).doesNotContain("203.0.113.98");
+    }
+
+    @Test
+    void liveConnectionsAreClassifiedAtIngestAndScopedToTheDevice() throws Exception {
+        mockMvc.perform(post("/api/v1/connections")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"deviceId":"device-live","connections":[
+                      {"appName":"Chrome","appPackage":"com.android.chrome","destinationIp":"8.8.8.8","port":443,"protocol":"TCP","bytes":2048},
+                      {"appPackage":"com.suspicious.tracker","destinationIp":"185.220.101.45","port":9001,"protocol":"TCP","bytes":512}
+                    ]}
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].status").value("SAFE"))
+            .andExpect(jsonPath("$[1].status").value("MALICIOUS"))
+            .andExpect(jsonPath("$[1].appName").value("com.suspicious.tracker"));
+
+        mockMvc.perform(get("/api/v1/live-connections")
+                .header("X-API-KEY", apiKey)
+                .param("deviceId", "device-live"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].destinationIp").value("185.220.101.45"))
+            .andExpect(jsonPath("$[1].dataTransferred").value(2048));
+
+        mockMvc.perform(get("/api/v1/live-connections")
+                .header("X-API-KEY", apiKey)
+                .param("deviceId", "device-unknown"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+
+        mockMvc.perform(post("/api/v1/connections")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"deviceId\":\"device-live\",\"connections\":[{\"appPackage\":\"x\",\"destinationIp\":\"nope\",\"port\":70000}]}"))
+            .andExpect(status().isBadRequest());
+
+        // A device clock far ahead is pulled back to now
+        long farFuture = System.currentTimeMillis() + Duration.ofDays(365).toMillis();
+        mockMvc.perform(post("/api/v1/connections")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"deviceId\":\"device-skewed\",\"connections\":[{\"appPackage\":\"x\",\"destinationIp\":\"93.184.216.34\",\"port\":443,\"timestamp\":" + farFuture + "}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].timestamp").value(lessThan(farFuture)));
+    }
+
+    @Test
+    void throttledDevicesGetTooManyRequestsWithRetryAfter() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            batchReputation("device-throttled").andExpect(status().isOk());
+        }
+        batchReputation("device-throttled")
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"))
+            .andExpect(jsonPath("$.status").value(429));
+
+        batchReputation("device-other").andExpect(status().isOk());
+    }
+
+    @Test
+    void batchReputationListsEveryDistinctAddressAndMarksFailedLookups() throws Exception {
+        doReturn(Map.of("8.8.4.4", ThreatReputationResponse.builder()
+                .ipAddress("8.8.4.4").riskScore(0).threatLevel("SAFE").build()))
+            .when(reputationApi).checkIpReputations(any());
+
+        mockMvc.perform(post("/api/v1/reputation/batch")
+                .header("X-API-KEY", apiKey)
+                .header("X-Device-ID", "device-batch-failures")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ips\":[\"2001:DB8::1\",\"8.8.4.4\",\"2001:db8:0:0:0:0:0:1\",\"not-an-ip\"]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results.length()").value(2))
+            .andExpect(jsonPath("$.results[0].ipAddress").value("2001:db8::1"))
+            .andExpect(jsonPath("$.results[0].unavailable").value(true))
+            .andExpect(jsonPath("$.results[0].threatLevel").value("UNKNOWN"))
+            .andExpect(jsonPath("$.results[1].ipAddress").value("8.8.4.4"))
+            .andExpect(jsonPath("$.results[1].unavailable").value(false))
+            .andExpect(jsonPath("$.invalidIps[0]").value("not-an-ip"));
+    }
+
+    private ResultActions batchReputation(String deviceId) throws Exception {
+        return mockMvc.perform(post("/api/v1/reputation/batch")
+            .header("X-API-KEY", apiKey)
+            .header("X-Device-ID", deviceId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"ips\":[\"8.8.8.8\"]}"));
+    }
+
+    private void bulkReports(String targetIp, int count) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append(String.format("{\"appName\":\"Tracker\",\"targetIp\":\"%s\",\"deviceId\":\"device-page\"}%n", targetIp));
+        }
+        mockMvc.perform(post("/api/v1/reports/bulk")
+                .header("X-API-KEY", apiKey)
+                .contentType("application/x-ndjson")
+                .content(body.toString()))
+            .andExpect(jsonPath("$.accepted").value(count));
+    }
+}
@@ -0,0 +1,43 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import com.hackathon.pocketSIEM.repository.CorrelationAlertRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.SmartLifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AlertStoreTest {
+
+    private final CorrelationAlertRepository repository = mock(CorrelationAlertRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void stopsAfterTheWebServer() {
+        // Spring Boot stops the web server at DEFAULT_PHASE - 2048; lower phases stop later
+        assertThat(newStore().getPhase()).isLessThan(SmartLifecycle.DEFAULT_PHASE - 2048);
+    }
+
+    @Test
+    void countsAlertsPublishedAfterStopAsDropped() {
+        AlertStore store = newStore();
+        store.start();
+        store.stop();
+
+        store.publish(CorrelationAlert.builder().build());
+
+        assertThat(meterRegistry.get("correlation.alerts.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("correlation.alerts.queue.depth").gauge().value()).isZero();
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private AlertStore newStore() {
+        return new AlertStore(repository, new CorrelationProperties(), meterRegistry);
+    }
+}
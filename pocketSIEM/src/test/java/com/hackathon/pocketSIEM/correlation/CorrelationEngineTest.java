@@ -0,0 +1,97 @@
+package com.hackathon.pocketSIEM.correlation;
+
+import com.hackathon.pocketSIEM.config.CorrelationProperties;
+import com.hackathon.pocketSIEM.model.CorrelationAlert;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CorrelationEngineTest {
+
+    private final CorrelationProperties properties = new CorrelationProperties();
+    private final List<CorrelationAlert> alerts = new ArrayList<>();
+
+    @Test
+    void alertsOnceWhenEnoughDevicesReportAnIpWithinTheWindow() {
+        CorrelationEngine engine = newEngine();
+        LocalDateTime now = LocalDateTime.now();
+        // Outside the 10 minute window of the later reports
+        engine.onReportAccepted(report("203.0.113.9", "Tracker", "device-old", 0, now.minusMinutes(30)));
+        for (int device = 1; device <= 4; device++) {
+            engine.onReportAccepted(report("203.0.113.9", "Tracker", "device-" + device, 0, now.minusMinutes(5)));
+            engine.onReportAccepted(report("203.0.113.9", "Tracker", "device-" + device, 0, now.minusMinutes(4)));
+        }
+        assertThat(alerts).isEmpty();
+
+        engine.onReportAccepted(report("203.0.113.9", "Tracker", "device-5", 0, now));
+        engine.onReportAccepted(report("203.0.113.9", "Tracker", "device-6", 0, now));
+
+        assertThat(alerts).hasSize(1);
+        CorrelationAlert alert = alerts.get(0);
+        assertThat(alert.getRuleName()).isEqualTo("ip-device-spread");
+        assertThat(alert.getGroupKey()).isEqualTo("203.0.113.9");
+        assertThat(alert.getDistinctCount()).isEqualTo(5);
+        assertThat(alert.getEvidence().split(","))
+            .containsExactlyInAnyOrder("device-1", "device-2", "device-3", "device-4", "device-5");
+        assertThat(alert.getTriggeredAt()).isEqualTo(now);
+    }
+
+    @Test
+    void countsOnlyFlaggedIpsPerApp() {
+        CorrelationEngine engine = newEngine();
+        LocalDateTime now = LocalDateTime.now();
+        for (int ip = 1; ip <= 20; ip++) {
+            engine.onReportAccepted(report("198.51.100." + ip, "Quiet", "device-1", 10, now));
+        }
+        for (int ip = 1; ip <= 9; ip++) {
+            engine.onReportAccepted(report("198.51.100." + ip, "Beacon", "device-1", 60, now.minusMinutes(50)));
+        }
+        assertThat(alerts).isEmpty();
+
+        engine.onReportAccepted(report("198.51.100.10", "Beacon", "device-1", 60, now));
+
+        assertThat(alerts).extracting(CorrelationAlert::getRuleName, CorrelationAlert::getGroupKey)
+            .containsExactly(tuple("app-flagged-ips", "Beacon"));
+    }
+
+    @Test
+    void boundsAndEvictsKeys() {
+        properties.setPartitions(1);
+        properties.setMaxKeysPerRule(100);
+        CorrelationEngine engine = newEngine();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 1_000; i++) {
+            engine.onReportAccepted(report("10.0." + (i / 250) + "." + (i % 250), "app-" + i, "device-1", 60,
+                now.minusHours(2)));
+        }
+        // 100 IP keys and 100 app keys
+        assertThat(engine.trackedKeys()).isEqualTo(200);
+
+        engine.onReportAccepted(report("10.9.9.9", "Tracker", "device-1", 60, now));
+        engine.evictExpiredKeys();
+
+        assertThat(engine.trackedKeys()).isEqualTo(2);
+    }
+
+    private CorrelationEngine newEngine() {
+        return new CorrelationEngine(properties, alerts::add, new SimpleMeterRegistry());
+    }
+
+    private static ThreatReport report(String ip, String app, String device, int severity, LocalDateTime reportedAt) {
+        return ThreatReport.builder()
+            .appName(app)
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .protocol("TCP")
+            .deviceId(device)
+            .userSeverity(severity)
+            .build();
+    }
+}
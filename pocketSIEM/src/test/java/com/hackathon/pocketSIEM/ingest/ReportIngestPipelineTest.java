@@ -0,0 +1,43 @@
+package com.hackathon.pocketSIEM.ingest;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.repository.ThreatReportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"app.ingest.mode=async", "app.ingest.batch-size=100"})
+class ReportIngestPipelineTest {
+
+    @Autowired
+    private ReportIngestPipeline pipeline;
+
+    @Autowired
+    private ThreatReportRepository threatReportRepository;
+
+    @Test
+    void writesQueuedReportsInBatches() throws InterruptedException {
+        long before = threatReportRepository.count();
+
+        for (int i = 0; i < 1_050; i++) {
+            pipeline.submit(ThreatReport.builder()
+                .appName("app-" + (i % 7))
+                .targetIp("203.0.113." + (i % 250))
+                .reportedAt(LocalDateTime.now())
+                .deviceId("device-" + (i % 3))
+                .userSeverity(i % 100)
+                .build());
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (threatReportRepository.count() - before < 1_050 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(threatReportRepository.count() - before).isEqualTo(1_050);
+        assertThat(pipeline.queueDepth()).isZero();
+    }
+}
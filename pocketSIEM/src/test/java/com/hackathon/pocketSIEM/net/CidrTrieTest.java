@@ -0,0 +1,74 @@
+package com.hackathon.pocketSIEM.net;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CidrTrieTest {
+
+    private final CidrTrie<String> trie = new CidrTrie<>((existing, added) -> existing);
+
+    @Test
+    void returnsTheMostSpecificMatchingBlock() {
+        trie.put("10.0.0.0/8", "private");
+        trie.put("10.1.0.0/16", "lab");
+        trie.put("10.1.2.3", "host");
+
+        assertThat(trie.longestMatch(IpAddress.parse("10.200.0.1"))).isEqualTo("private");
+        assertThat(trie.longestMatch(IpAddress.parse("10.1.9.9"))).isEqualTo("lab");
+        assertThat(trie.longestMatch(IpAddress.parse("10.1.2.3"))).isEqualTo("host");
+        assertThat(trie.longestMatch(IpAddress.parse("11.0.0.1"))).isNull();
+        assertThat(trie.size()).isEqualTo(3);
+    }
+
+    @Test
+    void findsBlocksInsertedInAnyOrder() {
+        trie.put("185.220.101.0/24", "tor-101");
+        trie.put("185.220.100.0/22", "tor");
+        trie.put("185.220.102.0/23", "tor-102");
+        trie.put("185.0.0.0/8", "ripe");
+
+        assertThat(trie.longestMatch(IpAddress.parse("185.220.101.45"))).isEqualTo("tor-101");
+        assertThat(trie.longestMatch(IpAddress.parse("185.220.100.7"))).isEqualTo("tor");
+        assertThat(trie.longestMatch(IpAddress.parse("185.220.103.7"))).isEqualTo("tor-102");
+        assertThat(trie.longestMatch(IpAddress.parse("185.221.0.1"))).isEqualTo("ripe");
+    }
+
+    @Test
+    void matchesIpv6BlocksAcrossTheSixtyFourBitBoundary() {
+        trie.put("2001:db8::/32", "documentation");
+        trie.put("2001:db8:0:0:8000::/65", "upper-half");
+        trie.put("::1/128", "loopback");
+
+        assertThat(trie.longestMatch(IpAddress.parse("2001:db8::1"))).isEqualTo("documentation");
+        assertThat(trie.longestMatch(IpAddress.parse("2001:db8::8000:0:0:1"))).isEqualTo("upper-half");
+        assertThat(trie.longestMatch(IpAddress.parse("::1"))).isEqualTo("loopback");
+        assertThat(trie.longestMatch(IpAddress.parse("::2"))).isNull();
+    }
+
+    @Test
+    void keepsAddressFamiliesApart() {
+        trie.put("0.0.0.0/0", "any-ipv4");
+
+        assertThat(trie.longestMatch(IpAddress.parse("203.0.113.1"))).isEqualTo("any-ipv4");
+        assertThat(trie.longestMatch(IpAddress.parse("::ffff:203.0.113.1"))).isNull();
+    }
+
+    @Test
+    void ignoresHostBitsAndMergesDuplicateBlocks() {
+        trie.put("192.168.1.77/16", "first");
+        trie.put("192.168.0.0/16", "second");
+
+        assertThat(trie.longestMatch(IpAddress.parse("192.168.200.1"))).isEqualTo("first");
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsMalformedBlocks() {
+        assertThatThrownBy(() -> trie.put("10.0.0.0/33", "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.put("10.0.0.0/", "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.put("10.0.0/8", "x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.put("::/129", "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package com.hackathon.pocketSIEM.net;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IpAddressTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "0.0.0.0, 0",
+        "8.8.8.8, 134744072",
+        "185.220.101.45, 3118228781",
+        "255.255.255.255, 4294967295"
+    })
+    void parsesDottedQuads(String text, long bits) {
+        IpAddress address = IpAddress.parse(text);
+
+        assertThat(address.isIpv4()).isTrue();
+        assertThat(address.low()).isEqualTo(bits);
+        assertThat(address.high()).isZero();
+        assertThat(address).hasToString(text);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "", "1.2.3", "1.2.3.4.5", "256.1.1.1", "1.2.3.-4", "01.2.3.4", "1.2.3.04", "1..3.4",
+        ".1.2.3.4", "1.2.3.4.", "1.2.3.4 ", " 1.2.3.4", "1.2.3.a", "1234.1.1.1", "999.999.999.999"
+    })
+    void rejectsMalformedIpv4(String text) {
+        assertThat(IpAddress.isValid(text)).isFalse();
+        assertThat(IpAddress.tryParse(text)).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "2001:0db8:0000:0000:0000:0000:0000:0001, 2001:db8::1",
+        "2001:DB8::1, 2001:db8::1",
+        "::, ::",
+        "::1, ::1",
+        "1::, 1::",
+        "fe80::1:0:0:1, fe80::1:0:0:1",
+        "2001:db8:0:0:1:0:0:1, 2001:db8::1:0:0:1",
+        "2001:db8:0:1:1:1:1:1, 2001:db8:0:1:1:1:1:1",
+        "1:2:3:4:5:6:7:8, 1:2:3:4:5:6:7:8",
+        "1::8, 1::8",
+        "::ffff:1.2.3.4, ::ffff:102:304",
+        "1:2:3:4:5:6:1.2.3.4, 1:2:3:4:5:6:102:304"
+    })
+    void parsesIpv6ToCanonicalText(String text, String canonical) {
+        IpAddress address = IpAddress.parse(text);
+
+        assertThat(address.isIpv4()).isFalse();
+        assertThat(address).hasToString(canonical);
+        assertThat(IpAddress.parse(canonical)).isEqualTo(address);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        ":", ":::", ":1", "1:", "1:::2", "1::2::3", "12345::", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9",
+        "1::2:3:4:5:6:7:8", "g::1", "::1.2.3", "::1.2.3.4:5", "1:2:3:4:5:6:7:1.2.3.4", "fe80::1%eth0", "[::1]"
+    })
+    void rejectsMalformedIpv6(String text) {
+        assertThat(IpAddress.isValid(text)).isFalse();
+        assertThat(IpAddress.tryParse(text)).isNull();
+    }
+
+    @Test
+    void splitsIpv6IntoHighAndLowHalves() {
+        IpAddress address = IpAddress.parse("2001:db8:1:2:3:4:5:6");
+
+        assertThat(address.high()).isEqualTo(0x2001_0db8_0001_0002L);
+        assertThat(address.low()).isEqualTo(0x0003_0004_0005_0006L);
+    }
+
+    @Test
+    void keepsIpv4AndIpv6FamiliesDistinct() {
+        IpAddress ipv4 = IpAddress.parse("0.0.0.1");
+        IpAddress ipv6 = IpAddress.parse("::1");
+
+        assertThat(ipv4).isNotEqualTo(ipv6);
+        assertThat(ipv4.compareTo(ipv6)).isNegative();
+    }
+
+    @Test
+    void ordersByNumericValue() {
+        List<IpAddress> addresses = new ArrayList<>(List.of(
+            IpAddress.parse("ffff::"), IpAddress.parse("10.0.0.2"), IpAddress.parse("::1"),
+            IpAddress.parse("9.255.255.255"), IpAddress.parse("200.0.0.1")));
+        Collections.sort(addresses);
+
+        assertThat(addresses).extracting(IpAddress::toString)
+            .containsExactly("9.255.255.255", "10.0.0.2", "200.0.0.1", "::1", "ffff::");
+    }
+
+    @Test
+    void parsesIpv4WithinALargerString() {
+        String line = "src=203.0.113.9 dst=8.8.8.8";
+
+        assertThat(IpAddress.parseIpv4(line, 4, 15)).isEqualTo(IpAddress.parse("203.0.113.9").low());
+        assertThat(IpAddress.parseIpv4(line, 3, 15)).isEqualTo(-1);
+    }
+
+    @Test
+    void parseRejectsInvalidText() {
+        assertThatThrownBy(() -> IpAddress.parse("not-an-ip"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(IpAddress.isValid(null)).isFalse();
+    }
+}
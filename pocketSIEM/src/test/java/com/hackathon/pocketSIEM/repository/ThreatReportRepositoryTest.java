@@ -0,0 +1,115 @@
+package com.hackathon.pocketSIEM.repository;
+
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the Flyway schema carries the indexes the repository queries rely on.
+ * Each repository method is run, the SQL Hibernate generated for it is captured, and
+ * that statement's plan is asserted on.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.hackathon.pocketSIEM.repository.ThreatReportRepositoryTest$CapturingInspector")
+class ThreatReportRepositoryTest {
+
+    private static final String IP = "203.0.113.7";
+    private static final String APP = "Tracker";
+    private static final LocalDateTime SINCE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2025, 1, 2, 0, 0);
+    private static final long CURSOR_ID = 42;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private ThreatReportRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearCapturedSql() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void ipLookupsUseTargetIpIndex() {
+        assertThat(planOf(() -> repository.countReportsForIpSince(IP, SINCE), IP, SINCE))
+            .contains("IDX_THREAT_REPORTS_TARGET_IP_REPORTED_AT");
+        assertThat(planOf(() -> repository.findByTargetIp(IP), IP))
+            .contains("IDX_THREAT_REPORTS_TARGET_IP_REPORTED_AT");
+    }
+
+    @Test
+    void keysetPagesUseKeyIndexes() {
+        assertThat(planOf(() -> repository.findPageForIp(IP, SINCE, CURSOR_ID, PageRequest.of(0, PAGE_SIZE)),
+                IP, SINCE, SINCE, CURSOR_ID))
+            .contains("IDX_THREAT_REPORTS_TARGET_IP_REPORTED_AT");
+        assertThat(planOf(() -> repository.findPageForApp(APP, SINCE, CURSOR_ID, PageRequest.of(0, PAGE_SIZE)),
+                APP, SINCE, SINCE, CURSOR_ID))
+            .contains("IDX_THREAT_REPORTS_APP_NAME_REPORTED_AT");
+    }
+
+    @Test
+    void streamsUseKeyIndexes() {
+        assertThat(planOf(() -> drain(repository.streamForIp(IP, SINCE, CURSOR_ID)), IP, SINCE, SINCE, CURSOR_ID))
+            .contains("IDX_THREAT_REPORTS_TARGET_IP_REPORTED_AT");
+        assertThat(planOf(() -> drain(repository.streamForApp(APP, SINCE, CURSOR_ID)), APP, SINCE, SINCE, CURSOR_ID))
+            .contains("IDX_THREAT_REPORTS_APP_NAME_REPORTED_AT");
+    }
+
+    @Test
+    void timeRangeScansUseReportedAtIndex() {
+        assertThat(planOf(() -> drain(repository.streamReportedSince(SINCE)), SINCE))
+            .contains("IDX_THREAT_REPORTS_REPORTED_AT");
+        assertThat(planOf(() -> repository.countByReportedAtAfter(SINCE), SINCE))
+            .contains("IDX_THREAT_REPORTS_REPORTED_AT");
+        assertThat(planOf(() -> repository.findByReportedAtBetween(SINCE, UNTIL), SINCE, UNTIL))
+            .contains("IDX_THREAT_REPORTS_REPORTED_AT");
+    }
+
+    /**
+     * Runs the query, then EXPLAINs the statement Hibernate sent for it with the given
+     * parameters in SQL order. Parameters beyond those are the page limit.
+     */
+    private String planOf(Runnable query, Object... parameters) {
+        query.run();
+        List<String> captured = CapturingInspector.STATEMENTS;
+        assertThat(captured).as("SQL generated for the query").isNotEmpty();
+        String sql = captured.get(captured.size() - 1);
+        int placeholders = (int) sql.chars().filter(c -> c == '?').count();
+        Object[] bound = Arrays.copyOf(parameters, placeholders);
+        Arrays.fill(bound, Math.min(parameters.length, placeholders), placeholders, PAGE_SIZE);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, bound).toUpperCase();
+    }
+
+    private static void drain(Stream<ThreatReport> reports) {
+        try (reports) {
+            reports.forEach(report -> { });
+        }
+    }
+
+    /** Records every statement Hibernate prepares, unchanged */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.hackathon.pocketSIEM.retention;
+
+import com.hackathon.pocketSIEM.config.RetentionProperties;
+import com.hackathon.pocketSIEM.model.ReportCompactionState;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.model.ThreatReportHourly;
+import com.hackathon.pocketSIEM.repository.ReportCompactionStateRepository;
+import com.hackathon.pocketSIEM.repository.ThreatReportHourlyRepository;
+import com.hackathon.pocketSIEM.repository.ThreatReportRepository;
+import com.hackathon.pocketSIEM.store.JpaReportStore;
+import com.hackathon.pocketSIEM.store.MinuteAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ReportCompactorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 30);
+
+    @Autowired
+    private ThreatReportRepository threatReportRepository;
+
+    @Autowired
+    private ThreatReportHourlyRepository hourlyRepository;
+
+    @Autowired
+    private ReportCompactionStateRepository stateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private RetentionProperties properties;
+    private ReportHistory history;
+    private ReportCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RetentionProperties();
+        properties.setMaxHoursPerRun(2_000);
+        JpaReportStore store = new JpaReportStore(threatReportRepository, hourlyRepository, entityManager, transactionManager);
+        history = new ReportHistory(store, hourlyRepository, stateRepository);
+        compactor = new ReportCompactor(properties, store, hourlyRepository, stateRepository, history,
+            transactionManager, new SimpleMeterRegistry(), Clock.fixed(NOW.atZone(ZONE).toInstant(), ZONE));
+
+        // Past raw retention, in one hour
+        save("203.0.113.7", LocalDateTime.of(2025, 2, 1, 10, 5), 80);
+        save("203.0.113.7", LocalDateTime.of(2025, 2, 1, 10, 40), 60);
+        save("203.0.113.7", LocalDateTime.of(2025, 2, 1, 10, 59), 10);
+        // Inside retention: rolled up but kept; the current hour is left alone
+        save("203.0.113.7", LocalDateTime.of(2025, 3, 10, 11, 10), 30);
+        save("203.0.113.7", LocalDateTime.of(2025, 3, 10, 12, 10), 30);
+    }
+
+    @Test
+    void rollsUpCompletedHoursAndDeletesRawReportsPastRetention() {
+        compactor.compact();
+
+        List<ThreatReportHourly> hours = hourlyRepository.findAll();
+        hours.sort(Comparator.comparing(ThreatReportHourly::getHourStart));
+        assertThat(hours).hasSize(2);
+        assertThat(hours.get(0).getHourStart()).isEqualTo(LocalDateTime.of(2025, 2, 1, 10, 0));
+        assertThat(hours.get(0).getReportCount()).isEqualTo(3);
+        assertThat(hours.get(0).getSeveritySum()).isEqualTo(150);
+        assertThat(hours.get(0).getCriticalCount()).isEqualTo(1);
+        assertThat(hours.get(0).getHighCount()).isEqualTo(1);
+        assertThat(hours.get(0).getSuspiciousCount()).isZero();
+        assertThat(hours.get(1).getHourStart()).isEqualTo(LocalDateTime.of(2025, 3, 10, 11, 0));
+
+        assertThat(threatReportRepository.count()).isEqualTo(2);
+        ReportCompactionState state = stateRepository.findById(ReportCompactionState.ID).orElseThrow();
+        assertThat(state.getRolledUpUntil()).isEqualTo(LocalDateTime.of(2025, 3, 10, 12, 0));
+        assertThat(state.getPurgedBefore()).isEqualTo(LocalDateTime.of(2025, 2, 8, 12, 0));
+    }
+
+    @Test
+    void runningAgainChangesNothing() {
+        compactor.compact();
+        compactor.compact();
+
+        assertThat(hourlyRepository.count()).isEqualTo(2);
+        assertThat(threatReportRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void purgesAtMostMaxHoursPerRunAfterARetentionChange() {
+        properties.setRawRetention(Duration.ofDays(365));
+        compactor.compact();
+        assertThat(threatReportRepository.count()).isEqualTo(5);
+
+        properties.setRawRetention(Duration.ofDays(30));
+        properties.setMaxHoursPerRun(3);
+        compactor.compact();
+
+        assertThat(threatReportRepository.count()).isEqualTo(2);
+        assertThat(stateRepository.findById(ReportCompactionState.ID).orElseThrow().getPurgedBefore())
+            .isEqualTo(LocalDateTime.of(2025, 2, 1, 13, 0));
+
+        compactor.compact();
+        assertThat(stateRepository.findById(ReportCompactionState.ID).orElseThrow().getPurgedBefore())
+            .isEqualTo(LocalDateTime.of(2025, 2, 1, 16, 0));
+    }
+
+    @Test
+    void routesReadsOlderThanTheRawHorizonToRollups() {
+        LocalDateTime since = LocalDateTime.of(2025, 1, 1, 0, 0);
+        assertThat(history.countReportsForIpSince("203.0.113.7", since)).isEqualTo(5);
+
+        compactor.compact();
+
+        assertThat(history.rawHorizon()).isEqualTo(LocalDateTime.of(2025, 2, 8, 12, 0));
+        assertThat(history.countReportsForIpSince("203.0.113.7", since)).isEqualTo(5);
+        assertThat(history.countReportsForIpSince("203.0.113.7", LocalDateTime.of(2025, 3, 10, 0, 0))).isEqualTo(2);
+
+        List<MinuteAggregate> aggregates = history.aggregatesSince(since);
+        assertThat(aggregates).extracting(MinuteAggregate::reports).containsExactlyInAnyOrder(3L, 1L, 1L);
+        assertThat(aggregates.get(0).minute()).isEqualTo(LocalDateTime.of(2025, 2, 1, 10, 0));
+    }
+
+    private void save(String ip, LocalDateTime at, int severity) {
+        threatReportRepository.save(ThreatReport.builder()
+            .appName("Tracker")
+            .targetIp(ip)
+            .deviceId("device-1")
+            .reportedAt(at)
+            .userSeverity(severity)
+            .build());
+    }
+}
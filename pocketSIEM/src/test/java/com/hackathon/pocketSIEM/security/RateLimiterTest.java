@@ -0,0 +1,118 @@
+package com.hackathon.pocketSIEM.security;
+
+import com.hackathon.pocketSIEM.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route reputation = new RateLimitProperties.Route();
+        reputation.setPath("/api/v1/reputation");
+        reputation.setRequestsPerSecond(2);
+        reputation.setBurst(3);
+        RateLimitProperties.Route batch = new RateLimitProperties.Route();
+        batch.setPath("/api/v1/reputation/batch");
+        batch.setMethod("POST");
+        batch.setRequestsPerSecond(1);
+        batch.setBurst(1);
+
+        properties = new RateLimitProperties();
+        properties.setRequestsPerSecond(100);
+        properties.setBurst(100);
+        properties.setRoutes(List.of(reputation, batch));
+        limiter = new RateLimiter(properties, registry, nanos::get);
+    }
+
+    @Test
+    void admitsABurstThenRefillsAtTheConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(acquire("GET", "/api/v1/reputation", "device-1")).isZero();
+        }
+        // 2 per second: the next token is half a second away
+        assertThat(acquire("GET", "/api/v1/reputation", "device-1")).isEqualTo(Duration.ofMillis(500).toNanos());
+
+        advance(Duration.ofMillis(500));
+        assertThat(acquire("GET", "/api/v1/reputation", "device-1")).isZero();
+        assertThat(acquire("GET", "/api/v1/reputation", "device-1")).isPositive();
+        assertThat(registry.get("rate.limit.rejections").tag("route", "/api/v1/reputation").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void keepsSeparateBucketsPerDeviceAndRoute() {
+        assertThat(acquire("POST", "/api/v1/reputation/batch", "device-1")).isZero();
+        assertThat(acquire("POST", "/api/v1/reputation/batch", "device-1")).isPositive();
+
+        assertThat(acquire("POST", "/api/v1/reputation/batch", "device-2")).isZero();
+        // Longest prefix wins, and the method-specific batch budget does not cover GET
+        assertThat(acquire("GET", "/api/v1/reputation/batch", "device-1")).isZero();
+        assertThat(acquire("GET", "/api/v1/device-stats", "device-1")).isZero();
+        assertThat(limiter.bucketCount()).isEqualTo(4);
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveRefilled() {
+        acquire("GET", "/api/v1/reputation", "device-1");
+        for (int i = 0; i < 3; i++) {
+            acquire("GET", "/api/v1/reputation", "device-2");
+        }
+
+        advance(Duration.ofMillis(600));
+        limiter.evictIdleBuckets();
+        assertThat(limiter.bucketCount()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(1));
+        limiter.evictIdleBuckets();
+        assertThat(limiter.bucketCount()).isZero();
+    }
+
+    @Test
+    void holdsAKeyToItsSharedBudgetWhateverDeviceIdsItSends() {
+        properties.setClientsPerKey(2);
+        limiter = new RateLimiter(properties, registry, nanos::get);
+
+        // Each device may send 3 at once, the key 6 in total
+        for (int i = 0; i < 6; i++) {
+            assertThat(acquire("GET", "/api/v1/reputation", "device-" + i)).isZero();
+        }
+        assertThat(acquire("GET", "/api/v1/reputation", "device-6")).isPositive();
+        assertThat(limiter.tryAcquire("GET", "/api/v1/reputation", "other-key", "device-6")).isZero();
+    }
+
+    @Test
+    void stopsAddingClientBucketsAtTheCap() {
+        properties.setClientsPerKey(2);
+        properties.setMaxBuckets(2);
+        limiter = new RateLimiter(properties, registry, nanos::get);
+
+        acquire("POST", "/api/v1/reputation/batch", "device-1");
+        acquire("POST", "/api/v1/reputation/batch", "device-2");
+        // device-3 has no bucket of its own; the key's shared bucket (burst 2) is spent
+        assertThat(acquire("POST", "/api/v1/reputation/batch", "device-3")).isPositive();
+
+        assertThat(limiter.bucketCount()).isEqualTo(2);
+        assertThat(registry.get("rate.limit.untracked").counter().count()).isEqualTo(1);
+    }
+
+    private long acquire(String method, String path, String device) {
+        return limiter.tryAcquire(method, path, "key", device);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,107 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.blocklist.CidrBlocklist;
+import com.hackathon.pocketSIEM.config.BlocklistProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlocklistThreatIntelligenceApiTest {
+
+    private final List<String> upstreamCalls = new ArrayList<>();
+    private final BlocklistProperties properties = new BlocklistProperties();
+    private CidrBlocklist blocklist;
+    private BlocklistThreatIntelligenceApi api;
+
+    @BeforeEach
+    void setUp() {
+        properties.getFeeds().add(feed("tor", BlocklistProperties.Action.BLOCK, "185.220.100.0/22 # exits\n"));
+        properties.getFeeds().add(feed("allow", BlocklistProperties.Action.ALLOW, "185.220.101.1\n10.0.0.0/8 ; lan\nnot-a-cidr\n"));
+        blocklist = new CidrBlocklist(properties, new SimpleMeterRegistry());
+
+        ExternalThreatIntelligenceApi upstream = ip -> {
+            upstreamCalls.add(ip);
+            return ThreatReputationResponse.builder().ipAddress(ip).threatLevel("LOW").build();
+        };
+        api = new BlocklistThreatIntelligenceApi(upstream, blocklist);
+    }
+
+    @Test
+    void answersListedRangesWithoutCallingUpstream() {
+        ThreatReputationResponse tor = api.checkIpReputation("185.220.101.45");
+        ThreatReputationResponse allowed = api.checkIpReputation("185.220.101.1");
+        ThreatReputationResponse lan = api.checkIpReputation("10.4.4.4");
+
+        assertThat(tor.getThreatLevel()).isEqualTo("CRITICAL");
+        assertThat(tor.getCategory()).isEqualTo("Tor Exit");
+        assertThat(allowed.getThreatLevel()).isEqualTo("SAFE");
+        assertThat(lan.getThreatLevel()).isEqualTo("SAFE");
+        assertThat(upstreamCalls).isEmpty();
+        assertThat(blocklist.size()).isEqualTo(3);
+    }
+
+    @Test
+    void sendsOnlyUnlistedIpsUpstreamAndKeepsRequestOrder() {
+        Map<String, ThreatReputationResponse> results =
+            api.checkIpReputations(List.of("8.8.8.8", "185.220.101.45", "1.1.1.1"));
+
+        assertThat(results).containsOnlyKeys("8.8.8.8", "185.220.101.45", "1.1.1.1");
+        assertThat(results.keySet()).containsExactly("8.8.8.8", "185.220.101.45", "1.1.1.1");
+        assertThat(upstreamCalls).containsExactly("8.8.8.8", "1.1.1.1");
+    }
+
+    @Test
+    void keepsServingThePreviousFeedsWhenAReloadFails() {
+        properties.getFeeds().add(feed("broken", BlocklistProperties.Action.BLOCK, null));
+
+        blocklist.reload();
+
+        assertThat(api.checkIpReputation("185.220.101.45").getCategory()).isEqualTo("Tor Exit");
+    }
+
+    @Test
+    void treatsAMissingFeedFileAsAFailedReload() {
+        BlocklistProperties.Feed missing = feed("missing", BlocklistProperties.Action.BLOCK, "");
+        missing.setLocation(new FileSystemResource("does-not-exist/feed.txt"));
+        properties.getFeeds().add(missing);
+
+        blocklist.reload();
+
+        assertThat(api.checkIpReputation("185.220.101.45").getCategory()).isEqualTo("Tor Exit");
+        assertThat(blocklist.size()).isEqualTo(3);
+    }
+
+    private static BlocklistProperties.Feed feed(String name, BlocklistProperties.Action action, String content) {
+        BlocklistProperties.Feed feed = new BlocklistProperties.Feed();
+        feed.setName(name);
+        feed.setAction(action);
+        feed.setCategory(action == BlocklistProperties.Action.BLOCK ? "Tor Exit" : "Allowlisted");
+        feed.setRiskScore(85);
+        feed.setLocation(content == null ? new UnreadableResource() : new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+        return feed;
+    }
+
+    private static final class UnreadableResource extends ByteArrayResource {
+
+        UnreadableResource() {
+            super(new byte[0]);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            throw new IOException("feed download failed");
+        }
+    }
+}
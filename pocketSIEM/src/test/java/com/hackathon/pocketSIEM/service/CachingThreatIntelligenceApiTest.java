@@ -0,0 +1,199 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.config.ReputationCacheProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.exception.ReputationUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingThreatIntelligenceApiTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private String nextThreatLevel = "SAFE";
+    private boolean nextStale;
+    private CachingThreatIntelligenceApi api;
+
+    @BeforeEach
+    void setUp() {
+        ReputationCacheProperties properties = new ReputationCacheProperties();
+        properties.setMaximumSize(100);
+        properties.setTtl(Map.of("critical", Duration.ofMinutes(5), "safe", Duration.ofHours(6)));
+        properties.setRefreshAheadRatio(0.8);
+
+        ExternalThreatIntelligenceApi upstream = ip -> {
+            upstreamCalls.incrementAndGet();
+            return ThreatReputationResponse.builder()
+                .ipAddress(ip)
+                .threatLevel(nextThreatLevel)
+                .stale(nextStale)
+                .build();
+        };
+        api = new CachingThreatIntelligenceApi(upstream, properties, Runnable::run, nanos::get);
+    }
+
+    @Test
+    void servesRepeatedLookupsFromCache() {
+        api.checkIpReputation("8.8.8.8");
+        api.checkIpReputation("8.8.8.8");
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(api.stats().hitCount()).isEqualTo(1);
+        assertThat(api.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sharesOneEntryAcrossSpellingsOfAnIpv6Address() {
+        api.checkIpReputation("2001:DB8:0:0:0:0:0:1");
+        ThreatReputationResponse response = api.checkIpReputation("2001:db8::1");
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(response.getIpAddress()).isEqualTo("2001:db8::1");
+    }
+
+    @Test
+    void expiresCriticalVerdictsBeforeSafeOnes() {
+        nextThreatLevel = "CRITICAL";
+        api.checkIpReputation("185.220.101.45");
+        nextThreatLevel = "SAFE";
+        api.checkIpReputation("8.8.8.8");
+
+        advance(Duration.ofMinutes(6));
+        api.checkIpReputation("185.220.101.45");
+        api.checkIpReputation("8.8.8.8");
+
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    @Test
+    void refreshesHotEntriesAheadOfExpiry() {
+        nextThreatLevel = "CRITICAL";
+        api.checkIpReputation("185.220.101.45");
+
+        // 80% of the 5 minute TTL: served from cache, refreshed in the background
+        advance(Duration.ofMinutes(4).plusSeconds(1));
+        api.checkIpReputation("185.220.101.45");
+        assertThat(upstreamCalls).hasValue(2);
+
+        // The refresh restarted the TTL, so the original expiry no longer causes a miss
+        advance(Duration.ofMinutes(2));
+        api.checkIpReputation("185.220.101.45");
+        assertThat(api.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void revalidatesStaleVerdictsInTheBackgroundUntilAFreshOneArrives() {
+        nextThreatLevel = "SAFE";
+        nextStale = true;
+        api.checkIpReputation("8.8.8.8");
+        api.checkIpReputation("8.8.8.8");
+        assertThat(upstreamCalls).hasValue(1);
+
+        // Served from cache, but a read after the back-off sends a refresh upstream
+        advance(Duration.ofSeconds(2));
+        assertThat(api.checkIpReputation("8.8.8.8").isStale()).isTrue();
+        assertThat(upstreamCalls).hasValue(2);
+
+        nextStale = false;
+        advance(Duration.ofSeconds(2));
+        api.checkIpReputation("8.8.8.8");
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(api.checkIpReputation("8.8.8.8").isStale()).isFalse();
+        assertThat(upstreamCalls).hasValue(3);
+    }
+
+    @Test
+    void leavesUnavailableIpsOutOfBatchResults() {
+        ExternalThreatIntelligenceApi flakyUpstream = ip -> {
+            if (ip.equals("9.9.9.9")) {
+                throw new ReputationUnavailableException(ip, new IllegalStateException("provider down"));
+            }
+            return ThreatReputationResponse.builder().ipAddress(ip).threatLevel("SAFE").build();
+        };
+        CachingThreatIntelligenceApi flaky =
+            new CachingThreatIntelligenceApi(flakyUpstream, new ReputationCacheProperties(), Runnable::run);
+
+        assertThat(flaky.checkIpReputations(List.of("1.1.1.1", "9.9.9.9"))).containsOnlyKeys("1.1.1.1");
+        assertThatThrownBy(() -> flaky.checkIpReputation("9.9.9.9"))
+            .isInstanceOf(ReputationUnavailableException.class);
+    }
+
+    @Test
+    void cachedOnlyLookupsStartALoadAndAnswerOnceItCompletes() {
+        CountDownLatch release = new CountDownLatch(1);
+        ExternalThreatIntelligenceApi slowUpstream = ip -> {
+            upstreamCalls.incrementAndGet();
+            await(release);
+            return ThreatReputationResponse.builder().ipAddress(ip).threatLevel("HIGH").build();
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CachingThreatIntelligenceApi cachedOnly =
+                new CachingThreatIntelligenceApi(slowUpstream, new ReputationCacheProperties(), executor);
+
+            assertThat(cachedOnly.checkIpReputationIfCached("185.220.101.45")).isNull();
+            assertThat(cachedOnly.checkIpReputationIfCached("185.220.101.45")).isNull();
+            release.countDown();
+
+            assertThat(cachedOnly.checkIpReputation("185.220.101.45").getThreatLevel()).isEqualTo("HIGH");
+            assertThat(cachedOnly.checkIpReputationIfCached("185.220.101.45").getThreatLevel()).isEqualTo("HIGH");
+            assertThat(upstreamCalls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void coalescesConcurrentLookupsOfTheSameIp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExternalThreatIntelligenceApi slowUpstream = ip -> {
+            upstreamCalls.incrementAndGet();
+            await(release);
+            return ThreatReputationResponse.builder().ipAddress(ip).threatLevel("SAFE").build();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CachingThreatIntelligenceApi coalescing =
+                new CachingThreatIntelligenceApi(slowUpstream, new ReputationCacheProperties(), executor);
+
+            CompletableFuture<Map<String, ThreatReputationResponse>> first = CompletableFuture.supplyAsync(
+                () -> coalescing.checkIpReputations(List.of("1.1.1.1", "9.9.9.9", "1.1.1.1")));
+            CompletableFuture<ThreatReputationResponse> second = CompletableFuture.supplyAsync(
+                () -> coalescing.checkIpReputation("9.9.9.9"));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).containsOnlyKeys("1.1.1.1", "9.9.9.9");
+            assertThat(second.get(5, TimeUnit.SECONDS).getIpAddress()).isEqualTo("9.9.9.9");
+            assertThat(upstreamCalls).hasValue(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
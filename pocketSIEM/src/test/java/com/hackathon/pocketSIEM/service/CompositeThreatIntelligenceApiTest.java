@@ -0,0 +1,138 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.config.ReputationAggregationProperties;
+import com.hackathon.pocketSIEM.config.ReputationUpstreamProperties;
+import com.hackathon.pocketSIEM.dto.ReputationSource;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.exception.ReputationUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompositeThreatIntelligenceApiTest {
+
+    private final StubThreatIntelligenceApi alpha = new StubThreatIntelligenceApi();
+    private final StubThreatIntelligenceApi beta = new StubThreatIntelligenceApi();
+    private final ReputationAggregationProperties properties = new ReputationAggregationProperties();
+    private final ReputationUpstreamProperties upstreamProperties = new ReputationUpstreamProperties();
+    private CompositeThreatIntelligenceApi api;
+
+    @BeforeEach
+    void setUp() {
+        properties.setDeadline(Duration.ofMillis(300));
+        properties.setHedgeWarmupCalls(5);
+        upstreamProperties.setTimeout(Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        api.close();
+    }
+
+    @Test
+    void mergesAnswersConservativelyWithPerSourceAttribution() {
+        alpha.riskScore = 20;
+        alpha.category = "Safe";
+        beta.riskScore = 80;
+        beta.category = "C2";
+        api = composite(alpha, beta);
+
+        ThreatReputationResponse response = api.checkIpReputation("185.220.101.45");
+
+        assertThat(response.getRiskScore()).isEqualTo(80);
+        assertThat(response.getCategory()).isEqualTo("C2");
+        assertThat(response.getThreatLevel()).isEqualTo("CRITICAL");
+        assertThat(response.isStale()).isFalse();
+        assertThat(response.getSources()).extracting(ReputationSource::getProvider).containsExactly("alpha", "beta");
+        assertThat(response.getSources()).extracting(ReputationSource::getRiskScore).containsExactly(20, 80);
+    }
+
+    @Test
+    void mergesWhateverHasArrivedByTheDeadline() {
+        beta.latency = Duration.ofSeconds(2);
+        api = composite(alpha, beta);
+
+        long start = System.nanoTime();
+        ThreatReputationResponse response = api.checkIpReputation("8.8.8.8");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1000));
+        assertThat(response.getSources()).extracting(ReputationSource::getProvider).containsExactly("alpha");
+    }
+
+    @Test
+    void returnsOnceEnoughProvidersHaveAnswered() {
+        properties.setMinSources(1);
+        beta.latency = Duration.ofSeconds(2);
+        api = composite(alpha, beta);
+
+        long start = System.nanoTime();
+        api.checkIpReputation("8.8.8.8");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(250));
+    }
+
+    @Test
+    void hedgesARequestThatOutlivesTheProvidersUsualLatency() {
+        api = composite(alpha);
+        for (int i = 0; i < 5; i++) {
+            api.checkIpReputation("1.1.1." + i);
+        }
+
+        alpha.nextLatency.set(Duration.ofSeconds(2));
+        long start = System.nanoTime();
+        ThreatReputationResponse response = api.checkIpReputation("9.9.9.9");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(250));
+        assertThat(response.getSources()).singleElement().extracting(ReputationSource::isHedged).isEqualTo(true);
+        assertThat(alpha.calls).hasValue(7);
+    }
+
+    @Test
+    void hedgesAtTheProvidersP95RatherThanTheFloor() {
+        alpha.latency = Duration.ofMillis(80);
+        api = composite(alpha);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        api.bindTo(registry);
+        for (int i = 0; i < 5; i++) {
+            api.checkIpReputation("1.1.1." + i);
+        }
+
+        assertThat(registry.get("reputation.hedge.delay").tag("provider", "alpha").gauge().value())
+            .isBetween(0.08, 0.2);
+
+        alpha.nextLatency.set(Duration.ofSeconds(2));
+        long start = System.nanoTime();
+        ThreatReputationResponse response = api.checkIpReputation("9.9.9.9");
+
+        // The hedge waits out the usual 80ms before going, then takes 80ms itself
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(160));
+        assertThat(response.getSources()).singleElement().extracting(ReputationSource::isHedged).isEqualTo(true);
+    }
+
+    @Test
+    void failsWhenNoProviderAnswers() {
+        alpha.failure = new IllegalStateException("down");
+        beta.failure = new IllegalStateException("down");
+        api = composite(alpha, beta);
+
+        assertThatThrownBy(() -> api.checkIpReputation("8.8.8.8"))
+            .isInstanceOf(ReputationUnavailableException.class);
+    }
+
+    private CompositeThreatIntelligenceApi composite(StubThreatIntelligenceApi... stubs) {
+        String[] names = {"alpha", "beta"};
+        List<ResilientThreatIntelligenceApi> providers = new ArrayList<>();
+        for (int i = 0; i < stubs.length; i++) {
+            providers.add(new ResilientThreatIntelligenceApi(stubs[i], names[i], upstreamProperties));
+        }
+        return new CompositeThreatIntelligenceApi(providers, properties);
+    }
+}
@@ -0,0 +1,41 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MeteredThreatIntelligenceApiTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void recordsEachCallUnderItsOutcome() {
+        ExternalThreatIntelligenceApi upstream = ip -> switch (ip) {
+            case "0.0.0.0" -> null;
+            case "6.6.6.6" -> throw new IllegalStateException("provider down");
+            default -> ThreatReputationResponse.builder().ipAddress(ip).threatLevel("SAFE").build();
+        };
+        MeteredThreatIntelligenceApi api = new MeteredThreatIntelligenceApi(upstream, "test", registry);
+
+        api.checkIpReputation("8.8.8.8");
+        api.checkIpReputation("1.1.1.1");
+        api.checkIpReputation("0.0.0.0");
+        assertThatThrownBy(() -> api.checkIpReputation("6.6.6.6")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(count("single", "success")).isEqualTo(2);
+        assertThat(count("single", "empty")).isEqualTo(1);
+        assertThat(count("single", "error")).isEqualTo(1);
+    }
+
+    private long count(String operation, String outcome) {
+        return registry.get(MeteredThreatIntelligenceApi.METRIC_NAME)
+            .tag("provider", "test")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .timer()
+            .count();
+    }
+}
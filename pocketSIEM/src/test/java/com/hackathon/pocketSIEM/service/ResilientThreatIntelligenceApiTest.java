@@ -0,0 +1,111 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.config.ReputationUpstreamProperties;
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+import com.hackathon.pocketSIEM.exception.ReputationUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class ResilientThreatIntelligenceApiTest {
+
+    private final StubThreatIntelligenceApi stub = new StubThreatIntelligenceApi();
+    private final ReputationUpstreamProperties properties = new ReputationUpstreamProperties();
+    private ResilientThreatIntelligenceApi api;
+
+    @BeforeEach
+    void setUp() {
+        properties.setTimeout(Duration.ofMillis(100));
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setWaitInOpenState(Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stub.gate = null;
+        api.close();
+    }
+
+    @Test
+    void servesTheLastVerdictAsStaleWhenTheProviderIsTooSlow() {
+        api = new ResilientThreatIntelligenceApi(stub, "stub", properties);
+        assertThat(api.checkIpReputation("185.220.101.45").isStale()).isFalse();
+
+        stub.latency = Duration.ofMillis(500);
+        long start = System.nanoTime();
+        ThreatReputationResponse response = api.checkIpReputation("185.220.101.45");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(400));
+        assertThat(response.isStale()).isTrue();
+        assertThat(response.getThreatLevel()).isEqualTo("HIGH");
+    }
+
+    @Test
+    void keepsTheVerdictOfACallThatFinishesAfterItsDeadline() {
+        api = new ResilientThreatIntelligenceApi(stub, "stub", properties);
+        stub.latency = Duration.ofMillis(300);
+        assertThatThrownBy(() -> api.checkIpReputation("203.0.113.7"))
+            .isInstanceOf(ReputationUnavailableException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+
+        stub.latency = Duration.ZERO;
+        stub.failure = new IllegalStateException("provider down");
+        await().atMost(Duration.ofSeconds(2))
+            .ignoreException(ReputationUnavailableException.class)
+            .untilAsserted(() ->
+            assertThat(api.checkIpReputation("203.0.113.7").isStale()).isTrue());
+    }
+
+    @Test
+    void opensTheCircuitAfterRepeatedFailures() {
+        api = new ResilientThreatIntelligenceApi(stub, "stub", properties);
+        api.checkIpReputation("8.8.8.8");
+        stub.failure = new IllegalStateException("provider down");
+        for (int i = 0; i < 3; i++) {
+            assertThat(api.checkIpReputation("8.8.8.8").isStale()).isTrue();
+        }
+        assertThat(api.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int callsWhenOpened = stub.calls.get();
+        assertThat(api.checkIpReputation("8.8.8.8").isStale()).isTrue();
+        assertThatThrownBy(() -> api.checkIpReputation("9.9.9.9"))
+            .isInstanceOf(ReputationUnavailableException.class);
+        assertThat(stub.calls).hasValue(callsWhenOpened);
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkheadWithoutOpeningTheCircuit() {
+        properties.setMaxConcurrentCalls(1);
+        properties.setQueueCapacity(1);
+        properties.setTimeout(Duration.ofSeconds(5));
+        api = new ResilientThreatIntelligenceApi(stub, "stub", properties);
+        stub.gate = new CountDownLatch(1);
+
+        CompletableFuture<ThreatReputationResponse> running = CompletableFuture.supplyAsync(() -> api.checkIpReputation("1.1.1.1"));
+        CompletableFuture<ThreatReputationResponse> queued = CompletableFuture.supplyAsync(() -> api.checkIpReputation("1.0.0.1"));
+        await().atMost(Duration.ofSeconds(2)).until(() -> stub.calls.get() == 1);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> api.checkIpReputation("9.9.9.9"))
+                .isInstanceOf(ReputationUnavailableException.class)
+                .hasCauseInstanceOf(BulkheadFullException.class);
+        }
+        assertThat(api.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        stub.gate.countDown();
+        assertThat(running.join().isStale()).isFalse();
+        assertThat(queued.join().isStale()).isFalse();
+    }
+}
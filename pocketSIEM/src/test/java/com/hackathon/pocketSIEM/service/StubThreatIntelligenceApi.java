@@ -0,0 +1,50 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.dto.ThreatReputationResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local stand-in for a reputation provider with injectable latency and failures.
+ */
+class StubThreatIntelligenceApi implements ExternalThreatIntelligenceApi {
+
+    final AtomicInteger calls = new AtomicInteger();
+    volatile Duration latency = Duration.ZERO;
+    volatile RuntimeException failure;
+    volatile CountDownLatch gate;
+    volatile String threatLevel = "HIGH";
+    volatile int riskScore = 60;
+    volatile String category = "Botnet";
+    /** Latency of the next call only, overriding {@link #latency} */
+    final AtomicReference<Duration> nextLatency = new AtomicReference<>();
+
+    @Override
+    public ThreatReputationResponse checkIpReputation(String ipAddress) {
+        calls.incrementAndGet();
+        // Read once, so changing the stub never affects calls already running
+        Duration once = nextLatency.getAndSet(null);
+        Duration delay = once != null ? once : latency;
+        RuntimeException error = failure;
+        try {
+            if (gate != null) {
+                gate.await();
+            }
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+        return ThreatReputationResponse.builder()
+            .ipAddress(ipAddress)
+            .riskScore(riskScore)
+            .category(category)
+            .threatLevel(threatLevel)
+            .build();
+    }
+}
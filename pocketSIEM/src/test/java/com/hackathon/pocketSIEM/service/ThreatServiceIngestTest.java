@@ -0,0 +1,135 @@
+package com.hackathon.pocketSIEM.service;
+
+import com.hackathon.pocketSIEM.analytics.HotReportTier;
+import com.hackathon.pocketSIEM.blocklist.IndicatorFilter;
+import com.hackathon.pocketSIEM.config.IngestProperties;
+import com.hackathon.pocketSIEM.correlation.CorrelationEngine;
+import com.hackathon.pocketSIEM.dto.ThreatReportRequest;
+import com.hackathon.pocketSIEM.exception.IngestQueueFullException;
+import com.hackathon.pocketSIEM.ingest.ReportIngestPipeline;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import com.hackathon.pocketSIEM.sketch.HeavyHitters;
+import com.hackathon.pocketSIEM.stats.DeviceStatsEngine;
+import com.hackathon.pocketSIEM.stats.IpReportCounters;
+import com.hackathon.pocketSIEM.stats.ThreatTimeline;
+import com.hackathon.pocketSIEM.store.ReportStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class ThreatServiceIngestTest {
+
+    private static final String IP = "192.0.2.77";
+    private static final String DEVICE = "device-refused";
+
+    @Autowired
+    private ThreatService threatService;
+
+    @Autowired
+    private IngestProperties ingestProperties;
+
+    @SpyBean
+    private ReportStore reportStore;
+
+    @SpyBean
+    private ReportIngestPipeline reportIngestPipeline;
+
+    @Autowired
+    private ThreatTimeline threatTimeline;
+
+    @Autowired
+    private DeviceStatsEngine deviceStatsEngine;
+
+    @Autowired
+    private IpReportCounters ipReportCounters;
+
+    @Autowired
+    private HeavyHitters heavyHitters;
+
+    @Autowired
+    private IndicatorFilter indicatorFilter;
+
+    @Autowired
+    private HotReportTier hotReportTier;
+
+    @Autowired
+    private CorrelationEngine correlationEngine;
+
+    @AfterEach
+    void restoreMode() {
+        ingestProperties.setMode(IngestProperties.Mode.SYNC);
+    }
+
+    @Test
+    void reportTheStoreRefusesIsNotCounted() {
+        List<Object> before = aggregates();
+        doThrow(new DataAccessResourceFailureException("database down")).when(reportStore).save(any());
+
+        assertThatThrownBy(() -> threatService.reportThreat(request()))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(aggregates()).isEqualTo(before);
+    }
+
+    @Test
+    void reportTheQueueRefusesIsNotCounted() {
+        ingestProperties.setMode(IngestProperties.Mode.ASYNC);
+        List<Object> before = aggregates();
+        doThrow(new IngestQueueFullException(1)).when(reportIngestPipeline).submit(any());
+
+        assertThatThrownBy(() -> threatService.reportThreat(request()))
+            .isInstanceOf(IngestQueueFullException.class);
+
+        assertThat(aggregates()).isEqualTo(before);
+    }
+
+    @Test
+    void bulkBatchTheStoreRefusesIsNotCounted() {
+        List<Object> before = aggregates();
+        doThrow(new DataAccessResourceFailureException("database down")).when(reportStore).saveAll(anyList());
+        String ndjson = String.format("{\"appName\":\"Tracker\",\"targetIp\":\"%s\",\"deviceId\":\"%s\",\"userSeverity\":80}%n", IP, DEVICE);
+
+        assertThatThrownBy(() -> threatService.importReports(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))))
+            .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(aggregates()).isEqualTo(before);
+    }
+
+    private static ThreatReportRequest request() {
+        return ThreatReportRequest.builder()
+            .appName("Tracker")
+            .targetIp(IP)
+            .deviceId(DEVICE)
+            .userSeverity(80)
+            .build();
+    }
+
+    private List<Object> aggregates() {
+        IpAddress address = IpAddress.parse(IP);
+        return List.of(
+            threatTimeline.count(ThreatTimeline.toEpochMinute(LocalDateTime.now())),
+            deviceStatsEngine.deviceSnapshot(DEVICE),
+            ipReportCounters.countSince(address, LocalDateTime.now().minusHours(1)),
+            String.valueOf(heavyHitters.lookup(HeavyHitters.Field.IP, Duration.ofHours(1), IP)),
+            indicatorFilter.mightContain(address),
+            indicatorFilter.insertions(),
+            hotReportTier.rows(),
+            correlationEngine.trackedKeys());
+    }
+}
@@ -0,0 +1,122 @@
+package com.hackathon.pocketSIEM.sketch;
+
+import com.hackathon.pocketSIEM.config.SketchProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HeavyHittersTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofHours(24);
+
+    private final SketchProperties properties = new SketchProperties();
+
+    @Test
+    void ranksKeysAndBoundsCountsOnceCountersAreTakenOver() {
+        properties.setCapacity(32);
+        HeavyHitters sketches = newSketches();
+        LocalDateTime now = LocalDateTime.now();
+        SplittableRandom random = new SplittableRandom(7);
+        // Three heavy IPs among 500 that are each reported once
+        for (int i = 0; i < 500; i++) {
+            sketches.onReportAccepted(report("10.0.1." + (i % 250), "noise-" + i, "device-" + i, now));
+            for (int heavy = 1; heavy <= 3; heavy++) {
+                if (random.nextInt(10) < heavy) {
+                    sketches.onReportAccepted(report("10.0.0." + heavy, "app", "device-" + i, now));
+                }
+            }
+        }
+
+        List<HeavyHitters.HeavyHitter> top = sketches.top(HeavyHitters.Field.IP, HOUR, 3);
+        assertThat(top).extracting(HeavyHitters.HeavyHitter::key).containsExactly("10.0.0.3", "10.0.0.2", "10.0.0.1");
+        for (HeavyHitters.HeavyHitter hitter : top) {
+            assertThat(hitter.guaranteedReports()).isLessThanOrEqualTo(hitter.reports());
+        }
+        assertThat(top.get(0).guaranteedReports()).isGreaterThan(100);
+        assertThat(sketches.lookup(HeavyHitters.Field.APP, HOUR, "app").reports()).isGreaterThan(250);
+    }
+
+    @Test
+    void countsStayUpperBoundsWhenAKeyLostItsCounterInABucket() {
+        properties.setCapacity(2);
+        HeavyHitters sketches = newSketches();
+        LocalDateTime now = LocalDateTime.now();
+        // Ten minutes ago: 10.0.0.1 is taken over by 10.0.0.3, leaving a smallest count of 2
+        for (String ip : new String[] {"10.0.0.1", "10.0.0.2", "10.0.0.2", "10.0.0.3", "10.0.0.3"}) {
+            sketches.onReportAccepted(report(ip, "app", "device-1", now.minusMinutes(10)));
+        }
+        sketches.onReportAccepted(report("10.0.0.1", "app", "device-1", now));
+        sketches.onReportAccepted(report("10.0.0.1", "app", "device-1", now));
+
+        HeavyHitters.HeavyHitter hitter = sketches.lookup(HeavyHitters.Field.IP, HOUR, "10.0.0.1");
+        assertThat(hitter.reports()).isEqualTo(4).isGreaterThanOrEqualTo(3);
+        assertThat(hitter.guaranteedReports()).isEqualTo(2);
+        assertThat(sketches.top(HeavyHitters.Field.IP, HOUR, 3))
+            .filteredOn(top -> top.key().equals("10.0.0.1"))
+            .extracting(HeavyHitters.HeavyHitter::reports)
+            .containsExactly(4L);
+    }
+
+    @Test
+    void separatesTheHourFromTheDay() {
+        HeavyHitters sketches = newSketches();
+        LocalDateTime now = LocalDateTime.now();
+        sketches.onReportAccepted(report("10.0.0.1", "app", "device-1", now.minusHours(3)));
+        sketches.onReportAccepted(report("10.0.0.1", "app", "device-2", now.minusHours(3)));
+        sketches.onReportAccepted(report("10.0.0.1", "app", "device-1", now));
+        sketches.onReportAccepted(report("10.0.0.2", "app", "device-3", now.minusDays(2)));
+
+        assertThat(sketches.lookup(HeavyHitters.Field.IP, HOUR, "10.0.0.1"))
+            .isEqualTo(new HeavyHitters.HeavyHitter("10.0.0.1", 1, 1, 1));
+        assertThat(sketches.lookup(HeavyHitters.Field.IP, DAY, "10.0.0.1"))
+            .isEqualTo(new HeavyHitters.HeavyHitter("10.0.0.1", 3, 3, 2));
+        assertThat(sketches.lookup(HeavyHitters.Field.IP, DAY, "10.0.0.2")).isNull();
+        assertThat(sketches.supports(Duration.ofHours(6))).isFalse();
+    }
+
+    @Test
+    void estimatesDistinctDevicesWithinTheExpectedError() {
+        HyperLogLog merged = new HyperLogLog(10);
+        HyperLogLog small = new HyperLogLog(10);
+        for (int i = 0; i < 10; i++) {
+            small.add(HyperLogLog.hash("device-" + i));
+        }
+        assertThat(small.estimate()).isEqualTo(10);
+
+        for (int part = 0; part < 4; part++) {
+            HyperLogLog sketch = new HyperLogLog(10);
+            // Overlapping ranges: 25,000 distinct devices in total
+            for (int i = part * 5_000; i < part * 5_000 + 10_000; i++) {
+                sketch.add(HyperLogLog.hash("device-" + i));
+            }
+            merged.merge(sketch);
+        }
+        merged.merge(small);
+        assertThat((double) merged.estimate()).isCloseTo(25_000, within(25_000 * 0.1));
+        assertThat(merged.footprintBytes()).isEqualTo(1024);
+    }
+
+    private HeavyHitters newSketches() {
+        return new HeavyHitters(properties, new SimpleMeterRegistry());
+    }
+
+    private static ThreatReport report(String ip, String app, String device, LocalDateTime reportedAt) {
+        return ThreatReport.builder()
+            .appName(app)
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .protocol("TCP")
+            .deviceId(device)
+            .userSeverity(50)
+            .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.config.StatsProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.net.IpAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpReportCountersTest {
+
+    private static final IpAddress IP = IpAddress.parse("203.0.113.7");
+
+    private final StatsProperties properties = new StatsProperties();
+    private final IpReportCounters counters = new IpReportCounters(properties, new SimpleMeterRegistry());
+
+    @Test
+    void countsReportsInsideTheWindowIncludingLateOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.onReportAccepted(report("203.0.113.7", now.minusHours(30)));
+        counters.onReportAccepted(report("203.0.113.7", now.minusHours(2)));
+        counters.onReportAccepted(report("203.0.113.7", now));
+        counters.onReportAccepted(report("203.0.113.7", now));
+        // Arrives after newer minutes, e.g. from a bulk upload
+        counters.onReportAccepted(report("203.0.113.7", now.minusHours(5)));
+        counters.onReportAccepted(report("203.0.113.7", now.minusHours(2)));
+        counters.onReportAccepted(report("2001:db8::1", now));
+
+        assertThat(counters.countSince(IP, now.minusHours(24))).isEqualTo(5);
+        assertThat(counters.countSince(IP, now.minusHours(3))).isEqualTo(4);
+        assertThat(counters.countSince(IpAddress.parse("2001:0db8:0:0::1"), now.minusHours(24))).isEqualTo(1);
+        assertThat(counters.countSince(IpAddress.parse("198.51.100.1"), now.minusHours(24))).isZero();
+    }
+
+    @Test
+    void coversOnlyTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(counters.covers(IP, now.minusHours(24))).isTrue();
+        assertThat(counters.covers(IP, now.minusHours(25))).isFalse();
+    }
+
+    @Test
+    void evictsIpsWithNothingLeftInTheWindow() {
+        properties.setMaxCountedIps(2);
+        IpReportCounters bounded = new IpReportCounters(properties, new SimpleMeterRegistry());
+        LocalDateTime now = LocalDateTime.now();
+        bounded.onReportAccepted(report("203.0.113.1", now.minusHours(23).minusMinutes(59)));
+        bounded.onReportAccepted(report("203.0.113.2", now.minusHours(3)));
+        bounded.onReportAccepted(report("203.0.113.3", now.minusHours(2)));
+        bounded.onReportAccepted(report("203.0.113.4", now.minusMinutes(1)));
+
+        bounded.evictColdIps();
+
+        assertThat(bounded.trackedIps()).isEqualTo(2);
+        assertThat(bounded.countSince(IpAddress.parse("203.0.113.4"), now.minusHours(24))).isEqualTo(1);
+        assertThat(bounded.covers(IpAddress.parse("203.0.113.4"), now.minusHours(24))).isTrue();
+        // Trimmed with a report still in the window, so its count must come from the database
+        assertThat(bounded.covers(IpAddress.parse("203.0.113.2"), now.minusHours(24))).isFalse();
+        bounded.onReportAccepted(report("203.0.113.2", now));
+        assertThat(bounded.covers(IpAddress.parse("203.0.113.2"), now.minusHours(24))).isFalse();
+    }
+
+    private static ThreatReport report(String ip, LocalDateTime reportedAt) {
+        return ThreatReport.builder()
+            .appName("Tracker")
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .protocol("TCP")
+            .deviceId("device-1")
+            .userSeverity(50)
+            .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.hackathon.pocketSIEM.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingStatsTest {
+
+    private final RollingStats stats = new RollingStats(60);
+
+    @Test
+    void bucketsReportsBySeverityBand() {
+        stats.add(1_000, 80);
+        stats.add(1_000, 60);
+        stats.add(1_001, 30);
+        stats.add(1_002, 10);
+
+        RollingStats.Snapshot snapshot = stats.snapshot(1_002);
+        assertThat(snapshot.reports()).isEqualTo(4);
+        assertThat(snapshot.critical()).isEqualTo(1);
+        assertThat(snapshot.high()).isEqualTo(1);
+        assertThat(snapshot.suspicious()).isEqualTo(1);
+        assertThat(snapshot.trustScore()).isEqualTo(100 - 180 / 4);
+    }
+
+    @Test
+    void expiresMinutesThatLeaveTheWindow() {
+        stats.add(1_000, 80);
+        stats.add(1_030, 40);
+
+        assertThat(stats.snapshot(1_059).reports()).isEqualTo(2);
+        assertThat(stats.snapshot(1_060).reports()).isEqualTo(1);
+        assertThat(stats.snapshot(1_060).critical()).isZero();
+        assertThat(stats.snapshot(1_090).reports()).isZero();
+    }
+
+    @Test
+    void reusesSlotsAfterLongIdleGaps() {
+        stats.add(1_000, 90);
+        stats.add(1_000 + 60 * 24 * 10, 20);
+
+        RollingStats.Snapshot snapshot = stats.snapshot(1_000 + 60 * 24 * 10);
+        assertThat(snapshot.reports()).isEqualTo(1);
+        assertThat(snapshot.severitySum()).isEqualTo(20);
+    }
+
+    @Test
+    void ignoresMinutesOlderThanTheWindow() {
+        stats.add(2_000, 50);
+        stats.add(1_900, 50);
+
+        assertThat(stats.snapshot(2_000).reports()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.hackathon.pocketSIEM.stats;
+
+import com.hackathon.pocketSIEM.config.StatsProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreatTimelineTest {
+
+    private static final long NOW = 29_000_000L;
+    private static final int WEEK = 7 * 24 * 60;
+
+    @Test
+    void bucketsFromRolledUpLevelsMatchTheMinuteCounts() {
+        ThreatTimeline timeline = new ThreatTimeline(new StatsProperties());
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 50_000; i++) {
+            timeline.add(NOW - random.nextInt(WEEK), 1 + random.nextInt(3));
+        }
+
+        int[][] shapes = {{1, 60}, {5, 288}, {15, 96}, {60, 168}, {1440, 7}, {7, 100}};
+        for (int[] shape : shapes) {
+            int bucketMinutes = shape[0];
+            int buckets = shape[1];
+            // Unaligned as well as aligned starts
+            for (long from : new long[]{NOW - (long) bucketMinutes * buckets + 1, NOW - NOW % 1440 - 1440 * 3}) {
+                long[] counts = timeline.countsPerBucket(from, bucketMinutes, buckets);
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    long expected = 0;
+                    for (int m = 0; m < bucketMinutes; m++) {
+                        expected += timeline.count(from + (long) bucket * bucketMinutes + m);
+                    }
+                    assertThat(counts[bucket]).as("%dm bucket %d from %d", bucketMinutes, bucket, from)
+                        .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void dropsMinutesPastRetention() {
+        ThreatTimeline timeline = new ThreatTimeline(new StatsProperties());
+        timeline.add(NOW, 4);
+        timeline.add(NOW - WEEK, 9);
+
+        assertThat(timeline.count(NOW)).isEqualTo(4);
+        assertThat(timeline.countsPerBucket(NOW - NOW % 1440, 1440, 1)).containsExactly(4);
+    }
+}
@@ -0,0 +1,125 @@
+package com.hackathon.pocketSIEM.store;
+
+import com.hackathon.pocketSIEM.config.StoreProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import com.hackathon.pocketSIEM.repository.ReportCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogReportStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private final StoreProperties properties = new StoreProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setBackend(StoreProperties.Backend.LOG);
+        properties.setLogDirectory(directory);
+        // A few hundred records per segment, so the tests cross segment boundaries
+        properties.setSegmentSize(DataSize.ofKilobytes(32));
+        properties.setIndexInterval(16);
+    }
+
+    @Test
+    void pagesNewestFirstAcrossSegmentsAndCountsATimeWindow() {
+        LogReportStore store = open();
+        List<ThreatReport> batch = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            batch.add(report(i % 4 == 0 ? "203.0.113.7" : "198.51.100." + (i % 50), START.plusSeconds(i), i % 100));
+        }
+        store.saveAll(batch);
+        assertThat(segmentFiles()).hasSizeGreaterThan(3);
+
+        List<ThreatReport> first = store.findPageForIp("203.0.113.7", ReportCursor.START, 3);
+        assertThat(first).extracting(ThreatReport::getReportedAt)
+            .containsExactly(START.plusSeconds(1_996), START.plusSeconds(1_992), START.plusSeconds(1_988));
+        List<ThreatReport> second = store.findPageForIp("203.0.113.7", ReportCursor.after(first.get(2)), 2);
+        assertThat(second).extracting(ThreatReport::getReportedAt)
+            .containsExactly(START.plusSeconds(1_984), START.plusSeconds(1_980));
+
+        assertThat(store.countForIpSince("203.0.113.7", START.plusSeconds(1_000))).isEqualTo(250);
+        assertThat(store.scanForIp("203.0.113.7", ReportCursor.START, report -> { })).isEqualTo(500);
+        assertThat(store.aggregateByMinuteSince(START.plusMinutes(30)).stream().mapToLong(MinuteAggregate::reports).sum())
+            .isEqualTo(200);
+    }
+
+    @Test
+    void recoversEveryCompleteRecordAfterARestart() {
+        LogReportStore store = open();
+        for (int i = 0; i < 500; i++) {
+            store.save(report("203.0.113.7", START.plusSeconds(i), 80));
+        }
+        store.close();
+
+        LogReportStore reopened = open();
+        assertThat(reopened.countForIpSince("203.0.113.7", START)).isEqualTo(500);
+        assertThat(reopened.oldestReportedAt()).isEqualTo(START);
+        // Ids carry on from the replayed log
+        assertThat(reopened.save(report("203.0.113.7", START.plusHours(1), 10)).getId()).isEqualTo(501);
+    }
+
+    @Test
+    void dropsATornTailAndAppendsOverIt() throws IOException {
+        LogReportStore store = open();
+        for (int i = 0; i < 10; i++) {
+            store.save(report("203.0.113.7", START.plusSeconds(i), 80));
+        }
+        store.close();
+        Path segment = segmentFiles().get(0);
+        int end = LogSegment.HEADER_SIZE + (int) store.sizeBytes();
+        // Flip a byte inside the last record, as if the crash hit mid-write
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(end - 3);
+            int original = file.read();
+            file.seek(end - 3);
+            file.write(original ^ 0xFF);
+        }
+
+        LogReportStore reopened = open();
+        assertThat(reopened.countForIpSince("203.0.113.7", START)).isEqualTo(9);
+        reopened.save(report("203.0.113.7", START.plusMinutes(5), 80));
+        reopened.close();
+        assertThat(open().countForIpSince("203.0.113.7", START)).isEqualTo(10);
+    }
+
+    private LogReportStore open() {
+        return new LogReportStore(properties, null, new SimpleMeterRegistry());
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ThreatReport report(String ip, LocalDateTime reportedAt, int severity) {
+        return ThreatReport.builder()
+            .appName("app-" + (severity % 3))
+            .targetIp(ip)
+            .reportedAt(reportedAt)
+            .protocol("TCP")
+            .deviceId("device-1")
+            .userSeverity(severity)
+            .build();
+    }
+}
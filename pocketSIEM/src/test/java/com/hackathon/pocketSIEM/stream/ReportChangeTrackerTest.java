@@ -0,0 +1,41 @@
+package com.hackathon.pocketSIEM.stream;
+
+import com.hackathon.pocketSIEM.config.StreamProperties;
+import com.hackathon.pocketSIEM.model.ThreatReport;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportChangeTrackerTest {
+
+    @Test
+    void capsReportsPerSubscriberScopeSoAQuietDeviceIsNotCrowdedOut() {
+        StreamProperties properties = new StreamProperties();
+        properties.setMaxReportsPerEvent(100);
+        ReportChangeTracker tracker = new ReportChangeTracker(properties);
+
+        for (int i = 0; i < 150; i++) {
+            tracker.onReportAccepted(report("device-busy", "198.51.100." + (i % 250)));
+        }
+        tracker.onReportAccepted(report("device-quiet", "203.0.113.97"));
+
+        ReportChangeTracker.Changes changes = tracker.drain();
+        assertThat(changes.reports()).hasSize(100);
+        assertThat(changes.devices()).containsExactlyInAnyOrder("device-busy", "device-quiet");
+        assertThat(changes.deviceReports().get("device-busy")).hasSize(100);
+        assertThat(changes.deviceReports().get("device-quiet"))
+            .singleElement().extracting(ThreatReport::getTargetIp).isEqualTo("203.0.113.97");
+
+        assertThat(tracker.drain().any()).isFalse();
+        tracker.onReportAccepted(report("device-quiet", "203.0.113.96"));
+        assertThat(tracker.drain().deviceReports().get("device-quiet")).hasSize(1);
+    }
+
+    private static ThreatReport report(String deviceId, String ip) {
+        return ThreatReport.builder()
+            .appName("Tracker")
+            .targetIp(ip)
+            .deviceId(deviceId)
+            .build();
+    }
+}
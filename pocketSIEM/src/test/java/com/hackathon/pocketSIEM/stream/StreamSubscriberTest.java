@@ -0,0 +1,84 @@
+package com.hackathon.pocketSIEM.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamSubscriberTest {
+
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final StreamSubscriber subscriber = new StreamSubscriber(emitter, null, 2);
+
+    @Test
+    void coalescesUpdatesOfferedBeforeTheDrainRuns() throws IOException {
+        assertThat(subscriber.offer("{\"v\":1}", Map.of(1L, "{\"t\":1}"), false, List.of("\"a\""), false)).isTrue();
+        // A drain is already scheduled, so later offers only merge into the pending state
+        assertThat(subscriber.offer("{\"v\":2}", Map.of(1L, "{\"t\":2}", 2L, "{\"t\":3}"), false,
+            List.of("\"b\"", "\"c\""), true)).isFalse();
+
+        subscriber.drain();
+
+        assertThat(emitter.events).containsExactly(
+            "event:device-stats|{\"v\":2}",
+            "event:attack-surface|[{\"t\":2},{\"t\":3}]",
+            "event:reports|[\"b\",\"c\"]");
+    }
+
+    @Test
+    void aFullSeriesReplacesPendingPointsAndIsSentAsAReset() throws IOException {
+        subscriber.offer(null, Map.of(1L, "{\"t\":1}", 2L, "{\"t\":2}"), false, null, false);
+        subscriber.offer(null, Map.of(2L, "{\"t\":2}", 3L, "{\"t\":3}"), true, null, false);
+        subscriber.offer(null, Map.of(3L, "{\"t\":4}"), false, null, false);
+
+        subscriber.drain();
+
+        assertThat(emitter.events).containsExactly("event:attack-surface-reset|[{\"t\":2},{\"t\":4}]");
+    }
+
+    @Test
+    void skipsUnchangedStatsAndSendsHeartbeatsOnlyWhenIdle() throws IOException {
+        subscriber.offer("{\"v\":1}", null, false, null, false);
+        subscriber.drain();
+        emitter.events.clear();
+
+        assertThat(subscriber.offer("{\"v\":1}", Map.of(), false, null, false)).isFalse();
+        assertThat(subscriber.offer("{\"v\":1}", null, false, null, true)).isTrue();
+        subscriber.drain();
+
+        assertThat(emitter.events).containsExactly(":heartbeat");
+    }
+
+    @Test
+    void reportsAFailedWriteAndAcceptsTheNextDrain() {
+        emitter.failing = true;
+        subscriber.offer("{\"v\":1}", null, false, null, false);
+
+        assertThatThrownBy(subscriber::drain).isInstanceOf(IOException.class);
+        assertThat(subscriber.offer("{\"v\":2}", null, false, null, false)).isTrue();
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            String text = event.toString().strip();
+            int data = text.indexOf("\ndata:");
+            events.add(data < 0 ? text : text.substring(0, data) + "|" + text.substring(data + 6).strip());
+        }
+    }
+}